@@ -41,6 +41,7 @@ public class WorldProviderCoreStub implements WorldProviderCore {
     private Map<Vector3i, Block> blocks = Maps.newHashMap();
     private ArrayList<Map<Vector3i, Integer>> extraData = new ArrayList<>();
     private Block air;
+    private EntityRef worldEntity = EntityRef.NULL;
 
     public WorldProviderCoreStub(Block air) {
         this.air = air;
@@ -48,7 +49,11 @@ public WorldProviderCoreStub(Block air) {
 
     @Override
     public EntityRef getWorldEntity() {
-        return EntityRef.NULL;
+        return worldEntity;
+    }
+
+    public void setWorldEntity(EntityRef worldEntity) {
+        this.worldEntity = worldEntity;
     }
 
     @Override
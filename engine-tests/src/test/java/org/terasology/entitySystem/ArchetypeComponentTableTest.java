@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem;
+
+import com.google.common.collect.Sets;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.entitySystem.entity.internal.ArchetypeComponentTable;
+import org.terasology.entitySystem.stubs.IntegerComponent;
+import org.terasology.entitySystem.stubs.StringComponent;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ArchetypeComponentTableTest {
+
+    private ArchetypeComponentTable table;
+
+    @BeforeEach
+    public void setup() {
+        table = new ArchetypeComponentTable();
+    }
+
+    @Test
+    public void testComponentsSurviveArchetypeChanges() {
+        StringComponent stringComponent = new StringComponent();
+        IntegerComponent integerComponent = new IntegerComponent();
+        table.put(1, stringComponent);
+        table.put(2, new StringComponent());
+        table.put(1, integerComponent);
+
+        assertSame(stringComponent, table.get(1, StringComponent.class));
+        assertSame(integerComponent, table.get(1, IntegerComponent.class));
+        assertEquals(2, table.getArchetypeCount());
+
+        assertSame(stringComponent, table.remove(1, StringComponent.class));
+        assertNull(table.get(1, StringComponent.class));
+        assertSame(integerComponent, table.get(1, IntegerComponent.class));
+        assertEquals(2, table.numEntities());
+    }
+
+    @Test
+    public void testReplaceComponent() {
+        StringComponent newComponent = new StringComponent();
+        StringComponent oldComponent = new StringComponent();
+        table.put(1, oldComponent);
+
+        assertSame(oldComponent, table.put(1, newComponent));
+        assertSame(newComponent, table.get(1, StringComponent.class));
+        assertEquals(1, table.getComponentCount(StringComponent.class));
+    }
+
+    @Test
+    public void testRemovingLastComponentRemovesEntity() {
+        table.put(1, new StringComponent());
+        table.remove(1, StringComponent.class);
+
+        assertEquals(0, table.numEntities());
+        assertEquals(0, table.getComponentCount(StringComponent.class));
+    }
+
+    @Test
+    public void testIterateEntitiesWithMultipleComponents() {
+        for (long id = 1; id <= 10; id++) {
+            table.put(id, new StringComponent());
+            if (id % 2 == 0) {
+                table.put(id, new IntegerComponent());
+            }
+        }
+        table.remove(4);
+
+        Set<Long> ids = Sets.newHashSet();
+        TLongIterator iterator = table.entityIdIterator(new Class[]{IntegerComponent.class, StringComponent.class});
+        while (iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        assertEquals(Sets.newHashSet(2L, 6L, 8L, 10L), ids);
+        assertEquals(9, table.getComponentCount(StringComponent.class));
+    }
+
+    @Test
+    public void testSkipsEntitiesChangedDuringIteration() {
+        table.put(1, new StringComponent());
+        table.put(2, new StringComponent());
+
+        TLongIterator iterator = table.entityIdIterator(new Class[]{StringComponent.class});
+        table.remove(1, StringComponent.class);
+        table.remove(2, StringComponent.class);
+        table.put(2, new StringComponent());
+
+        assertEquals(2, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testComponentIterator() {
+        IntegerComponent integerComponent = new IntegerComponent();
+        table.put(1, new StringComponent());
+        table.put(2, integerComponent);
+
+        TLongObjectIterator<IntegerComponent> iterator = table.componentIterator(IntegerComponent.class);
+        iterator.advance();
+        assertEquals(2, iterator.key());
+        assertSame(integerComponent, iterator.value());
+        assertFalse(iterator.hasNext());
+        assertNull(table.componentIterator(EntityInfoComponentStub.class));
+    }
+
+    private static class EntityInfoComponentStub implements Component {
+    }
+}
@@ -29,6 +29,8 @@
 import org.terasology.engine.module.ModuleManager;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.ArchetypeEntityPool;
+import org.terasology.entitySystem.entity.internal.EntityPoolRole;
 import org.terasology.entitySystem.entity.internal.PojoEntityManager;
 import org.terasology.entitySystem.entity.internal.PojoEntityPool;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
@@ -106,6 +108,18 @@ public void testCreateEntity() {
         assertFalse(entityManager.getSectorManager().contains(entity.getId()));
     }
 
+    @Test
+    public void testPoolFactoryGetsTheRoleOfEachPool() {
+        List<EntityPoolRole> roles = Lists.newArrayList();
+        PojoEntityManager manager = new PojoEntityManager((pojoEntityManager, role) -> {
+            roles.add(role);
+            return role == EntityPoolRole.GLOBAL ? new ArchetypeEntityPool(pojoEntityManager) : new PojoEntityPool(pojoEntityManager);
+        });
+
+        assertEquals(Lists.newArrayList(EntityPoolRole.GLOBAL, EntityPoolRole.SECTOR), roles);
+        assertTrue(manager.getGlobalPool() instanceof ArchetypeEntityPool);
+    }
+
     @Test
     public void testCreateEntityWithComponent() {
         StringComponent comp = new StringComponent("Test");
@@ -19,14 +19,20 @@
 import org.junit.jupiter.api.Test;
 import org.terasology.TerasologyTestingEnvironment;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
 import org.terasology.math.TeraMath;
 import org.terasology.math.geom.Quat4f;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.testUtil.TeraAssert;
 
+import java.util.Collections;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -44,7 +50,8 @@ public class LocationComponentTest extends TerasologyTestingEnvironment {
     long nextFakeEntityId = 1;
 
     @BeforeEach
-    public void setup() {
+    public void setup() throws Exception {
+        super.setup();
         loc = new LocationComponent();
         entity = createFakeEntityWith(loc);
 
@@ -279,6 +286,113 @@ public void testPositionMaintainedWhenParentDestroyed() {
         TeraAssert.assertEquals(new Vector3f(2, 0, 0), loc.getWorldPosition(), 0.000001f);
     }
 
+    @Test
+    public void testCachedWorldPositionFollowsMovedParent() {
+        LocationComponent parent = giveParent();
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1, loc.getWorldPosition());
+
+        parent.setLocalPosition(pos2);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+    }
+
+    @Test
+    public void testCachedWorldTransformFollowsMovedGrandparent() {
+        LocationComponent parent = giveParent();
+        LocationComponent child = new LocationComponent();
+        EntityRef childEntity = createFakeEntityWith(child);
+        Location.attachChild(entity, childEntity, pos1, new Quat4f(0, 0, 0, 1));
+        assertEquals(pos1, child.getWorldPosition());
+
+        parent.setLocalPosition(pos2);
+        parent.setLocalRotation(yawRotation);
+        TeraAssert.assertEquals(new Vector3f(5, 5, 3), child.getWorldPosition(), 0.00001f);
+        TeraAssert.assertEquals(yawRotation, child.getWorldRotation(), 0.00001f);
+    }
+
+    @Test
+    public void testDirectlyModifiedLocalPositionIsNoticed() {
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1, loc.getWorldPosition());
+
+        loc.getLocalPosition().set(pos2);
+        assertEquals(pos2, loc.getWorldPosition());
+    }
+
+    @Test
+    public void testInvalidatedParentIsNoticedByChildren() {
+        LocationComponent parent = giveParent();
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1, loc.getWorldPosition());
+
+        parent.getLocalPosition().set(pos2);
+        parent.invalidateWorldTransform();
+        assertEquals(pos1plus2, loc.getWorldPosition());
+    }
+
+    @Test
+    public void testDirectlyModifiedParentIsNoticedByChildrenOnceRead() {
+        LocationComponent parent = giveParent();
+        LocationComponent child = new LocationComponent();
+        EntityRef childEntity = createFakeEntityWith(child);
+        Location.attachChild(entity, childEntity, pos1, new Quat4f(0, 0, 0, 1));
+        assertEquals(pos1, child.getWorldPosition());
+
+        parent.getLocalPosition().set(pos2);
+        assertEquals(pos2, parent.getWorldPosition());
+        assertEquals(pos1plus2, child.getWorldPosition());
+    }
+
+    @Test
+    public void testCachedWorldTransformDoesNotReadTheParent() {
+        LocationComponent parent = new LocationComponent(pos2);
+        EntityRef parentEntity = createFakeEntityWith(parent);
+        Location.attachChild(parentEntity, entity);
+        loc.setLocalPosition(pos1);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+
+        clearInvocations(parentEntity);
+        assertEquals(pos1plus2, loc.getWorldPosition());
+        assertEquals(new Quat4f(0, 0, 0, 1), loc.getWorldRotation());
+        assertEquals(1, loc.getWorldScale(), 0.00001f);
+        verify(parentEntity, never()).getComponent(LocationComponent.class);
+    }
+
+    @Test
+    public void testSavedParentInstanceIsNoticedByChildren() {
+        EngineEntityManager entityManager = getEntityManager();
+        entityManager.getEventSystem().registerEventHandler(new Location());
+        EntityRef parentEntity = entityManager.create(new LocationComponent());
+        EntityRef childEntity = entityManager.create(new LocationComponent(pos1));
+        Location.attachChild(parentEntity, childEntity);
+        LocationComponent child = childEntity.getComponent(LocationComponent.class);
+        assertEquals(pos1, child.getWorldPosition());
+
+        // Like network updates, which save a new component instance
+        LocationComponent replacement = entityManager.getComponentLibrary().copy(parentEntity.getComponent(LocationComponent.class));
+        replacement.setLocalPosition(pos2);
+        parentEntity.saveComponent(replacement);
+
+        assertEquals(pos1plus2, child.getWorldPosition());
+    }
+
+    @Test
+    public void testRestoredParentIsNoticedByChildren() {
+        EngineEntityManager entityManager = getEntityManager();
+        entityManager.getEventSystem().registerEventHandler(new Location());
+        EntityRef parentEntity = entityManager.create(new LocationComponent());
+        EntityRef childEntity = entityManager.create(new LocationComponent(pos1));
+        Location.attachChild(parentEntity, childEntity);
+        LocationComponent child = childEntity.getComponent(LocationComponent.class);
+        assertEquals(pos1, child.getWorldPosition());
+
+        LocationComponent stored = entityManager.getComponentLibrary().copy(parentEntity.getComponent(LocationComponent.class));
+        stored.setLocalPosition(pos2);
+        entityManager.deactivateForStorage(parentEntity);
+        entityManager.createEntityWithId(parentEntity.getId(), Collections.singletonList(stored));
+
+        assertEquals(pos1plus2, child.getWorldPosition());
+    }
 
     private LocationComponent giveParent() {
         LocationComponent parent = new LocationComponent();
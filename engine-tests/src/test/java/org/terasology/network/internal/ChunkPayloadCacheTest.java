@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.EntityData;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkPayloadCacheTest {
+
+    private static final Vector3i CHUNK_POS = new Vector3i(1, 0, 2);
+
+    private ChunkPayloadCache cache;
+    private Chunk chunk;
+
+    @BeforeEach
+    public void setup() {
+        cache = new ChunkPayloadCache();
+        chunk = mock(Chunk.class);
+        when(chunk.encode()).thenAnswer(invocation -> EntityData.ChunkStore.newBuilder().setX(CHUNK_POS.x));
+    }
+
+    @Test
+    public void testEncodedChunkIsShared() {
+        assertNull(cache.getCachedPayload(CHUNK_POS, chunk));
+        EntityData.ChunkStore payload = cache.encode(CHUNK_POS, chunk);
+
+        assertSame(payload, cache.getCachedPayload(CHUNK_POS, chunk));
+        assertEquals(1, cache.getEncodeCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(payload.getSerializedSize(), cache.getCachedBytes());
+    }
+
+    @Test
+    public void testBlockChangeInvalidatesChunk() {
+        cache.encode(CHUNK_POS, chunk);
+
+        cache.onBlockChanged(new Vector3i(CHUNK_POS.x * ChunkConstants.SIZE_X + 5, 3, CHUNK_POS.z * ChunkConstants.SIZE_Z + 7), null, null);
+
+        assertNull(cache.getCachedPayload(CHUNK_POS, chunk));
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    public void testReloadedChunkIsEncodedAgain() {
+        cache.encode(CHUNK_POS, chunk);
+
+        assertNull(cache.getCachedPayload(CHUNK_POS, mock(Chunk.class)));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class ChunkSendQueueTest {
+
+    @Test
+    public void testPollReturnsClosestChunk() {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        Chunk far = mock(Chunk.class);
+        Chunk near = mock(Chunk.class);
+        queue.add(new Vector3i(5, 0, 0), far);
+        queue.add(new Vector3i(0, 1, 0), near);
+
+        Vector3i pos = new Vector3i();
+        assertSame(near, queue.poll(pos));
+        assertEquals(new Vector3i(0, 1, 0), pos);
+        assertSame(far, queue.poll(pos));
+        assertNull(queue.poll(pos));
+    }
+
+    @Test
+    public void testMovingCenterReordersChunks() {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        Chunk origin = mock(Chunk.class);
+        Chunk other = mock(Chunk.class);
+        queue.add(new Vector3i(0, 0, 0), origin);
+        queue.add(new Vector3i(10, 0, 0), other);
+
+        queue.setCenter(new Vector3i(9, 0, 0));
+
+        assertSame(other, queue.poll(new Vector3i()));
+    }
+
+    @Test
+    public void testRemovedChunkIsNotSent() {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        queue.add(new Vector3i(1, 0, 0), mock(Chunk.class));
+        Chunk remaining = mock(Chunk.class);
+        queue.add(new Vector3i(2, 0, 0), remaining);
+
+        queue.remove(new Vector3i(1, 0, 0));
+
+        assertEquals(1, queue.size());
+        assertSame(remaining, queue.poll(new Vector3i()));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.entitySystem.Component;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.network.NetworkComponent;
+import org.terasology.protobuf.EntityData;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EntityPayloadCacheTest {
+
+    private static final int NET_ID = 7;
+    private static final Set<Class<? extends Component>> NONE = ImmutableSet.of();
+    private static final Set<Class<? extends Component>> LOCATION = ImmutableSet.of(LocationComponent.class);
+
+    private EntityPayloadCache cache;
+    private AtomicInteger serializeCalls;
+    private Supplier<EntityData.PackedEntity> serializer;
+
+    @BeforeEach
+    public void setup() {
+        cache = new EntityPayloadCache();
+        serializeCalls = new AtomicInteger();
+        serializer = () -> EntityData.PackedEntity.newBuilder().setParentPrefabUri("test:" + serializeCalls.incrementAndGet()).build();
+    }
+
+    @Test
+    public void testUpdateIsSharedBetweenClients() {
+        SetMultimap<Integer, Class<? extends Component>> firstClientDirty = LinkedHashMultimap.create();
+        firstClientDirty.put(NET_ID, LocationComponent.class);
+        EntityData.PackedEntity payload = cache.getUpdatePayload(NET_ID, false, NONE, firstClientDirty.get(NET_ID), NONE, serializer);
+        // The first client clears its dirty components after sending
+        firstClientDirty.clear();
+
+        assertSame(payload, cache.getUpdatePayload(NET_ID, false, NONE, LOCATION, NONE, serializer));
+        assertEquals(1, serializeCalls.get());
+        assertEquals(1, cache.getSerializeCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(payload.getSerializedSize(), cache.getSerializedBytes());
+    }
+
+    @Test
+    public void testOwnerAndComponentsAreDistinguished() {
+        cache.getUpdatePayload(NET_ID, false, NONE, LOCATION, NONE, serializer);
+        cache.getUpdatePayload(NET_ID, true, NONE, LOCATION, NONE, serializer);
+        cache.getUpdatePayload(NET_ID, false, NONE, ImmutableSet.of(LocationComponent.class, NetworkComponent.class), NONE, serializer);
+        cache.getUpdatePayload(NET_ID, false, LOCATION, NONE, NONE, serializer);
+        cache.getInitialPayload(NET_ID, false, serializer);
+
+        assertEquals(5, serializeCalls.get());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testEmptyUpdateIsShared() {
+        assertNull(cache.getUpdatePayload(NET_ID, false, NONE, LOCATION, NONE, () -> null));
+        assertNull(cache.getUpdatePayload(NET_ID, false, NONE, LOCATION, NONE, serializer));
+
+        assertEquals(0, serializeCalls.get());
+        assertEquals(0, cache.getSerializedBytes());
+    }
+
+    @Test
+    public void testInvalidatedEntityIsSerializedAgain() {
+        EntityData.PackedEntity payload = cache.getInitialPayload(NET_ID, false, serializer);
+
+        cache.invalidate(NET_ID);
+        assertEquals("test:2", cache.getInitialPayload(NET_ID, false, serializer).getParentPrefabUri());
+
+        cache.invalidateAll();
+        assertEquals("test:3", cache.getInitialPayload(NET_ID, false, serializer).getParentPrefabUri());
+        assertEquals("test:1", payload.getParentPrefabUri());
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.Lists;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.TerasologyTestingEnvironment;
+import org.terasology.config.Config;
+import org.terasology.config.NetworkConfig;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.entitySystem.metadata.EventLibrary;
+import org.terasology.identity.CertificateGenerator;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.network.NetworkComponent;
+import org.terasology.network.NetworkSystem;
+import org.terasology.protobuf.NetData;
+import org.terasology.world.BlockEntityRegistry;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs a server with several headless clients and {@link #ENTITY_COUNT} moving entities, and measures the bytes per
+ * second that get sent to each client. The clients are connected through mocked channels, everything from the interest
+ * management to the entity serialization is the actual server code.
+ */
+public class EntityReplicationLoadTest extends TerasologyTestingEnvironment {
+    private static final Logger logger = LoggerFactory.getLogger(EntityReplicationLoadTest.class);
+
+    private static final int ENTITY_COUNT = 1000;
+    private static final int TICKS = 100;
+    private static final int NET_TICK_MS = 50;
+    private static final float WORLD_SIZE = 1024;
+
+    private static final Vector3f CENTER = new Vector3f(WORLD_SIZE / 2, 16, WORLD_SIZE / 2);
+    private static final Vector3f EDGE = new Vector3f(0, 16, 0);
+    private static final Vector3f FAR_AWAY = new Vector3f(4 * WORLD_SIZE, 16, 4 * WORLD_SIZE);
+
+    private NetworkSystemImpl networkSystem;
+    private NetworkConfig networkConfig;
+    private float originalFalloffDistance;
+    private long realTime = 1;
+
+    private final List<EntityRef> entities = Lists.newArrayList();
+    private final List<HeadlessClient> clients = Lists.newArrayList();
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    public void setup() throws Exception {
+        super.setup();
+        when(mockTime.getRealTimeInMs()).thenAnswer(invocation -> realTime);
+        context.put(ServerConnectListManager.class, new ServerConnectListManager(context));
+        networkConfig = context.get(Config.class).getNetwork();
+        originalFalloffDistance = networkConfig.getEntityUpdateFalloffDistance();
+
+        EngineEntityManager entityManager = getEntityManager();
+        networkSystem = new NetworkSystemImpl(mockTime, context);
+        networkSystem.setContext(context);
+        context.put(NetworkSystem.class, networkSystem);
+        networkSystem.mockHost();
+        networkSystem.connectToEntitySystem(entityManager, context.get(EventLibrary.class), mock(BlockEntityRegistry.class));
+        networkSystem.generateSerializationTables();
+
+        for (int i = 0; i < ENTITY_COUNT; i++) {
+            LocationComponent location = new LocationComponent();
+            location.setWorldPosition(new Vector3f(random.nextFloat() * WORLD_SIZE, 16, random.nextFloat() * WORLD_SIZE));
+            EntityRef entity = entityManager.create(new NetworkComponent(), location);
+            if (entity.getComponent(NetworkComponent.class).getNetworkId() == 0) {
+                networkSystem.registerNetworkEntity(entity);
+            }
+            entities.add(entity);
+        }
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        networkConfig.setEntityUpdateFalloffDistance(originalFalloffDistance);
+    }
+
+    @Test
+    public void testEntitiesAreOnlySentToClientsNearby() {
+        HeadlessClient center = connect(CENTER);
+        HeadlessClient edge = connect(EDGE);
+        HeadlessClient farAway = connect(FAR_AWAY);
+
+        run();
+
+        assertTrue(center.getBytesPerSecond() > farAway.getBytesPerSecond());
+        assertTrue(edge.getBytesPerSecond() > farAway.getBytesPerSecond());
+        for (EntityRef entity : entities) {
+            assertFalse(farAway.client.isEntityKnown(entity.getComponent(NetworkComponent.class).getNetworkId()));
+        }
+        EntityRef nearest = entities.stream()
+                .min((a, b) -> Float.compare(distanceToCenter(a), distanceToCenter(b)))
+                .orElseThrow(IllegalStateException::new);
+        assertTrue(center.client.isEntityKnown(nearest.getComponent(NetworkComponent.class).getNetworkId()));
+    }
+
+    @Test
+    public void testDistantUpdatesAreSentLessOften() {
+        networkConfig.setEntityUpdateFalloffDistance(0);
+        HeadlessClient client = connect(CENTER);
+        // Let the initial entity creations pass, so that only updates get measured
+        run();
+
+        run();
+        float everyTick = client.getBytesPerSecond();
+        networkConfig.setEntityUpdateFalloffDistance(32);
+        run();
+        float withFalloff = client.getBytesPerSecond();
+
+        assertTrue(withFalloff < everyTick);
+    }
+
+    private HeadlessClient connect(Vector3f position) {
+        HeadlessClient headlessClient = new HeadlessClient();
+        networkSystem.addClient(headlessClient.client);
+        networkSystem.update();
+        EntityRef clientEntity = headlessClient.client.getEntity();
+        LocationComponent location = clientEntity.getComponent(LocationComponent.class);
+        location.setWorldPosition(position);
+        clientEntity.saveComponent(location);
+        return headlessClient;
+    }
+
+    private void run() {
+        clients.forEach(HeadlessClient::reset);
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (EntityRef entity : entities) {
+                LocationComponent location = entity.getComponent(LocationComponent.class);
+                Vector3f position = location.getWorldPosition();
+                position.add(random.nextFloat() * 2 - 1, 0, random.nextFloat() * 2 - 1);
+                location.setWorldPosition(position);
+                entity.saveComponent(location);
+            }
+            realTime += NET_TICK_MS;
+            networkSystem.update();
+        }
+        for (HeadlessClient client : clients) {
+            logger.info("{} at {}: {} bytes/s", client.client.getName(), client.client.getEntity().getComponent(LocationComponent.class)
+                    .getWorldPosition(), client.getBytesPerSecond());
+        }
+    }
+
+    private static float distanceToCenter(EntityRef entity) {
+        return entity.getComponent(LocationComponent.class).getWorldPosition().distance(CENTER);
+    }
+
+    /**
+     * A client that is connected through a mocked channel, which only counts the bytes written to it.
+     */
+    private final class HeadlessClient {
+        private final NetClient client;
+        private final AtomicLong sentBytes = new AtomicLong();
+
+        private HeadlessClient() {
+            Channel channel = mock(Channel.class);
+            ChannelPipeline pipeline = mock(ChannelPipeline.class);
+            when(channel.getPipeline()).thenReturn(pipeline);
+            when(pipeline.get(MetricRecordingHandler.NAME)).thenReturn(new MetricRecordingHandler());
+            when(channel.write(any())).thenAnswer(invocation -> {
+                sentBytes.addAndGet(((NetData.NetMessage) invocation.getArgument(0)).getSerializedSize());
+                return null;
+            });
+            client = new NetClient(channel, networkSystem, new CertificateGenerator().generateSelfSigned().getPublicCert());
+            clients.add(this);
+        }
+
+        private void reset() {
+            sentBytes.set(0);
+        }
+
+        private float getBytesPerSecond() {
+            return sentBytes.get() * 1000f / (TICKS * NET_TICK_MS);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.EntityData;
+import org.terasology.protobuf.NetData;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.internal.ChunkSerializer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MessageCompressionCodecTest {
+
+    private MetricRecordingHandler metrics;
+    private MessageCompressionEncoder encoder;
+    private MessageCompressionDecoder decoder;
+
+    @BeforeEach
+    public void setup() {
+        metrics = new MetricRecordingHandler();
+        encoder = new MessageCompressionEncoder(metrics);
+        decoder = new MessageCompressionDecoder();
+    }
+
+    @Test
+    public void testSmallMessageIsSentRaw() throws Exception {
+        NetData.NetMessage message = NetData.NetMessage.newBuilder().setTime(1234).build();
+
+        ChannelBuffer encoded = encode(message);
+
+        assertEquals(MessageCompressionEncoder.METHOD_RAW, encoded.getByte(0));
+        assertEquals(message, decode(encoded));
+    }
+
+    @Test
+    public void testLargeMessageIsDeflated() throws Exception {
+        NetData.NetMessage.Builder builder = NetData.NetMessage.newBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.addBlockChange(NetData.BlockChangeMessage.newBuilder()
+                    .setPos(NetData.Vector3iData.newBuilder().setX(i).setY(10).setZ(-i))
+                    .setNewBlock(3));
+        }
+        NetData.NetMessage message = builder.build();
+
+        ChannelBuffer encoded = encode(message);
+
+        assertEquals(MessageCompressionEncoder.METHOD_DEFLATE, encoded.getByte(0));
+        assertTrue(encoded.readableBytes() < message.getSerializedSize());
+        assertEquals(message, decode(encoded));
+    }
+
+    @Test
+    public void testChunkIsDeflatedWithDictionary() throws Exception {
+        NetData.NetMessage message = NetData.NetMessage.newBuilder()
+                .addChunkInfo(createChunk())
+                .build();
+
+        ChannelBuffer encoded = encode(message);
+
+        assertEquals(MessageCompressionEncoder.METHOD_DEFLATE_CHUNK_DICTIONARY, encoded.getByte(0));
+        assertTrue(encoded.readableBytes() < message.getSerializedSize());
+        assertEquals(message, decode(encoded));
+    }
+
+    @Test
+    public void testDictionaryIsTrainedDeterministically() {
+        assertArrayEquals(ChunkStoreDictionary.get(),
+                ChunkStoreDictionary.train(ChunkStoreDictionary.createSamples(), ChunkStoreDictionary.DICTIONARY_SIZE));
+    }
+
+    @Test
+    public void testEncodingIsRecordedPerMessageType() throws Exception {
+        NetData.NetMessage message = NetData.NetMessage.newBuilder()
+                .addChunkInfo(createChunk())
+                .build();
+
+        ChannelBuffer encoded = encode(message);
+
+        assertEquals(message.getSerializedSize(), metrics.getRawMessageBytesSinceLastCall(NetMessageType.CHUNK));
+        assertEquals(encoded.readableBytes(), metrics.getEncodedMessageBytesSinceLastCall(NetMessageType.CHUNK));
+        assertTrue(metrics.getMessageEncodingNanosSinceLastCall(NetMessageType.CHUNK) > 0);
+        assertEquals(0, metrics.getRawMessageBytesSinceLastCall(NetMessageType.CHUNK));
+        assertEquals(0, metrics.getRawMessageBytesSinceLastCall(NetMessageType.EVENT));
+    }
+
+    @Test
+    public void testCompressionVersionNegotiation() {
+        assertEquals(0, HandshakeCommon.negotiateCompressionVersion(0));
+        assertEquals(1, HandshakeCommon.negotiateCompressionVersion(1));
+        assertEquals(HandshakeCommon.MESSAGE_COMPRESSION_VERSION,
+                HandshakeCommon.negotiateCompressionVersion(HandshakeCommon.MESSAGE_COMPRESSION_VERSION + 1));
+    }
+
+    private ChannelBuffer encode(NetData.NetMessage message) {
+        return (ChannelBuffer) encoder.encode(null, null, message);
+    }
+
+    private NetData.NetMessage decode(ChannelBuffer encoded) throws Exception {
+        return (NetData.NetMessage) decoder.decode(null, null, encoded.duplicate());
+    }
+
+    /**
+     * Builds a terraced chunk, independently of the samples the {@link ChunkStoreDictionary} got trained on.
+     */
+    private static EntityData.ChunkStore createChunk() {
+        TeraArray blockData = new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+            for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+                int height = 20 + (x / 8) * 2 - z / 8;
+                for (int y = 0; y < height; y++) {
+                    blockData.set(x, y, z, y < height - 2 ? 7 : 12);
+                }
+            }
+        }
+        TeraArray[] extraData = {new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z)};
+        return ChunkSerializer.encode(new Vector3i(11, -2, 40), blockData, extraData).build();
+    }
+}
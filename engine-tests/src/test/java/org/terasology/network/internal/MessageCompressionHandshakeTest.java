@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import org.jboss.netty.bootstrap.ClientBootstrap;
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.ChannelPipelineFactory;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.local.DefaultLocalClientChannelFactory;
+import org.jboss.netty.channel.local.DefaultLocalServerChannelFactory;
+import org.jboss.netty.channel.local.LocalAddress;
+import org.jboss.netty.handler.execution.ExecutionHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.config.Config;
+import org.terasology.config.SecurityConfig;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.identity.CertificateGenerator;
+import org.terasology.identity.CertificatePair;
+import org.terasology.identity.ClientIdentity;
+import org.terasology.network.internal.pipelineFactory.TerasologyClientPipelineFactory;
+import org.terasology.network.internal.pipelineFactory.TerasologyServerPipelineFactory;
+import org.terasology.protobuf.NetData;
+import org.terasology.registry.CoreRegistry;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the handshake between the server and client pipelines over a local channel, to check that both ends switch
+ * to per message compression at the same message, or both keep the stream-wide compression.
+ * <br><br>
+ * Each end handles its incoming messages on a thread of its own, like on a real connection, so that a message is
+ * never received while the other end is still busy sending.
+ */
+public class MessageCompressionHandshakeTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final BlockingQueue<NetData.NetMessage> clientMessages = Queues.newLinkedBlockingQueue();
+    private final AtomicReference<Channel> serverChannel = new AtomicReference<>();
+    private final List<ExecutionHandler> executionHandlers = Lists.newArrayList();
+
+    private SecurityConfig securityConfig;
+    private CertificatePair serverCertificates;
+    private NetData.ServerInfoMessage serverInfo;
+    private ServerBootstrap serverBootstrap;
+    private ClientBootstrap clientBootstrap;
+
+    @BeforeEach
+    public void setup() {
+        serverCertificates = new CertificateGenerator().generateSelfSigned();
+        securityConfig = new SecurityConfig();
+        securityConfig.setServerCredentials(serverCertificates.getPublicCert(), serverCertificates.getPrivateCert());
+        Config config = mock(Config.class);
+        when(config.getSecurity()).thenReturn(securityConfig);
+        CoreRegistry.setContext(new ContextImpl());
+        CoreRegistry.put(Config.class, config);
+
+        NetData.ServerInfoMessage.Builder serverInfoBuilder = NetData.ServerInfoMessage.newBuilder()
+                .setGameName("Compression Test")
+                .setTime(1234);
+        for (int i = 0; i < 50; i++) {
+            serverInfoBuilder.addBlockName("engine:block" + i);
+        }
+        serverInfo = serverInfoBuilder.build();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        if (clientBootstrap != null) {
+            clientBootstrap.releaseExternalResources();
+        }
+        if (serverBootstrap != null) {
+            serverBootstrap.releaseExternalResources();
+        }
+        executionHandlers.forEach(ExecutionHandler::releaseExternalResources);
+    }
+
+    @Test
+    public void testNewIdentityHandshakeSwitchesToMessageCompression() throws Exception {
+        Channel clientChannel = connect(new LocalAddress("compression-new-identity"), false);
+
+        assertEquals(serverInfo, receiveServerInfo());
+        assertMessageCompression(clientChannel.getPipeline(), serverChannel.get().getPipeline());
+    }
+
+    @Test
+    public void testKnownIdentityHandshakeSwitchesToMessageCompression() throws Exception {
+        CertificatePair clientCertificates = new CertificateGenerator().generate(serverCertificates.getPrivateCert());
+        securityConfig.addIdentity(serverCertificates.getPublicCert(),
+                new ClientIdentity(clientCertificates.getPublicCert(), clientCertificates.getPrivateCert()));
+
+        Channel clientChannel = connect(new LocalAddress("compression-known-identity"), false);
+
+        assertEquals(serverInfo, receiveServerInfo());
+        assertMessageCompression(clientChannel.getPipeline(), serverChannel.get().getPipeline());
+    }
+
+    /**
+     * A client that does not know about per message compression ignores the version in the server hello and sends
+     * none of its own. Only the new identity handshake can be used here, as the client signs the server hello as it
+     * received it when it already has an identity.
+     */
+    @Test
+    public void testLegacyClientKeepsStreamCompression() throws Exception {
+        Channel clientChannel = connect(new LocalAddress("compression-legacy-client"), true);
+
+        assertEquals(serverInfo, receiveServerInfo());
+        ChannelPipeline clientPipeline = clientChannel.getPipeline();
+        ChannelPipeline serverPipeline = serverChannel.get().getPipeline();
+        assertNotNull(clientPipeline.get("inflateDecoder"));
+        assertNull(clientPipeline.get(MessageCompressionDecoder.NAME));
+        assertNotNull(serverPipeline.get("deflateEncoder"));
+        assertNull(serverPipeline.get(MessageCompressionEncoder.NAME));
+        MetricRecordingHandler serverMetrics = (MetricRecordingHandler) serverPipeline.get(MetricRecordingHandler.NAME);
+        assertEquals(0, serverMetrics.getRawMessageBytesSinceLastCall(NetMessageType.OTHER));
+    }
+
+    private void assertMessageCompression(ChannelPipeline clientPipeline, ChannelPipeline serverPipeline) {
+        assertNotNull(clientPipeline.get(MessageCompressionDecoder.NAME));
+        assertNull(clientPipeline.get("inflateDecoder"));
+        assertNotNull(serverPipeline.get(MessageCompressionEncoder.NAME));
+        assertNull(serverPipeline.get("deflateEncoder"));
+
+        // The server info is the only message the server sent after the handshake
+        MetricRecordingHandler serverMetrics = (MetricRecordingHandler) serverPipeline.get(MetricRecordingHandler.NAME);
+        NetData.NetMessage serverInfoMessage = NetData.NetMessage.newBuilder().setServerInfo(serverInfo).setTime(serverInfo.getTime()).build();
+        assertEquals(serverInfoMessage.getSerializedSize(), serverMetrics.getRawMessageBytesSinceLastCall(NetMessageType.OTHER));
+        assertTrue(serverMetrics.getEncodedMessageBytesSinceLastCall(NetMessageType.OTHER) < serverInfoMessage.getSerializedSize());
+    }
+
+    private NetData.ServerInfoMessage receiveServerInfo() throws InterruptedException {
+        NetData.NetMessage message = clientMessages.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(message, "No server info received");
+        return message.getServerInfo();
+    }
+
+    /**
+     * Connects a client to a new server, the server info request the client sends after the handshake gets answered
+     * by the server and ends up in {@link #clientMessages}.
+     */
+    private Channel connect(LocalAddress address, boolean legacyClient) {
+        NetworkSystemImpl networkSystem = mock(NetworkSystemImpl.class);
+        when(networkSystem.getServerInfoMessage()).thenReturn(serverInfo);
+        doAnswer(invocation -> {
+            serverChannel.set(invocation.getArgument(0));
+            return null;
+        }).when(networkSystem).registerChannel(any(Channel.class));
+
+        TerasologyServerPipelineFactory serverFactory = new TerasologyServerPipelineFactory(networkSystem);
+        serverBootstrap = new ServerBootstrap(new DefaultLocalServerChannelFactory());
+        serverBootstrap.setPipelineFactory(withOwnThread(serverFactory));
+        serverBootstrap.bind(address);
+
+        TerasologyClientPipelineFactory clientFactory = new TerasologyClientPipelineFactory(networkSystem);
+        clientBootstrap = new ClientBootstrap(new DefaultLocalClientChannelFactory());
+        clientBootstrap.setPipelineFactory(withOwnThread(() -> {
+            ChannelPipeline pipeline = clientFactory.getPipeline();
+            if (legacyClient) {
+                pipeline.addBefore("authenticationHandler", "legacyClient", new IgnoreCompressionVersionHandler());
+            }
+            // Collects what the client would process once joined
+            pipeline.remove("connectionHandler");
+            pipeline.replace("handler", "handler", new SimpleChannelUpstreamHandler() {
+                @Override
+                public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
+                    clientMessages.add((NetData.NetMessage) e.getMessage());
+                }
+            });
+            return pipeline;
+        }));
+        return clientBootstrap.connect(address).awaitUninterruptibly().getChannel();
+    }
+
+    private ChannelPipelineFactory withOwnThread(ChannelPipelineFactory factory) {
+        return () -> {
+            ChannelPipeline pipeline = factory.getPipeline();
+            ExecutionHandler executionHandler = new ExecutionHandler(Executors.newSingleThreadExecutor());
+            executionHandlers.add(executionHandler);
+            pipeline.addFirst("executor", executionHandler);
+            return pipeline;
+        };
+    }
+
+    /**
+     * Drops the compression version from the received hello, like a client that does not know the field.
+     */
+    private static class IgnoreCompressionVersionHandler extends SimpleChannelUpstreamHandler {
+        @Override
+        public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
+            NetData.NetMessage message = (NetData.NetMessage) e.getMessage();
+            if (message.hasHandshakeHello()) {
+                message = message.toBuilder()
+                        .setHandshakeHello(message.getHandshakeHello().toBuilder().clearCompressionVersion())
+                        .build();
+            }
+            Channels.fireMessageReceived(ctx, message);
+        }
+    }
+}
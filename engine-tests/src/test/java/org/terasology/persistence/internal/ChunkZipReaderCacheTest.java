@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ChunkZipReaderCacheTest {
+
+    private static final Vector3i CHUNK_POS = new Vector3i(1, 2, 3);
+    private static final Vector3i OTHER_ZIP_CHUNK_POS = new Vector3i(-1, 2, 3);
+
+    @TempDir
+    Path savePath;
+
+    private StoragePathProvider storagePathProvider;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        storagePathProvider = new StoragePathProvider(savePath);
+        Files.createDirectories(storagePathProvider.getWorldPath());
+    }
+
+    @Test
+    public void testMissingZipReturnsNull() throws IOException {
+        ChunkZipReaderCache cache = new ChunkZipReaderCache(storagePathProvider);
+
+        assertNull(cache.readChunk(CHUNK_POS));
+        assertEquals(0, cache.getOpenFileCount());
+    }
+
+    @Test
+    public void testSecondReadIsHit() throws IOException {
+        writeChunk(CHUNK_POS, new byte[]{1, 2, 3});
+        ChunkZipReaderCache cache = new ChunkZipReaderCache(storagePathProvider);
+
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.readChunk(CHUNK_POS));
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.readChunk(CHUNK_POS));
+        assertNull(cache.readChunk(new Vector3i(2, 2, 3)));
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getOpenFileCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedReaderGetsEvicted() throws IOException {
+        writeChunk(CHUNK_POS, new byte[]{1});
+        writeChunk(OTHER_ZIP_CHUNK_POS, new byte[]{2});
+        ChunkZipReaderCache cache = new ChunkZipReaderCache(storagePathProvider, 1);
+
+        cache.readChunk(CHUNK_POS);
+        cache.readChunk(OTHER_ZIP_CHUNK_POS);
+        assertEquals(1, cache.getOpenFileCount());
+        assertEquals(1, cache.getEvictionCount());
+
+        assertArrayEquals(new byte[]{1}, cache.readChunk(CHUNK_POS));
+        assertEquals(3, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testInvalidatedZipGetsReopened() throws IOException {
+        writeChunk(CHUNK_POS, new byte[]{1});
+        ChunkZipReaderCache cache = new ChunkZipReaderCache(storagePathProvider);
+        assertArrayEquals(new byte[]{1}, cache.readChunk(CHUNK_POS));
+
+        cache.invalidate(storagePathProvider.getChunkZipPosition(CHUNK_POS));
+        writeChunk(CHUNK_POS, new byte[]{4, 5});
+
+        assertArrayEquals(new byte[]{4, 5}, cache.readChunk(CHUNK_POS));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    private void writeChunk(Vector3i chunkPos, byte[] data) throws IOException {
+        Path zipPath = storagePathProvider.getChunkZipPath(storagePathProvider.getChunkZipPosition(chunkPos));
+        Files.deleteIfExists(zipPath);
+        try (FileSystem zip = FileSystems.newFileSystem(URI.create("jar:" + zipPath.toUri()),
+                ImmutableMap.of("create", "true"))) {
+            Files.write(zip.getPath(storagePathProvider.getChunkFilename(chunkPos)), data);
+        }
+    }
+}
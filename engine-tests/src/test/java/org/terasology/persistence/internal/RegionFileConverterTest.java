@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.terasology.game.GameManifest;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.persistence.ChunkStorageFormat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionFileConverterTest {
+
+    private static final Vector3i ZIPPED_CHUNK = new Vector3i(1, 2, 3);
+    private static final Vector3i OTHER_ZIPPED_CHUNK = new Vector3i(-1, 0, 31);
+    private static final Vector3i SINGLE_CHUNK = new Vector3i(40, -7, 5);
+
+    @TempDir
+    Path savePath;
+
+    private StoragePathProvider storagePathProvider;
+    private RegionFileChunkStore regionFileChunkStore;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        storagePathProvider = new StoragePathProvider(savePath);
+        regionFileChunkStore = new RegionFileChunkStore(storagePathProvider);
+        Files.createDirectories(storagePathProvider.getWorldPath());
+    }
+
+    @Test
+    public void testChunksSurviveConversion() throws IOException {
+        writeChunkZip(new Vector3i(0, 0, 0), ImmutableMap.of(ZIPPED_CHUNK, filled(5000, 1)));
+        writeChunkZip(new Vector3i(-1, 0, 0), ImmutableMap.of(OTHER_ZIPPED_CHUNK, filled(10, 2)));
+        Files.write(storagePathProvider.getChunkPath(SINGLE_CHUNK), filled(300, 3));
+        RegionFileConverter converter = new RegionFileConverter(storagePathProvider, regionFileChunkStore);
+
+        assertTrue(converter.isConversionNecessary());
+        assertEquals(3, converter.convert());
+        assertFalse(converter.isConversionNecessary());
+        regionFileChunkStore.closeAll();
+
+        assertFalse(Files.exists(storagePathProvider.getChunkZipPath(new Vector3i(0, 0, 0))));
+        assertFalse(Files.exists(storagePathProvider.getChunkPath(SINGLE_CHUNK)));
+        RegionFileChunkStore reopenedStore = new RegionFileChunkStore(storagePathProvider);
+        assertArrayEquals(filled(5000, 1), reopenedStore.readChunk(ZIPPED_CHUNK));
+        assertArrayEquals(filled(10, 2), reopenedStore.readChunk(OTHER_ZIPPED_CHUNK));
+        assertArrayEquals(filled(300, 3), reopenedStore.readChunk(SINGLE_CHUNK));
+        reopenedStore.closeAll();
+    }
+
+    @Test
+    public void testChunkInRegionFileIsNotOverwritten() throws IOException {
+        regionFileChunkStore.writeChunk(ZIPPED_CHUNK, filled(20, 9));
+        writeChunkZip(new Vector3i(0, 0, 0), ImmutableMap.of(ZIPPED_CHUNK, filled(20, 1)));
+
+        assertEquals(0, new RegionFileConverter(storagePathProvider, regionFileChunkStore).convert());
+
+        assertArrayEquals(filled(20, 9), regionFileChunkStore.readChunk(ZIPPED_CHUNK));
+        regionFileChunkStore.closeAll();
+    }
+
+    @Test
+    public void testRecordedFormatWins() throws IOException {
+        Files.write(storagePathProvider.getChunkPath(SINGLE_CHUNK), filled(1, 1));
+        GameManifest manifest = new GameManifest();
+        manifest.setChunkStorageFormat(ChunkStorageFormat.REGION_FILE);
+
+        assertEquals(ChunkStorageFormat.REGION_FILE,
+                AbstractStorageManager.determineChunkStorageFormat(savePath, manifest, ChunkStorageFormat.ZIP));
+    }
+
+    @Test
+    public void testFormatOfOlderSaveIsDetected() throws IOException {
+        GameManifest manifest = new GameManifest();
+        assertEquals(ChunkStorageFormat.FILE_PER_CHUNK,
+                AbstractStorageManager.determineChunkStorageFormat(savePath, manifest, ChunkStorageFormat.FILE_PER_CHUNK));
+
+        writeChunkZip(new Vector3i(0, 0, 0), ImmutableMap.of(ZIPPED_CHUNK, filled(1, 1)));
+        assertEquals(ChunkStorageFormat.ZIP,
+                AbstractStorageManager.determineChunkStorageFormat(savePath, manifest, ChunkStorageFormat.REGION_FILE));
+
+        regionFileChunkStore.writeChunk(SINGLE_CHUNK, filled(1, 1));
+        regionFileChunkStore.closeAll();
+        assertEquals(ChunkStorageFormat.REGION_FILE,
+                AbstractStorageManager.determineChunkStorageFormat(savePath, manifest, ChunkStorageFormat.ZIP));
+    }
+
+    private void writeChunkZip(Vector3i chunkZipPos, ImmutableMap<Vector3i, byte[]> chunks) throws IOException {
+        Path path = storagePathProvider.getChunkZipPath(chunkZipPos);
+        try (FileSystem zip = FileSystems.newFileSystem(URI.create("jar:" + path.toUri()),
+                ImmutableMap.of("create", "true"))) {
+            for (Map.Entry<Vector3i, byte[]> entry : chunks.entrySet()) {
+                Files.write(zip.getPath(storagePathProvider.getChunkFilename(entry.getKey())), entry.getValue());
+            }
+        }
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
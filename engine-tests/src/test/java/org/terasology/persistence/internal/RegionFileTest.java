@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testChunkIndexAndRegionPosition() {
+        assertEquals(new Vector3i(0, 0, 0), RegionFile.getRegionPosition(new Vector3i(15, 0, 3)));
+        assertEquals(new Vector3i(-1, 1, 0), RegionFile.getRegionPosition(new Vector3i(-1, 16, 0)));
+        assertEquals(RegionFile.getChunkIndex(new Vector3i(15, 0, 0)), RegionFile.getChunkIndex(new Vector3i(-1, 16, 0)));
+    }
+
+    @Test
+    public void testUnstoredChunkIsNull() throws IOException {
+        try (RegionFile regionFile = new RegionFile(directory.resolve("test.region"))) {
+            assertNull(regionFile.read(5));
+            assertFalse(regionFile.contains(5));
+        }
+    }
+
+    @Test
+    public void testChunksSurviveReopening() throws IOException {
+        Path path = directory.resolve("test.region");
+        byte[] small = filled(100, 1);
+        byte[] large = filled(3 * RegionFile.SECTOR_SIZE + 1, 2);
+        try (RegionFile regionFile = new RegionFile(path)) {
+            regionFile.write(0, small);
+            regionFile.write(RegionFile.ENTRY_COUNT - 1, large);
+        }
+        try (RegionFile regionFile = new RegionFile(path)) {
+            assertArrayEquals(small, regionFile.read(0));
+            assertArrayEquals(large, regionFile.read(RegionFile.ENTRY_COUNT - 1));
+            assertTrue(regionFile.contains(0));
+        }
+    }
+
+    @Test
+    public void testRewrittenChunkReplacesOldData() throws IOException {
+        try (RegionFile regionFile = new RegionFile(directory.resolve("test.region"))) {
+            regionFile.write(1, filled(10, 1));
+            regionFile.write(2, filled(10, 2));
+            regionFile.write(1, filled(2 * RegionFile.SECTOR_SIZE, 3));
+            regionFile.write(1, filled(20, 4));
+
+            assertArrayEquals(filled(20, 4), regionFile.read(1));
+            assertArrayEquals(filled(10, 2), regionFile.read(2));
+        }
+    }
+
+    @Test
+    public void testFreedSectorsGetReused() throws IOException {
+        try (RegionFile regionFile = new RegionFile(directory.resolve("test.region"))) {
+            for (int i = 0; i < 200; i++) {
+                regionFile.write(i % 4, filled(RegionFile.SECTOR_SIZE, i));
+            }
+            long size = regionFile.getFileSize();
+            for (int i = 0; i < 200; i++) {
+                regionFile.write(i % 4, filled(RegionFile.SECTOR_SIZE, i));
+            }
+            assertEquals(size, regionFile.getFileSize());
+        }
+    }
+
+    @Test
+    public void testWriteAllReplacesEveryChunk() throws IOException {
+        Path path = directory.resolve("test.region");
+        Map<Integer, byte[]> chunks = new HashMap<>();
+        chunks.put(0, filled(10, 1));
+        chunks.put(7, filled(2 * RegionFile.SECTOR_SIZE, 2));
+        try (RegionFile regionFile = new RegionFile(path)) {
+            regionFile.write(0, filled(RegionFile.SECTOR_SIZE, 3));
+            regionFile.writeAll(chunks);
+        }
+        try (RegionFile regionFile = new RegionFile(path)) {
+            assertArrayEquals(filled(10, 1), regionFile.read(0));
+            assertArrayEquals(filled(2 * RegionFile.SECTOR_SIZE, 2), regionFile.read(7));
+        }
+    }
+
+    @Test
+    public void testCorruptEntryIsDroppedAlone() throws IOException {
+        Path path = directory.resolve("test.region");
+        try (RegionFile regionFile = new RegionFile(path)) {
+            regionFile.write(0, filled(10, 1));
+            regionFile.write(1, filled(10, 2));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer entry = ByteBuffer.allocate(RegionFile.ENTRY_SIZE);
+            entry.putInt(-5).putInt(10).flip();
+            channel.write(entry, RegionFile.ENTRY_SIZE);
+            entry.clear();
+            entry.putInt(RegionFile.HEADER_SECTORS).putInt(Integer.MAX_VALUE).flip();
+            channel.write(entry, 2 * RegionFile.ENTRY_SIZE);
+        }
+        try (RegionFile regionFile = new RegionFile(path)) {
+            assertArrayEquals(filled(10, 1), regionFile.read(0));
+            assertNull(regionFile.read(1));
+            assertNull(regionFile.read(2));
+        }
+    }
+
+    private static byte[] filled(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}
@@ -44,6 +44,7 @@
 import org.terasology.network.ClientComponent;
 import org.terasology.network.NetworkMode;
 import org.terasology.network.NetworkSystem;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.persistence.ChunkStore;
 import org.terasology.persistence.PlayerStore;
 import org.terasology.persistence.StorageManager;
@@ -73,8 +74,10 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -323,6 +326,55 @@ public void testChunkSurvivesStorageSaveAndRestore() throws Exception {
         assertEquals(testBlock2, restored.getChunk().getBlock(0, 4, 2));
     }
 
+    @Test
+    public void testChunkSurvivesStorageInRegionFile() throws Exception {
+        Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
+        chunk.setBlock(0, 0, 0, testBlock);
+        chunk.setBlock(0, 4, 2, testBlock2);
+        chunk.markReady();
+        ChunkProvider chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getAllChunks()).thenReturn(Arrays.asList(chunk));
+        CoreRegistry.put(ChunkProvider.class, chunkProvider);
+
+        esm.setChunkStorageFormat(ChunkStorageFormat.REGION_FILE);
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        esm.finishSavingAndShutdown();
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EngineEntityManager newEntityManager = context.get(EngineEntityManager.class);
+        StorageManager newSM = new ReadWriteStorageManager(savePath, moduleEnvironment, newEntityManager, blockManager,
+                extraDataManager, ChunkStorageFormat.REGION_FILE, recordAndReplaySerializer, recordAndReplayUtils,
+                recordAndReplayCurrentStatus);
+        newSM.loadGlobalStore();
+
+        ChunkStore restored = newSM.loadChunkStore(CHUNK_POS);
+        assertNotNull(restored);
+        assertEquals(testBlock, restored.getChunk().getBlock(0, 0, 0));
+        assertEquals(testBlock2, restored.getChunk().getBlock(0, 4, 2));
+        newSM.finishSavingAndShutdown();
+    }
+
+    @Test
+    public void testUnmergedRegionJournalGetsAppliedOnRepair() throws Exception {
+        StoragePathProvider storagePathProvider = new StoragePathProvider(savePath);
+        Vector3i regionPos = RegionFile.getRegionPosition(CHUNK_POS);
+        Files.createDirectories(storagePathProvider.getWorldTempPath());
+        byte[] data = {1, 2, 3};
+        RegionFileChunkStore.writeJournal(storagePathProvider.getRegionJournalTempPath(regionPos),
+                Collections.singletonMap(CHUNK_POS, data));
+        // Simulate a save that got interrupted after its changes were prepared for the merge
+        Files.move(storagePathProvider.getUnfinishedSaveTransactionPath(), storagePathProvider.getUnmergedChangesPath());
+
+        esm.checkAndRepairSaveIfNecessary();
+
+        assertFalse(Files.exists(storagePathProvider.getUnmergedChangesPath()));
+        assertFalse(Files.exists(storagePathProvider.getWorldPath().resolve(
+                storagePathProvider.getRegionJournalTempPath(regionPos).getFileName())));
+        assertArrayEquals(data, esm.getRegionFileChunkStore().readChunk(CHUNK_POS));
+        esm.getRegionFileChunkStore().closeAll();
+    }
+
     @Test
     public void testEntitySurvivesStorageInChunkStore() throws Exception {
         Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
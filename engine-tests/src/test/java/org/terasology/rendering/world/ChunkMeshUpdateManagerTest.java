@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.world;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.monitoring.chunk.ChunkMonitor;
+import org.terasology.monitoring.chunk.ChunkWorkStatistics;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.world.WorldProvider;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.RenderableChunk;
+import org.terasology.world.generation.World;
+import org.terasology.world.generator.WorldGenerator;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChunkMeshUpdateManagerTest {
+    /**
+     * Enough chunks to keep all threads of the manager busy.
+     */
+    private static final int BLOCKING_CHUNKS = 8;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch blocked = new CountDownLatch(BLOCKING_CHUNKS);
+    private WorldProvider worldProvider;
+    private ChunkMeshUpdateManager manager;
+
+    @BeforeEach
+    public void setUp() {
+        WorldGenerator worldGenerator = mock(WorldGenerator.class);
+        when(worldGenerator.getWorld()).thenReturn(mock(World.class));
+        CoreRegistry.setContext(new ContextImpl());
+        CoreRegistry.put(WorldGenerator.class, worldGenerator);
+
+        worldProvider = mock(WorldProvider.class);
+        when(worldProvider.getLocalView(any(Vector3i.class))).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        manager = new ChunkMeshUpdateManager(null, worldProvider);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        manager.shutdown();
+    }
+
+    @Test
+    public void testQueuedUpdatesOutsideTheRegionGetCancelled() throws Exception {
+        for (int i = 0; i < BLOCKING_CHUNKS; i++) {
+            manager.queueChunkUpdate(mockChunkAt(0, i, 0));
+        }
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        RenderableChunk nearChunk = mockChunkAt(1, 0, 0);
+        RenderableChunk leftBehindChunk = mockChunkAt(-2, 0, 0);
+        RenderableChunk farChunk = mockChunkAt(0, 0, 20);
+        manager.queueChunkUpdate(nearChunk);
+        manager.queueChunkUpdate(leftBehindChunk);
+        manager.queueChunkUpdate(farChunk);
+        long cancelledBefore = getCancelledCount();
+
+        // The camera moves two chunks along x
+        Vector3f cameraPosition = new Vector3f(2 * ChunkConstants.SIZE_X, 0, 0);
+        manager.setCameraPosition(cameraPosition);
+        manager.cancelOutside(Region3i.createFromCenterExtents(new Vector3i(2, 0, 0), new Vector3i(3, 8, 3)));
+
+        assertEquals(cancelledBefore + 2, getCancelledCount());
+        // The update of the chunk that stayed inside the region is still queued
+        assertFalse(manager.queueChunkUpdate(nearChunk));
+        release.countDown();
+
+        List<RenderableChunk> updatedChunks = Lists.newArrayList();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (updatedChunks.size() < BLOCKING_CHUNKS + 1 && System.nanoTime() < deadline) {
+            updatedChunks.addAll(manager.availableChunksForUpdate());
+            Thread.sleep(10);
+        }
+        assertTrue(updatedChunks.contains(nearChunk));
+        assertFalse(updatedChunks.contains(leftBehindChunk));
+        assertFalse(updatedChunks.contains(farChunk));
+        verify(worldProvider).getLocalView(eq(new Vector3i(1, 0, 0)));
+        verify(worldProvider, never()).getLocalView(eq(new Vector3i(-2, 0, 0)));
+        verify(worldProvider, never()).getLocalView(eq(new Vector3i(0, 0, 20)));
+        // The cancelled chunks are no longer being processed, so they can be queued again
+        assertTrue(manager.queueChunkUpdate(farChunk));
+    }
+
+    @Test
+    public void testUpdatesOutsideTheRegionGetSkippedWhenTheyStart() throws Exception {
+        manager.cancelOutside(Region3i.createFromCenterExtents(new Vector3i(0, 0, 0), 1));
+        long cancelledBefore = getCancelledCount();
+        release.countDown();
+        RenderableChunk farChunk = mockChunkAt(5, 0, 0);
+
+        manager.queueChunkUpdate(farChunk);
+
+        List<RenderableChunk> updatedChunks = Lists.newArrayList();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (updatedChunks.isEmpty() && System.nanoTime() < deadline) {
+            updatedChunks.addAll(manager.availableChunksForUpdate());
+            Thread.sleep(10);
+        }
+        assertEquals(Lists.newArrayList(farChunk), updatedChunks);
+        assertEquals(cancelledBefore + 1, getCancelledCount());
+        verify(worldProvider, never()).getLocalView(any(Vector3i.class));
+    }
+
+    private static long getCancelledCount() {
+        for (ChunkWorkStatistics statistics : ChunkMonitor.getWorkStatistics()) {
+            if (statistics.getKind().equals(ChunkMeshUpdateManager.WORK_KIND)) {
+                return statistics.getCancelledCount();
+            }
+        }
+        return 0;
+    }
+
+    private static RenderableChunk mockChunkAt(int x, int y, int z) {
+        RenderableChunk chunk = mock(RenderableChunk.class);
+        when(chunk.getPosition()).thenReturn(new Vector3i(x, y, z));
+        return chunk;
+    }
+}
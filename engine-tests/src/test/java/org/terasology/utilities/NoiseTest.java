@@ -55,6 +55,16 @@ public static List<Noise> data() {
             );
     }
 
+    public static List<Noise> bulkData() {
+        return Lists.newArrayList(
+                new WhiteNoise(0xCAFE),
+                new SimplexNoise(0xCAFE),
+                new PerlinNoise(0xCAFE),
+                new BrownianNoise(new SimplexNoise(0xCAFE), 8),
+                new BrownianNoise(new PerlinNoise(0xCAFE), 5)
+            );
+    }
+
     @ParameterizedTest
     @MethodSource("data")
     public void testMinMax(Noise noiseGen) {
@@ -101,4 +111,63 @@ public void testResolution(Noise noiseGen) {
 
         fail();
     }
+
+    @ParameterizedTest
+    @MethodSource("bulkData")
+    public void testBulk2DMatchesSingleSamples(Noise noiseGen) {
+        float[] xs = randomCoordinates(17);
+        float[] ys = randomCoordinates(9);
+        float[] output = new float[xs.length * ys.length];
+        noiseGen.noise(xs, ys, output);
+
+        int index = 0;
+        for (float y : ys) {
+            for (float x : xs) {
+                assertEquals(noiseGen.noise(x, y), output[index++], 0);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("bulkData")
+    public void testBulk3DMatchesSingleSamples(Noise noiseGen) {
+        float[] xs = randomCoordinates(7);
+        float[] ys = randomCoordinates(5);
+        float[] zs = randomCoordinates(6);
+        float[] output = new float[xs.length * ys.length * zs.length];
+        noiseGen.noise(xs, ys, zs, output);
+
+        int index = 0;
+        for (float z : zs) {
+            for (float y : ys) {
+                for (float x : xs) {
+                    assertEquals(noiseGen.noise(x, y, z), output[index++], 0);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("bulkData")
+    public void testBulkRegularGrid(Noise noiseGen) {
+        float[] output = new float[4 * 3 * 2];
+        noiseGen.noise(output, -2.5f, 1f, 7f, 0.25f, 0.5f, 1.5f, 4, 3, 2);
+
+        int index = 0;
+        for (int z = 0; z < 2; z++) {
+            for (int y = 0; y < 3; y++) {
+                for (int x = 0; x < 4; x++) {
+                    assertEquals(noiseGen.noise(-2.5f + x * 0.25f, 1f + y * 0.5f, 7f + z * 1.5f), output[index++], 0);
+                }
+            }
+        }
+    }
+
+    private float[] randomCoordinates(int count) {
+        float[] result = new float[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = (rng.nextFloat() - 0.5f) * 200f;
+        }
+        return result;
+    }
 }
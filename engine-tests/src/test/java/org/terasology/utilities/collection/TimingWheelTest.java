@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.collection;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+
+    private TimingWheel<String> wheel;
+    private List<String> expired;
+
+    @BeforeEach
+    public void setup() {
+        wheel = new TimingWheel<>();
+        expired = Lists.newArrayList();
+        wheel.advanceTo(1000, expired);
+    }
+
+    @Test
+    public void testItemExpiresAtItsTime() {
+        wheel.schedule("a", 1010);
+
+        wheel.advanceTo(1009, expired);
+        assertTrue(expired.isEmpty());
+
+        wheel.advanceTo(1010, expired);
+        assertEquals(Collections.singletonList("a"), expired);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void testItemsExpireInTimeOrder() {
+        wheel.schedule("far", 1000 + 5_000_000);
+        wheel.schedule("near", 1001);
+        wheel.schedule("middle", 1000 + 70_000);
+        wheel.schedule("overdue", 500);
+
+        wheel.advanceTo(1000 + 10_000_000, expired);
+
+        assertEquals(Arrays.asList("overdue", "near", "middle", "far"), expired);
+    }
+
+    @Test
+    public void testItemBeyondAllLevelsExpires() {
+        long farAway = 1000 + (1L << 40);
+        wheel.schedule("a", farAway);
+
+        wheel.advanceTo(farAway - 1, expired);
+        assertTrue(expired.isEmpty());
+
+        wheel.advanceTo(farAway, expired);
+        assertEquals(Collections.singletonList("a"), expired);
+    }
+
+    @Test
+    public void testRescheduleReplacesTime() {
+        wheel.schedule("a", 1100);
+        wheel.schedule("a", 1050);
+        assertEquals(1, wheel.size());
+        assertEquals(1050, wheel.getScheduledTime("a"));
+
+        wheel.advanceTo(1060, expired);
+        assertEquals(Collections.singletonList("a"), expired);
+
+        expired.clear();
+        wheel.advanceTo(1200, expired);
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void testCancel() {
+        wheel.schedule("a", 1100);
+        wheel.schedule("b", 1000 + 100_000);
+
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+        assertFalse(wheel.contains("a"));
+
+        wheel.advanceTo(1000 + 200_000, expired);
+        assertEquals(Collections.singletonList("b"), expired);
+    }
+
+    @Test
+    public void testItemsScheduledBeforeStartWait() {
+        TimingWheel<String> unstarted = new TimingWheel<>();
+        unstarted.schedule("a", 20);
+        unstarted.schedule("b", 5);
+
+        unstarted.advanceTo(10, expired);
+        assertEquals(Collections.singletonList("b"), expired);
+
+        unstarted.advanceTo(20, expired);
+        assertEquals(Arrays.asList("b", "a"), expired);
+    }
+}
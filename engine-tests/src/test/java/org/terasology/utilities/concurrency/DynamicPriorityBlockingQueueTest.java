@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.concurrency;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DynamicPriorityBlockingQueueTest {
+
+    @Test
+    public void testTakesLowestPriorityFirst() {
+        DynamicPriorityBlockingQueue<Integer> queue = new DynamicPriorityBlockingQueue<>(Integer::intValue);
+        Random random = new Random(0);
+        List<Integer> expected = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(100);
+            expected.add(value);
+            queue.offer(value);
+        }
+        expected.sort(Integer::compare);
+
+        for (Integer value : expected) {
+            assertEquals(value, queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testEqualPrioritiesKeepInsertionOrder() {
+        DynamicPriorityBlockingQueue<String> queue = new DynamicPriorityBlockingQueue<>(s -> 0);
+        queue.offer("a");
+        queue.offer("b");
+        queue.offer("c");
+
+        assertEquals("a", queue.poll());
+        assertEquals("b", queue.poll());
+        assertEquals("c", queue.poll());
+    }
+
+    @Test
+    public void testReprioritize() {
+        AtomicInteger center = new AtomicInteger(0);
+        DynamicPriorityBlockingQueue<Integer> queue = new DynamicPriorityBlockingQueue<>(i -> Math.abs(i - center.get()));
+        for (int i = 0; i <= 10; i++) {
+            queue.offer(i);
+        }
+        assertEquals(Integer.valueOf(0), queue.peek());
+
+        center.set(10);
+        queue.reprioritize();
+
+        assertEquals(Integer.valueOf(10), queue.poll());
+        assertEquals(Integer.valueOf(9), queue.poll());
+    }
+
+    @Test
+    public void testRemove() {
+        DynamicPriorityBlockingQueue<Integer> queue = new DynamicPriorityBlockingQueue<>(Integer::intValue);
+        for (int i = 0; i < 10; i++) {
+            queue.offer(i);
+        }
+
+        assertTrue(queue.remove(0));
+        assertFalse(queue.remove(42));
+        assertTrue(queue.removeIf(i -> i % 2 == 0));
+
+        List<Integer> remaining = Lists.newArrayList();
+        queue.drainTo(remaining);
+        assertEquals(Lists.newArrayList(1, 3, 5, 7, 9), remaining);
+    }
+
+    @Test
+    public void testBoundedQueueRejectsWhenFull() throws InterruptedException {
+        DynamicPriorityBlockingQueue<Integer> queue = new DynamicPriorityBlockingQueue<>(Integer::intValue, 2);
+        assertTrue(queue.offer(5));
+        assertTrue(queue.offer(3));
+        assertEquals(0, queue.remainingCapacity());
+
+        assertFalse(queue.offer(1));
+        assertFalse(queue.offer(1, 10, TimeUnit.MILLISECONDS));
+
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertTrue(queue.offer(1, 10, TimeUnit.MILLISECONDS));
+        assertEquals(Integer.valueOf(1), queue.poll());
+        assertEquals(Integer.valueOf(5), queue.poll());
+    }
+}
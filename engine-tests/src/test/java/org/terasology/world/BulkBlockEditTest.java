@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkBlockEditTest {
+
+    @Test
+    public void testFillGroupsBlocksByChunk() {
+        Block stone = new Block();
+        Region3i region = Region3i.createFromMinAndSize(new Vector3i(-2, 10, 30), new Vector3i(4, 1, 4));
+
+        BulkBlockEdit edit = BulkBlockEdit.fill(region, stone);
+
+        assertEquals(16, edit.size());
+        assertEquals(region, edit.getRegion());
+        assertEquals(4, edit.getChunks().size());
+        for (BulkBlockEdit.ChunkBlocks chunkBlocks : edit.getChunks()) {
+            assertEquals(4, chunkBlocks.size());
+            for (int i = 0; i < chunkBlocks.size(); i++) {
+                Vector3i chunkPos = chunkBlocks.getChunkPosition();
+                Vector3i worldPos = new Vector3i(chunkPos.x * ChunkConstants.SIZE_X + chunkBlocks.getX(i),
+                        chunkPos.y * ChunkConstants.SIZE_Y + chunkBlocks.getY(i),
+                        chunkPos.z * ChunkConstants.SIZE_Z + chunkBlocks.getZ(i));
+                assertTrue(region.encompasses(worldPos));
+                assertSame(stone, chunkBlocks.getBlock(i));
+            }
+        }
+    }
+
+    @Test
+    public void testStencilSkipsNegativeIndices() {
+        Block air = new Block();
+        Block stone = new Block();
+        short[] indices = {0, -1, 1, -1};
+
+        BulkBlockEdit edit = BulkBlockEdit.stencil(new Vector3i(5, 6, 7), new Vector3i(2, 2, 1), indices, new Block[]{air, stone});
+
+        assertEquals(2, edit.size());
+        assertEquals(Region3i.createFromMinMax(new Vector3i(5, 6, 7), new Vector3i(5, 7, 7)), edit.getRegion());
+        BulkBlockEdit.ChunkBlocks chunkBlocks = edit.getChunks().iterator().next();
+        assertEquals(6, chunkBlocks.getY(0));
+        assertSame(air, chunkBlocks.getBlock(0));
+        assertEquals(7, chunkBlocks.getY(1));
+        assertSame(stone, chunkBlocks.getBlock(1));
+    }
+
+    @Test
+    public void testEmptyEdit() {
+        BulkBlockEdit edit = new BulkBlockEdit();
+
+        assertTrue(edit.isEmpty());
+        assertEquals(Region3i.EMPTY, edit.getRegion());
+        assertTrue(edit.getChunks().isEmpty());
+    }
+}
@@ -56,6 +56,7 @@
 import org.terasology.world.block.loader.BlockFamilyDefinitionData;
 import org.terasology.world.internal.EntityAwareWorldProvider;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -434,6 +435,27 @@ public void testBlockEntityPrefabCorrectlyAddedOnChangeToBlockWithPrefab() {
         assertEquals(blockWithString.getPrefab().get().getUrn().toString(), entity.getParentPrefab().getUrn().toString());
     }
 
+    @Test
+    public void testBulkEditAnnouncesPlainChangesOnWorldEntity() {
+        worldStub.setWorldEntity(entityManager.create(new WorldComponent()));
+        BlockChangeChecker checker = new BlockChangeChecker();
+        entityManager.getEventSystem().registerEventHandler(checker);
+        Vector3i plainPos = new Vector3i(0, 0, 0);
+        Vector3i prefabPos = new Vector3i(1, 0, 0);
+        Vector3i unchangedPos = new Vector3i(2, 0, 0);
+
+        int changedBlocks = worldProvider.setBlocks(new BulkBlockEdit()
+                .setBlock(plainPos, plainBlock)
+                .setBlock(prefabPos, blockWithString)
+                .setBlock(unchangedPos, airBlock));
+
+        assertEquals(2, changedBlocks);
+        assertEquals(Collections.singletonList(prefabPos), checker.changedBlockPositions);
+        assertEquals(1, checker.bulkChanges.size());
+        assertEquals(Collections.singletonList(plainPos), Lists.newArrayList(checker.bulkChanges.get(0).getBlockPositions()));
+        assertFalse(worldProvider.getExistingBlockEntityAt(plainPos).exists());
+    }
+
     public static class LifecycleEventChecker {
         public List<EventInfo> receivedEvents = Lists.newArrayList();
 
@@ -482,6 +504,22 @@ public void onRemoved(BeforeRemoveComponent event, EntityRef entity) {
         }
     }
 
+    public static class BlockChangeChecker extends BaseComponentSystem {
+
+        public List<Vector3i> changedBlockPositions = Lists.newArrayList();
+        public List<OnChangedBlocks> bulkChanges = Lists.newArrayList();
+
+        @ReceiveEvent(components = BlockComponent.class)
+        public void onChangedBlock(OnChangedBlock event, EntityRef entity) {
+            changedBlockPositions.add(event.getBlockPosition());
+        }
+
+        @ReceiveEvent(components = WorldComponent.class)
+        public void onChangedBlocks(OnChangedBlocks event, EntityRef entity) {
+            bulkChanges.add(event);
+        }
+    }
+
     public static class EventInfo {
         public EntityRef targetEntity;
         public Event event;
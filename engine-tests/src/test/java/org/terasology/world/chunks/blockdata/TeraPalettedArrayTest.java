@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.blockdata;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import org.terasology.world.chunks.deflate.TeraStandardDeflator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TeraPalettedArrayTest {
+
+    private static final int SIZE_X = 16;
+    private static final int SIZE_Y = 32;
+    private static final int SIZE_Z = 16;
+
+    @Test
+    public void testStartsWithOneBitAndZeros() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+
+        assertEquals(1, array.getBitsPerEntry());
+        assertEquals(0, array.get(3, 7, 5));
+    }
+
+    @Test
+    public void testWidensWhenPaletteIsFull() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < 300; i++) {
+            array.set(i % SIZE_X, i / SIZE_X, 0, i + 1);
+        }
+
+        assertEquals(16, array.getBitsPerEntry());
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i + 1, array.get(i % SIZE_X, i / SIZE_X, 0));
+        }
+        assertEquals(0, array.get(0, 0, 1));
+    }
+
+    @Test
+    public void testSetReturnsOldValue() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+
+        assertEquals(0, array.set(1, 2, 3, 5));
+        assertEquals(5, array.set(1, 2, 3, 7));
+        assertFalse(array.set(1, 2, 3, 9, 5));
+        assertTrue(array.set(1, 2, 3, 9, 7));
+        assertEquals(9, array.get(1, 2, 3));
+    }
+
+    @Test
+    public void testNegativeValuesAreKept() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(0, 0, 0, -12);
+
+        assertEquals(-12, array.get(0, 0, 0));
+    }
+
+    @Test
+    public void testUnusedEntriesGetDroppedBeforeWidening() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int value = 1; value < 100; value++) {
+            array.set(0, 0, 0, value);
+        }
+
+        assertEquals(2, array.getBitsPerEntry());
+        assertEquals(99, array.get(0, 0, 0));
+        assertEquals(0, array.get(1, 0, 0));
+    }
+
+    @Test
+    public void testMappingIsCalledOncePerPaletteEntry() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(1, 1, 1, 5);
+        array.set(2, 1, 1, 5);
+        List<Integer> mappedValues = Lists.newArrayList();
+        IntFunction<String> mapping = value -> {
+            mappedValues.add(value);
+            return "value " + value;
+        };
+
+        assertEquals("value 5", array.getMapped(1, 1, 1, mapping));
+        assertEquals("value 5", array.getMapped(2, 1, 1, mapping));
+        assertEquals("value 0", array.getMapped(3, 1, 1, mapping));
+        assertEquals("value 0", array.getMapped(4, 1, 1, mapping));
+        assertEquals(Arrays.asList(5, 0), mappedValues);
+
+        array.set(3, 1, 1, 6);
+
+        assertEquals("value 6", array.getMapped(3, 1, 1, mapping));
+        assertEquals(Arrays.asList(5, 0, 6), mappedValues);
+    }
+
+    @Test
+    public void testReadsStayCorrectWhileTheIndicesGetRebuilt() throws InterruptedException {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(0, 0, 0, 7);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    if (array.get(0, 0, 0) != 7) {
+                        failure.set("Read a value that was never written");
+                    }
+                    int value = array.get(1, 0, 0);
+                    if (value < 0 || value >= 20) {
+                        failure.set("Read unknown value " + value);
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure.set(e.toString());
+            }
+        });
+        reader.start();
+        // Every round adds new values to a full palette, so that it gets widened or rebuilt without the previous ones
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 200; i++) {
+                array.set(i % SIZE_X, i / SIZE_X, 1, round * 200 + i + 1);
+            }
+            array.set(1, 0, 0, round);
+            for (int i = 0; i < 200; i++) {
+                array.set(i % SIZE_X, i / SIZE_X, 1, 0);
+            }
+        }
+        writing.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(7, array.get(0, 0, 0));
+    }
+
+    @Test
+    public void testDeflateNarrowsIndices() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < 20; i++) {
+            array.set(i % SIZE_X, 0, i / SIZE_X, i + 1);
+        }
+        for (int i = 2; i < 20; i++) {
+            array.set(i % SIZE_X, 0, i / SIZE_X, 1);
+        }
+        assertEquals(8, array.getBitsPerEntry());
+
+        TeraArray deflated = new TeraStandardDeflator().deflate(array);
+
+        assertNotSame(array, deflated);
+        assertEquals(2, ((TeraPalettedArray) deflated).getBitsPerEntry());
+        assertSameContent(array, deflated);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(4, 4, 4, 3);
+        TeraArray copy = array.copy();
+        copy.set(4, 4, 4, 8);
+
+        assertEquals(3, array.get(4, 4, 4));
+        assertEquals(8, copy.get(4, 4, 4));
+    }
+
+    @Test
+    public void testRunsRoundTrip() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(0, 0, 0, 4);
+        array.set(1, 0, 0, 4);
+        array.set(5, 9, 2, 6);
+        int[] runLengths = new int[8];
+        int[] values = new int[8];
+        int[] runCount = new int[1];
+        array.encodeRuns((length, value) -> {
+            runLengths[runCount[0]] = length;
+            values[runCount[0]] = value;
+            runCount[0]++;
+        });
+
+        assertEquals(4, runCount[0]);
+        assertSameContent(array, TeraPalettedArray.fromRuns(SIZE_X, SIZE_Y, SIZE_Z, runLengths, values, runCount[0]));
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        TeraPalettedArray array = new TeraPalettedArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < 10; i++) {
+            array.set(i, i, i, i * 100);
+        }
+        TeraPalettedArray.SerializationHandler handler = new TeraPalettedArray.SerializationHandler();
+
+        ByteBuffer buffer = handler.serialize(array);
+        buffer.rewind();
+        TeraPalettedArray deserialized = handler.deserialize(buffer);
+
+        assertEquals(array.getBitsPerEntry(), deserialized.getBitsPerEntry());
+        assertSameContent(array, deserialized);
+    }
+
+    private static void assertSameContent(TeraArray expected, TeraArray actual) {
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    assertEquals(expected.get(x, y, z), actual.get(x, y, z));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.blockdata;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.deflate.TeraStandardDeflator;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TeraSectionedArrayTest {
+
+    private static final int SIZE_X = 16;
+    private static final int SIZE_Y = 4 * TeraSectionedArray.SECTION_HEIGHT;
+    private static final int SIZE_Z = 16;
+
+    @Test
+    public void testGetAndSetAcrossSections() {
+        TeraSectionedArray array = createArray();
+        for (int y = 0; y < SIZE_Y; y++) {
+            array.set(y % SIZE_X, y, 3, y + 1);
+        }
+
+        assertEquals(4, array.getSectionCount());
+        for (int y = 0; y < SIZE_Y; y++) {
+            assertEquals(y + 1, array.get(y % SIZE_X, y, 3));
+        }
+    }
+
+    @Test
+    public void testCopySharesSectionsUntilWritten() {
+        TeraSectionedArray array = createArray();
+        array.set(1, 1, 1, 5);
+
+        TeraSectionedArray copy = (TeraSectionedArray) array.copy();
+        for (int i = 0; i < array.getSectionCount(); i++) {
+            assertSame(array.getSection(i), copy.getSection(i));
+        }
+
+        copy.set(1, TeraSectionedArray.SECTION_HEIGHT + 1, 1, 7);
+
+        assertNotSame(array.getSection(1), copy.getSection(1));
+        assertSame(array.getSection(0), copy.getSection(0));
+        assertSame(array.getSection(2), copy.getSection(2));
+    }
+
+    @Test
+    public void testWritesDoNotLeakBetweenCopies() {
+        TeraSectionedArray array = createArray();
+        array.set(2, 2, 2, 3);
+        TeraArray copy = array.copy();
+
+        copy.set(2, 2, 2, 4);
+        array.set(2, 3, 2, 6);
+
+        assertEquals(3, array.get(2, 2, 2));
+        assertEquals(4, copy.get(2, 2, 2));
+        assertEquals(6, array.get(2, 3, 2));
+        assertEquals(0, copy.get(2, 3, 2));
+    }
+
+    @Test
+    public void testDeflatedArrayIsIndependent() {
+        TeraSectionedArray array = new TeraSectionedArray(SIZE_X, SIZE_Y, SIZE_Z, new TeraDenseArray8Bit.Factory());
+        array.set(0, 0, 0, 9);
+
+        TeraArray deflated = new TeraStandardDeflator().deflate(array);
+        deflated.set(0, 0, 0, 2);
+        array.set(0, SIZE_Y - 1, 0, 8);
+
+        assertEquals(9, array.get(0, 0, 0));
+        assertEquals(2, deflated.get(0, 0, 0));
+        assertEquals(0, deflated.get(0, SIZE_Y - 1, 0));
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        TeraSectionedArray array = createArray();
+        for (int y = 0; y < SIZE_Y; y += 3) {
+            array.set(y % SIZE_X, y, y % SIZE_Z, y * 10);
+        }
+        TeraSectionedArray.SerializationHandler handler = new TeraSectionedArray.SerializationHandler(new TeraPalettedArray.Factory());
+
+        ByteBuffer buffer = handler.serialize(array);
+        buffer.rewind();
+        TeraSectionedArray deserialized = handler.deserialize(buffer);
+
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    assertEquals(array.get(x, y, z), deserialized.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFactoryCreatesArraysWithSize() {
+        TeraSectionedArray.Factory factory = new TeraSectionedArray.Factory(new TeraPalettedArray.Factory());
+
+        TeraSectionedArray array = factory.create(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(3, SIZE_Y - 1, 3, 4);
+
+        assertEquals(4, array.get(3, SIZE_Y - 1, 3));
+        assertEquals(16, array.getElementSizeInBits());
+    }
+
+    @Test
+    public void testFactoryCreatesArraysOfChunkSizeByDefault() {
+        TeraSectionedArray.Factory factory = new TeraSectionedArray.Factory(new TeraPalettedArray.Factory());
+
+        TeraSectionedArray array = factory.create();
+        array.set(3, ChunkConstants.SIZE_Y - 1, 3, 4);
+
+        assertEquals(ChunkConstants.SIZE_X, array.getSizeX());
+        assertEquals(ChunkConstants.SIZE_Y, array.getSizeY());
+        assertEquals(ChunkConstants.SIZE_Z, array.getSizeZ());
+        assertEquals(4, array.get(3, ChunkConstants.SIZE_Y - 1, 3));
+    }
+
+    private static TeraSectionedArray createArray() {
+        return new TeraSectionedArray(SIZE_X, SIZE_Y, SIZE_Z, new TeraPalettedArray.Factory());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.internal;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.EntityData;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraPalettedArray;
+import org.terasology.world.chunks.blockdata.TeraSectionedArray;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkSerializerTest {
+
+    private static final Vector3i POSITION = new Vector3i(3, -1, 7);
+    private static final int SECTION_HEIGHT = TeraSectionedArray.SECTION_HEIGHT;
+    /**
+     * Stored as a negative short, but encoded as an unsigned value.
+     */
+    private static final int HIGH_ID = 40000;
+
+    @Test
+    public void testEncodingsOfMixedContentMatch() {
+        assertEncodingsMatch((x, y, z) -> {
+            if (y >= SECTION_HEIGHT - 2 && y < SECTION_HEIGHT + 2) {
+                // A run that crosses the boundary between the first two sections
+                return HIGH_ID;
+            }
+            if (y >= 2 * SECTION_HEIGHT && y < 4 * SECTION_HEIGHT) {
+                // Exactly two whole sections of the same value
+                return 5;
+            }
+            if (y >= 5 * SECTION_HEIGHT && (x * 7 + z * 3 + y) % 5 == 0) {
+                return y * 100 + x;
+            }
+            return 0;
+        });
+    }
+
+    @Test
+    public void testEncodingsOfContentEndingWithNonZeroRunMatch() {
+        assertEncodingsMatch((x, y, z) -> y >= ChunkConstants.SIZE_Y - SECTION_HEIGHT - 1 ? HIGH_ID + 1 : (x + z) % 3);
+    }
+
+    @Test
+    public void testEncodingsOfEmptyContentMatch() {
+        assertEncodingsMatch((x, y, z) -> 0);
+    }
+
+    @Test
+    public void testEncodingsOfSingleValueContentMatch() {
+        assertEncodingsMatch((x, y, z) -> HIGH_ID);
+    }
+
+    private static void assertEncodingsMatch(ContentFunction content) {
+        TeraArray dense = fill(new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z), content);
+        TeraArray paletted = fill(new TeraPalettedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z), content);
+        TeraArray sectioned = fill(new TeraSectionedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z,
+                new TeraPalettedArray.Factory()), content);
+        TeraArray sectionedDense = fill(new TeraSectionedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z,
+                new TeraDenseArray16Bit.Factory()), content);
+
+        EntityData.ChunkStore expected = ChunkSerializer.encode(POSITION, dense, new TeraArray[0]).build();
+
+        assertArrayEquals(expected.toByteArray(), ChunkSerializer.encode(POSITION, paletted, new TeraArray[0]).build().toByteArray());
+        assertArrayEquals(expected.toByteArray(), ChunkSerializer.encode(POSITION, sectioned, new TeraArray[0]).build().toByteArray());
+        assertArrayEquals(expected.toByteArray(), ChunkSerializer.encode(POSITION, sectionedDense, new TeraArray[0]).build().toByteArray());
+
+        Chunk decoded = ChunkSerializer.decode(expected, createBlockManager(), new ExtraBlockDataManager());
+
+        assertEquals(POSITION, decoded.getPosition());
+        for (int y = 0; y < ChunkConstants.SIZE_Y; y++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+                    assertEquals((short) content.valueAt(x, y, z), decoded.getBlock(x, y, z).getId());
+                }
+            }
+        }
+    }
+
+    private static TeraArray fill(TeraArray array, ContentFunction content) {
+        for (int y = 0; y < array.getSizeY(); y++) {
+            for (int z = 0; z < array.getSizeZ(); z++) {
+                for (int x = 0; x < array.getSizeX(); x++) {
+                    array.set(x, y, z, content.valueAt(x, y, z));
+                }
+            }
+        }
+        return array;
+    }
+
+    private static BlockManager createBlockManager() {
+        BlockManager blockManager = mock(BlockManager.class);
+        when(blockManager.getBlock(anyShort())).thenAnswer(invocation -> {
+            Block block = new Block();
+            block.setId(invocation.getArgument(0));
+            return block;
+        });
+        return blockManager;
+    }
+
+    @FunctionalInterface
+    private interface ContentFunction {
+        int valueAt(int x, int y, int z);
+    }
+}
@@ -23,36 +23,49 @@
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
+import org.terasology.config.SystemConfig;
 import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.EntityStore;
 import org.terasology.entitySystem.event.Event;
 import org.terasology.entitySystem.prefab.Prefab;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.persistence.ChunkStore;
+import org.terasology.persistence.StorageManager;
 import org.terasology.world.BlockEntityRegistry;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.block.OnActivatedBlocks;
 import org.terasology.world.block.OnAddedBlocks;
 import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkBlockIterator;
 import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.world.chunks.event.OnChunkGenerated;
 import org.terasology.world.chunks.event.OnChunkLoaded;
 import org.terasology.world.chunks.internal.ReadyChunkInfo;
+import org.terasology.world.chunks.pipeline.ChunkProcessingStage;
+import org.terasology.world.generator.WorldGenerator;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -77,7 +90,7 @@ public void setUp() {
         worldEntity = mock(EntityRef.class);
         chunkCache = new ConcurrentMapChunkCache();
         chunkProvider = new LocalChunkProvider(null,
-                entityManager, null, blockManager, extraDataManager, chunkFinalizer, null, chunkCache);
+                entityManager, null, blockManager, extraDataManager, chunkFinalizer, null, chunkCache, new SystemConfig());
         chunkProvider.setBlockEntityRegistry(blockEntityRegistry);
         chunkProvider.setWorldEntity(worldEntity);
     }
@@ -194,6 +207,57 @@ public void testCompleteUpdateSendsBlockActivatedEvents() throws Exception {
         assertTrue(Lists.newArrayList(positions).contains(new Vector3i(1, 2, 3)));
     }
 
+    @Test
+    public void testPreparationsOfIrrelevantChunksGetCancelled() throws Exception {
+        final StorageManager storageManager = mock(StorageManager.class);
+        final WorldGenerator generator = mock(WorldGenerator.class);
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(storageManager.loadChunkStore(any(Vector3i.class))).thenAnswer(i -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        final SystemConfig systemConfig = new SystemConfig();
+        systemConfig.setChunkStageThreads(ChunkProcessingStage.LOAD, 1);
+        chunkProvider = new LocalChunkProvider(storageManager,
+                entityManager, generator, blockManager, extraDataManager, chunkFinalizer, null, chunkCache, systemConfig);
+        chunkProvider.setBlockEntityRegistry(blockEntityRegistry);
+        chunkProvider.setWorldEntity(worldEntity);
+        final EntityRef relevanceEntity = mock(EntityRef.class);
+        when(relevanceEntity.exists()).thenReturn(true);
+        when(relevanceEntity.hasComponent(LocationComponent.class)).thenReturn(true);
+        when(relevanceEntity.getComponent(LocationComponent.class)).thenReturn(new LocationComponent(new Vector3f()));
+
+        try {
+            // Prepares a row of three chunks, the first one blocks the only load thread
+            chunkProvider.addRelevanceEntity(relevanceEntity, new Vector3i(3, 1, 1));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+            chunkProvider.removeRelevanceEntity(relevanceEntity);
+            chunkProvider.beginUpdate();
+            releaseLoad.countDown();
+
+            verify(storageManager, after(500).times(1)).loadChunkStore(any(Vector3i.class));
+            verify(generator, never()).createChunk(any(), any());
+            assertNull(chunkCache.get(new Vector3i(0, 0, 0)));
+        } finally {
+            releaseLoad.countDown();
+            chunkProvider.shutdown();
+        }
+    }
+
+    @Test
+    public void testHandedOverChunkBecomesAvailable() {
+        final Chunk chunk = mockChunkAt(0, 0, 0);
+        when(chunk.getBlockIterator()).thenReturn(mock(ChunkBlockIterator.class));
+
+        chunkProvider.onChunkIsReady(chunk);
+        chunkProvider.beginUpdate();
+
+        assertEquals(chunk, chunkCache.get(new Vector3i(0, 0, 0)));
+    }
+
     private static void markAllChunksAsReady(final ChunkCache chunkCache) {
         markAllChunksAsReadyExcludingPosition(chunkCache, null);
     }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.localChunkProvider;
+
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class LongKeyChunkCacheTest {
+
+    @Test
+    public void testGetByCoordinates() {
+        LongKeyChunkCache cache = new LongKeyChunkCache();
+        Chunk chunk = mock(Chunk.class);
+        Chunk negativeChunk = mock(Chunk.class);
+        cache.put(new Vector3i(3, 1, 7), chunk);
+        cache.put(new Vector3i(-3, -1, -1048576), negativeChunk);
+
+        assertSame(chunk, cache.get(3, 1, 7));
+        assertSame(chunk, cache.get(new Vector3i(3, 1, 7)));
+        assertSame(negativeChunk, cache.get(-3, -1, -1048576));
+        assertNull(cache.get(3, 1, 8));
+    }
+
+    @Test
+    public void testRemovedChunkIsNotReturned() {
+        LongKeyChunkCache cache = new LongKeyChunkCache();
+        cache.put(new Vector3i(0, 0, 0), mock(Chunk.class));
+        // Makes the chunk the last one looked up by this thread
+        cache.get(0, 0, 0);
+
+        cache.removeChunkAt(new Vector3i(0, 0, 0));
+
+        assertNull(cache.get(0, 0, 0));
+        assertFalse(cache.containsChunkAt(new Vector3i(0, 0, 0)));
+    }
+
+    @Test
+    public void testReplacedChunkIsReturned() {
+        LongKeyChunkCache cache = new LongKeyChunkCache();
+        Chunk replacement = mock(Chunk.class);
+        cache.put(new Vector3i(1, 2, 3), mock(Chunk.class));
+        cache.get(1, 2, 3);
+
+        cache.put(new Vector3i(1, 2, 3), replacement);
+
+        assertSame(replacement, cache.get(1, 2, 3));
+        assertEquals(1, cache.getAllChunks().size());
+    }
+
+    @Test
+    public void testGrowingKeepsAllChunks() {
+        LongKeyChunkCache cache = new LongKeyChunkCache();
+        Set<Vector3i> positions = Sets.newHashSet();
+        for (int x = -10; x < 10; x++) {
+            for (int y = -4; y < 4; y++) {
+                for (int z = -10; z < 10; z++) {
+                    Vector3i pos = new Vector3i(x, y, z);
+                    positions.add(pos);
+                    cache.put(pos, mock(Chunk.class));
+                }
+            }
+        }
+
+        assertEquals(positions, Sets.newHashSet(cache.iterateChunkPositions()));
+        for (Vector3i pos : positions) {
+            assertTrue(cache.containsChunkAt(pos));
+        }
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        LongKeyChunkCache cache = new LongKeyChunkCache();
+        cache.put(new Vector3i(1, 0, 0), mock(Chunk.class));
+        cache.put(new Vector3i(2, 0, 0), mock(Chunk.class));
+
+        Iterator<Vector3i> iterator = cache.iterateChunkPositions();
+        while (iterator.hasNext()) {
+            if (iterator.next().x == 1) {
+                iterator.remove();
+            }
+        }
+
+        assertNull(cache.get(1, 0, 0));
+        assertEquals(1, cache.size());
+    }
+}
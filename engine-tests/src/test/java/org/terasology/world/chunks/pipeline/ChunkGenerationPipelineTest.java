@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.pipeline;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import gnu.trove.map.hash.TShortObjectHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.config.SystemConfig;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.internal.ReadyChunkInfo;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkGenerationPipelineTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SystemConfig config;
+    private ChunkGenerationPipeline pipeline;
+
+    @BeforeEach
+    public void setUp() {
+        config = new SystemConfig();
+        config.setChunkStageThreads(ChunkProcessingStage.GENERATE, 1);
+        config.setChunkStageMaxQueueSize(ChunkProcessingStage.GENERATE, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    public void testChunksPassTheStagesInOrder() throws Exception {
+        pipeline = new ChunkGenerationPipeline(task -> 0, config);
+        Chunk chunk = mockChunkAt(1, 2, 3);
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        pipeline.doTask(ChunkProcessingStage.LOAD, task(chunk.getPosition(), () -> {
+            threads.add(Thread.currentThread().getName());
+            pipeline.doTask(ChunkProcessingStage.GENERATE, task(chunk.getPosition(), () -> {
+                threads.add(Thread.currentThread().getName());
+                completeChunk(chunk);
+            }));
+        }));
+
+        List<ReadyChunkInfo> readyChunks = drainReadyChunks(1);
+        assertEquals(1, readyChunks.size());
+        assertEquals(chunk, readyChunks.get(0).getChunk());
+        assertEquals(2, threads.size());
+        assertTrue(threads.get(0).startsWith("Chunk-Load-"), threads.get(0));
+        assertTrue(threads.get(1).startsWith("Chunk-Generate-"), threads.get(1));
+    }
+
+    @Test
+    public void testHandOverWaitsWhileTheNextStageIsFull() throws Exception {
+        pipeline = new ChunkGenerationPipeline(task -> 0, config);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(3);
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(0, 0, 0), () -> {
+            started.countDown();
+            awaitRelease();
+            completed.countDown();
+        }));
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // Fills the queue, as the only thread of the stage is busy
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(1, 0, 0), completed::countDown));
+
+        CountDownLatch handedOver = new CountDownLatch(1);
+        Thread handOverThread = new Thread(() -> {
+            pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(2, 0, 0), completed::countDown));
+            handedOver.countDown();
+        });
+        handOverThread.start();
+
+        assertFalse(handedOver.await(300, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(handedOver.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testMainThreadStagesAreNotBounded() throws Exception {
+        pipeline = new ChunkGenerationPipeline(task -> 0, config, EnumSet.of(ChunkProcessingStage.GENERATE),
+                EnumSet.of(ChunkProcessingStage.GENERATE));
+        CountDownLatch started = new CountDownLatch(1);
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(0, 0, 0), () -> {
+            started.countDown();
+            awaitRelease();
+        }));
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // Would block on the second task if the configured queue size of one applied
+        int queuedTasks = 10;
+        CountDownLatch completed = new CountDownLatch(queuedTasks);
+        for (int i = 1; i <= queuedTasks; i++) {
+            pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(i, 0, 0), completed::countDown));
+        }
+        release.countDown();
+        assertTrue(completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOnlyTheGivenStagesAreCreated() {
+        pipeline = new ChunkGenerationPipeline(task -> 0, config, EnumSet.of(ChunkProcessingStage.GENERATE),
+                EnumSet.noneOf(ChunkProcessingStage.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> pipeline.doTask(ChunkProcessingStage.LOAD, task(new Vector3i(0, 0, 0), () -> { })));
+    }
+
+    @Test
+    public void testCancelRemovesQueuedTasks() throws Exception {
+        config.setChunkStageMaxQueueSize(ChunkProcessingStage.GENERATE, 4);
+        // Processes the queued tasks in the order of their x coordinate
+        pipeline = new ChunkGenerationPipeline(task -> task.getPosition().x, config);
+        CountDownLatch started = new CountDownLatch(1);
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(0, 0, 0), () -> {
+            started.countDown();
+            awaitRelease();
+        }));
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        List<Vector3i> processed = new CopyOnWriteArrayList<>();
+        CountDownLatch lastProcessed = new CountDownLatch(1);
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(1, 0, 0), () -> processed.add(new Vector3i(1, 0, 0))));
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(2, 0, 0), () -> processed.add(new Vector3i(2, 0, 0))));
+        pipeline.doTask(ChunkProcessingStage.GENERATE, task(new Vector3i(3, 0, 0), lastProcessed::countDown));
+
+        pipeline.cancel(Sets.newHashSet(new Vector3i(1, 0, 0)));
+        release.countDown();
+
+        assertTrue(lastProcessed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(new Vector3i(2, 0, 0)), processed);
+    }
+
+    @Test
+    public void testShutdownReleasesBlockedHandOver() throws Exception {
+        pipeline = new ChunkGenerationPipeline(task -> 0, config);
+        Chunk chunk = mockChunkAt(0, 0, 0);
+        // Nothing drains the ready chunks, so the next chunk has to wait
+        for (int i = 0; i < ChunkGenerationPipeline.MAX_READY_CHUNKS; i++) {
+            completeChunk(chunk);
+        }
+        Thread blockedThread = new Thread(() -> completeChunk(chunk));
+        blockedThread.start();
+        blockedThread.join(300);
+        assertTrue(blockedThread.isAlive());
+
+        pipeline.shutdown();
+
+        blockedThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(blockedThread.isAlive());
+        assertEquals(ChunkGenerationPipeline.MAX_READY_CHUNKS, pipeline.getReadyChunkCount());
+        pipeline = null;
+    }
+
+    private void completeChunk(Chunk chunk) {
+        pipeline.completeChunk(ReadyChunkInfo.createForNewChunk(chunk, new TShortObjectHashMap<>(), Collections.emptyList()));
+    }
+
+    private List<ReadyChunkInfo> drainReadyChunks(int count) throws InterruptedException {
+        List<ReadyChunkInfo> readyChunks = Lists.newArrayList();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (readyChunks.size() < count && System.nanoTime() < deadline) {
+            pipeline.drainReadyChunks(readyChunks);
+            Thread.sleep(10);
+        }
+        return readyChunks;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ChunkTask task(Vector3i position, Runnable body) {
+        return new AbstractChunkTask(position) {
+            @Override
+            public String getName() {
+                return "Test Task";
+            }
+
+            @Override
+            public void run() {
+                body.run();
+            }
+        };
+    }
+
+    private static Chunk mockChunkAt(int x, int y, int z) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getPosition()).thenReturn(new Vector3i(x, y, z));
+        return chunk;
+    }
+}
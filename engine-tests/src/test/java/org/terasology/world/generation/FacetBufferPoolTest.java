@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.context.Context;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.generation.facets.base.BaseFieldFacet2D;
+import org.terasology.world.generation.facets.base.BaseFieldFacet3D;
+import org.terasology.world.generator.plugin.WorldGeneratorPluginLibrary;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FacetBufferPoolTest {
+
+    private static final Vector3i CHUNK_SIZE = new Vector3i(8, 8, 8);
+
+    private Context context = new ContextImpl();
+
+    private FacetBufferPool pool;
+    private WorldImpl world;
+
+    @BeforeEach
+    public void setup() {
+        pool = new FacetBufferPool();
+        WorldBuilder worldBuilder = new WorldBuilder(context.get(WorldGeneratorPluginLibrary.class));
+        worldBuilder.setSeed(12);
+        worldBuilder.addProvider(new HeightProvider());
+        worldBuilder.addProvider(new DensityProvider());
+        world = (WorldImpl) worldBuilder.build();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        FacetBufferPool.activate(null);
+    }
+
+    @Test
+    public void testNoActivePoolAllocates() {
+        float[] first = FacetBufferPool.floats(16);
+        FacetBufferPool.recycle(first);
+
+        assertNotSame(first, FacetBufferPool.floats(16));
+        assertEquals(0, pool.getLeasedCount());
+    }
+
+    @Test
+    public void testReclaimedArraysGetReusedCleared() {
+        FacetBufferPool.activate(pool);
+        float[] floats = FacetBufferPool.floats(16);
+        boolean[] booleans = FacetBufferPool.booleans(16);
+        String[] objects = FacetBufferPool.objects(String.class, 16);
+        floats[3] = 1;
+        booleans[3] = true;
+        objects[3] = "tree";
+        assertEquals(3, pool.getLeasedCount());
+
+        pool.reclaimAll();
+
+        assertEquals(0, pool.getLeasedCount());
+        assertSame(floats, FacetBufferPool.floats(16));
+        assertSame(booleans, FacetBufferPool.booleans(16));
+        assertSame(objects, FacetBufferPool.objects(String.class, 16));
+        assertArrayEquals(new float[16], floats);
+        assertFalse(booleans[3]);
+        assertNull(objects[3]);
+    }
+
+    @Test
+    public void testArraysOfOtherTypeOrLengthAreNotReused() {
+        FacetBufferPool.activate(pool);
+        float[] floats = FacetBufferPool.floats(16);
+        Integer[] objects = FacetBufferPool.objects(Integer.class, 16);
+        pool.reclaimAll();
+
+        assertNotSame(floats, FacetBufferPool.floats(17));
+        assertNotSame(objects, FacetBufferPool.objects(Number.class, 16));
+    }
+
+    @Test
+    public void testRecycledArrayGetsReusedBeforeReclaim() {
+        FacetBufferPool.activate(pool);
+        float[] intermediate = FacetBufferPool.floats(16);
+        FacetBufferPool.recycle(intermediate);
+
+        assertSame(intermediate, FacetBufferPool.floats(16));
+        assertEquals(1, pool.getLeasedCount());
+    }
+
+    @Test
+    public void testChunkFacetsReuseArraysAfterReclaim() {
+        DensityFacet first = world.getChunkData(chunkRegion(0, 0, 0), pool).getFacet(DensityFacet.class);
+        float[] density = first.getInternal();
+        assertEquals(1, pool.getLeasedCount());
+        pool.reclaimAll();
+
+        DensityFacet second = world.getChunkData(chunkRegion(0, 1, 0), pool).getFacet(DensityFacet.class);
+
+        assertSame(density, second.getInternal());
+    }
+
+    @Test
+    public void testColumnFacetsDoNotUsePool() {
+        HeightFacet height = world.getChunkData(chunkRegion(0, 0, 0), pool).getFacet(HeightFacet.class);
+        assertEquals(0, pool.getLeasedCount());
+        pool.reclaimAll();
+
+        FacetBufferPool.activate(pool);
+
+        assertNotSame(height.getInternal(), FacetBufferPool.floats(height.getInternal().length));
+        assertEquals(CHUNK_SIZE.x, height.get(0, 0), 0);
+    }
+
+    private static Region3i chunkRegion(int x, int y, int z) {
+        return Region3i.createFromMinAndSize(new Vector3i(x * CHUNK_SIZE.x, y * CHUNK_SIZE.y, z * CHUNK_SIZE.z), CHUNK_SIZE);
+    }
+
+    public static class HeightFacet extends BaseFieldFacet2D {
+        public HeightFacet(Region3i targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class DensityFacet extends BaseFieldFacet3D {
+        public DensityFacet(Region3i targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    @Produces(HeightFacet.class)
+    public static class HeightProvider implements FacetProvider {
+
+        @Override
+        public void process(GeneratingRegion region) {
+            HeightFacet facet = new HeightFacet(region.getRegion(), region.getBorderForFacet(HeightFacet.class));
+            Arrays.fill(facet.getInternal(), CHUNK_SIZE.x);
+            region.setRegionFacet(HeightFacet.class, facet);
+        }
+    }
+
+    @Produces(DensityFacet.class)
+    @Requires(@Facet(HeightFacet.class))
+    public static class DensityProvider implements FacetProvider {
+
+        @Override
+        public void process(GeneratingRegion region) {
+            DensityFacet facet = new DensityFacet(region.getRegion(), region.getBorderForFacet(DensityFacet.class));
+            HeightFacet height = region.getRegionFacet(HeightFacet.class);
+            float[] data = facet.getInternal();
+            for (int i = 0; i < data.length; i++) {
+                data[i] = height.get(0, 0);
+            }
+            region.setRegionFacet(DensityFacet.class, facet);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generation;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.context.Context;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.generation.facets.base.BaseFacet2D;
+import org.terasology.world.generation.facets.base.BaseFacet3D;
+import org.terasology.world.generator.plugin.WorldGeneratorPluginLibrary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FacetColumnCacheTest {
+
+    private static final Vector3i CHUNK_SIZE = new Vector3i(8, 8, 8);
+
+    private Context context = new ContextImpl();
+
+    private HeightProvider heightProvider;
+    private HeightUpdater heightUpdater;
+    private MixedProvider mixedProvider;
+    private WorldImpl world;
+
+    @BeforeEach
+    public void setup() {
+        heightProvider = new HeightProvider();
+        heightUpdater = new HeightUpdater();
+        mixedProvider = new MixedProvider();
+        WorldBuilder worldBuilder = new WorldBuilder(context.get(WorldGeneratorPluginLibrary.class));
+        worldBuilder.setSeed(12);
+        worldBuilder.addProvider(heightProvider);
+        worldBuilder.addProvider(heightUpdater);
+        worldBuilder.addProvider(new DensityProvider());
+        worldBuilder.addProvider(mixedProvider);
+        world = (WorldImpl) worldBuilder.build();
+    }
+
+    @Test
+    public void testColumnFacetDetection() {
+        FacetColumnCache columnCache = world.getColumnCache();
+
+        assertEquals(ImmutableSet.of(HeightFacet.class), columnCache.getColumnFacets());
+        assertEquals(ImmutableSet.of(heightProvider, heightUpdater), columnCache.getColumnProviders());
+    }
+
+    @Test
+    public void testChunksOfColumnShareColumnFacets() {
+        Region lower = world.getChunkData(chunkRegion(0, 0, 0));
+        Region upper = world.getChunkData(chunkRegion(0, 1, 0));
+
+        HeightFacet lowerHeight = lower.getFacet(DensityFacet.class).height;
+        HeightFacet upperHeight = upper.getFacet(DensityFacet.class).height;
+
+        assertSame(lowerHeight, upperHeight);
+        assertSame(lowerHeight, upper.getFacet(HeightFacet.class));
+        assertEquals(1, heightProvider.processCount);
+        assertEquals(1, heightUpdater.processCount);
+        assertEquals(1, lowerHeight.updateCount);
+        assertEquals(1, world.getColumnCache().getMissCount());
+        assertEquals(1, world.getColumnCache().getHitCount());
+    }
+
+    @Test
+    public void testFacetsDependingOn3DFacetsAreNotShared() {
+        MixedFacet lowerMixed = world.getChunkData(chunkRegion(0, 0, 0)).getFacet(MixedFacet.class);
+        MixedFacet upperMixed = world.getChunkData(chunkRegion(0, 1, 0)).getFacet(MixedFacet.class);
+
+        assertNotSame(lowerMixed, upperMixed);
+        assertEquals(2, mixedProvider.processCount);
+        assertEquals(1, heightProvider.processCount);
+    }
+
+    @Test
+    public void testOtherColumnGeneratesColumnFacets() {
+        HeightFacet first = world.getChunkData(chunkRegion(0, 0, 0)).getFacet(HeightFacet.class);
+        HeightFacet second = world.getChunkData(chunkRegion(1, 0, 0)).getFacet(HeightFacet.class);
+
+        assertNotSame(first, second);
+        assertEquals(2, heightProvider.processCount);
+        assertEquals(2, world.getColumnCache().getMissCount());
+    }
+
+    @Test
+    public void testWorldDataDoesNotUseColumnCache() {
+        world.getWorldData(chunkRegion(0, 0, 0)).getFacet(HeightFacet.class);
+        world.getWorldData(chunkRegion(0, 1, 0)).getFacet(HeightFacet.class);
+
+        assertEquals(2, heightProvider.processCount);
+        assertEquals(0, world.getColumnCache().getMissCount());
+    }
+
+    private static Region3i chunkRegion(int x, int y, int z) {
+        return Region3i.createFromMinAndSize(new Vector3i(x * CHUNK_SIZE.x, y * CHUNK_SIZE.y, z * CHUNK_SIZE.z), CHUNK_SIZE);
+    }
+
+    public static class HeightFacet extends BaseFacet2D {
+        public int updateCount;
+
+        public HeightFacet(Region3i targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class DensityFacet extends BaseFacet3D {
+        public HeightFacet height;
+
+        public DensityFacet(Region3i targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class MixedFacet extends BaseFacet2D {
+        public MixedFacet(Region3i targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    @Produces(HeightFacet.class)
+    public static class HeightProvider implements FacetProvider {
+        private int processCount;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            processCount++;
+            region.setRegionFacet(HeightFacet.class, new HeightFacet(region.getRegion(), region.getBorderForFacet(HeightFacet.class)));
+        }
+    }
+
+    @Updates(@Facet(HeightFacet.class))
+    public static class HeightUpdater implements FacetProvider {
+        private int processCount;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            processCount++;
+            region.getRegionFacet(HeightFacet.class).updateCount++;
+        }
+    }
+
+    @Produces(DensityFacet.class)
+    @Requires(@Facet(HeightFacet.class))
+    public static class DensityProvider implements FacetProvider {
+
+        @Override
+        public void process(GeneratingRegion region) {
+            DensityFacet facet = new DensityFacet(region.getRegion(), region.getBorderForFacet(DensityFacet.class));
+            facet.height = region.getRegionFacet(HeightFacet.class);
+            region.setRegionFacet(DensityFacet.class, facet);
+        }
+    }
+
+    @Produces(MixedFacet.class)
+    @Requires(@Facet(DensityFacet.class))
+    public static class MixedProvider implements FacetProvider {
+        private int processCount;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            processCount++;
+            region.setRegionFacet(MixedFacet.class, new MixedFacet(region.getRegion(), region.getBorderForFacet(MixedFacet.class)));
+        }
+    }
+}
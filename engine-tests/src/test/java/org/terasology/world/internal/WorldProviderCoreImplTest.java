@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.context.Context;
+import org.terasology.engine.SimpleUri;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.BulkBlockEdit;
+import org.terasology.world.WorldChangeListener;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.propagation.BatchPropagator;
+import org.terasology.world.propagation.BlockChange;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WorldProviderCoreImplTest {
+
+    private final Block air = new Block();
+    private final Block stone = new Block();
+    private final Map<Vector3i, Chunk> chunks = Maps.newHashMap();
+    private final List<List<BlockChange>> propagationBatches = Lists.newArrayList();
+
+    private WorldProviderCoreImpl worldProvider;
+    private WorldChangeListener listener;
+
+    @BeforeEach
+    public void setup() {
+        GeneratingChunkProvider chunkProvider = mock(GeneratingChunkProvider.class);
+        when(chunkProvider.getChunk(any(Vector3i.class))).thenAnswer(invocation -> chunks.computeIfAbsent(
+                new Vector3i((Vector3i) invocation.getArgument(0)), pos -> {
+                    Chunk chunk = mock(Chunk.class);
+                    when(chunk.setBlock(anyInt(), anyInt(), anyInt(), any(Block.class))).thenReturn(air);
+                    return chunk;
+                }));
+        worldProvider = new WorldProviderCoreImpl("test", "test", "seed", 0, new SimpleUri("test:generator"),
+                chunkProvider, air, mock(Context.class));
+
+        BatchPropagator propagator = mock(BatchPropagator.class);
+        doAnswer(invocation -> {
+            propagationBatches.add(Lists.newArrayList((Iterable<BlockChange>) invocation.getArgument(0)));
+            return null;
+        }).when(propagator).process(any(Iterable.class));
+        worldProvider.setPropagators(Collections.singletonList(propagator));
+
+        listener = mock(WorldChangeListener.class);
+        worldProvider.registerListener(listener);
+    }
+
+    @Test
+    public void testListenersGetInformedOnce() {
+        Region3i region = Region3i.createFromMinAndSize(new Vector3i(-3, 2, 5), new Vector3i(8, 3, 4));
+
+        assertEquals(volume(region), worldProvider.setBlocks(BulkBlockEdit.fill(region, stone)));
+
+        verify(listener, times(1)).onBlocksChanged(eq(region), any(Collection.class));
+        verify(listener, never()).onBlockChanged(any(Vector3i.class), any(Block.class), any(Block.class));
+    }
+
+    @Test
+    public void testChunksGetMarkedDirtyOnce() {
+        Region3i region = Region3i.createFromMinAndSize(new Vector3i(4, 4, 4), new Vector3i(8, 8, 8));
+
+        worldProvider.setBlocks(BulkBlockEdit.fill(region, stone));
+
+        verify(chunks.get(new Vector3i(0, 0, 0)), times(1)).setDirty(true);
+        assertEquals(1, chunks.size());
+    }
+
+    @Test
+    public void testNeighbouringChunksGetMarkedDirtyForBorderChanges() {
+        Region3i region = Region3i.createFromMinAndSize(new Vector3i(ChunkConstants.SIZE_X - 1, 4, 4),
+                new Vector3i(2, 2, 2));
+
+        worldProvider.setBlocks(BulkBlockEdit.fill(region, stone));
+
+        verify(chunks.get(new Vector3i(0, 0, 0)), times(1)).setDirty(true);
+        verify(chunks.get(new Vector3i(1, 0, 0)), times(1)).setDirty(true);
+        assertEquals(2, chunks.size());
+    }
+
+    @Test
+    public void testChangesGetPropagatedInOneBatch() {
+        Region3i region = Region3i.createFromMinAndSize(new Vector3i(0, 0, 0), new Vector3i(ChunkConstants.SIZE_X + 1, 2, 2));
+
+        worldProvider.setBlocks(BulkBlockEdit.fill(region, stone));
+        worldProvider.processPropagation();
+
+        assertEquals(1, propagationBatches.size());
+        assertEquals(volume(region), propagationBatches.get(0).size());
+    }
+
+    private static int volume(Region3i region) {
+        return region.sizeX() * region.sizeY() * region.sizeZ();
+    }
+}
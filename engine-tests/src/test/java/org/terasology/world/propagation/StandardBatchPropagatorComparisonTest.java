@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.propagation.light.LightPropagationRules;
+import org.terasology.world.propagation.light.SunlightPropagationRules;
+import org.terasology.world.propagation.light.SunlightRegenPropagationRules;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Applies the same random block changes to worlds propagated by {@link StandardBatchPropagator} and by
+ * {@link ReferenceBatchPropagator} and expects identical values after every batch.
+ */
+public class StandardBatchPropagatorComparisonTest {
+
+    private static final int BATCHES = 12;
+
+    private final Region3i region = Region3i.createFromMinAndSize(new Vector3i(-12, -12, -12), new Vector3i(24, 24, 24));
+
+    private Block[] blocks;
+
+    @BeforeEach
+    public void setup() {
+        Block air = createBlock((byte) 0, true);
+        Block stone = createBlock((byte) 0, false);
+        stone.setFullSide(Side.TOP, true);
+        stone.setFullSide(Side.BOTTOM, true);
+        stone.setFullSide(Side.LEFT, true);
+        stone.setFullSide(Side.RIGHT, true);
+        stone.setFullSide(Side.FRONT, true);
+        stone.setFullSide(Side.BACK, true);
+        Block slab = createBlock((byte) 0, false);
+        slab.setFullSide(Side.BOTTOM, true);
+        Block torch = createBlock(ChunkConstants.MAX_LIGHT, true);
+        Block lantern = createBlock((byte) 7, true);
+        Block glowingSlab = createBlock((byte) 4, false);
+        glowingSlab.setFullSide(Side.TOP, true);
+        // Air and stone are weighted, so that the worlds consist of open and closed areas
+        blocks = new Block[]{air, air, air, air, stone, stone, stone, slab, torch, lantern, glowingSlab};
+    }
+
+    @Test
+    public void testLightPropagationMatchesReference() {
+        for (long seed = 0; seed < 4; seed++) {
+            Random random = new Random(seed);
+            Map<Vector3i, Block> blockData = Maps.newHashMap();
+            StubPropagatorWorldView world = new StubPropagatorWorldView(region, blocks[0], blockData);
+            StubPropagatorWorldView referenceWorld = new StubPropagatorWorldView(region, blocks[0], blockData);
+            LightPropagationRules rules = new LightPropagationRules();
+            BatchPropagator propagator = new StandardBatchPropagator(rules, world);
+            BatchPropagator referencePropagator = new ReferenceBatchPropagator(rules, referenceWorld);
+
+            for (int batch = 0; batch < BATCHES; batch++) {
+                List<BlockChange> changes = randomChanges(random, blockData, batch == 0 ? 4000 : 1 + random.nextInt(200));
+                propagator.process(changes);
+                referencePropagator.process(changes);
+
+                assertSameValues(referenceWorld, world, "seed " + seed + ", batch " + batch);
+            }
+        }
+    }
+
+    @Test
+    public void testSunlightPropagationMatchesReference() {
+        for (long seed = 0; seed < 4; seed++) {
+            Random random = new Random(seed);
+            Map<Vector3i, Block> blockData = Maps.newHashMap();
+            StubPropagatorWorldView regenWorld = new StubPropagatorWorldView(region, blocks[0], blockData);
+            StubPropagatorWorldView world = new StubPropagatorWorldView(region, blocks[0], blockData);
+            StubPropagatorWorldView referenceRegenWorld = new StubPropagatorWorldView(region, blocks[0], blockData);
+            StubPropagatorWorldView referenceWorld = new StubPropagatorWorldView(region, blocks[0], blockData);
+            for (int x = region.minX(); x <= region.maxX(); x++) {
+                for (int z = region.minZ(); z <= region.maxZ(); z++) {
+                    Vector3i top = new Vector3i(x, region.maxY(), z);
+                    regenWorld.setValueAt(top, ChunkConstants.MAX_SUNLIGHT_REGEN);
+                    referenceRegenWorld.setValueAt(top, ChunkConstants.MAX_SUNLIGHT_REGEN);
+                }
+            }
+            SunlightRegenPropagationRules regenRules = new SunlightRegenPropagationRules();
+            BatchPropagator sunlightPropagator = new StandardBatchPropagator(new SunlightPropagationRules(regenWorld), world);
+            BatchPropagator regenPropagator = new SunlightRegenBatchPropagator(regenRules, regenWorld, sunlightPropagator, world);
+            BatchPropagator referenceSunlightPropagator = new ReferenceBatchPropagator(new SunlightPropagationRules(referenceRegenWorld), referenceWorld);
+            BatchPropagator referenceRegenPropagator = new SunlightRegenBatchPropagator(regenRules, referenceRegenWorld,
+                    referenceSunlightPropagator, referenceWorld);
+
+            for (int batch = 0; batch < BATCHES; batch++) {
+                List<BlockChange> changes = randomChanges(random, blockData, batch == 0 ? 4000 : 1 + random.nextInt(200));
+                regenPropagator.process(changes);
+                sunlightPropagator.process(changes);
+                referenceRegenPropagator.process(changes);
+                referenceSunlightPropagator.process(changes);
+
+                assertSameValues(referenceRegenWorld, regenWorld, "regen, seed " + seed + ", batch " + batch);
+                assertSameValues(referenceWorld, world, "seed " + seed + ", batch " + batch);
+            }
+        }
+    }
+
+    private List<BlockChange> randomChanges(Random random, Map<Vector3i, Block> blockData, int count) {
+        List<BlockChange> changes = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            // Changes stay off the border of the region, values only reach it by spreading
+            Vector3i pos = new Vector3i(region.minX() + 1 + random.nextInt(region.sizeX() - 2),
+                    region.minY() + 1 + random.nextInt(region.sizeY() - 2),
+                    region.minZ() + 1 + random.nextInt(region.sizeZ() - 2));
+            Block oldBlock = blockData.getOrDefault(pos, blocks[0]);
+            Block newBlock = blocks[random.nextInt(blocks.length)];
+            if (oldBlock != newBlock) {
+                blockData.put(pos, newBlock);
+                changes.add(new BlockChange(pos, oldBlock, newBlock));
+            }
+        }
+        return changes;
+    }
+
+    private void assertSameValues(StubPropagatorWorldView expected, StubPropagatorWorldView actual, String message) {
+        for (Vector3i pos : region) {
+            assertEquals(expected.getValueAt(pos), actual.getValueAt(pos), message + ", position " + pos);
+        }
+    }
+
+    private static Block createBlock(byte luminance, boolean translucent) {
+        Block block = new Block();
+        block.setLuminance(luminance);
+        block.setTranslucent(translucent);
+        return block;
+    }
+}
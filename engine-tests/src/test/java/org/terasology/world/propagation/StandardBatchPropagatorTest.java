@@ -0,0 +1,422 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.TerasologyTestingEnvironment;
+import org.terasology.assets.ResourceUrn;
+import org.terasology.assets.management.AssetManager;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Diamond3iIterator;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.block.family.SymmetricFamily;
+import org.terasology.world.block.internal.BlockManagerImpl;
+import org.terasology.world.block.loader.BlockFamilyDefinition;
+import org.terasology.world.block.loader.BlockFamilyDefinitionData;
+import org.terasology.world.block.shapes.BlockShape;
+import org.terasology.world.block.tiles.NullWorldAtlas;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.ChunkProvider;
+import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.propagation.light.LightPropagationRules;
+import org.terasology.world.propagation.light.LightWorldView;
+import org.terasology.world.propagation.light.SunlightPropagationRules;
+import org.terasology.world.propagation.light.SunlightRegenPropagationRules;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs block changes through {@link StandardBatchPropagator} and compares the values with recorded layers.
+ * <p>
+ * The layers are a vertical slice of the world, listed from the top down. Blocks are written as {@code .} for air,
+ * {@code #} for stone, {@code T} for a torch and {@code L} for a lantern, values as a hex digit per block.
+ */
+public class StandardBatchPropagatorTest extends TerasologyTestingEnvironment {
+
+    private static final int SLICE_SIZE = 16;
+
+    private final Region3i slice = Region3i.createFromMinAndSize(Vector3i.zero(), new Vector3i(SLICE_SIZE, SLICE_SIZE, 1));
+
+    private BlockManagerImpl blockManager;
+    private ExtraBlockDataManager extraDataManager;
+    private Block air;
+    private Block stone;
+    private Block torch;
+    private Block lantern;
+    private LightPropagationRules lightRules;
+
+    @BeforeEach
+    @Override
+    public void setup() throws Exception {
+        super.setup();
+        lightRules = new LightPropagationRules();
+        AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+        blockManager = new BlockManagerImpl(new NullWorldAtlas(), assetManager, true);
+        CoreRegistry.put(BlockManager.class, blockManager);
+        extraDataManager = new ExtraBlockDataManager();
+
+        stone = createBlock(assetManager, "engine:stone", (byte) 0, false);
+        torch = createBlock(assetManager, "engine:torch", ChunkConstants.MAX_LIGHT, true);
+        lantern = createBlock(assetManager, "engine:lantern", (byte) 7, true);
+        air = blockManager.getBlock(BlockManager.AIR_ID);
+    }
+
+    @Test
+    public void testLightLayers() {
+        StubPropagatorWorldView worldView = new StubPropagatorWorldView(slice, air);
+        BatchPropagator propagator = new StandardBatchPropagator(lightRules, worldView);
+
+        // A torch in front of a wall, the light reaches behind it around the ends
+        propagator.process(changeBlocks(worldView,
+                "................",
+                "................",
+                "................",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "..T.....#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "................",
+                "................",
+                "................",
+                "................"));
+        assertValues(worldView,
+                "6787654321000000",
+                "7898765432100000",
+                "89a9876543210000",
+                "9aba987602100000",
+                "abcba98701000000",
+                "bcdcba9800000000",
+                "cdedcba900000000",
+                "defedcba00000000",
+                "cdedcba900000000",
+                "bcdcba9800000000",
+                "abcba98701000000",
+                "9aba987602100000",
+                "89a9876543210000",
+                "7898765432100000",
+                "6787654321000000",
+                "5676543210000000");
+
+        // Opening the wall lets the light straight through
+        propagator.process(changeBlocks(worldView,
+                "................",
+                "................",
+                "................",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "..T.............",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "................",
+                "................",
+                "................",
+                "................"));
+        assertValues(worldView,
+                "6787654321000000",
+                "7898765432100000",
+                "89a9876543210000",
+                "9aba987604321000",
+                "abcba98705432100",
+                "bcdcba9806543210",
+                "cdedcba907654321",
+                "defedcba98765432",
+                "cdedcba907654321",
+                "bcdcba9806543210",
+                "abcba98705432100",
+                "9aba987604321000",
+                "89a9876543210000",
+                "7898765432100000",
+                "6787654321000000",
+                "5676543210000000");
+
+        // Dimming the torch and placing another one in the same batch
+        propagator.process(changeBlocks(worldView,
+                "................",
+                "................",
+                "................",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "..L..........T..",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "........#.......",
+                "................",
+                "................",
+                "................",
+                "................"));
+        assertValues(worldView,
+                "0000001234567876",
+                "0010012345678987",
+                "0121123456789a98",
+                "123223450789aba9",
+                "23433456089abcba",
+                "3454456709abcdcb",
+                "456556780abcdedc",
+                "56766789abcdefed",
+                "456556780abcdedc",
+                "3454456709abcdcb",
+                "23433456089abcba",
+                "123223450789aba9",
+                "0121123456789a98",
+                "0010012345678987",
+                "0000001234567876",
+                "0000000123456765");
+
+        // Removing everything leaves no light behind
+        propagator.process(changeBlocks(worldView, emptyLayer()));
+        assertValues(worldView, uniformLayer('0'));
+    }
+
+    @Test
+    public void testSunlightLayers() {
+        Map<Vector3i, Block> blockData = Maps.newHashMap();
+        StubPropagatorWorldView regenWorldView = new StubPropagatorWorldView(slice, air, blockData);
+        StubPropagatorWorldView lightWorldView = new StubPropagatorWorldView(slice, air, blockData);
+        for (Vector3i pos : slice) {
+            regenWorldView.setValueAt(pos, ChunkConstants.MAX_SUNLIGHT_REGEN);
+            lightWorldView.setValueAt(pos, ChunkConstants.MAX_SUNLIGHT);
+        }
+        BatchPropagator sunlightPropagator = new StandardBatchPropagator(new SunlightPropagationRules(regenWorldView), lightWorldView);
+        BatchPropagator regenPropagator = new SunlightRegenBatchPropagator(new SunlightRegenPropagationRules(), regenWorldView,
+                sunlightPropagator, lightWorldView);
+
+        // A roof shades the blocks beneath it, which are only lit from the sides
+        String[] roof = emptyLayer();
+        // The sixth row from the top is y = 10
+        roof[5] = "....########....";
+        List<BlockChange> changes = changeBlocks(regenWorldView, roof);
+        regenPropagator.process(changes);
+        sunlightPropagator.process(changes);
+        String[] shaded = uniformLayer('f');
+        shaded[5] = "ffff00000000ffff";
+        for (int row = 6; row < SLICE_SIZE; row++) {
+            shaded[row] = "ffffedcbbcdeffff";
+        }
+        assertValues(lightWorldView, shaded);
+        assertRegenBelowRoof(regenWorldView, 10, 4, 11);
+
+        // A hole in the roof lets the sunlight down again
+        String[] holedRoof = emptyLayer();
+        holedRoof[5] = "....###.####....";
+        changes = changeBlocks(regenWorldView, holedRoof);
+        regenPropagator.process(changes);
+        sunlightPropagator.process(changes);
+        String[] partiallyShaded = uniformLayer('f');
+        partiallyShaded[5] = "ffff000f0000ffff";
+        for (int row = 6; row < SLICE_SIZE; row++) {
+            partiallyShaded[row] = "ffffedefeddeffff";
+        }
+        assertValues(lightWorldView, partiallyShaded);
+        for (int y = 0; y < SLICE_SIZE; y++) {
+            assertEquals(ChunkConstants.MAX_SUNLIGHT_REGEN, regenWorldView.getValueAt(new Vector3i(7, y, 0)), "Incorrect regen at " + y);
+        }
+
+        // Closing the hole again restores the shade
+        changes = changeBlocks(regenWorldView, roof);
+        regenPropagator.process(changes);
+        sunlightPropagator.process(changes);
+        assertValues(lightWorldView, shaded);
+        assertRegenBelowRoof(regenWorldView, 10, 4, 11);
+    }
+
+    @Test
+    public void testLightCrossesChunksOfLocalChunkView() {
+        Chunk centerChunk = new ChunkImpl(new Vector3i(0, 0, 0), blockManager, extraDataManager);
+        Chunk eastChunk = new ChunkImpl(new Vector3i(1, 0, 0), blockManager, extraDataManager);
+        Chunk[] chunks = new Chunk[27];
+        chunks[13] = centerChunk;
+        chunks[14] = eastChunk;
+        PropagatorWorldView worldView = new LocalChunkView(chunks, lightRules);
+
+        Vector3i torchPos = new Vector3i(ChunkConstants.SIZE_X - 1, 30, 16);
+        Vector3i wallPos = new Vector3i(ChunkConstants.SIZE_X, 30, 16);
+        assertLightAcrossChunkEdge(worldView, torchPos, centerChunk, wallPos, eastChunk);
+    }
+
+    @Test
+    public void testLightStopsAtMissingChunksOfLocalChunkView() {
+        Chunk centerChunk = new ChunkImpl(new Vector3i(0, 0, 0), blockManager, extraDataManager);
+        Chunk[] chunks = new Chunk[27];
+        chunks[13] = centerChunk;
+        PropagatorWorldView worldView = new LocalChunkView(chunks, lightRules);
+        BatchPropagator propagator = new StandardBatchPropagator(lightRules, worldView);
+
+        Vector3i torchPos = new Vector3i(ChunkConstants.SIZE_X - 1, 30, 16);
+        centerChunk.setBlock(ChunkMath.calcBlockPos(torchPos), torch);
+        propagator.process(new BlockChange(torchPos, air, torch));
+
+        for (int i = 0; i <= ChunkConstants.MAX_LIGHT; ++i) {
+            for (Vector3i pos : Diamond3iIterator.iterateAtDistance(torchPos, i)) {
+                if (pos.x < ChunkConstants.SIZE_X) {
+                    assertEquals(Math.max(0, ChunkConstants.MAX_LIGHT - i), worldView.getValueAt(pos), "Incorrect value at " + pos);
+                } else {
+                    assertEquals(PropagatorWorldView.UNAVAILABLE, worldView.getValueAt(pos), "Incorrect value at " + pos);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLightCrossesChunksOfFullWorldView() {
+        Chunk centerChunk = new ChunkImpl(new Vector3i(0, 0, 0), blockManager, extraDataManager);
+        Chunk northChunk = new ChunkImpl(new Vector3i(0, 0, 1), blockManager, extraDataManager);
+        Map<Vector3i, Chunk> chunks = Maps.newHashMap();
+        chunks.put(centerChunk.getPosition(), centerChunk);
+        chunks.put(northChunk.getPosition(), northChunk);
+        ChunkProvider chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getChunk(any(Vector3i.class))).thenAnswer(invocation -> chunks.get(invocation.<Vector3i>getArgument(0)));
+        when(chunkProvider.getChunk(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> chunks.get(new Vector3i(
+                invocation.<Integer>getArgument(0), invocation.<Integer>getArgument(1), invocation.<Integer>getArgument(2))));
+        PropagatorWorldView worldView = new LightWorldView(chunkProvider);
+
+        Vector3i torchPos = new Vector3i(16, 30, ChunkConstants.SIZE_Z - 1);
+        Vector3i wallPos = new Vector3i(16, 30, ChunkConstants.SIZE_Z);
+        assertLightAcrossChunkEdge(worldView, torchPos, centerChunk, wallPos, northChunk);
+    }
+
+    /**
+     * Places a torch at the edge of a chunk, walls off the block beside it in the adjacent chunk and removes the torch
+     * again, checking the values on both sides of the edge after each step.
+     */
+    private void assertLightAcrossChunkEdge(PropagatorWorldView worldView, Vector3i torchPos, Chunk torchChunk, Vector3i wallPos, Chunk wallChunk) {
+        BatchPropagator propagator = new StandardBatchPropagator(lightRules, worldView);
+
+        torchChunk.setBlock(ChunkMath.calcBlockPos(torchPos), torch);
+        propagator.process(new BlockChange(torchPos, air, torch));
+        assertLightAround(worldView, torchPos, ChunkConstants.MAX_LIGHT);
+
+        wallChunk.setBlock(ChunkMath.calcBlockPos(wallPos), stone);
+        propagator.process(new BlockChange(wallPos, air, stone));
+        Vector3i behindWall = new Vector3i(2 * wallPos.x - torchPos.x, 2 * wallPos.y - torchPos.y, 2 * wallPos.z - torchPos.z);
+        assertEquals(0, worldView.getValueAt(wallPos));
+        // Four steps around the wall rather than two through it
+        assertEquals(ChunkConstants.MAX_LIGHT - 4, worldView.getValueAt(behindWall));
+
+        torchChunk.setBlock(ChunkMath.calcBlockPos(torchPos), air);
+        propagator.process(new BlockChange(torchPos, torch, air));
+        assertLightAround(worldView, torchPos, 0);
+    }
+
+    private void assertLightAround(PropagatorWorldView worldView, Vector3i origin, int luminance) {
+        for (int i = 0; i <= ChunkConstants.MAX_LIGHT; ++i) {
+            for (Vector3i pos : Diamond3iIterator.iterateAtDistance(origin, i)) {
+                assertEquals(Math.max(0, luminance - i), worldView.getValueAt(pos), "Incorrect value at " + pos);
+            }
+        }
+    }
+
+    private void assertRegenBelowRoof(StubPropagatorWorldView regenWorldView, int roofY, int minX, int maxX) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = 0; y <= roofY; y++) {
+                assertEquals(Math.max(0, roofY - 1 - y), regenWorldView.getValueAt(new Vector3i(x, y, 0)), "Incorrect regen at " + x + ", " + y);
+            }
+        }
+    }
+
+    /**
+     * Changes the blocks of the slice to the given layer, returning the changes made.
+     */
+    private List<BlockChange> changeBlocks(StubPropagatorWorldView worldView, String... rows) {
+        List<BlockChange> changes = Lists.newArrayList();
+        for (int row = 0; row < rows.length; row++) {
+            for (int x = 0; x < rows[row].length(); x++) {
+                Vector3i pos = new Vector3i(x, rows.length - 1 - row, 0);
+                Block oldBlock = worldView.getBlockAt(pos);
+                Block newBlock = toBlock(rows[row].charAt(x));
+                if (oldBlock != newBlock) {
+                    worldView.setBlockAt(pos, newBlock);
+                    changes.add(new BlockChange(pos, oldBlock, newBlock));
+                }
+            }
+        }
+        return changes;
+    }
+
+    private void assertValues(PropagatorWorldView worldView, String... rows) {
+        for (int row = 0; row < rows.length; row++) {
+            for (int x = 0; x < rows[row].length(); x++) {
+                Vector3i pos = new Vector3i(x, rows.length - 1 - row, 0);
+                assertEquals(Character.digit(rows[row].charAt(x), 16), worldView.getValueAt(pos), "Incorrect value at " + pos);
+            }
+        }
+    }
+
+    private Block toBlock(char symbol) {
+        switch (symbol) {
+            case '#':
+                return stone;
+            case 'T':
+                return torch;
+            case 'L':
+                return lantern;
+            default:
+                return air;
+        }
+    }
+
+    private static String[] emptyLayer() {
+        return uniformLayer('.');
+    }
+
+    private static String[] uniformLayer(char symbol) {
+        String[] rows = new String[SLICE_SIZE];
+        char[] row = new char[SLICE_SIZE];
+        Arrays.fill(row, symbol);
+        Arrays.fill(rows, new String(row));
+        return rows;
+    }
+
+    private Block createBlock(AssetManager assetManager, String urn, byte luminance, boolean translucent) {
+        BlockFamilyDefinitionData data = new BlockFamilyDefinitionData();
+        data.getBaseSection().setDisplayName(urn);
+        data.getBaseSection().setShape(assetManager.getAsset("engine:cube", BlockShape.class).get());
+        data.getBaseSection().setLuminance(luminance);
+        data.getBaseSection().setTranslucent(translucent);
+        data.setBlockFamily(SymmetricFamily.class);
+        assetManager.loadAsset(new ResourceUrn(urn), data, BlockFamilyDefinition.class);
+        return blockManager.getBlock(new BlockUri(new ResourceUrn(urn)));
+    }
+}
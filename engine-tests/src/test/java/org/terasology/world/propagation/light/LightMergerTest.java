@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation.light;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.jupiter.api.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.chunks.pipeline.ChunkTask;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LightMergerTest {
+
+    private final GeneratingChunkProvider chunkProvider = mock(GeneratingChunkProvider.class);
+    private final List<ChunkTask> mergeStage = Collections.synchronizedList(Lists.newArrayList());
+
+    @Test
+    public void testConflictingMergesAreHeldBack() {
+        LightMerger<Vector3i> lightMerger = new LightMerger<>(chunkProvider, mergeStage::add);
+
+        lightMerger.beginMerge(mockChunkAt(0, 0, 0), new Vector3i(0, 0, 0));
+        lightMerger.beginMerge(mockChunkAt(2, 2, 2), new Vector3i(2, 2, 2));
+        lightMerger.beginMerge(mockChunkAt(3, 0, 0), new Vector3i(3, 0, 0));
+
+        assertEquals(Lists.newArrayList(new Vector3i(0, 0, 0), new Vector3i(3, 0, 0)), stagedPositions());
+
+        runStagedMerge(0);
+        // Still conflicts with the merge at (3, 0, 0)
+        assertEquals(2, mergeStage.size());
+
+        runStagedMerge(1);
+        assertEquals(new Vector3i(2, 2, 2), stagedPositions().get(2));
+        runStagedMerge(2);
+        assertEquals(Sets.newHashSet(new Vector3i(0, 0, 0), new Vector3i(2, 2, 2), new Vector3i(3, 0, 0)),
+                Sets.newHashSet(lightMerger.completeMerge()));
+    }
+
+    @Test
+    public void testNoConflictingMergesRunConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        LightMerger<Vector3i> lightMerger = new LightMerger<>(chunkProvider, task -> executor.execute(task::run));
+        Set<Vector3i> runningMerges = Sets.newHashSet();
+        List<String> conflicts = Collections.synchronizedList(Lists.newArrayList());
+        AtomicInteger maxConcurrentMerges = new AtomicInteger();
+
+        try {
+            for (int x = 0; x < 8; x++) {
+                for (int z = 0; z < 8; z++) {
+                    Vector3i pos = new Vector3i(x, 0, z);
+                    Chunk chunk = mockChunkAt(x, 0, z);
+                    // Sunlight gets deflated at the end of each merge, so the merge is still running
+                    doAnswer(invocation -> {
+                        synchronized (runningMerges) {
+                            for (Vector3i other : runningMerges) {
+                                if (Math.abs(other.x - pos.x) < 3 && Math.abs(other.y - pos.y) < 3 && Math.abs(other.z - pos.z) < 3) {
+                                    conflicts.add(pos + " conflicts with " + other);
+                                }
+                            }
+                            runningMerges.add(pos);
+                            maxConcurrentMerges.accumulateAndGet(runningMerges.size(), Math::max);
+                        }
+                        Thread.sleep(2);
+                        synchronized (runningMerges) {
+                            runningMerges.remove(pos);
+                        }
+                        return null;
+                    }).when(chunk).deflateSunlight();
+                    lightMerger.beginMerge(chunk, pos);
+                }
+            }
+            lightMerger.shutdown();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(Collections.emptyList(), conflicts);
+        assertEquals(64, lightMerger.completeMerge().size());
+        assertTrue(maxConcurrentMerges.get() > 1);
+    }
+
+    @Test
+    public void testShutdownWaitsForRequestedMerges() throws Exception {
+        LightMerger<Vector3i> lightMerger = new LightMerger<>(chunkProvider, mergeStage::add);
+        lightMerger.beginMerge(mockChunkAt(0, 0, 0), new Vector3i(0, 0, 0));
+        lightMerger.beginMerge(mockChunkAt(1, 0, 0), new Vector3i(1, 0, 0));
+
+        Thread shutdownThread = new Thread(lightMerger::shutdown);
+        shutdownThread.start();
+        shutdownThread.join(200);
+        assertTrue(shutdownThread.isAlive());
+
+        runStagedMerge(0);
+        runStagedMerge(1);
+        shutdownThread.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(shutdownThread.isAlive());
+        assertEquals(2, lightMerger.completeMerge().size());
+
+        // Merges requested after the shutdown are not handed to the merge stage anymore
+        lightMerger.beginMerge(mockChunkAt(5, 0, 0), new Vector3i(5, 0, 0));
+        assertEquals(2, mergeStage.size());
+    }
+
+    private List<Vector3i> stagedPositions() {
+        List<Vector3i> positions = Lists.newArrayList();
+        for (ChunkTask task : mergeStage) {
+            positions.add(task.getPosition());
+        }
+        return positions;
+    }
+
+    private void runStagedMerge(int index) {
+        mergeStage.get(index).run();
+    }
+
+    private static Chunk mockChunkAt(int x, int y, int z) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getPosition()).thenReturn(new Vector3i(x, y, z));
+        return chunk;
+    }
+}
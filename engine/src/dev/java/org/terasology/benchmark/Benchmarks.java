@@ -17,6 +17,8 @@
 
 import com.google.common.base.Preconditions;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -220,6 +222,17 @@ public static StringBuilder printResult(BenchmarkResult result, StringBuilder b)
         return b;
     }
 
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the JVM can't tell
+     */
+    public static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
     private static BenchmarkResult.Column<?>[] getColumns(BenchmarkResult result) {
         BenchmarkResult.Column<?>[] columns = new BenchmarkResult.Column<?>[result.getNumColumns()];
         Iterator<BenchmarkResult.Column<?>> it = result.getColumnsIterator();
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.chunks.arrays;
+
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.utilities.random.FastRandom;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+
+import java.util.function.Supplier;
+
+/**
+ * Edits the block data of a chunk while snapshots of it are held, the way {@link org.terasology.world.chunks.internal.ChunkImpl}
+ * does: the first write after a snapshot got taken copies the array. Snapshots get taken for mesh generation and
+ * saving, so edits near a player keep running into them.
+ * <br><br>
+ * Digging takes a snapshot before every removed block, as the chunk gets tessellated again after each one. An
+ * explosion takes one snapshot and then removes a sphere of blocks.
+ * <br><br>
+ * Reports the edits per second and the bytes allocated per edit, if the JVM can measure them.
+ */
+public class BenchmarkChunkEdits extends AbstractBenchmark {
+
+    private static final int DIG_DEPTH = 32;
+    private static final int EXPLOSION_RADIUS = 5;
+
+    private final Supplier<TeraArray> arrayFactory;
+    private final boolean explosion;
+    private final String arrayName;
+
+    private TeraArray blockData;
+    private TeraArray snapshot;
+    private FastRandom random;
+
+    private long editCount;
+    private long nanos;
+    private long allocatedBytes;
+
+    public BenchmarkChunkEdits(String arrayName, Supplier<TeraArray> arrayFactory, boolean explosion) {
+        super("Chunk edits with snapshots (" + arrayName + ", " + (explosion ? "explosions" : "digging") + ")", 20,
+                new int[]{500, 500, 500});
+        this.arrayName = arrayName;
+        this.arrayFactory = arrayFactory;
+        this.explosion = explosion;
+    }
+
+    @Override
+    public void setup() {
+        blockData = arrayFactory.get();
+        for (int y = 0; y < ChunkConstants.SIZE_Y / 2; y++) {
+            int block = y < ChunkConstants.SIZE_Y / 4 ? 1 : 2;
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+                    blockData.set(x, y, z, block);
+                }
+            }
+        }
+        random = new FastRandom(0L);
+        editCount = 0;
+        nanos = 0;
+        allocatedBytes = 0;
+    }
+
+    @Override
+    public void run() {
+        long allocatedBefore = Benchmarks.getAllocatedBytes();
+        long start = System.nanoTime();
+        if (explosion) {
+            explode(random.nextInt(ChunkConstants.SIZE_X), random.nextInt(ChunkConstants.SIZE_Y / 2), random.nextInt(ChunkConstants.SIZE_Z));
+        } else {
+            dig(random.nextInt(ChunkConstants.SIZE_X), random.nextInt(ChunkConstants.SIZE_Z));
+        }
+        nanos += System.nanoTime() - start;
+        allocatedBytes += Benchmarks.getAllocatedBytes() - allocatedBefore;
+        // The tessellator or the storage manager is done with the snapshot
+        snapshot = null;
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (editCount == 0) {
+            return;
+        }
+        System.out.println(String.format("%s: %.0f edits/s", arrayName, editCount / (nanos / 1e9)));
+        if (allocatedBytes >= 0) {
+            System.out.println(String.format("%s: %d bytes allocated per edit", arrayName, allocatedBytes / editCount));
+        }
+    }
+
+    private void dig(int x, int z) {
+        for (int y = ChunkConstants.SIZE_Y / 2 - 1; y >= ChunkConstants.SIZE_Y / 2 - DIG_DEPTH; y--) {
+            snapshot = blockData;
+            setBlock(x, y, z, 0);
+        }
+    }
+
+    private void explode(int centerX, int centerY, int centerZ) {
+        snapshot = blockData;
+        int radiusSquared = EXPLOSION_RADIUS * EXPLOSION_RADIUS;
+        for (int y = Math.max(0, centerY - EXPLOSION_RADIUS); y <= Math.min(ChunkConstants.SIZE_Y - 1, centerY + EXPLOSION_RADIUS); y++) {
+            for (int z = Math.max(0, centerZ - EXPLOSION_RADIUS); z <= Math.min(ChunkConstants.SIZE_Z - 1, centerZ + EXPLOSION_RADIUS); z++) {
+                for (int x = Math.max(0, centerX - EXPLOSION_RADIUS); x <= Math.min(ChunkConstants.SIZE_X - 1, centerX + EXPLOSION_RADIUS); x++) {
+                    int dx = x - centerX;
+                    int dy = y - centerY;
+                    int dz = z - centerZ;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        setBlock(x, y, z, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    private void setBlock(int x, int y, int z, int block) {
+        if (blockData == snapshot) {
+            blockData = blockData.copy();
+        }
+        blockData.set(x, y, z, block);
+        editCount++;
+    }
+}
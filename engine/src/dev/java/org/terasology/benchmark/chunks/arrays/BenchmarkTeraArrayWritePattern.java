@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.chunks.arrays;
+
+import org.terasology.world.chunks.blockdata.TeraArray;
+
+/**
+ * BenchmarkTeraArrayWritePattern implements a write performance benchmark for tera arrays that writes a repeating
+ * pattern of a few distinct values, like the blocks of a chunk, instead of a single value.
+ *
+ */
+public class BenchmarkTeraArrayWritePattern extends BenchmarkTeraArray {
+
+    private final int distinctValues;
+    private int offset;
+
+    public BenchmarkTeraArrayWritePattern(TeraArray array, int distinctValues) {
+        super(array);
+        this.distinctValues = distinctValues;
+    }
+
+    @Override
+    public String getTitle() {
+        return array.getClass().getSimpleName() + " write performance (" + distinctValues + " distinct values)";
+    }
+
+    @Override
+    public void run() {
+        offset++;
+        for (int y = 0; y < array.getSizeY(); y++) {
+            for (int z = 0; z < array.getSizeZ(); z++) {
+                for (int x = 0; x < array.getSizeX(); x++) {
+                    array.set(x, y, z, (x + y + z + offset) % distinctValues);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.chunks.arrays;
+
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraPalettedArray;
+import org.terasology.world.chunks.blockdata.TeraSectionedArray;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compares the allocation rate of block edits while chunk snapshots are held, for arrays that get copied as a whole
+ * and for sectioned arrays that only copy the edited section.
+ */
+public final class ChunkEditsBenchmark {
+
+    private ChunkEditsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final List<Benchmark> benchmarks = new LinkedList<>();
+        for (boolean explosion : new boolean[]{false, true}) {
+            benchmarks.add(new BenchmarkChunkEdits("dense 16 bit",
+                    () -> new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z), explosion));
+            benchmarks.add(new BenchmarkChunkEdits("paletted",
+                    () -> new TeraPalettedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z), explosion));
+            benchmarks.add(new BenchmarkChunkEdits("sectioned paletted",
+                    () -> new TeraSectionedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z,
+                            new TeraPalettedArray.Factory()), explosion));
+        }
+
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
+    }
+}
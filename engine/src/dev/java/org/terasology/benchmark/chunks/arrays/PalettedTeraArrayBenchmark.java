@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.chunks.arrays;
+
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.world.chunks.blockdata.TeraPalettedArray;
+import org.terasology.world.chunks.deflate.TeraStandardDeflator;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * PalettedTeraArrayBenchmark compares the paletted tera array against the dense and sparse arrays used for block data
+ * before: first the memory per chunk of a terrain-like chunk, then read and write throughput.
+ *
+ */
+public final class PalettedTeraArrayBenchmark {
+
+    private static final int[] DISTINCT_BLOCKS = {2, 8, 48};
+
+    private PalettedTeraArrayBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println("Estimated memory per chunk in bytes (after deflating)");
+        for (int distinctBlocks : DISTINCT_BLOCKS) {
+            System.out.println(distinctBlocks + " distinct blocks:");
+            for (TeraArray array : createArrays(distinctBlocks)) {
+                TeraArray deflated = new TeraStandardDeflator().deflate(array);
+                System.out.println("  " + deflated.getClass().getSimpleName() + ": " + deflated.getEstimatedMemoryConsumptionInBytes());
+            }
+        }
+
+        final List<Benchmark> benchmarks = new LinkedList<>();
+        for (TeraArray array : createArrays(8)) {
+            benchmarks.add(new BenchmarkTeraArrayRead(array));
+        }
+        for (TeraArray array : createArrays(8)) {
+            benchmarks.add(new BenchmarkTeraArrayWritePattern(array, 8));
+        }
+        for (TeraArray array : createArrays(8)) {
+            benchmarks.add(new BenchmarkTeraArrayWrite(new TeraStandardDeflator().deflate(array)));
+        }
+
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
+    }
+
+    private static TeraArray[] createArrays(int distinctBlocks) {
+        TeraArray dense16 = new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        fillTerrain(dense16, distinctBlocks);
+        TeraArray dense8 = new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        fillTerrain(dense8, distinctBlocks);
+        TeraArray paletted = new TeraPalettedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        fillTerrain(paletted, distinctBlocks);
+        return new TeraArray[]{dense16, dense8, paletted};
+    }
+
+    /**
+     * Fills the lower part of the array with layers of solid blocks, sprinkled with ores, and leaves the rest empty.
+     */
+    private static void fillTerrain(TeraArray array, int distinctBlocks) {
+        Random random = new Random(42);
+        int surface = array.getSizeY() / 2;
+        int layers = Math.max(1, distinctBlocks / 2);
+        for (int y = 0; y < surface; y++) {
+            int layerBlock = 1 + y * layers / surface;
+            for (int z = 0; z < array.getSizeZ(); z++) {
+                for (int x = 0; x < array.getSizeX(); x++) {
+                    int block = layerBlock;
+                    if (distinctBlocks > layers + 1 && random.nextInt(16) == 0) {
+                        block = 1 + layers + random.nextInt(distinctBlocks - layers - 1);
+                    }
+                    array.set(x, y, z, block);
+                }
+            }
+        }
+    }
+}
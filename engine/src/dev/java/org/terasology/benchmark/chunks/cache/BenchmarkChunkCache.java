@@ -15,50 +15,109 @@
  */
 package org.terasology.benchmark.chunks.cache;
 
-import org.terasology.benchmark.Benchmark;
-
-public class BenchmarkChunkCache implements Benchmark {
-
-    public BenchmarkChunkCache() {
-    }
-
-    @Override
-    public String getTitle() {
-        return null;
-    }
-
-    @Override
-    public int getWarmupRepetitions() {
-        return 1;
-    }
-
-    @Override
-    public int[] getRepetitions() {
-        return new int[]{1, 10};
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.localChunkProvider.ChunkCache;
+
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Looks up the chunks of block positions in a loaded area, the way the world provider does for every block access.
+ * <br><br>
+ * Random reads spread over the whole area, coherent reads walk through 16x16x16 blocks at a time like propagation and
+ * physics code does. The lookup either goes through {@link ChunkCache#get(Vector3i)} with a new position per block,
+ * as it used to, or through the allocation free {@link ChunkCache#get(int, int, int)}.
+ */
+public class BenchmarkChunkCache extends AbstractBenchmark {
+    private static final int CHUNKS_X = 25;
+    private static final int CHUNKS_Y = 8;
+    private static final int CHUNKS_Z = 25;
+    private static final int READS = 1_000_000;
+    private static final int COHERENT_EXTENT = 16;
+
+    private final Supplier<ChunkCache> cacheFactory;
+    private final boolean coherent;
+    private final boolean vectorLookup;
+
+    private ChunkCache cache;
+    private int[] positions;
+    private Random random;
+    private int foundChunks;
+
+    public BenchmarkChunkCache(String cacheName, Supplier<ChunkCache> cacheFactory, boolean coherent, boolean vectorLookup) {
+        super("Chunk cache " + cacheName + ", " + (coherent ? "coherent" : "random") + " reads"
+                + (vectorLookup ? " by Vector3i" : " by int coordinates"), 5, new int[]{20, 20, 20});
+        this.cacheFactory = cacheFactory;
+        this.coherent = coherent;
+        this.vectorLookup = vectorLookup;
     }
 
     @Override
     public void setup() {
-
+        cache = cacheFactory.get();
+        Chunk chunk = (Chunk) Proxy.newProxyInstance(Chunk.class.getClassLoader(), new Class[]{Chunk.class},
+                (proxy, method, args) -> null);
+        for (int x = 0; x < CHUNKS_X; x++) {
+            for (int y = 0; y < CHUNKS_Y; y++) {
+                for (int z = 0; z < CHUNKS_Z; z++) {
+                    cache.put(new Vector3i(x - CHUNKS_X / 2, y - CHUNKS_Y / 2, z - CHUNKS_Z / 2), chunk);
+                }
+            }
+        }
+        random = new Random(42);
+        positions = new int[3 * READS];
+        int i = 0;
+        while (i < positions.length) {
+            int x = randomBlock(CHUNKS_X, ChunkConstants.SIZE_X);
+            int y = randomBlock(CHUNKS_Y, ChunkConstants.SIZE_Y);
+            int z = randomBlock(CHUNKS_Z, ChunkConstants.SIZE_Z);
+            if (!coherent) {
+                positions[i++] = x;
+                positions[i++] = y;
+                positions[i++] = z;
+                continue;
+            }
+            for (int dx = 0; dx < COHERENT_EXTENT && i < positions.length; dx++) {
+                for (int dy = 0; dy < COHERENT_EXTENT && i < positions.length; dy++) {
+                    for (int dz = 0; dz < COHERENT_EXTENT && i < positions.length; dz++) {
+                        positions[i++] = x + dx;
+                        positions[i++] = y + dy;
+                        positions[i++] = z + dz;
+                    }
+                }
+            }
+        }
     }
 
-    @Override
-    public void prerun() {
-
+    private int randomBlock(int chunks, int chunkSize) {
+        // Stay clear of the upper border, so that coherent reads don't leave the loaded area
+        return random.nextInt((chunks - 1) * chunkSize) - chunks / 2 * chunkSize;
     }
 
     @Override
     public void run() {
-    }
-
-    @Override
-    public void postrun() {
-
+        int found = 0;
+        for (int i = 0; i < positions.length; i += 3) {
+            int chunkX = ChunkMath.calcChunkPosX(positions[i]);
+            int chunkY = ChunkMath.calcChunkPosY(positions[i + 1]);
+            int chunkZ = ChunkMath.calcChunkPosZ(positions[i + 2]);
+            Chunk chunk = vectorLookup ? cache.get(new Vector3i(chunkX, chunkY, chunkZ)) : cache.get(chunkX, chunkY, chunkZ);
+            if (chunk != null) {
+                found++;
+            }
+        }
+        foundChunks = found;
     }
 
     @Override
     public void finish(boolean aborted) {
-
+        if (!aborted && foundChunks != READS) {
+            System.out.println("Only " + foundChunks + " of " + READS + " reads found a chunk");
+        }
     }
-
 }
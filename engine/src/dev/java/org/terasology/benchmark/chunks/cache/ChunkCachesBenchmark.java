@@ -15,13 +15,28 @@
  */
 package org.terasology.benchmark.chunks.cache;
 
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+import org.terasology.world.chunks.localChunkProvider.ConcurrentMapChunkCache;
+import org.terasology.world.chunks.localChunkProvider.LongKeyChunkCache;
+
+import java.util.LinkedList;
+import java.util.List;
+
 public final class ChunkCachesBenchmark {
 
     private ChunkCachesBenchmark() {
     }
 
     public static void main(String[] args) {
+        final List<Benchmark> benchmarks = new LinkedList<>();
+        for (boolean coherent : new boolean[]{false, true}) {
+            benchmarks.add(new BenchmarkChunkCache("ConcurrentMap", ConcurrentMapChunkCache::new, coherent, true));
+            benchmarks.add(new BenchmarkChunkCache("LongKey", LongKeyChunkCache::new, coherent, false));
+        }
 
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
     }
 
 }
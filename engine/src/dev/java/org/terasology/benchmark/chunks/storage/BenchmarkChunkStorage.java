@@ -0,0 +1,206 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.chunks.storage;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.persistence.ChunkStorageFormat;
+import org.terasology.persistence.internal.ChunkZipReaderCache;
+import org.terasology.persistence.internal.RegionFileChunkStore;
+import org.terasology.persistence.internal.StoragePathProvider;
+import org.terasology.utilities.FilesUtil;
+import org.terasology.utilities.random.FastRandom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures one kind of access to the chunks of a world stored in one {@link ChunkStorageFormat}.
+ * <br><br>
+ * Writing mirrors what a save does for the format: ZIPs get rewritten completely when any of their chunks changed,
+ * region files get updated in place and chunk files get replaced.
+ */
+public class BenchmarkChunkStorage extends AbstractBenchmark {
+
+    public enum Operation {
+        /**
+         * Writes all chunks of the world.
+         */
+        SAVE_ALL,
+        /**
+         * Writes a random tenth of the chunks of a previously saved world.
+         */
+        SAVE_TENTH,
+        /**
+         * Reads all chunks of the world in random order.
+         */
+        LOAD_ALL
+    }
+
+    private static final Map<String, String> CREATE_ZIP_OPTIONS = ImmutableMap.of("create", "true", "encoding", "UTF-8");
+
+    private final ChunkStorageFormat format;
+    private final Operation operation;
+    private final Map<Vector3i, byte[]> world;
+    private final List<Vector3i> shuffledPositions;
+
+    private Path savePath;
+    private StoragePathProvider storagePathProvider;
+    private ChunkZipReaderCache chunkZipReaderCache;
+    private RegionFileChunkStore regionFileChunkStore;
+    private long bytes;
+
+    public BenchmarkChunkStorage(ChunkStorageFormat format, Operation operation, Map<Vector3i, byte[]> world) {
+        super(format + " " + operation + " (" + world.size() + " chunks)", 2, new int[]{5, 5, 5});
+        this.format = format;
+        this.operation = operation;
+        this.world = world;
+        this.shuffledPositions = Lists.newArrayList(world.keySet());
+        Collections.shuffle(shuffledPositions, new Random(0));
+    }
+
+    @Override
+    public void setup() {
+        try {
+            savePath = Files.createTempDirectory("chunkStorageBenchmark");
+            storagePathProvider = new StoragePathProvider(savePath);
+            Files.createDirectories(storagePathProvider.getWorldPath());
+            chunkZipReaderCache = new ChunkZipReaderCache(storagePathProvider);
+            regionFileChunkStore = new RegionFileChunkStore(storagePathProvider);
+            if (operation != Operation.SAVE_ALL) {
+                write(world);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            switch (operation) {
+                case SAVE_ALL:
+                    write(world);
+                    break;
+                case SAVE_TENTH:
+                    write(randomTenth());
+                    break;
+                case LOAD_ALL:
+                    for (Vector3i chunkPos : shuffledPositions) {
+                        bytes += read(chunkPos).length;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        chunkZipReaderCache.invalidateAll();
+        regionFileChunkStore.closeAll();
+        try {
+            FilesUtil.recursiveDelete(savePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (operation == Operation.LOAD_ALL) {
+            System.out.println("Read " + bytes + " bytes, zip reader cache hits: " + chunkZipReaderCache.getHitCount()
+                    + ", misses: " + chunkZipReaderCache.getMissCount());
+        }
+    }
+
+    private Map<Vector3i, byte[]> randomTenth() {
+        FastRandom random = new FastRandom();
+        Map<Vector3i, byte[]> result = Maps.newHashMap();
+        while (result.size() < world.size() / 10) {
+            Vector3i chunkPos = shuffledPositions.get(random.nextInt(shuffledPositions.size()));
+            result.put(chunkPos, world.get(chunkPos));
+        }
+        return result;
+    }
+
+    private byte[] read(Vector3i chunkPos) throws IOException {
+        switch (format) {
+            case ZIP:
+                return chunkZipReaderCache.readChunk(chunkPos);
+            case REGION_FILE:
+                return regionFileChunkStore.readChunk(chunkPos);
+            default:
+                return Files.readAllBytes(storagePathProvider.getChunkPath(chunkPos));
+        }
+    }
+
+    private void write(Map<Vector3i, byte[]> chunks) throws IOException {
+        switch (format) {
+            case ZIP:
+                writeZips(chunks);
+                break;
+            case REGION_FILE:
+                for (Map.Entry<Vector3i, byte[]> entry : chunks.entrySet()) {
+                    regionFileChunkStore.writeChunk(entry.getKey(), entry.getValue());
+                }
+                regionFileChunkStore.flush();
+                break;
+            default:
+                for (Map.Entry<Vector3i, byte[]> entry : chunks.entrySet()) {
+                    Files.write(storagePathProvider.getChunkPath(entry.getKey()), entry.getValue());
+                }
+                break;
+        }
+    }
+
+    /**
+     * Every ZIP that contains a changed chunk gets written again with all of its chunks, like a save does.
+     */
+    private void writeZips(Map<Vector3i, byte[]> chunks) throws IOException {
+        Map<Vector3i, List<Vector3i>> chunksByZip = Maps.newHashMap();
+        for (Vector3i chunkPos : chunks.keySet()) {
+            chunksByZip.computeIfAbsent(storagePathProvider.getChunkZipPosition(chunkPos), k -> Lists.newArrayList());
+        }
+        for (Vector3i chunkPos : world.keySet()) {
+            List<Vector3i> zipChunks = chunksByZip.get(storagePathProvider.getChunkZipPosition(chunkPos));
+            if (zipChunks != null) {
+                zipChunks.add(chunkPos);
+            }
+        }
+        for (Map.Entry<Vector3i, List<Vector3i>> entry : chunksByZip.entrySet()) {
+            chunkZipReaderCache.invalidate(entry.getKey());
+            Path zipPath = storagePathProvider.getChunkZipPath(entry.getKey());
+            Files.deleteIfExists(zipPath);
+            try (FileSystem zip = FileSystems.newFileSystem(URI.create("jar:" + zipPath.toUri()), CREATE_ZIP_OPTIONS)) {
+                for (Vector3i chunkPos : entry.getValue()) {
+                    Files.write(zip.getPath(storagePathProvider.getChunkFilename(chunkPos)), world.get(chunkPos));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.chunks.storage;
+
+import com.google.common.collect.Maps;
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.persistence.ChunkStorageFormat;
+import org.terasology.protobuf.EntityData;
+import org.terasology.utilities.procedural.SimplexNoise;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.internal.ChunkSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares load and save throughput of the {@link ChunkStorageFormat}s on a generated world.
+ * <br><br>
+ * The world consists of {@link #WORLD_SIZE_X} x {@link #WORLD_SIZE_Y} x {@link #WORLD_SIZE_Z} chunks of noise based
+ * terrain, encoded the same way as chunks that get saved by the game.
+ */
+public final class ChunkStorageFormatsBenchmark {
+
+    public static final int WORLD_SIZE_X = 24;
+    public static final int WORLD_SIZE_Y = 4;
+    public static final int WORLD_SIZE_Z = 24;
+
+    private static final short AIR = 0;
+    private static final short STONE = 1;
+    private static final short DIRT = 2;
+    private static final short GRASS = 3;
+    private static final short WATER = 4;
+    private static final int SEA_LEVEL = 100;
+
+    private ChunkStorageFormatsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Map<Vector3i, byte[]> world = generateWorld(0L);
+
+        final List<Benchmark> benchmarks = new LinkedList<>();
+        for (ChunkStorageFormat format : ChunkStorageFormat.values()) {
+            for (BenchmarkChunkStorage.Operation operation : BenchmarkChunkStorage.Operation.values()) {
+                benchmarks.add(new BenchmarkChunkStorage(format, operation, world));
+            }
+        }
+
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
+    }
+
+    /**
+     * @return the gzip compressed chunk stores of the world by chunk position
+     */
+    public static Map<Vector3i, byte[]> generateWorld(long seed) {
+        SimplexNoise noise = new SimplexNoise(seed);
+        Map<Vector3i, byte[]> world = Maps.newHashMap();
+        for (int cx = 0; cx < WORLD_SIZE_X; cx++) {
+            for (int cy = 0; cy < WORLD_SIZE_Y; cy++) {
+                for (int cz = 0; cz < WORLD_SIZE_Z; cz++) {
+                    Vector3i chunkPos = new Vector3i(cx, cy, cz);
+                    TeraArray blockData = generateBlockData(noise, chunkPos);
+                    EntityData.ChunkStore store = ChunkSerializer.encode(chunkPos, blockData, new TeraArray[0]).build();
+                    world.put(chunkPos, compress(store));
+                }
+            }
+        }
+        return world;
+    }
+
+    private static TeraArray generateBlockData(SimplexNoise noise, Vector3i chunkPos) {
+        TeraArray blockData = new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                int worldX = chunkPos.x * ChunkConstants.SIZE_X + x;
+                int worldZ = chunkPos.z * ChunkConstants.SIZE_Z + z;
+                int height = SEA_LEVEL + (int) (40 * noise.noise(worldX * 0.01f, worldZ * 0.01f)
+                        + 8 * noise.noise(worldX * 0.05f, worldZ * 0.05f));
+                for (int y = 0; y < ChunkConstants.SIZE_Y; y++) {
+                    int worldY = chunkPos.y * ChunkConstants.SIZE_Y + y;
+                    short block;
+                    if (worldY < height - 4) {
+                        block = STONE;
+                    } else if (worldY < height) {
+                        block = DIRT;
+                    } else if (worldY == height) {
+                        block = GRASS;
+                    } else if (worldY <= SEA_LEVEL) {
+                        block = WATER;
+                    } else {
+                        block = AIR;
+                    }
+                    blockData.set(x, y, z, block);
+                }
+            }
+        }
+        return blockData;
+    }
+
+    private static byte[] compress(EntityData.ChunkStore store) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
+            store.writeTo(gzipOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return baos.toByteArray();
+    }
+}
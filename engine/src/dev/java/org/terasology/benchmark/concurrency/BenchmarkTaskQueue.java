@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.concurrency;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.utilities.concurrency.DynamicPriorityBlockingQueue;
+import org.terasology.utilities.random.FastRandom;
+import org.terasology.world.chunks.pipeline.AbstractChunkTask;
+import org.terasology.world.chunks.pipeline.ChunkTask;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Queues chunk tasks around a player and takes all of them again, the way the chunk generation threads do. The
+ * player moves to the next chunk every {@link #TAKES_PER_MOVE} taken tasks. The reported take latency includes the
+ * time spent reprioritizing the queue.
+ */
+public class BenchmarkTaskQueue extends AbstractBenchmark {
+
+    public enum QueueType {
+        /**
+         * Scans a linked list for the least task on every take and scores tasks under a read lock, like the queue
+         * of the chunk generation pipeline used to do.
+         */
+        LINKED_LIST_SCAN,
+        /**
+         * The {@link DynamicPriorityBlockingQueue}, reprioritized whenever the player moves.
+         */
+        DYNAMIC_PRIORITY_HEAP
+    }
+
+    private static final int TAKES_PER_MOVE = 500;
+    private static final int WORLD_EXTENT_XZ = 64;
+    private static final int WORLD_EXTENT_Y = 4;
+
+    private final QueueType queueType;
+    private final List<ChunkTask> tasks = Lists.newArrayList();
+    private final ReadWriteLock regionLock = new ReentrantReadWriteLock();
+
+    private volatile Vector3i playerChunk = Vector3i.zero();
+    private DynamicPriorityBlockingQueue<ChunkTask> heapQueue;
+    private List<ChunkTask> scanQueue;
+    private long takeNanos;
+    private long takeCount;
+
+    public BenchmarkTaskQueue(QueueType queueType, int taskCount) {
+        super(queueType + " (" + taskCount + " chunk tasks)", 1, new int[]{3, 3, 3});
+        this.queueType = queueType;
+        FastRandom random = new FastRandom(0);
+        for (int i = 0; i < taskCount; i++) {
+            Vector3i pos = new Vector3i(random.nextInt(-WORLD_EXTENT_XZ, WORLD_EXTENT_XZ),
+                    random.nextInt(-WORLD_EXTENT_Y, WORLD_EXTENT_Y), random.nextInt(-WORLD_EXTENT_XZ, WORLD_EXTENT_XZ));
+            tasks.add(new AbstractChunkTask(pos) {
+                @Override
+                public String getName() {
+                    return "Benchmark";
+                }
+
+                @Override
+                public void run() {
+                }
+            });
+        }
+    }
+
+    @Override
+    public void prerun() {
+        playerChunk = Vector3i.zero();
+        if (queueType == QueueType.DYNAMIC_PRIORITY_HEAP) {
+            heapQueue = new DynamicPriorityBlockingQueue<>(task -> score(task.getPosition()));
+            heapQueue.addAll(tasks);
+        } else {
+            scanQueue = Lists.newLinkedList(tasks);
+        }
+    }
+
+    @Override
+    public void run() {
+        Comparator<ChunkTask> comparator = (o1, o2) -> lockedScore(o1.getPosition()) - lockedScore(o2.getPosition());
+        int taken = 0;
+        while (taken < tasks.size()) {
+            long start = System.nanoTime();
+            ChunkTask task = queueType == QueueType.DYNAMIC_PRIORITY_HEAP ? heapQueue.poll() : scanDequeue(comparator);
+            takeNanos += System.nanoTime() - start;
+            takeCount++;
+            if (task == null) {
+                throw new IllegalStateException("Queue ran empty");
+            }
+            if (++taken % TAKES_PER_MOVE == 0) {
+                playerChunk = new Vector3i(playerChunk.x + 1, playerChunk.y, playerChunk.z);
+                if (heapQueue != null) {
+                    long reprioritizeStart = System.nanoTime();
+                    heapQueue.reprioritize();
+                    takeNanos += System.nanoTime() - reprioritizeStart;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (takeCount > 0) {
+            System.out.println("Mean take latency: " + (takeNanos / takeCount) + " ns");
+        }
+    }
+
+    private int score(Vector3i chunkPos) {
+        return chunkPos.gridDistance(playerChunk);
+    }
+
+    private int lockedScore(Vector3i chunkPos) {
+        regionLock.readLock().lock();
+        try {
+            return score(chunkPos);
+        } finally {
+            regionLock.readLock().unlock();
+        }
+    }
+
+    private ChunkTask scanDequeue(Comparator<ChunkTask> comparator) {
+        if (scanQueue.isEmpty()) {
+            return null;
+        }
+        ChunkTask smallest = scanQueue.remove(0);
+        ListIterator<ChunkTask> iterator = scanQueue.listIterator();
+        while (iterator.hasNext()) {
+            ChunkTask next = iterator.next();
+            if (comparator.compare(smallest, next) > 0) {
+                iterator.set(smallest);
+                smallest = next;
+            }
+        }
+        return smallest;
+    }
+}
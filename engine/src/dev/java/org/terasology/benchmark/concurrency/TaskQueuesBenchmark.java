@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.concurrency;
+
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compares how long it takes to take the most relevant task from a queue of chunk tasks, with the queued tasks being
+ * reprioritized as the player moves through the world.
+ */
+public final class TaskQueuesBenchmark {
+
+    private TaskQueuesBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final List<Benchmark> benchmarks = new LinkedList<>();
+        for (int taskCount : new int[]{10_000, 50_000}) {
+            for (BenchmarkTaskQueue.QueueType queueType : BenchmarkTaskQueue.QueueType.values()) {
+                benchmarks.add(new BenchmarkTaskQueue(queueType, taskCount));
+            }
+        }
+
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.delay;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.SortedSetMultimap;
+import com.google.common.collect.TreeMultimap;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.utilities.collection.TimingWheel;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates one frame of 16 ms per repetition: all due actions are taken out and rescheduled by their period, as the
+ * delayed action system does for periodic actions. Once with the sorted multimap the system used before, once with
+ * the {@link TimingWheel}.
+ */
+public class BenchmarkPeriodicScheduling extends AbstractBenchmark {
+    private static final long FRAME_TIME = 16;
+    private static final int MIN_PERIOD = 100;
+    private static final int MAX_PERIOD = 10_000;
+
+    private final int actionCount;
+    private final boolean timingWheel;
+
+    private long[] periods;
+    private long currentTime;
+    private SortedSetMultimap<Long, Integer> sortedOperations;
+    private TimingWheel<Integer> wheel;
+    private List<Integer> expired;
+    private long triggeredCount;
+
+    public BenchmarkPeriodicScheduling(int actionCount, boolean timingWheel) {
+        super("Periodic scheduling (" + actionCount + " actions, " + (timingWheel ? "timing wheel" : "sorted multimap")
+                + ")", 100, new int[]{1000, 1000, 1000});
+        this.actionCount = actionCount;
+        this.timingWheel = timingWheel;
+    }
+
+    @Override
+    public void setup() {
+        Random random = new Random(42);
+        periods = new long[actionCount];
+        currentTime = 0;
+        triggeredCount = 0;
+        sortedOperations = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
+        wheel = new TimingWheel<>();
+        wheel.advanceTo(currentTime, Lists.newArrayList());
+        expired = Lists.newArrayList();
+        for (int i = 0; i < actionCount; i++) {
+            periods[i] = MIN_PERIOD + random.nextInt(MAX_PERIOD - MIN_PERIOD);
+            long wakeUp = random.nextInt((int) periods[i]);
+            if (timingWheel) {
+                wheel.schedule(i, wakeUp);
+            } else {
+                sortedOperations.put(wakeUp, i);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        currentTime += FRAME_TIME;
+        if (timingWheel) {
+            wheel.advanceTo(currentTime, expired);
+            for (Integer action : expired) {
+                wheel.schedule(action, currentTime + periods[action]);
+            }
+            triggeredCount += expired.size();
+            expired.clear();
+        } else {
+            List<Integer> operationsToInvoke = new LinkedList<>();
+            Iterator<Long> scheduledOperationsIterator = sortedOperations.keySet().iterator();
+            while (scheduledOperationsIterator.hasNext()) {
+                long processedTime = scheduledOperationsIterator.next();
+                if (processedTime > currentTime) {
+                    break;
+                }
+                operationsToInvoke.addAll(sortedOperations.get(processedTime));
+                scheduledOperationsIterator.remove();
+            }
+            for (Integer action : operationsToInvoke) {
+                sortedOperations.put(currentTime + periods[action], action);
+            }
+            triggeredCount += operationsToInvoke.size();
+        }
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (!aborted) {
+            System.out.println("Triggered " + triggeredCount + " actions in " + currentTime + " ms of game time");
+        }
+    }
+}
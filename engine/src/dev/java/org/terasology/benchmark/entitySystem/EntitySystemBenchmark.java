@@ -40,6 +40,12 @@ public static void main(String[] args) {
         benchmarks.add(new EntityCreateBenchmark());
         benchmarks.add(new IterateSingleComponentBenchmark());
         benchmarks.add(new IterateMultipleComponentBenchmark());
+        for (int entityCount : new int[]{100_000, 1_000_000}) {
+            for (boolean archetypes : new boolean[]{false, true}) {
+                benchmarks.add(new IterateSingleComponentBenchmark(entityCount, archetypes));
+                benchmarks.add(new IterateMultipleComponentBenchmark(entityCount, archetypes));
+            }
+        }
         Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
 
     }
@@ -20,7 +20,9 @@
 import org.terasology.benchmark.AbstractBenchmark;
 import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.ArchetypeEntityPool;
 import org.terasology.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.entitySystem.entity.internal.PojoEntityPool;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.rendering.logic.MeshComponent;
 import org.terasology.utilities.random.FastRandom;
@@ -35,16 +37,33 @@ public class IterateMultipleComponentBenchmark extends AbstractBenchmark {
 
     private List<List<Component>> rawEntityData;
     private PojoEntityManager entityManager;
+    private final int entityCount;
+    private final boolean archetypes;
 
     public IterateMultipleComponentBenchmark() {
-        super("Iterate entities by multiple components", 10000, new int[]{10000});
+        this(1000, false, 10000, new int[]{10000});
+    }
+
+    /**
+     * @param archetypes whether the entities get stored in an {@link ArchetypeEntityPool} instead of a
+     *                   {@link PojoEntityPool}
+     */
+    public IterateMultipleComponentBenchmark(int entityCount, boolean archetypes) {
+        this(entityCount, archetypes, 2, new int[]{10, 10});
+    }
+
+    private IterateMultipleComponentBenchmark(int entityCount, boolean archetypes, int warmupReps, int[] reps) {
+        super("Iterate entities by multiple components (" + entityCount + " entities, "
+                + (archetypes ? "archetype" : "hash map") + " storage)", warmupReps, reps);
+        this.entityCount = entityCount;
+        this.archetypes = archetypes;
     }
 
     @Override
     public void setup() {
         FastRandom rand = new FastRandom(0L);
         rawEntityData = Lists.newArrayList();
-        for (int i = 0; i < 1000; ++i) {
+        for (int i = 0; i < entityCount; ++i) {
             List<Component> entityData = Lists.newArrayList();
             if (rand.nextFloat() < 0.75f) {
                 entityData.add(new LocationComponent());
@@ -58,7 +77,7 @@ public void setup() {
             rawEntityData.add(entityData);
         }
 
-        entityManager = new PojoEntityManager();
+        entityManager = archetypes ? new PojoEntityManager((manager, role) -> new ArchetypeEntityPool(manager)) : new PojoEntityManager();
         for (List<Component> rawEntity : rawEntityData) {
             entityManager.create(rawEntity);
         }
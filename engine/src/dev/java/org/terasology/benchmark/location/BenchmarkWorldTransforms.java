@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.location;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.logic.location.Location;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.geom.Quat4f;
+import org.terasology.math.geom.Vector3f;
+
+import java.util.List;
+
+/**
+ * Simulates one frame per repetition for a number of characters with a skeleton and a held item: the characters move,
+ * all bones get animated and then the world transforms of all bones and items get read a few times, as rendering,
+ * physics and network replication do.
+ * <br><br>
+ * Each skeleton is a spine of the given depth with a limb bone on every spine bone, the held item hangs at the top
+ * of the spine. The world transforms get read either from the cache of the {@link LocationComponent}, or by walking the
+ * parent chain as the component did before it cached them.
+ */
+public class BenchmarkWorldTransforms extends AbstractBenchmark {
+    private static final int READS_PER_FRAME = 3;
+
+    private final int characterCount;
+    private final int spineDepth;
+    private final boolean cached;
+
+    private PojoEntityManager entityManager;
+    private List<LocationComponent> characters;
+    private List<LocationComponent> bones;
+    private List<LocationComponent> leaves;
+    private final Vector3f position = new Vector3f();
+    private final Quat4f rotation = new Quat4f(0, 0, 0, 1);
+    private final Vector3f up = new Vector3f(0, 1, 0);
+    private int frame;
+    private double checksum;
+
+    public BenchmarkWorldTransforms(int characterCount, int spineDepth, boolean cached) {
+        super("World transforms (" + characterCount + " characters, spine depth " + spineDepth + ", "
+                + (cached ? "cached" : "parent walk") + ")", 20, new int[]{200, 200, 200});
+        this.characterCount = characterCount;
+        this.spineDepth = spineDepth;
+        this.cached = cached;
+    }
+
+    @Override
+    public void setup() {
+        entityManager = new PojoEntityManager();
+        characters = Lists.newArrayList();
+        bones = Lists.newArrayList();
+        leaves = Lists.newArrayList();
+        frame = 0;
+        checksum = 0;
+        for (int i = 0; i < characterCount; i++) {
+            EntityRef character = entityManager.create(new LocationComponent(new Vector3f(i, 0, -i)));
+            characters.add(character.getComponent(LocationComponent.class));
+
+            EntityRef parent = character;
+            for (int depth = 0; depth < spineDepth; depth++) {
+                EntityRef spineBone = attach(parent, new Vector3f(0, 0.2f, 0));
+                bones.add(spineBone.getComponent(LocationComponent.class));
+                EntityRef limbBone = attach(spineBone, new Vector3f(0.3f, 0, 0));
+                bones.add(limbBone.getComponent(LocationComponent.class));
+                leaves.add(limbBone.getComponent(LocationComponent.class));
+                parent = spineBone;
+            }
+            EntityRef heldItem = attach(parent, new Vector3f(0, 0, 0.5f));
+            leaves.add(heldItem.getComponent(LocationComponent.class));
+        }
+    }
+
+    private EntityRef attach(EntityRef parent, Vector3f offset) {
+        EntityRef child = entityManager.create(new LocationComponent());
+        Location.attachChild(parent, child, offset, new Quat4f(0, 0, 0, 1));
+        return child;
+    }
+
+    @Override
+    public void run() {
+        frame++;
+        for (LocationComponent character : characters) {
+            position.set(character.getLocalPosition());
+            position.x += 0.1f;
+            character.setLocalPosition(position);
+        }
+        for (int i = 0; i < bones.size(); i++) {
+            rotation.set(up, 0.01f * ((frame + i) % 100));
+            bones.get(i).setLocalRotation(rotation);
+        }
+        for (int read = 0; read < READS_PER_FRAME; read++) {
+            for (LocationComponent bone : bones) {
+                readWorldTransform(bone);
+            }
+            for (LocationComponent leaf : leaves) {
+                readWorldTransform(leaf);
+            }
+        }
+    }
+
+    private void readWorldTransform(LocationComponent location) {
+        if (cached) {
+            location.getWorldPosition(position);
+            location.getWorldRotation(rotation);
+        } else {
+            walkWorldPosition(location, position);
+            walkWorldRotation(location, rotation);
+        }
+        checksum += position.x + rotation.w;
+    }
+
+    private static void walkWorldPosition(LocationComponent location, Vector3f output) {
+        output.set(location.getLocalPosition());
+        LocationComponent parentLoc = location.getParent().getComponent(LocationComponent.class);
+        while (parentLoc != null) {
+            output.scale(parentLoc.getLocalScale());
+            parentLoc.getLocalRotation().rotate(output, output);
+            output.add(parentLoc.getLocalPosition());
+            parentLoc = parentLoc.getParent().getComponent(LocationComponent.class);
+        }
+    }
+
+    private static void walkWorldRotation(LocationComponent location, Quat4f output) {
+        output.set(location.getLocalRotation());
+        LocationComponent parentLoc = location.getParent().getComponent(LocationComponent.class);
+        while (parentLoc != null) {
+            output.mul(parentLoc.getLocalRotation(), output);
+            parentLoc = parentLoc.getParent().getComponent(LocationComponent.class);
+        }
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (!aborted) {
+            System.out.println("Checksum " + checksum);
+        }
+        entityManager = null;
+        characters = null;
+        bones = null;
+        leaves = null;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.noise;
+
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.utilities.procedural.Noise;
+
+/**
+ * Samples a noise over a regular 2D grid, the size of the key samples a facet provider needs per chunk column, either
+ * one call per sample or with the bulk method of {@link Noise}.
+ * <br><br>
+ * Reports the samples per second of the benchmark thread.
+ */
+public class BenchmarkNoise extends AbstractBenchmark {
+
+    private static final float STEP = 0.004f * 4;
+
+    private final Noise noise;
+    private final int size;
+    private final boolean bulk;
+    private final float[] output;
+
+    private int originX;
+    private long sampleCount;
+    private long nanos;
+    private double checksum;
+
+    public BenchmarkNoise(String noiseName, Noise noise, int size, boolean bulk) {
+        super(noiseName + " " + size + "x" + size + " (" + (bulk ? "bulk" : "per sample") + ")", 200, new int[]{2000, 2000, 2000});
+        this.noise = noise;
+        this.size = size;
+        this.bulk = bulk;
+        this.output = new float[size * size];
+    }
+
+    @Override
+    public void setup() {
+        originX = 0;
+        sampleCount = 0;
+        nanos = 0;
+        checksum = 0;
+    }
+
+    @Override
+    public void run() {
+        // Move on to the next region, as a player walking along the x-axis would
+        originX += size;
+        float startX = originX * STEP;
+        long start = System.nanoTime();
+        if (bulk) {
+            noise.noise(output, startX, 0, STEP, STEP, size, size);
+        } else {
+            int index = 0;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    output[index++] = noise.noise(startX + x * STEP, y * STEP);
+                }
+            }
+        }
+        nanos += System.nanoTime() - start;
+        sampleCount += output.length;
+        checksum += output[output.length / 2];
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (sampleCount == 0) {
+            return;
+        }
+        System.out.println(String.format("%s: %.0f samples/s per thread (checksum %.3f)", getTitle(),
+                sampleCount / (nanos / 1e9), checksum));
+    }
+}
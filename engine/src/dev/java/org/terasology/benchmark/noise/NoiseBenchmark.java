@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.noise;
+
+import org.terasology.benchmark.Benchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.benchmark.PrintToConsoleCallback;
+import org.terasology.utilities.procedural.BrownianNoise;
+import org.terasology.utilities.procedural.Noise;
+import org.terasology.utilities.procedural.PerlinNoise;
+import org.terasology.utilities.procedural.SimplexNoise;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Compares the throughput of sampling noise one call at a time and in bulk, for the noises the Core world generators
+ * use: simplex and Perlin noise on their own and with 8 octaves of Brownian noise.
+ */
+public final class NoiseBenchmark {
+
+    private static final int SIZE = 33;
+
+    private NoiseBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final List<Benchmark> benchmarks = new LinkedList<>();
+        for (boolean bulk : new boolean[]{false, true}) {
+            benchmarks.add(new BenchmarkNoise("Simplex", new SimplexNoise(42), SIZE, bulk));
+            benchmarks.add(new BenchmarkNoise("Perlin", createPerlinNoise(), SIZE, bulk));
+            benchmarks.add(new BenchmarkNoise("Brownian simplex (8 octaves)", new BrownianNoise(new SimplexNoise(42), 8), SIZE, bulk));
+            benchmarks.add(new BenchmarkNoise("Brownian Perlin (8 octaves)", new BrownianNoise(createPerlinNoise(), 8), SIZE, bulk));
+        }
+
+        Benchmarks.execute(benchmarks, new PrintToConsoleCallback());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Noise createPerlinNoise() {
+        return new PerlinNoise(42);
+    }
+}
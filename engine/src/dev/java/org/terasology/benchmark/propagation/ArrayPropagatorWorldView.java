@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.propagation;
+
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.propagation.PropagatorWorldView;
+
+import java.util.Arrays;
+
+/**
+ * A propagator world view over a box of blocks backed by plain arrays, so that the benchmark measures the propagator
+ * rather than chunk lookups.
+ */
+class ArrayPropagatorWorldView implements PropagatorWorldView {
+    private final Region3i region;
+    private final byte[] values;
+    private final Block[] blocks;
+
+    ArrayPropagatorWorldView(Region3i region, Block defaultBlock) {
+        this.region = region;
+        this.values = new byte[region.sizeX() * region.sizeY() * region.sizeZ()];
+        this.blocks = new Block[values.length];
+        Arrays.fill(blocks, defaultBlock);
+    }
+
+    void setBlockAt(int x, int y, int z, Block block) {
+        blocks[index(x, y, z)] = block;
+    }
+
+    int countLitBlocks() {
+        int count = 0;
+        for (byte value : values) {
+            if (value > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public byte getValueAt(Vector3i pos) {
+        return getValueAt(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public void setValueAt(Vector3i pos, byte value) {
+        setValueAt(pos.x, pos.y, pos.z, value);
+    }
+
+    @Override
+    public Block getBlockAt(Vector3i pos) {
+        return getBlockAt(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public byte getValueAt(int x, int y, int z) {
+        if (!region.encompasses(x, y, z)) {
+            return UNAVAILABLE;
+        }
+        return values[index(x, y, z)];
+    }
+
+    @Override
+    public void setValueAt(int x, int y, int z, byte value) {
+        values[index(x, y, z)] = value;
+    }
+
+    @Override
+    public Block getBlockAt(int x, int y, int z) {
+        if (!region.encompasses(x, y, z)) {
+            return null;
+        }
+        return blocks[index(x, y, z)];
+    }
+
+    private int index(int x, int y, int z) {
+        return (x - region.minX()) + region.sizeX() * ((y - region.minY()) + region.sizeY() * (z - region.minZ()));
+    }
+}
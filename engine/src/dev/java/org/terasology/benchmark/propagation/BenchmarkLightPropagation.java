@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.propagation;
+
+import com.google.common.collect.Lists;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.propagation.BatchPropagator;
+import org.terasology.world.propagation.BlockChange;
+import org.terasology.world.propagation.StandardBatchPropagator;
+import org.terasology.world.propagation.light.LightPropagationRules;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Places light sources at random positions of a partly solid area in one batch and removes them again in a second
+ * batch, like a large structure being spawned and torn down.
+ */
+public class BenchmarkLightPropagation extends AbstractBenchmark {
+    private static final Region3i REGION =
+            Region3i.createFromMinAndSize(new Vector3i(-64, -32, -64), new Vector3i(128, 64, 128));
+    private static final float SOLID_RATIO = 0.2f;
+
+    private final int edits;
+
+    private ArrayPropagatorWorldView world;
+    private BatchPropagator propagator;
+    private List<BlockChange> placements;
+    private List<BlockChange> removals;
+
+    public BenchmarkLightPropagation(int edits) {
+        super("Light propagation, " + edits + " light sources placed and removed", 2, new int[]{10, 10, 10});
+        this.edits = edits;
+    }
+
+    @Override
+    public void setup() {
+        Block air = new Block();
+        air.setTranslucent(true);
+        Block stone = new Block();
+        for (Side side : Side.getAllSides()) {
+            stone.setFullSide(side, true);
+        }
+        Block torch = new Block();
+        torch.setTranslucent(true);
+        torch.setLuminance(ChunkConstants.MAX_LIGHT);
+
+        world = new ArrayPropagatorWorldView(REGION, air);
+        propagator = new StandardBatchPropagator(new LightPropagationRules(), world);
+        Random random = new Random(42);
+        for (int x = REGION.minX(); x <= REGION.maxX(); x++) {
+            for (int y = REGION.minY(); y <= REGION.maxY(); y++) {
+                for (int z = REGION.minZ(); z <= REGION.maxZ(); z++) {
+                    if (random.nextFloat() < SOLID_RATIO) {
+                        world.setBlockAt(x, y, z, stone);
+                    }
+                }
+            }
+        }
+
+        placements = Lists.newArrayListWithCapacity(edits);
+        removals = Lists.newArrayListWithCapacity(edits);
+        for (int i = 0; i < edits; i++) {
+            Vector3i pos = new Vector3i(REGION.minX() + random.nextInt(REGION.sizeX()),
+                    REGION.minY() + random.nextInt(REGION.sizeY()),
+                    REGION.minZ() + random.nextInt(REGION.sizeZ()));
+            Block oldBlock = world.getBlockAt(pos);
+            placements.add(new BlockChange(pos, oldBlock, torch));
+            removals.add(new BlockChange(pos, torch, oldBlock));
+        }
+    }
+
+    @Override
+    public void run() {
+        for (BlockChange change : placements) {
+            world.setBlockAt(change.getPosition().x, change.getPosition().y, change.getPosition().z, change.getTo());
+        }
+        propagator.process(placements);
+        for (BlockChange change : removals) {
+            world.setBlockAt(change.getPosition().x, change.getPosition().y, change.getPosition().z, change.getTo());
+        }
+        propagator.process(removals);
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (!aborted && world.countLitBlocks() != 0) {
+            System.out.println(world.countLitBlocks() + " blocks are still lit after removing all light sources");
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.benchmark.rendering;
+
+import com.google.common.collect.Maps;
+import org.terasology.benchmark.AbstractBenchmark;
+import org.terasology.benchmark.Benchmarks;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.TeraMath;
+import org.terasology.math.geom.Vector2f;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.rendering.primitives.ChunkMesh;
+import org.terasology.rendering.primitives.ChunkTessellator;
+import org.terasology.utilities.random.FastRandom;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockAppearance;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockPart;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.block.family.BlockFamily;
+import org.terasology.world.block.shapes.BlockMeshPart;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.internal.ChunkViewCore;
+import org.terasology.world.internal.ChunkViewCoreImpl;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Tessellates the center chunk of a generated 3x3x3 chunk view, a hilly stone terrain with some translucent blocks
+ * scattered above the surface. The blocks use the regular {@link org.terasology.rendering.primitives.BlockMeshGenerator}
+ * with a plain cube appearance, so no assets and no GL context are required.
+ * <br><br>
+ * Reports the vertices built per second and the bytes allocated per chunk, if the JVM can measure them.
+ */
+public class BenchmarkChunkTessellation extends AbstractBenchmark {
+
+    private static final short AIR = 0;
+    private static final short STONE = 1;
+    private static final short LEAVES = 2;
+
+    private final float leavesDensity;
+
+    private ChunkTessellator tessellator;
+    private ChunkViewCore chunkView;
+
+    private long chunkCount;
+    private long vertexCount;
+    private long nanos;
+    private long allocatedBytes;
+
+    /**
+     * @param leavesDensity the chance of an air block above the surface to be replaced with leaves
+     */
+    public BenchmarkChunkTessellation(float leavesDensity) {
+        super("Chunk tessellation (leaves density " + leavesDensity + ")", 20, new int[]{100, 100, 100});
+        this.leavesDensity = leavesDensity;
+    }
+
+    @Override
+    public void setup() {
+        // The buffer pool is only needed to upload the meshes, which requires a GL context
+        tessellator = new ChunkTessellator(null);
+
+        Block[] blocks = new Block[3];
+        blocks[AIR] = new Block();
+        blocks[AIR].setMeshGenerator(null);
+        blocks[AIR].setTranslucent(true);
+        blocks[AIR].setShadowCasting(false);
+        blocks[STONE] = createCubeBlock(false);
+        blocks[LEAVES] = createCubeBlock(true);
+        for (short id = 0; id < blocks.length; id++) {
+            blocks[id].setId(id);
+        }
+        BlockManager blockManager = new BenchmarkBlockManager(blocks);
+
+        Region3i region = Region3i.createFromCenterExtents(Vector3i.zero(), ChunkConstants.LOCAL_REGION_EXTENTS);
+        Chunk[] chunks = new Chunk[region.sizeX() * region.sizeY() * region.sizeZ()];
+        FastRandom random = new FastRandom(0L);
+        for (Vector3i chunkPos : region) {
+            Chunk chunk = new ChunkImpl(chunkPos, new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y,
+                    ChunkConstants.SIZE_Z), new TeraArray[0], blockManager);
+            generate(chunk, blocks, random);
+            Vector3i relativePos = new Vector3i(chunkPos);
+            relativePos.sub(region.min());
+            chunks[TeraMath.calculate3DArrayIndex(relativePos, region.size())] = chunk;
+        }
+        chunkView = new ChunkViewCoreImpl(chunks, region, Vector3i.one(), blocks[AIR]);
+    }
+
+    @Override
+    public void run() {
+        long allocatedBefore = Benchmarks.getAllocatedBytes();
+        long start = System.nanoTime();
+        ChunkMesh mesh = tessellator.generateMesh(chunkView, null, ChunkConstants.SIZE_Y, 0);
+        nanos += System.nanoTime() - start;
+        allocatedBytes += Benchmarks.getAllocatedBytes() - allocatedBefore;
+
+        for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+            vertexCount += mesh.getVertexElements(type).vertexCount;
+        }
+        chunkCount++;
+    }
+
+    @Override
+    public void finish(boolean aborted) {
+        if (chunkCount == 0) {
+            return;
+        }
+        System.out.println(String.format("%d vertices per chunk, %.0f vertices/s", vertexCount / chunkCount,
+                vertexCount / (nanos / 1e9)));
+        if (allocatedBytes >= 0) {
+            System.out.println(String.format("%d bytes allocated per chunk", allocatedBytes / chunkCount));
+        }
+    }
+
+    private void generate(Chunk chunk, Block[] blocks, FastRandom random) {
+        Vector3i chunkWorldPos = chunk.getChunkWorldOffset();
+        for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+            for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+                int worldX = chunkWorldPos.x + x;
+                int worldZ = chunkWorldPos.z + z;
+                int height = (int) (ChunkConstants.SIZE_Y / 2 + 6 * Math.sin(worldX / 7.0) + 5 * Math.cos(worldZ / 9.0));
+                for (int y = 0; y < ChunkConstants.SIZE_Y; y++) {
+                    int worldY = chunkWorldPos.y + y;
+                    if (worldY < height) {
+                        chunk.setBlock(x, y, z, blocks[STONE]);
+                    } else {
+                        if (random.nextFloat() < leavesDensity) {
+                            chunk.setBlock(x, y, z, blocks[LEAVES]);
+                        }
+                        chunk.setSunlight(x, y, z, ChunkConstants.MAX_SUNLIGHT);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Block createCubeBlock(boolean translucent) {
+        Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+        for (Side side : Side.getAllSides()) {
+            parts.put(BlockPart.fromSide(side), createCubeFace(side));
+        }
+        Block block = new Block();
+        block.setPrimaryAppearance(new BlockAppearance(parts, Maps.newEnumMap(BlockPart.class)));
+        block.setTranslucent(translucent);
+        for (Side side : Side.getAllSides()) {
+            block.setFullSide(side, !translucent);
+        }
+        return block;
+    }
+
+    private static BlockMeshPart createCubeFace(Side side) {
+        Vector3i normal = side.getVector3i();
+        float[][] corners = {{-0.5f, -0.5f}, {0.5f, -0.5f}, {0.5f, 0.5f}, {-0.5f, 0.5f}};
+        Vector3f[] vertices = new Vector3f[corners.length];
+        Vector3f[] normals = new Vector3f[corners.length];
+        Vector2f[] texCoords = new Vector2f[corners.length];
+        for (int i = 0; i < corners.length; i++) {
+            float u = corners[i][0];
+            float v = corners[i][1];
+            if (normal.x != 0) {
+                vertices[i] = new Vector3f(0.5f * normal.x, u, v);
+            } else if (normal.y != 0) {
+                vertices[i] = new Vector3f(u, 0.5f * normal.y, v);
+            } else {
+                vertices[i] = new Vector3f(u, v, 0.5f * normal.z);
+            }
+            normals[i] = new Vector3f(normal.x, normal.y, normal.z);
+            texCoords[i] = new Vector2f(u + 0.5f, v + 0.5f);
+        }
+        return new BlockMeshPart(vertices, normals, texCoords, new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    /**
+     * Resolves the block ids of the generated chunks, nothing else.
+     */
+    private static final class BenchmarkBlockManager extends BlockManager {
+        private final Block[] blocks;
+
+        private BenchmarkBlockManager(Block[] blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public Block getBlock(short id) {
+            return blocks[id];
+        }
+
+        @Override
+        public Map<String, Short> getBlockIdMap() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BlockFamily getBlockFamily(String uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BlockFamily getBlockFamily(BlockUri uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Block getBlock(String uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Block getBlock(BlockUri uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<BlockUri> listRegisteredBlockUris() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<BlockFamily> listRegisteredBlockFamilies() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getBlockFamilyCount() {
+            return 0;
+        }
+
+        @Override
+        public Collection<Block> listRegisteredBlocks() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
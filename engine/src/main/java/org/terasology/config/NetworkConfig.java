@@ -49,6 +49,17 @@ public class NetworkConfig {
      */
     private String masterServer = "meta.terasology.org";
 
+    /**
+     * The distance in blocks after which updates of entities get sent one net tick less often, 0 to send all updates
+     * every tick
+     */
+    private float entityUpdateFalloffDistance = 64;
+
+    /**
+     * The largest number of net ticks between two updates of a distant entity
+     */
+    private int maxEntityUpdateInterval = 4;
+
     public void clear() {
         servers.clear();
     }
@@ -96,4 +107,20 @@ public String getMasterServer() {
     public void setMasterServer(String masterServer) {
         this.masterServer = masterServer;
     }
+
+    public float getEntityUpdateFalloffDistance() {
+        return entityUpdateFalloffDistance;
+    }
+
+    public void setEntityUpdateFalloffDistance(float entityUpdateFalloffDistance) {
+        this.entityUpdateFalloffDistance = entityUpdateFalloffDistance;
+    }
+
+    public int getMaxEntityUpdateInterval() {
+        return maxEntityUpdateInterval;
+    }
+
+    public void setMaxEntityUpdateInterval(int maxEntityUpdateInterval) {
+        this.maxEntityUpdateInterval = maxEntityUpdateInterval;
+    }
 }
@@ -16,8 +16,13 @@
 
 package org.terasology.config;
 
+import com.google.common.collect.Maps;
+import org.terasology.persistence.ChunkStorageFormat;
+import org.terasology.world.chunks.pipeline.ChunkProcessingStage;
+
 import java.util.Locale;
 import java.util.Locale.Category;
+import java.util.Map;
 
 public class SystemConfig {
     public static final String SAVED_GAMES_ENABLED_PROPERTY = "org.terasology.savedGamesEnabled";
@@ -31,6 +36,9 @@ public class SystemConfig {
     private boolean monitoringEnabled;
     private boolean writeSaveGamesEnabled;
     private long chunkGenerationFailTimeoutInMs;
+    private ChunkStorageFormat chunkStorageFormat;
+    private Map<ChunkProcessingStage, Integer> chunkStageThreads;
+    private Map<ChunkProcessingStage, Integer> chunkStageMaxQueueSizes;
     private String locale;
 
     public long getDayNightLengthInMs() {
@@ -101,6 +109,59 @@ public void setChunkGenerationFailTimeoutInMs(long chunkGenerationFailTimeoutInM
         this.chunkGenerationFailTimeoutInMs = chunkGenerationFailTimeoutInMs;
     }
 
+    /**
+     * @return the format in which new save games store their chunks. Existing save games keep the format recorded in
+     * their manifest, see {@link org.terasology.persistence.internal.ReadWriteStorageManager#convertToRegionFiles()}
+     * for converting them.
+     */
+    public ChunkStorageFormat getChunkStorageFormat() {
+        if (chunkStorageFormat == null) {
+            return ChunkStorageFormat.ZIP;
+        }
+        return chunkStorageFormat;
+    }
+
+    public void setChunkStorageFormat(ChunkStorageFormat chunkStorageFormat) {
+        this.chunkStorageFormat = chunkStorageFormat;
+    }
+
+    /**
+     * @return the number of threads of the given stage of the chunk generation pipeline, at least one
+     */
+    public int getChunkStageThreads(ChunkProcessingStage stage) {
+        Integer threads = chunkStageThreads != null ? chunkStageThreads.get(stage) : null;
+        if (threads == null) {
+            return stage.getDefaultThreads();
+        }
+        return Math.max(1, threads);
+    }
+
+    public void setChunkStageThreads(ChunkProcessingStage stage, int threads) {
+        if (chunkStageThreads == null) {
+            chunkStageThreads = Maps.newEnumMap(ChunkProcessingStage.class);
+        }
+        chunkStageThreads.put(stage, threads);
+    }
+
+    /**
+     * @return the number of tasks that may wait in the queue of the given stage of the chunk generation pipeline, at
+     * least one. Ignored for stages whose queue is not bounded, see {@link ChunkProcessingStage#isQueueBounded()}.
+     */
+    public int getChunkStageMaxQueueSize(ChunkProcessingStage stage) {
+        Integer maxQueueSize = chunkStageMaxQueueSizes != null ? chunkStageMaxQueueSizes.get(stage) : null;
+        if (maxQueueSize == null) {
+            return stage.getDefaultMaxQueueSize();
+        }
+        return Math.max(1, maxQueueSize);
+    }
+
+    public void setChunkStageMaxQueueSize(ChunkProcessingStage stage, int maxQueueSize) {
+        if (chunkStageMaxQueueSizes == null) {
+            chunkStageMaxQueueSizes = Maps.newEnumMap(ChunkProcessingStage.class);
+        }
+        chunkStageMaxQueueSizes.put(stage, maxQueueSize);
+    }
+
     public Locale getLocale() {
         if (locale == null) {
             setLocale(Locale.getDefault(Category.DISPLAY));
@@ -33,7 +33,9 @@
 import org.terasology.game.GameManifest;
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.module.ModuleEnvironment;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.persistence.StorageManager;
+import org.terasology.persistence.internal.AbstractStorageManager;
 import org.terasology.persistence.internal.ReadOnlyStorageManager;
 import org.terasology.persistence.internal.ReadWriteStorageManager;
 import org.terasology.recording.DirectionAndOriginPosRecorderList;
@@ -128,9 +130,12 @@ public boolean step() {
         RecordAndReplayUtils recordAndReplayUtils = context.get(RecordAndReplayUtils.class);
         RecordAndReplayCurrentStatus recordAndReplayCurrentStatus = context.get(RecordAndReplayCurrentStatus.class);
         try {
+            // The configured format only applies to new save games, existing ones keep the format they got saved in
+            ChunkStorageFormat chunkStorageFormat = AbstractStorageManager.determineChunkStorageFormat(
+                    saveOrRecordingPath, gameManifest, context.get(Config.class).getSystem().getChunkStorageFormat());
             storageManager = writeSaveGamesEnabled
-                    ? new ReadWriteStorageManager(saveOrRecordingPath, environment, entityManager, blockManager, extraDataManager, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus)
-                    : new ReadOnlyStorageManager(saveOrRecordingPath, environment, entityManager, blockManager, extraDataManager);
+                    ? new ReadWriteStorageManager(saveOrRecordingPath, environment, entityManager, blockManager, extraDataManager, chunkStorageFormat, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus)
+                    : new ReadOnlyStorageManager(saveOrRecordingPath, environment, entityManager, blockManager, extraDataManager, chunkStorageFormat);
         } catch (IOException e) {
             logger.error("Unable to create storage manager!", e);
             context.get(GameEngine.class).changeState(new StateMainMenu("Unable to create storage manager!"));
@@ -138,7 +143,7 @@ public boolean step() {
         }
         context.put(StorageManager.class, storageManager);
         LocalChunkProvider chunkProvider = new LocalChunkProvider(storageManager, entityManager, worldGenerator,
-                blockManager, extraDataManager);
+                blockManager, extraDataManager, context.get(Config.class).getSystem());
         context.get(ComponentSystemManager.class).register(new RelevanceSystem(chunkProvider), "engine:relevanceSystem");
         Block unloadedBlock = blockManager.getBlock(BlockManager.UNLOADED_ID);
         WorldProviderCoreImpl worldProviderCore = new WorldProviderCoreImpl(worldInfo, chunkProvider, unloadedBlock, context);
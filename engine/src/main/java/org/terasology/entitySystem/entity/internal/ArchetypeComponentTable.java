@@ -0,0 +1,400 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.terasology.entitySystem.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A component table that groups entities by the set of component classes they have, their archetype.
+ * <br><br>
+ * Each archetype stores the ids of its entities and one column per component class in dense arrays, so iterating over
+ * the entities with a given set of components is a linear scan over the archetypes that contain all of them, and
+ * counting them does not have to look at the entities at all. Adding or removing a component moves the entity to
+ * another archetype, which is more expensive than with {@link MapComponentTable}. The transitions between archetypes are
+ * cached.
+ */
+public class ArchetypeComponentTable implements ComponentTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Set<Class<? extends Component>>, Archetype> archetypes = Maps.newHashMap();
+    private final Map<Class<? extends Component>, List<Archetype>> archetypesByComponent = Maps.newHashMap();
+    private final TLongObjectMap<Archetype> entityArchetypes = new TLongObjectHashMap<>();
+    private final TLongIntMap entityRows = new TLongIntHashMap();
+
+    @Override
+    public <T extends Component> T get(long entityId, Class<T> componentClass) {
+        Archetype archetype = entityArchetypes.get(entityId);
+        if (archetype == null) {
+            return null;
+        }
+        int column = archetype.column(componentClass);
+        if (column < 0) {
+            return null;
+        }
+        return componentClass.cast(archetype.columns[column][entityRows.get(entityId)]);
+    }
+
+    @Override
+    public Component put(long entityId, Component component) {
+        Class<? extends Component> componentClass = component.getClass();
+        Archetype archetype = entityArchetypes.get(entityId);
+        Archetype target;
+        if (archetype == null) {
+            target = getArchetype(ImmutableSet.<Class<? extends Component>>of(componentClass));
+            int row = target.add(entityId);
+            entityArchetypes.put(entityId, target);
+            entityRows.put(entityId, row);
+        } else {
+            int column = archetype.column(componentClass);
+            if (column >= 0) {
+                int row = entityRows.get(entityId);
+                Component oldComponent = archetype.columns[column][row];
+                archetype.columns[column][row] = component;
+                return oldComponent;
+            }
+            target = archetype.addTransitions.get(componentClass);
+            if (target == null) {
+                target = getArchetype(ImmutableSet.<Class<? extends Component>>builder()
+                        .addAll(archetype.componentClasses).add(componentClass).build());
+                archetype.addTransitions.put(componentClass, target);
+            }
+            move(entityId, archetype, target);
+        }
+        target.columns[target.column(componentClass)][entityRows.get(entityId)] = component;
+        return null;
+    }
+
+    @Override
+    public <T extends Component> Component remove(long entityId, Class<T> componentClass) {
+        Archetype archetype = entityArchetypes.get(entityId);
+        if (archetype == null) {
+            return null;
+        }
+        int column = archetype.column(componentClass);
+        if (column < 0) {
+            return null;
+        }
+        Component component = archetype.columns[column][entityRows.get(entityId)];
+        if (archetype.componentClasses.size() == 1) {
+            remove(entityId);
+            return component;
+        }
+        Archetype target = archetype.removeTransitions.get(componentClass);
+        if (target == null) {
+            target = getArchetype(ImmutableSet.copyOf(Sets.difference(archetype.componentClasses,
+                    Collections.singleton(componentClass))));
+            archetype.removeTransitions.put(componentClass, target);
+        }
+        move(entityId, archetype, target);
+        return component;
+    }
+
+    @Override
+    public List<Component> removeAndReturnComponentsOf(long entityId) {
+        List<Component> components = getComponentsInNewList(entityId);
+        remove(entityId);
+        return components;
+    }
+
+    @Override
+    public void remove(long entityId) {
+        Archetype archetype = entityArchetypes.remove(entityId);
+        if (archetype != null) {
+            removeRow(archetype, entityRows.remove(entityId));
+        }
+    }
+
+    @Override
+    public void clear() {
+        archetypes.clear();
+        archetypesByComponent.clear();
+        entityArchetypes.clear();
+        entityRows.clear();
+    }
+
+    @Override
+    public int getComponentCount(Class<? extends Component> componentClass) {
+        int count = 0;
+        for (Archetype archetype : archetypesByComponent.getOrDefault(componentClass, Collections.emptyList())) {
+            count += archetype.size;
+        }
+        return count;
+    }
+
+    @Override
+    public Iterable<Component> iterateComponents(long entityId) {
+        return getComponentsInNewList(entityId);
+    }
+
+    @Override
+    public List<Component> getComponentsInNewList(long entityId) {
+        Archetype archetype = entityArchetypes.get(entityId);
+        if (archetype == null) {
+            return Lists.newArrayList();
+        }
+        int row = entityRows.get(entityId);
+        List<Component> components = Lists.newArrayListWithCapacity(archetype.columns.length);
+        for (Component[] column : archetype.columns) {
+            components.add(column[row]);
+        }
+        return components;
+    }
+
+    @Override
+    public <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> componentClass) {
+        List<Archetype> componentArchetypes = archetypesByComponent.get(componentClass);
+        if (componentArchetypes == null) {
+            return null;
+        }
+        return new ColumnIterator<>(componentArchetypes, componentClass);
+    }
+
+    @Override
+    public TLongIterator entityIdIterator() {
+        return TLongArrayList.wrap(entityArchetypes.keys()).iterator();
+    }
+
+    @Override
+    public TLongIterator entityIdIterator(Class<? extends Component>[] componentClasses) {
+        if (componentClasses.length == 0) {
+            return entityIdIterator();
+        }
+        List<Archetype> candidates = null;
+        for (Class<? extends Component> componentClass : componentClasses) {
+            List<Archetype> componentArchetypes = archetypesByComponent.get(componentClass);
+            if (componentArchetypes == null) {
+                return new TLongArrayList(0).iterator();
+            }
+            if (candidates == null || componentArchetypes.size() < candidates.size()) {
+                candidates = componentArchetypes;
+            }
+        }
+
+        TLongArrayList entityIds = new TLongArrayList();
+        for (Archetype archetype : candidates) {
+            if (archetype.hasAll(componentClasses)) {
+                entityIds.add(archetype.entityIds, 0, archetype.size);
+            }
+        }
+        return new FilteredEntityIdIterator(entityIds.iterator(), entityId -> {
+            Archetype archetype = entityArchetypes.get(entityId);
+            return archetype != null && archetype.hasAll(componentClasses);
+        });
+    }
+
+    @Override
+    public int numEntities() {
+        return entityArchetypes.size();
+    }
+
+    /**
+     * @return the number of distinct sets of component classes the entities in this table have
+     */
+    public int getArchetypeCount() {
+        return archetypes.size();
+    }
+
+    private Archetype getArchetype(ImmutableSet<Class<? extends Component>> componentClasses) {
+        Archetype archetype = archetypes.get(componentClasses);
+        if (archetype == null) {
+            archetype = new Archetype(componentClasses);
+            archetypes.put(componentClasses, archetype);
+            for (Class<? extends Component> componentClass : componentClasses) {
+                archetypesByComponent.computeIfAbsent(componentClass, k -> Lists.newArrayList()).add(archetype);
+            }
+        }
+        return archetype;
+    }
+
+    /**
+     * Moves the entity and the components it has in both archetypes. The caller fills in the added column, if any.
+     */
+    private void move(long entityId, Archetype from, Archetype to) {
+        int fromRow = entityRows.get(entityId);
+        int toRow = to.add(entityId);
+        for (int fromColumn = 0; fromColumn < from.columns.length; fromColumn++) {
+            int toColumn = to.column(from.columnClasses[fromColumn]);
+            if (toColumn >= 0) {
+                to.columns[toColumn][toRow] = from.columns[fromColumn][fromRow];
+            }
+        }
+        removeRow(from, fromRow);
+        entityArchetypes.put(entityId, to);
+        entityRows.put(entityId, toRow);
+    }
+
+    private void removeRow(Archetype archetype, int row) {
+        long movedEntity = archetype.removeRow(row);
+        if (movedEntity != PojoEntityManager.NULL_ID) {
+            entityRows.put(movedEntity, row);
+        }
+    }
+
+    /**
+     * The entities that have exactly the same set of component classes, stored as dense arrays.
+     */
+    private static final class Archetype {
+        private final ImmutableSet<Class<? extends Component>> componentClasses;
+        private final Class<?>[] columnClasses;
+        private final Map<Class<?>, Integer> columnIndices = Maps.newIdentityHashMap();
+        private final Map<Class<?>, Archetype> addTransitions = Maps.newIdentityHashMap();
+        private final Map<Class<?>, Archetype> removeTransitions = Maps.newIdentityHashMap();
+
+        private long[] entityIds = new long[INITIAL_CAPACITY];
+        private Component[][] columns;
+        private int size;
+
+        private Archetype(ImmutableSet<Class<? extends Component>> componentClasses) {
+            this.componentClasses = componentClasses;
+            this.columnClasses = componentClasses.toArray(new Class<?>[0]);
+            this.columns = new Component[columnClasses.length][INITIAL_CAPACITY];
+            for (int i = 0; i < columnClasses.length; i++) {
+                columnIndices.put(columnClasses[i], i);
+            }
+        }
+
+        private int column(Class<?> componentClass) {
+            Integer column = columnIndices.get(componentClass);
+            return column == null ? -1 : column;
+        }
+
+        private boolean hasAll(Class<? extends Component>[] requiredClasses) {
+            for (Class<? extends Component> requiredClass : requiredClasses) {
+                if (!columnIndices.containsKey(requiredClass)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the row of the added entity, its components must be set by the caller
+         */
+        private int add(long entityId) {
+            if (size == entityIds.length) {
+                int newCapacity = size * 2;
+                entityIds = Arrays.copyOf(entityIds, newCapacity);
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], newCapacity);
+                }
+            }
+            entityIds[size] = entityId;
+            return size++;
+        }
+
+        /**
+         * Removes the row by moving the last row into its place.
+         *
+         * @return the id of the entity that got moved into the row, or {@link PojoEntityManager#NULL_ID} if none was
+         */
+        private long removeRow(int row) {
+            int last = --size;
+            long movedEntity = PojoEntityManager.NULL_ID;
+            if (row != last) {
+                movedEntity = entityIds[last];
+                entityIds[row] = movedEntity;
+                for (Component[] column : columns) {
+                    column[row] = column[last];
+                }
+            }
+            for (Component[] column : columns) {
+                column[last] = null;
+            }
+            return movedEntity;
+        }
+    }
+
+    /**
+     * Iterates over one column of a list of archetypes.
+     */
+    private static final class ColumnIterator<T extends Component> implements TLongObjectIterator<T> {
+        private final List<Archetype> archetypes;
+        private final Class<T> componentClass;
+
+        private int archetypeIndex;
+        private int nextRow;
+        private Archetype current;
+        private Component[] currentColumn;
+        private int currentRow;
+
+        private ColumnIterator(List<Archetype> archetypes, Class<T> componentClass) {
+            this.archetypes = archetypes;
+            this.componentClass = componentClass;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (archetypeIndex < archetypes.size()) {
+                if (nextRow < archetypes.get(archetypeIndex).size) {
+                    return true;
+                }
+                archetypeIndex++;
+                nextRow = 0;
+            }
+            return false;
+        }
+
+        @Override
+        public void advance() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = archetypes.get(archetypeIndex);
+            currentColumn = current.columns[current.column(componentClass)];
+            currentRow = nextRow++;
+        }
+
+        @Override
+        public long key() {
+            return current.entityIds[currentRow];
+        }
+
+        @Override
+        public T value() {
+            return componentClass.cast(currentColumn[currentRow]);
+        }
+
+        @Override
+        public T setValue(T val) {
+            T oldValue = componentClass.cast(currentColumn[currentRow]);
+            currentColumn[currentRow] = val;
+            return oldValue;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+/**
+ * An entity pool that stores its components in an {@link ArchetypeComponentTable}.
+ * <br><br>
+ * Iterating over and counting the entities with a set of components is considerably faster than with the
+ * {@link PojoEntityPool}, adding and removing components is slower. Use
+ * {@link PojoEntityManager#PojoEntityManager(java.util.function.BiFunction)} to choose which pools use it.
+ */
+public class ArchetypeEntityPool extends PojoEntityPool {
+
+    public ArchetypeEntityPool(PojoEntityManager entityManager) {
+        super(entityManager, new ArchetypeComponentTable());
+    }
+}
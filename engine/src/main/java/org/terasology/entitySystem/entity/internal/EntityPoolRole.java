@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+/**
+ * The role of an entity pool within a {@link PojoEntityManager}, passed to its pool factory so that the storage of a
+ * pool can be chosen by what the pool is used for.
+ */
+public enum EntityPoolRole {
+    /**
+     * The pool for entities that are not part of any world.
+     */
+    GLOBAL,
+    /**
+     * The pool of a single world, one gets created for each world of the game.
+     */
+    WORLD,
+    /**
+     * The pool of the sector manager, holding the sector-scoped entities.
+     */
+    SECTOR
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.entitySystem.entity.internal;
+
+import gnu.trove.iterator.TLongIterator;
+
+import java.util.NoSuchElementException;
+import java.util.function.LongPredicate;
+
+/**
+ * Iterates over the ids of another iterator that match a filter. The filter is applied lazily, so that entities that
+ * changed after the source iterator was created are checked against their current state.
+ */
+class FilteredEntityIdIterator implements TLongIterator {
+    private final TLongIterator source;
+    private final LongPredicate filter;
+
+    private long next;
+    private boolean hasNext;
+
+    FilteredEntityIdIterator(TLongIterator source, LongPredicate filter) {
+        this.source = source;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!hasNext && source.hasNext()) {
+            long candidate = source.next();
+            if (filter.test(candidate)) {
+                next = candidate;
+                hasNext = true;
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public long next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = false;
+        return next;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -54,6 +54,7 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiFunction;
 
 import static org.terasology.entitySystem.entity.internal.EntityScope.SECTOR;
 
@@ -65,8 +66,9 @@ public class PojoEntityManager implements EngineEntityManager {
     private long nextEntityId = 1;
     private TLongSet loadedIds = new TLongHashSet();
 
-    private EngineEntityPool globalPool = new PojoEntityPool(this);
-    private PojoSectorManager sectorManager = new PojoSectorManager(this);
+    private final BiFunction<PojoEntityManager, EntityPoolRole, EngineEntityPool> poolFactory;
+    private EngineEntityPool globalPool;
+    private PojoSectorManager sectorManager;
     private Map<Long, EngineEntityPool> poolMap = new MapMaker().initialCapacity(1000).makeMap();
     private List<EngineEntityPool> worldPools = Lists.newArrayList();
     private Map<EngineEntityPool, Long> poolCounts = new HashMap<EngineEntityPool, Long>();
@@ -83,6 +85,20 @@ public class PojoEntityManager implements EngineEntityManager {
 
     private TypeHandlerLibrary typeSerializerLibrary;
 
+    public PojoEntityManager() {
+        this((entityManager, role) -> new PojoEntityPool(entityManager));
+    }
+
+    /**
+     * @param poolFactory creates the pools of this entity manager for the given role. Allows to choose how each pool
+     *                    stores its components, e.g. by returning an {@link ArchetypeEntityPool}.
+     */
+    public PojoEntityManager(BiFunction<PojoEntityManager, EntityPoolRole, EngineEntityPool> poolFactory) {
+        this.poolFactory = poolFactory;
+        this.globalPool = createPool(EntityPoolRole.GLOBAL);
+        this.sectorManager = new PojoSectorManager(this);
+    }
+
     @Override
     public RefStrategy getEntityRefStrategy() {
         return refStrategy;
@@ -93,6 +109,13 @@ public void setEntityRefStrategy(RefStrategy strategy) {
         this.refStrategy = strategy;
     }
 
+    /**
+     * @return a new, empty pool for the given role, created by the pool factory of this entity manager
+     */
+    EngineEntityPool createPool(EntityPoolRole role) {
+        return poolFactory.apply(this, role);
+    }
+
     @Override
     public EngineEntityPool getGlobalPool() {
         return globalPool;
@@ -157,7 +180,7 @@ public void createWorldPools(GameManifest game) {
         Map<String, WorldInfo> worldInfoMap = gameManifest.getWorldInfoMap();
         worldManager = new WorldManager(gameManifest.getWorldInfo(TerasologyConstants.MAIN_WORLD));
         for (Map.Entry<String, WorldInfo> worldInfoEntry : worldInfoMap.entrySet()) {
-            EngineEntityPool pool = new PojoEntityPool(this);
+            EngineEntityPool pool = createPool(EntityPoolRole.WORLD);
             //pool.create();
             worldPools.add(pool);
             worldManager.addWorldPool(worldInfoEntry.getValue(), pool);
@@ -27,6 +27,8 @@
 import com.google.common.collect.Queues;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
 import org.reflections.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +81,12 @@ public class EventSystemImpl implements EventSystem {
     private SetMultimap<Class<? extends Event>, EventHandlerInfo> generalHandlers = HashMultimap.create();
     private Comparator<EventHandlerInfo> priorityComparator = new EventHandlerPriorityComparator();
 
+    /**
+     * The handler chains that were resolved for each event type, cleared whenever the registered handlers change.
+     * Only accessed from the main thread.
+     */
+    private Map<Class<? extends Event>, DispatchTable> dispatchTables = Maps.newHashMap();
+
     // Event metadata
     private BiMap<SimpleUri, Class<? extends Event>> eventIdMap = HashBiMap.create();
     private SetMultimap<Class<? extends Event>, Class<? extends Event>> childEvents = HashMultimap.create();
@@ -115,6 +123,7 @@ public void process() {
     @Override
     public void registerEvent(SimpleUri uri, Class<? extends Event> eventType) {
         eventIdMap.put(uri, eventType);
+        dispatchTables.clear();
         logger.debug("Registering event {}", eventType.getSimpleName());
         for (Class parent : ReflectionUtils.getAllSuperTypes(eventType, Predicates.assignableFrom(Event.class))) {
             if (!AbstractConsumableEvent.class.equals(parent) && !Event.class.equals(parent)) {
@@ -183,6 +192,7 @@ public void registerEventHandler(ComponentSystem handler) {
 
     @Override
     public void unregisterEventHandler(ComponentSystem handler) {
+        dispatchTables.clear();
         for (SetMultimap<Class<? extends Component>, EventHandlerInfo> eventHandlers : componentSpecificHandlers.values()) {
             Iterator<EventHandlerInfo> eventHandlerIterator = eventHandlers.values().iterator();
             while (eventHandlerIterator.hasNext()) {
@@ -203,6 +213,7 @@ public void unregisterEventHandler(ComponentSystem handler) {
     }
 
     private void addEventHandler(Class<? extends Event> type, EventHandlerInfo handler, Collection<Class<? extends Component>> components) {
+        dispatchTables.clear();
         if (components.isEmpty()) {
             generalHandlers.put(type, handler);
             for (Class<? extends Event> childType : childEvents.get(type)) {
@@ -240,6 +251,7 @@ public <T extends Event> void registerEventReceiver(EventReceiver<T> eventReceiv
 
     @Override
     public <T extends Event> void unregisterEventReceiver(EventReceiver<T> eventReceiver, Class<T> eventClass, Class<? extends Component>... componentTypes) {
+        dispatchTables.clear();
         SetMultimap<Class<? extends Component>, EventHandlerInfo> eventHandlerMap = componentSpecificHandlers.get(eventClass);
         if (eventHandlerMap != null) {
             ReceiverEventHandlerInfo testReceiver = new ReceiverEventHandlerInfo<>(eventReceiver, 0, componentTypes);
@@ -272,9 +284,7 @@ public void send(EntityRef entity, Event event) {
             }
             networkReplicate(entity, event);
 
-            Set<EventHandlerInfo> selectedHandlersSet = selectEventHandlers(event.getClass(), entity);
-            List<EventHandlerInfo> selectedHandlers = Lists.newArrayList(selectedHandlersSet);
-            selectedHandlers.sort(priorityComparator);
+            EventHandlerInfo[] selectedHandlers = getDispatchTable(event.getClass()).getHandlers(entity);
 
             if (event instanceof ConsumableEvent) {
                 sendConsumableEvent(entity, event, selectedHandlers);
@@ -284,7 +294,7 @@ public void send(EntityRef entity, Event event) {
         }
     }
 
-    private void sendStandardEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
+    private void sendStandardEvent(EntityRef entity, Event event, EventHandlerInfo[] selectedHandlers) {
         for (EventHandlerInfo handler : selectedHandlers) {
             // Check isValid at each stage in case components were removed.
             if (handler.isValidFor(entity)) {
@@ -293,7 +303,7 @@ private void sendStandardEvent(EntityRef entity, Event event, List<EventHandlerI
         }
     }
 
-    private void sendConsumableEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
+    private void sendConsumableEvent(EntityRef entity, Event event, EventHandlerInfo[] selectedHandlers) {
         ConsumableEvent consumableEvent = (ConsumableEvent) event;
         for (EventHandlerInfo handler : selectedHandlers) {
             // Check isValid at each stage in case components were removed.
@@ -373,37 +383,108 @@ public void send(EntityRef entity, Event event, Component component) {
             if (recordAndReplayCurrentStatus.getStatus() == RecordAndReplayStatus.RECORDING) {
                 eventCatcher.addEvent(new PendingEvent(entity, event, component));
             }
-            SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers = componentSpecificHandlers.get(event.getClass());
-            if (handlers != null) {
-                List<EventHandlerInfo> eventHandlers = Lists.newArrayList(handlers.get(component.getClass()));
-                eventHandlers.sort(priorityComparator);
-                for (EventHandlerInfo eventHandler : eventHandlers) {
-                    if (eventHandler.isValidFor(entity)) {
-                        eventHandler.invoke(entity, event);
-                    }
+            for (EventHandlerInfo eventHandler : getDispatchTable(event.getClass()).getComponentHandlers(component.getClass())) {
+                if (eventHandler.isValidFor(entity)) {
+                    eventHandler.invoke(entity, event);
                 }
             }
         }
     }
 
-    private Set<EventHandlerInfo> selectEventHandlers(Class<? extends Event> eventType, EntityRef entity) {
-        Set<EventHandlerInfo> result = Sets.newHashSet();
-        result.addAll(generalHandlers.get(eventType));
-        SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers = componentSpecificHandlers.get(eventType);
-        if (handlers == null) {
-            return result;
+    private DispatchTable getDispatchTable(Class<? extends Event> eventType) {
+        DispatchTable dispatchTable = dispatchTables.get(eventType);
+        if (dispatchTable == null) {
+            SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers = componentSpecificHandlers.get(eventType);
+            dispatchTable = new DispatchTable(generalHandlers.get(eventType),
+                    handlers != null ? handlers : HashMultimap.create(), priorityComparator);
+            dispatchTables.put(eventType, dispatchTable);
+        }
+        return dispatchTable;
+    }
+
+    /**
+     * The handler chains of one event type, in the order they get invoked.
+     * <br><br>
+     * Which handlers receive an event only depends on which of the component classes with handlers for the event the
+     * entity has. That subset is encoded as a bit mask (the signature) and the chain for each signature is resolved and
+     * sorted once. Because the signature is taken when the event gets sent, adding or removing components just selects
+     * another chain.
+     */
+    private static class DispatchTable {
+        /**
+         * The signature can only be stored in a long when there are at most this many component classes.
+         */
+        private static final int MAX_SIGNATURE_COMPONENTS = Long.SIZE;
+
+        private final Set<EventHandlerInfo> generalHandlers;
+        private final SetMultimap<Class<? extends Component>, EventHandlerInfo> componentHandlers;
+        private final Comparator<EventHandlerInfo> priorityComparator;
+        private final Class<? extends Component>[] componentClasses;
+
+        private final TLongObjectMap<EventHandlerInfo[]> handlersBySignature = new TLongObjectHashMap<>();
+        private final Map<Class<? extends Component>, EventHandlerInfo[]> handlersByComponent = Maps.newHashMap();
+
+        DispatchTable(Set<EventHandlerInfo> generalHandlers,
+                      SetMultimap<Class<? extends Component>, EventHandlerInfo> componentHandlers,
+                      Comparator<EventHandlerInfo> priorityComparator) {
+            this.generalHandlers = generalHandlers;
+            this.componentHandlers = componentHandlers;
+            this.priorityComparator = priorityComparator;
+            this.componentClasses = componentHandlers.keySet().toArray(new Class[0]);
+        }
+
+        /**
+         * @return the handlers that an event sent to the entity should be passed to, sorted by priority
+         */
+        EventHandlerInfo[] getHandlers(EntityRef entity) {
+            if (componentClasses.length > MAX_SIGNATURE_COMPONENTS) {
+                return resolveHandlers(entity);
+            }
+            long signature = 0;
+            for (int i = 0; i < componentClasses.length; i++) {
+                if (entity.hasComponent(componentClasses[i])) {
+                    signature |= 1L << i;
+                }
+            }
+            EventHandlerInfo[] handlers = handlersBySignature.get(signature);
+            if (handlers == null) {
+                handlers = resolveHandlers(entity);
+                handlersBySignature.put(signature, handlers);
+            }
+            return handlers;
+        }
+
+        /**
+         * @return the handlers registered for the given component class, sorted by priority
+         */
+        EventHandlerInfo[] getComponentHandlers(Class<? extends Component> componentClass) {
+            EventHandlerInfo[] handlers = handlersByComponent.get(componentClass);
+            if (handlers == null) {
+                handlers = sorted(componentHandlers.get(componentClass));
+                handlersByComponent.put(componentClass, handlers);
+            }
+            return handlers;
         }
 
-        for (Class<? extends Component> compClass : handlers.keySet()) {
-            if (entity.hasComponent(compClass)) {
-                for (EventHandlerInfo eventHandler : handlers.get(compClass)) {
-                    if (eventHandler.isValidFor(entity)) {
-                        result.add(eventHandler);
+        private EventHandlerInfo[] resolveHandlers(EntityRef entity) {
+            Set<EventHandlerInfo> result = Sets.newHashSet(generalHandlers);
+            for (Class<? extends Component> compClass : componentClasses) {
+                if (entity.hasComponent(compClass)) {
+                    for (EventHandlerInfo eventHandler : componentHandlers.get(compClass)) {
+                        if (eventHandler.isValidFor(entity)) {
+                            result.add(eventHandler);
+                        }
                     }
                 }
             }
+            return sorted(result);
+        }
+
+        private EventHandlerInfo[] sorted(Collection<EventHandlerInfo> handlers) {
+            EventHandlerInfo[] result = handlers.toArray(new EventHandlerInfo[0]);
+            Arrays.sort(result, priorityComparator);
+            return result;
         }
-        return result;
     }
 
     private static class EventHandlerPriorityComparator implements Comparator<EventHandlerInfo> {
@@ -26,6 +26,7 @@
 import org.terasology.naming.Version;
 import org.terasology.naming.gson.NameTypeAdapter;
 import org.terasology.naming.gson.VersionTypeAdapter;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.utilities.gson.CaseInsensitiveEnumTypeAdapterFactory;
 import org.terasology.utilities.gson.UriTypeAdapterFactory;
 import org.terasology.world.internal.WorldInfo;
@@ -50,6 +51,7 @@ public class GameManifest {
     private Map<String, Short> blockIdMap = Maps.newHashMap();
     private Map<String, WorldInfo> worlds = Maps.newHashMap();
     private List<NameVersion> modules = Lists.newArrayList();
+    private ChunkStorageFormat chunkStorageFormat;
 
     public GameManifest() {
     }
@@ -120,6 +122,18 @@ public Iterable<WorldInfo> getWorlds() {
         return this.worlds.values();
     }
 
+    /**
+     * @return the format in which the chunks of the save game are stored, or null if the save game was created before
+     * the format got recorded
+     */
+    public ChunkStorageFormat getChunkStorageFormat() {
+        return chunkStorageFormat;
+    }
+
+    public void setChunkStorageFormat(ChunkStorageFormat chunkStorageFormat) {
+        this.chunkStorageFormat = chunkStorageFormat;
+    }
+
     public static void save(Path toFile, GameManifest gameManifest) throws IOException {
         try (Writer writer = Files.newBufferedWriter(toFile, TerasologyConstants.CHARSET)) {
             createGson().toJson(gameManifest, writer);
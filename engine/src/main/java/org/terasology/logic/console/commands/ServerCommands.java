@@ -38,9 +38,12 @@
 import org.terasology.network.NetworkComponent;
 import org.terasology.network.NetworkSystem;
 import org.terasology.persistence.StorageManager;
+import org.terasology.persistence.internal.ReadWriteStorageManager;
 import org.terasology.registry.In;
 import org.terasology.world.chunks.ChunkProvider;
 
+import java.io.IOException;
+
 /**
  * Commands to administer a remote server
  *
@@ -189,6 +192,23 @@ public void save() {
         storageManager.requestSaving();
     }
 
+    @Command(shortDescription = "Moves the chunks of the save game into region files",
+            helpText = "Switches the save game to the region file chunk storage format and converts its stored chunks." +
+                    " Save games keep their format otherwise, the configured format only applies to new save games.",
+            runOnServer = true, requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String convertToRegionFiles() {
+        if (!(storageManager instanceof ReadWriteStorageManager)) {
+            return "Writing save games is disabled! Nothing to convert";
+        }
+        try {
+            int convertedChunks = ((ReadWriteStorageManager) storageManager).convertToRegionFiles();
+            return "Moved " + convertedChunks + " chunks into region files";
+        } catch (IOException e) {
+            logger.error("Failed to convert chunks to region files", e);
+            return "Conversion failed, see the log for details";
+        }
+    }
+
     @Command(shortDescription = "Invalidates the specified chunk and recreates it (requires storage manager disabled)", runOnServer = true)
     public String reloadChunk(@CommandParam("x") int x, @CommandParam("y") int y, @CommandParam("z") int z) {
         Vector3i pos = new Vector3i(x, y, z);
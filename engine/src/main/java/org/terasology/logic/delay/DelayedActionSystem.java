@@ -15,9 +15,7 @@
  */
 package org.terasology.logic.delay;
 
-import com.google.common.collect.Ordering;
-import com.google.common.collect.SortedSetMultimap;
-import com.google.common.collect.TreeMultimap;
+import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.Time;
@@ -31,14 +29,16 @@
 import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.registry.In;
 import org.terasology.registry.Share;
+import org.terasology.utilities.collection.TimingWheel;
 
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Provides support for scheduling events that will trigger at some point in the future.
+ * <br><br>
+ * Each entity with delayed or periodic actions is scheduled once, at the lowest wake up time of its component, in a
+ * {@link TimingWheel}. That keeps scheduling and cancelling constant time, no matter how many actions are pending.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 @Share(value = DelayManager.class)
@@ -48,8 +48,9 @@ public class DelayedActionSystem extends BaseComponentSystem implements UpdateSu
     @In
     private Time time;
 
-    private SortedSetMultimap<Long, EntityRef> delayedOperationsSortedByTime = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
-    private SortedSetMultimap<Long, EntityRef> periodicOperationsSortedByTime = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
+    private final TimingWheel<EntityRef> delayedOperations = new TimingWheel<>();
+    private final TimingWheel<EntityRef> periodicOperations = new TimingWheel<>();
+    private final List<EntityRef> operationsToInvoke = Lists.newArrayList();
 
     // ONLY use this for testing. DO NOT use this during regular usage.
     void setTime(Time t) {
@@ -64,19 +65,11 @@ public void update(float delta) {
     }
 
     private void invokeDelayedOperations(long currentWorldTime) {
-        List<EntityRef> operationsToInvoke = new LinkedList<>();
-        Iterator<Long> scheduledOperationsIterator = delayedOperationsSortedByTime.keySet().iterator();
-        long processedTime;
-        while (scheduledOperationsIterator.hasNext()) {
-            processedTime = scheduledOperationsIterator.next();
-            if (processedTime > currentWorldTime) {
-                break;
+        delayedOperations.advanceTo(currentWorldTime, operationsToInvoke);
+        for (EntityRef delayedEntity : operationsToInvoke) {
+            if (!delayedEntity.exists()) {
+                continue;
             }
-            operationsToInvoke.addAll(delayedOperationsSortedByTime.get(processedTime));
-            scheduledOperationsIterator.remove();
-        }
-
-        operationsToInvoke.stream().filter(EntityRef::exists).forEach(delayedEntity -> {
             final DelayedActionComponent delayedActions = delayedEntity.getComponent(DelayedActionComponent.class);
 
             // If there is a DelayedActionComponent, proceed. Else report an error to the log.
@@ -85,7 +78,7 @@ private void invokeDelayedOperations(long currentWorldTime) {
                 saveOrRemoveComponent(delayedEntity, delayedActions);
 
                 if (!delayedActions.isEmpty()) {
-                    delayedOperationsSortedByTime.put(delayedActions.getLowestWakeUp(), delayedEntity);
+                    delayedOperations.schedule(delayedEntity, delayedActions.getLowestWakeUp());
                 }
 
                 for (String actionId : actionIds) {
@@ -95,23 +88,16 @@ private void invokeDelayedOperations(long currentWorldTime) {
                 logger.error("ERROR: This entity is missing a DelayedActionComponent: {}. " +
                         "So skipping delayed actions for this entity.", delayedEntity);
             }
-        });
+        }
+        operationsToInvoke.clear();
     }
 
     private void invokePeriodicOperations(long currentWorldTime) {
-        List<EntityRef> operationsToInvoke = new LinkedList<>();
-        Iterator<Long> scheduledOperationsIterator = periodicOperationsSortedByTime.keySet().iterator();
-        long processedTime;
-        while (scheduledOperationsIterator.hasNext()) {
-            processedTime = scheduledOperationsIterator.next();
-            if (processedTime > currentWorldTime) {
-                break;
+        periodicOperations.advanceTo(currentWorldTime, operationsToInvoke);
+        for (EntityRef periodicEntity : operationsToInvoke) {
+            if (!periodicEntity.exists()) {
+                continue;
             }
-            operationsToInvoke.addAll(periodicOperationsSortedByTime.get(processedTime));
-            scheduledOperationsIterator.remove();
-        }
-
-        operationsToInvoke.stream().filter(EntityRef::exists).forEach(periodicEntity -> {
             final PeriodicActionComponent periodicActionComponent = periodicEntity.getComponent(PeriodicActionComponent.class);
 
             // If there is a PeriodicActionComponent, proceed. Else report an error to the log.
@@ -120,37 +106,38 @@ private void invokePeriodicOperations(long currentWorldTime) {
                 saveOrRemoveComponent(periodicEntity, periodicActionComponent);
 
                 if (!periodicActionComponent.isEmpty()) {
-                    periodicOperationsSortedByTime.put(periodicActionComponent.getLowestWakeUp(), periodicEntity);
+                    periodicOperations.schedule(periodicEntity, periodicActionComponent.getLowestWakeUp());
                 }
 
                 for (String actionId : actionIds) {
                     periodicEntity.send(new PeriodicActionTriggeredEvent(actionId));
                 }
             } else {
-                logger.error("ERROR: This entity is missing a DelayedActionComponent: {}. " +
-                        "So skipping delayed actions for this entity", periodicEntity);
+                logger.error("ERROR: This entity is missing a PeriodicActionComponent: {}. " +
+                        "So skipping periodic actions for this entity", periodicEntity);
             }
-        });
+        }
+        operationsToInvoke.clear();
     }
 
     @ReceiveEvent
     public void delayedComponentActivated(OnActivatedComponent event, EntityRef entity, DelayedActionComponent delayedActionComponent) {
-        delayedOperationsSortedByTime.put(delayedActionComponent.getLowestWakeUp(), entity);
+        delayedOperations.schedule(entity, delayedActionComponent.getLowestWakeUp());
     }
 
     @ReceiveEvent
     public void periodicComponentActivated(OnActivatedComponent event, EntityRef entity, PeriodicActionComponent periodicActionComponent) {
-        periodicOperationsSortedByTime.put(periodicActionComponent.getLowestWakeUp(), entity);
+        periodicOperations.schedule(entity, periodicActionComponent.getLowestWakeUp());
     }
 
     @ReceiveEvent
     public void delayedComponentDeactivated(BeforeDeactivateComponent event, EntityRef entity, DelayedActionComponent delayedActionComponent) {
-        delayedOperationsSortedByTime.remove(delayedActionComponent.getLowestWakeUp(), entity);
+        delayedOperations.cancel(entity);
     }
 
     @ReceiveEvent
     public void periodicComponentDeactivated(BeforeDeactivateComponent event, EntityRef entity, PeriodicActionComponent periodicActionComponent) {
-        delayedOperationsSortedByTime.remove(periodicActionComponent.getLowestWakeUp(), entity);
+        periodicOperations.cancel(entity);
     }
 
     @Override
@@ -159,18 +146,9 @@ public void addDelayedAction(EntityRef entity, String actionId, long delay) {
 
         DelayedActionComponent delayedActionComponent = entity.getComponent(DelayedActionComponent.class);
         if (delayedActionComponent != null) {
-            final long oldWakeUp = delayedActionComponent.getLowestWakeUp();
             delayedActionComponent.addActionId(actionId, scheduleTime);
             entity.saveComponent(delayedActionComponent);
-            final long newWakeUp = delayedActionComponent.getLowestWakeUp();
-            if (oldWakeUp < newWakeUp) {
-                delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-                delayedOperationsSortedByTime.put(newWakeUp, entity);
-            } else {
-                // Even if the oldWakeUp time is greater than or equal to the new one, the next action should still be added
-                // to the delayedOperationsSortedByTime mapping.
-                delayedOperationsSortedByTime.put(scheduleTime, entity);
-            }
+            delayedOperations.schedule(entity, delayedActionComponent.getLowestWakeUp());
         } else {
             delayedActionComponent = new DelayedActionComponent();
             delayedActionComponent.addActionId(actionId, scheduleTime);
@@ -184,18 +162,9 @@ public void addPeriodicAction(EntityRef entity, String actionId, long initialDel
 
         PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
         if (periodicActionComponent != null) {
-            final long oldWakeUp = periodicActionComponent.getLowestWakeUp();
             periodicActionComponent.addScheduledActionId(actionId, scheduleTime, period);
             entity.saveComponent(periodicActionComponent);
-            final long newWakeUp = periodicActionComponent.getLowestWakeUp();
-            if (oldWakeUp < newWakeUp) {
-                periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-                periodicOperationsSortedByTime.put(newWakeUp, entity);
-            } else {
-                // Even if the oldWakeUp time is greater than or equal to the new one, the next action should still be added
-                // to the delayedOperationsSortedByTime mapping.
-                periodicOperationsSortedByTime.put(scheduleTime, entity);
-            }
+            periodicOperations.schedule(entity, periodicActionComponent.getLowestWakeUp());
         } else {
             periodicActionComponent = new PeriodicActionComponent();
             periodicActionComponent.addScheduledActionId(actionId, scheduleTime, period);
@@ -206,14 +175,11 @@ public void addPeriodicAction(EntityRef entity, String actionId, long initialDel
     @Override
     public void cancelDelayedAction(EntityRef entity, String actionId) {
         DelayedActionComponent delayedComponent = entity.getComponent(DelayedActionComponent.class);
-        long oldWakeUp = delayedComponent.getLowestWakeUp();
         delayedComponent.removeActionId(actionId);
-        long newWakeUp = delayedComponent.getLowestWakeUp();
-        if (!delayedComponent.isEmpty() && oldWakeUp < newWakeUp) {
-            delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-            delayedOperationsSortedByTime.put(newWakeUp, entity);
-        } else if (delayedComponent.isEmpty()) {
-            delayedOperationsSortedByTime.remove(oldWakeUp, entity);
+        if (delayedComponent.isEmpty()) {
+            delayedOperations.cancel(entity);
+        } else {
+            delayedOperations.schedule(entity, delayedComponent.getLowestWakeUp());
         }
         saveOrRemoveComponent(entity, delayedComponent);
     }
@@ -221,14 +187,11 @@ public void cancelDelayedAction(EntityRef entity, String actionId) {
     @Override
     public void cancelPeriodicAction(EntityRef entity, String actionId) {
         PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
-        long oldWakeUp = periodicActionComponent.getLowestWakeUp();
         periodicActionComponent.removeScheduledActionId(actionId);
-        long newWakeUp = periodicActionComponent.getLowestWakeUp();
-        if (!periodicActionComponent.isEmpty() && oldWakeUp < newWakeUp) {
-            periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-            periodicOperationsSortedByTime.put(newWakeUp, entity);
-        } else if (periodicActionComponent.isEmpty()) {
-            periodicOperationsSortedByTime.remove(oldWakeUp, entity);
+        if (periodicActionComponent.isEmpty()) {
+            periodicOperations.cancel(entity);
+        } else {
+            periodicOperations.schedule(entity, periodicActionComponent.getLowestWakeUp());
         }
         saveOrRemoveComponent(entity, periodicActionComponent);
     }
@@ -18,6 +18,8 @@
 
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
@@ -121,6 +123,21 @@ public void onDestroyed(BeforeRemoveComponent event, EntityRef entity, LocationC
         }
     }
 
+    /**
+     * The saved component may have been modified directly or be a new instance, so the cached world transforms of the
+     * entity and its descendants cannot be trusted anymore.
+     */
+    @ReceiveEvent
+    public void onLocationChanged(OnChangedComponent event, EntityRef entity, LocationComponent location) {
+        location.invalidateWorldTransform();
+        location.invalidateChildWorldTransforms();
+    }
+
+    @ReceiveEvent
+    public void onLocationActivated(OnActivatedComponent event, EntityRef entity, LocationComponent location) {
+        location.invalidateChildWorldTransforms();
+    }
+
     @ReceiveEvent(netFilter = RegisterMode.REMOTE_CLIENT)
     public void onResyncLocation(LocationResynchEvent event, EntityRef entityRef, LocationComponent locationComponent) {
         locationComponent.setWorldPosition(event.getPosition());
@@ -32,9 +32,15 @@
 
 /**
  * Component represent the location and facing of an entity in the world
- *
+ * <br><br>
+ * The world transform gets cached in the component, so that reading it does not walk the parent chain every time. The
+ * cache of an entity and of all its descendants gets invalidated by the setters and whenever the component gets saved.
+ * A local position or rotation that got modified directly is noticed on the next read of the world transform of the
+ * same component; call {@link #invalidateWorldTransform()} after such a modification if the children have to notice it
+ * before. Like the entity system, the cache is not thread safe.
  */
 public final class LocationComponent implements Component, ReplicationCheck {
+    private static final Vector3f FORWARD = Direction.FORWARD.getVector3f();
 
     public boolean replicateChanges = true;
 
@@ -58,6 +64,11 @@ public final class LocationComponent implements Component, ReplicationCheck {
     @Replicate
     Quat4f lastRotation = new Quat4f(0,0,0,1);
 
+    /**
+     * Not a component field, so it is neither copied nor serialized.
+     */
+    private transient WorldTransform worldTransform;
+
     public LocationComponent() {
     }
 
@@ -66,7 +77,8 @@ public LocationComponent(Vector3f position) {
     }
 
     /**
-     * @return The position of this component relative to any parent. Can be directly modified to update the component
+     * @return The position of this component relative to any parent. Can be directly modified to update the component,
+     *         see {@link #invalidateWorldTransform()}
      */
     public Vector3f getLocalPosition() {
         return position;
@@ -75,12 +87,17 @@ public Vector3f getLocalPosition() {
     public void setLocalPosition(Vector3f newPos) {
         lastPosition.set(position);
         position.set(newPos);
+        invalidateWorldTransform();
     }
 
     public Vector3f getLocalDirection() {
-        Vector3f result = Direction.FORWARD.getVector3f();
-        getLocalRotation().rotate(result, result);
-        return result;
+        return getLocalDirection(new Vector3f());
+    }
+
+    public Vector3f getLocalDirection(Vector3f output) {
+        output.set(FORWARD);
+        getLocalRotation().rotate(output, output);
+        return output;
     }
 
     public Quat4f getLocalRotation() {
@@ -90,10 +107,12 @@ public Quat4f getLocalRotation() {
     public void setLocalRotation(Quat4f newQuat) {
         lastRotation.set(rotation);
         rotation.set(newQuat);
+        invalidateWorldTransform();
     }
 
     public void setLocalScale(float value) {
         this.scale = value;
+        invalidateWorldTransform();
     }
 
     public float getLocalScale() {
@@ -108,21 +127,18 @@ public Vector3f getWorldPosition() {
     }
 
     public Vector3f getWorldPosition(Vector3f output) {
-        output.set(position);
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            output.scale(parentLoc.scale);
-            parentLoc.getLocalRotation().rotate(output, output);
-            output.add(parentLoc.position);
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
+        output.set(getWorldTransform().position);
         return output;
     }
 
     public Vector3f getWorldDirection() {
-        Vector3f result = Direction.FORWARD.getVector3f();
-        getWorldRotation().rotate(result, result);
-        return result;
+        return getWorldDirection(new Vector3f());
+    }
+
+    public Vector3f getWorldDirection(Vector3f output) {
+        output.set(FORWARD);
+        getWorldTransform().rotation.rotate(output, output);
+        return output;
     }
 
     public Quat4f getWorldRotation() {
@@ -130,34 +146,22 @@ public Quat4f getWorldRotation() {
     }
 
     public Quat4f getWorldRotation(Quat4f output) {
-        output.set(rotation);
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            output.mul(parentLoc.rotation, output);
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
+        output.set(getWorldTransform().rotation);
         return output;
     }
 
     public float getWorldScale() {
-        float result = scale;
-        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
-        while (parentLoc != null) {
-            result *= parentLoc.getLocalScale();
-            parentLoc = parentLoc.parent.getComponent(LocationComponent.class);
-        }
-        return result;
+        return getWorldTransform().scale;
     }
 
     public void setWorldPosition(Vector3f value) {
         setLocalPosition(value);
         LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
         if (parentLoc != null) {
-            this.position.sub(parentLoc.getWorldPosition());
-            this.position.scale(1f / parentLoc.getWorldScale());
-            Quat4f rot = new Quat4f(0, 0, 0, 1);
-            rot.inverse(parentLoc.getWorldRotation());
-            rot.rotate(this.position, this.position);
+            WorldTransform parentTransform = parentLoc.getWorldTransform();
+            this.position.sub(parentTransform.position);
+            this.position.scale(1f / parentTransform.scale);
+            parentTransform.inverseRotation.rotate(this.position, this.position);
         }
     }
 
@@ -165,20 +169,91 @@ public void setWorldRotation(Quat4f value) {
         setLocalRotation(value);
         LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
         if (parentLoc != null) {
-            Quat4f worldRot = parentLoc.getWorldRotation();
-            worldRot.inverse();
-            this.rotation.mul(worldRot, this.rotation);
+            this.rotation.mul(parentLoc.getWorldTransform().inverseRotation, this.rotation);
         }
     }
 
     public void setWorldScale(float value) {
-        this.scale = value;
+        setLocalScale(value);
         LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
         if (parentLoc != null) {
             this.scale /= parentLoc.getWorldScale();
         }
     }
 
+    /**
+     * Marks the cached world transform of this component and of the components of all descendants as outdated, so that
+     * they get recomputed on their next read. Only needs to be called after modifying the vectors returned by
+     * {@link #getLocalPosition()} or {@link #getLocalRotation()} directly, if the entity does not get saved afterwards.
+     */
+    public void invalidateWorldTransform() {
+        WorldTransform transform = worldTransform;
+        if (transform != null && transform.valid) {
+            transform.valid = false;
+            invalidateChildWorldTransforms();
+        }
+    }
+
+    /**
+     * Marks the cached world transforms of all descendants as outdated, even if the cache of this component is already
+     * outdated. Needed when the component instance of the entity got replaced, as the children may still have their
+     * world transform computed from the previous instance.
+     */
+    void invalidateChildWorldTransforms() {
+        for (EntityRef child : children) {
+            LocationComponent childLoc = child.getComponent(LocationComponent.class);
+            if (childLoc != null) {
+                childLoc.invalidateWorldTransform();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached world transform as long as it is valid and the local transform did not get modified directly,
+     * without looking at the ancestors. Otherwise recomputes it from the world transform of the parent, which is taken
+     * from its cache as well, so only outdated ancestors get recomputed.
+     * <br><br>
+     * If the cache of a component is outdated, the caches of all its descendants are outdated as well, as a descendant
+     * can only be recomputed after all of its ancestors. That is why invalidation can stop at outdated components.
+     */
+    private WorldTransform getWorldTransform() {
+        WorldTransform transform = worldTransform;
+        if (transform == null) {
+            transform = new WorldTransform();
+            worldTransform = transform;
+        } else if (transform.valid) {
+            if (transform.parent == parent && transform.localScale == scale
+                    && transform.localPosition.equals(position) && transform.localRotation.equals(rotation)) {
+                return transform;
+            }
+            // Modified directly, the descendants got their world transform computed from the outdated one
+            invalidateChildWorldTransforms();
+        }
+
+        LocationComponent parentLoc = parent.getComponent(LocationComponent.class);
+        WorldTransform parentTransform = parentLoc != null ? parentLoc.getWorldTransform() : null;
+        if (parentTransform != null) {
+            transform.position.set(position);
+            transform.position.scale(parentTransform.scale);
+            parentTransform.rotation.rotate(transform.position, transform.position);
+            transform.position.add(parentTransform.position);
+            transform.rotation.mul(parentTransform.rotation, rotation);
+            transform.scale = scale * parentTransform.scale;
+        } else {
+            transform.position.set(position);
+            transform.rotation.set(rotation);
+            transform.scale = scale;
+        }
+        transform.inverseRotation.inverse(transform.rotation);
+
+        transform.localPosition.set(position);
+        transform.localRotation.set(rotation);
+        transform.localScale = scale;
+        transform.parent = parent;
+        transform.valid = true;
+        return transform;
+    }
+
     public EntityRef getParent() {
         return parent;
     }
@@ -208,4 +283,18 @@ public int hashCode() {
     public boolean shouldReplicate(FieldMetadata<?, ?> field, boolean initial, boolean toOwner) {
         return initial || replicateChanges;
     }
+
+    private static final class WorldTransform {
+        private final Vector3f position = new Vector3f();
+        private final Quat4f rotation = new Quat4f(0, 0, 0, 1);
+        private final Quat4f inverseRotation = new Quat4f(0, 0, 0, 1);
+        private float scale = 1.0f;
+        private boolean valid;
+
+        // The local transform the world transform got computed from
+        private final Vector3f localPosition = new Vector3f();
+        private final Quat4f localRotation = new Quat4f(0, 0, 0, 1);
+        private float localScale;
+        private EntityRef parent;
+    }
 }
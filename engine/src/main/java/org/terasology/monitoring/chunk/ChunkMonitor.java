@@ -23,13 +23,18 @@
 import org.terasology.world.chunks.Chunk;
 import org.terasology.world.chunks.ChunkProvider;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntSupplier;
 
 public final class ChunkMonitor {
 
     private static final EventBus EVENT_BUS = new EventBus("ChunkMonitor");
     private static final Map<Vector3i, ChunkMonitorEntry> CHUNKS = Maps.newConcurrentMap();
+    private static final Map<String, ChunkStageTimings> STAGE_TIMINGS = Maps.newConcurrentMap();
+    private static final Map<String, ChunkWorkStatistics> WORK_STATISTICS = Maps.newConcurrentMap();
 
     private ChunkMonitor() {
     }
@@ -61,6 +66,8 @@ public static void fireChunkProviderInitialized(ChunkProvider provider) {
 
     public static void fireChunkProviderDisposed(ChunkProvider provider) {
         CHUNKS.clear();
+        STAGE_TIMINGS.clear();
+        WORK_STATISTICS.clear();
         post(new ChunkMonitorEvent.ChunkProviderDisposed(provider));
     }
 
@@ -92,6 +99,65 @@ public static void fireChunkTessellated(Vector3i chunkPos, ChunkMesh mesh) {
         post(new ChunkMonitorEvent.Tessellated(chunkPos, mesh));
     }
 
+    /**
+     * Records that a chunk completed a stage of chunk processing, see {@link ChunkStageTimings}.
+     *
+     * @param stage     name of the stage, e.g. "Generation" or "Light Merge"
+     * @param waitNanos time the chunk waited before the stage started working on it
+     * @param runNanos  time the stage spent working on the chunk
+     */
+    public static void fireChunkStageCompleted(String stage, long waitNanos, long runNanos) {
+        Preconditions.checkNotNull(stage, "The parameter 'stage' must not be null");
+        STAGE_TIMINGS.computeIfAbsent(stage, ChunkStageTimings::new).record(waitNanos, runNanos);
+    }
+
+    /**
+     * Makes the number of chunks waiting in the queue of a stage available through its {@link ChunkStageTimings}.
+     */
+    public static void registerStageQueue(String stage, IntSupplier queueDepth) {
+        Preconditions.checkNotNull(stage, "The parameter 'stage' must not be null");
+        Preconditions.checkNotNull(queueDepth, "The parameter 'queueDepth' must not be null");
+        STAGE_TIMINGS.computeIfAbsent(stage, ChunkStageTimings::new).setQueueDepth(queueDepth);
+    }
+
+    /**
+     * @return the timings of all stages that chunks completed since the chunk provider got initialized
+     */
+    public static Collection<ChunkStageTimings> getStageTimings() {
+        return Collections.unmodifiableCollection(STAGE_TIMINGS.values());
+    }
+
+    /**
+     * Records work on a chunk whose result got used, see {@link ChunkWorkStatistics}.
+     *
+     * @param kind  the kind of work, e.g. "Chunk Preparation"
+     * @param nanos the time spent on the work
+     */
+    public static void fireChunkWorkUseful(String kind, long nanos) {
+        Preconditions.checkNotNull(kind, "The parameter 'kind' must not be null");
+        WORK_STATISTICS.computeIfAbsent(kind, ChunkWorkStatistics::new).recordUseful(nanos);
+    }
+
+    /**
+     * Records work on a chunk whose result got thrown away because the chunk was no longer needed.
+     */
+    public static void fireChunkWorkWasted(String kind, long nanos) {
+        Preconditions.checkNotNull(kind, "The parameter 'kind' must not be null");
+        WORK_STATISTICS.computeIfAbsent(kind, ChunkWorkStatistics::new).recordWasted(nanos);
+    }
+
+    /**
+     * Records that work on a chunk got cancelled before any of it was done.
+     */
+    public static void fireChunkWorkCancelled(String kind) {
+        Preconditions.checkNotNull(kind, "The parameter 'kind' must not be null");
+        WORK_STATISTICS.computeIfAbsent(kind, ChunkWorkStatistics::new).recordCancelled();
+    }
+
+    public static Collection<ChunkWorkStatistics> getWorkStatistics() {
+        return Collections.unmodifiableCollection(WORK_STATISTICS.values());
+    }
+
     public static synchronized void getChunks(List<ChunkMonitorEntry> output) {
         Preconditions.checkNotNull(output, "The parameter 'output' must not be null");
         output.addAll(CHUNKS.values());
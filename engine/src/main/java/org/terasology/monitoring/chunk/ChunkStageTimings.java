@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.chunk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Accumulates how long chunks waited for and spent in one stage of chunk processing.
+ * <br><br>
+ * The wait time of a chunk is the time from the moment it got handed to the stage until the stage started working on
+ * it, which includes waiting for a free thread and for any dependencies of the stage. The latency of a chunk is its
+ * wait time plus its run time; latencies are counted in a histogram with buckets that double in size.
+ */
+public final class ChunkStageTimings {
+    /**
+     * Number of latency histogram buckets. The first bucket counts latencies below 1 ms, the last one all latencies
+     * that do not fit in the others.
+     */
+    public static final int BUCKET_COUNT = 16;
+
+    private final String stage;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(BUCKET_COUNT);
+
+    private volatile IntSupplier queueDepth = () -> 0;
+
+    ChunkStageTimings(String stage) {
+        this.stage = stage;
+    }
+
+    void record(long waitNanos, long runNanos) {
+        count.increment();
+        totalWaitNanos.add(waitNanos);
+        totalRunNanos.add(runNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        maxRunNanos.accumulateAndGet(runNanos, Math::max);
+        latencyHistogram.incrementAndGet(getBucket(waitNanos + runNanos));
+    }
+
+    void setQueueDepth(IntSupplier queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    private static int getBucket(long latencyNanos) {
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        int bucket = 64 - Long.numberOfLeadingZeros(latencyMs);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return the number of chunks that completed the stage
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getAverageWaitMs() {
+        return averageMs(totalWaitNanos.sum());
+    }
+
+    public double getAverageRunMs() {
+        return averageMs(totalRunNanos.sum());
+    }
+
+    public double getMaxWaitMs() {
+        return toMs(maxWaitNanos.get());
+    }
+
+    public double getMaxRunMs() {
+        return toMs(maxRunNanos.get());
+    }
+
+    /**
+     * @return the number of chunks currently waiting in the queue of the stage
+     */
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    /**
+     * @return the number of chunks per latency bucket, bucket i counts latencies below {@link #getBucketLimitMs(int)}
+     */
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = latencyHistogram.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * @return the exclusive upper bound of the given histogram bucket in milliseconds, or
+     * {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long getBucketLimitMs(int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return 1L << bucket;
+    }
+
+    private double averageMs(long totalNanos) {
+        long chunks = count.sum();
+        return chunks == 0 ? 0 : toMs(totalNanos) / chunks;
+    }
+
+    private static double toMs(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d chunks, %d queued, wait %.2f ms avg / %.2f ms max, run %.2f ms avg / %.2f ms max",
+                stage, getCount(), getQueueDepth(), getAverageWaitMs(), getMaxWaitMs(), getAverageRunMs(), getMaxRunMs());
+    }
+}
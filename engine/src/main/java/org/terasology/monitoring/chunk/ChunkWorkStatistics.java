@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.monitoring.chunk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how much of the work done on chunks of one kind (e.g. preparing chunks or building their meshes) got used
+ * and how much got thrown away because the chunk was no longer needed once the work was done.
+ * <br><br>
+ * Work that got cancelled before it started costs nothing and is only counted.
+ */
+public final class ChunkWorkStatistics {
+    private final String kind;
+    private final LongAdder usefulCount = new LongAdder();
+    private final LongAdder usefulNanos = new LongAdder();
+    private final LongAdder wastedCount = new LongAdder();
+    private final LongAdder wastedNanos = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+
+    ChunkWorkStatistics(String kind) {
+        this.kind = kind;
+    }
+
+    void recordUseful(long nanos) {
+        usefulCount.increment();
+        usefulNanos.add(nanos);
+    }
+
+    void recordWasted(long nanos) {
+        wastedCount.increment();
+        wastedNanos.add(nanos);
+    }
+
+    void recordCancelled() {
+        cancelledCount.increment();
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public long getUsefulCount() {
+        return usefulCount.sum();
+    }
+
+    public double getUsefulMs() {
+        return toMs(usefulNanos.sum());
+    }
+
+    public long getWastedCount() {
+        return wastedCount.sum();
+    }
+
+    public double getWastedMs() {
+        return toMs(wastedNanos.sum());
+    }
+
+    /**
+     * @return the number of chunks whose work got cancelled before any of it was done
+     */
+    public long getCancelledCount() {
+        return cancelledCount.sum();
+    }
+
+    /**
+     * @return the share of the work time that got thrown away, between 0 and 1
+     */
+    public double getWastedFraction() {
+        long wasted = wastedNanos.sum();
+        long total = wasted + usefulNanos.sum();
+        return total == 0 ? 0 : (double) wasted / total;
+    }
+
+    private static double toMs(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d useful (%.0f ms), %d wasted (%.0f ms, %.1f%%), %d cancelled", kind,
+                getUsefulCount(), getUsefulMs(), getWastedCount(), getWastedMs(), getWastedFraction() * 100,
+                getCancelledCount());
+    }
+}
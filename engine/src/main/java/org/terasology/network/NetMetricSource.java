@@ -42,4 +42,41 @@ public interface NetMetricSource {
      * @return The amount of bytes sent since last time this method was called
      */
     int getSentBytesSinceLastCall();
+
+    /**
+     * @return The amount of chunks sent since last time this method was called
+     */
+    default int getSentChunksSinceLastCall() {
+        return 0;
+    }
+
+    /**
+     * @return The amount of sent chunks that had to be encoded because no cached encoding of them was available, since
+     * last time this method was called
+     */
+    default int getEncodedChunksSinceLastCall() {
+        return 0;
+    }
+
+    /**
+     * @return The amount of entity creations and updates sent since last time this method was called
+     */
+    default int getSentEntitiesSinceLastCall() {
+        return 0;
+    }
+
+    /**
+     * @return The amount of sent entity creations and updates that had to be serialized because no other client got
+     * them during the same tick, since last time this method was called
+     */
+    default int getSerializedEntitiesSinceLastCall() {
+        return 0;
+    }
+
+    /**
+     * @return The amount of bytes produced by serializing entities since last time this method was called
+     */
+    default int getSerializedEntityBytesSinceLastCall() {
+        return 0;
+    }
 }
@@ -65,6 +65,36 @@ public interface NetworkSystem extends BlockRegistrationListener {
 
     int getOutgoingBytesDelta();
 
+    /**
+     * @return The number of chunks sent to clients since last request
+     */
+    int getOutgoingChunksDelta();
+
+    /**
+     * @return The number of chunks that got encoded to be sent to clients since last request
+     */
+    int getEncodedChunksDelta();
+
+    /**
+     * @return The size in bytes of the chunk encodings that are kept to be sent to further clients
+     */
+    long getChunkPayloadCacheSize();
+
+    /**
+     * @return The number of entity creations and updates sent to clients since last request
+     */
+    int getOutgoingEntitiesDelta();
+
+    /**
+     * @return The number of entities that got serialized to be sent to clients since last request
+     */
+    int getSerializedEntitiesDelta();
+
+    /**
+     * @return The number of bytes produced by serializing entities for clients since last request
+     */
+    int getSerializedEntityBytesDelta();
+
     void forceDisconnect(Client client);
 
     void setContext(Context context);
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Sets;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.EntityData;
+import org.terasology.world.WorldChangeListener;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.propagation.BlockChange;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the encoded form of the chunks sent to clients, so that a chunk that is sent to several clients only has to
+ * be encoded once.
+ * <br><br>
+ * A cached payload belongs to a chunk position and the chunk instance it was encoded from, a chunk that got unloaded
+ * and loaded again is encoded anew. Block and extra data changes invalidate the payload of their chunk through the
+ * {@link WorldChangeListener} callbacks. The cache is bounded by the serialized size of the payloads and evicts the
+ * least recently used ones first.
+ */
+class ChunkPayloadCache implements WorldChangeListener {
+    public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+    private final Cache<Vector3i, Payload> payloads;
+    private final AtomicLong encodeCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    ChunkPayloadCache() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    ChunkPayloadCache(long maxBytes) {
+        payloads = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .<Vector3i, Payload>weigher((pos, payload) -> payload.size)
+                .<Vector3i, Payload>removalListener(notification -> cachedBytes.addAndGet(-notification.getValue().size))
+                .build();
+    }
+
+    /**
+     * @return the cached encoding of the chunk, or null if the chunk changed since it was encoded last
+     */
+    public EntityData.ChunkStore getCachedPayload(Vector3i pos, Chunk chunk) {
+        Payload payload = payloads.getIfPresent(pos);
+        if (payload != null && payload.chunk.get() == chunk) {
+            hitCount.incrementAndGet();
+            return payload.chunkStore;
+        }
+        return null;
+    }
+
+    /**
+     * Encodes the chunk and caches the result.
+     */
+    public EntityData.ChunkStore encode(Vector3i pos, Chunk chunk) {
+        EntityData.ChunkStore chunkStore = chunk.encode().build();
+        encodeCount.incrementAndGet();
+        Payload payload = new Payload(chunk, chunkStore);
+        cachedBytes.addAndGet(payload.size);
+        payloads.put(new Vector3i(pos), payload);
+        return chunkStore;
+    }
+
+    public void invalidate(Vector3i chunkPos) {
+        payloads.invalidate(chunkPos);
+    }
+
+    public void invalidateAll() {
+        payloads.invalidateAll();
+    }
+
+    /**
+     * @return the number of chunks that got encoded so far
+     */
+    public long getEncodeCount() {
+        return encodeCount.get();
+    }
+
+    /**
+     * @return the number of payloads that got served from the cache so far
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the serialized size of all cached payloads in bytes
+     */
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    @Override
+    public void onBlockChanged(Vector3i pos, Block newBlock, Block originalBlock) {
+        invalidate(ChunkMath.calcChunkPos(pos));
+    }
+
+    @Override
+    public void onBlocksChanged(Region3i region, Collection<BlockChange> changes) {
+        Set<Vector3i> chunkPositions = Sets.newHashSet();
+        for (BlockChange change : changes) {
+            chunkPositions.add(ChunkMath.calcChunkPos(change.getPosition()));
+        }
+        payloads.invalidateAll(chunkPositions);
+    }
+
+    @Override
+    public void onExtraDataChanged(int i, Vector3i pos, int newData, int oldData) {
+        invalidate(ChunkMath.calcChunkPos(pos));
+    }
+
+    private static final class Payload {
+        /**
+         * Weak, so that the cache does not keep unloaded chunks alive.
+         */
+        private final WeakReference<Chunk> chunk;
+        private final EntityData.ChunkStore chunkStore;
+        private final int size;
+
+        private Payload(Chunk chunk, EntityData.ChunkStore chunkStore) {
+            this.chunk = new WeakReference<>(chunk);
+            this.chunkStore = chunkStore;
+            this.size = chunkStore.getSerializedSize();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The chunks that are ready to be sent to a client, ordered by their distance to the chunk the client is in.
+ * <br><br>
+ * Chunks are bucketed by their squared distance to the center, so that the closest chunk can be taken without looking
+ * at all of them. Moving the center re-buckets all queued chunks, which only has to happen when the player crosses a
+ * chunk border. Chunks with the same distance are sent in the order they got queued.
+ */
+class ChunkSendQueue {
+    private final Map<Vector3i, Chunk> chunks = Maps.newLinkedHashMap();
+    private final TreeMap<Integer, Set<Vector3i>> chunksByDistance = new TreeMap<>();
+    private final Vector3i center = new Vector3i();
+
+    /**
+     * Adds the chunk to the queue, replacing any queued version of it.
+     */
+    public void add(Vector3i pos, Chunk chunk) {
+        if (chunks.put(pos, chunk) == null) {
+            chunksByDistance.computeIfAbsent(pos.distanceSquared(center), k -> Sets.newLinkedHashSet()).add(pos);
+        }
+    }
+
+    /**
+     * @return the removed chunk, or null if it wasn't queued
+     */
+    public Chunk remove(Vector3i pos) {
+        Chunk chunk = chunks.remove(pos);
+        if (chunk != null) {
+            int distance = pos.distanceSquared(center);
+            Set<Vector3i> bucket = chunksByDistance.get(distance);
+            bucket.remove(pos);
+            if (bucket.isEmpty()) {
+                chunksByDistance.remove(distance);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Removes the chunk closest to the center.
+     *
+     * @param posOut receives the position of the removed chunk
+     * @return the removed chunk, or null if the queue is empty
+     */
+    public Chunk poll(Vector3i posOut) {
+        Map.Entry<Integer, Set<Vector3i>> closest = chunksByDistance.firstEntry();
+        if (closest == null) {
+            return null;
+        }
+        Iterator<Vector3i> iterator = closest.getValue().iterator();
+        Vector3i pos = iterator.next();
+        iterator.remove();
+        if (closest.getValue().isEmpty()) {
+            chunksByDistance.remove(closest.getKey());
+        }
+        posOut.set(pos);
+        return chunks.remove(pos);
+    }
+
+    public Vector3i getCenter() {
+        return new Vector3i(center);
+    }
+
+    /**
+     * Sets the chunk position the distances are measured from.
+     */
+    public void setCenter(Vector3i newCenter) {
+        if (center.equals(newCenter)) {
+            return;
+        }
+        center.set(newCenter);
+        chunksByDistance.clear();
+        for (Vector3i pos : chunks.keySet()) {
+            chunksByDistance.computeIfAbsent(pos.distanceSquared(center), k -> Sets.newLinkedHashSet()).add(pos);
+        }
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.protobuf.EntityData;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.TeraArray;
+import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.world.chunks.internal.ChunkSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The preset deflate dictionary for messages that carry {@link EntityData.ChunkStore}s.
+ * <br><br>
+ * Server and client have to use the exact same dictionary, so it is not shipped as a file but trained on startup from
+ * chunks that get generated deterministically: layered terrain of varying height, encoded like real chunks by the
+ * {@link ChunkSerializer}. What makes chunk payloads compressible are the field tags and the varint runs of the run
+ * length encoding, and those do not depend on the actual block ids of a world.
+ * <br><br>
+ * Any change to the training samples or the training itself changes the dictionary, which requires a new
+ * {@link HandshakeCommon#MESSAGE_COMPRESSION_VERSION}.
+ */
+final class ChunkStoreDictionary {
+    static final int DICTIONARY_SIZE = 8192;
+
+    private static final int SEGMENT_LENGTH = 12;
+    private static final int SAMPLE_COUNT = 24;
+    private static final long SAMPLE_SEED = 0x7e7a5017L;
+
+    private static byte[] dictionary;
+
+    private ChunkStoreDictionary() {
+    }
+
+    static synchronized byte[] get() {
+        if (dictionary == null) {
+            dictionary = train(createSamples(), DICTIONARY_SIZE);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Builds a dictionary out of the segments that occur in most of the given samples. The most common segments are
+     * placed at the end of the dictionary, as deflate encodes shorter distances with fewer bits.
+     *
+     * @param samples the encoded messages to train on
+     * @param maxSize the maximum size of the dictionary in bytes
+     */
+    static byte[] train(List<byte[]> samples, int maxSize) {
+        Map<String, Integer> sampleCounts = Maps.newHashMap();
+        for (byte[] sample : samples) {
+            // Segments are counted once per sample, so that structure shared by all chunks wins over long runs of one
+            Map<String, Boolean> seen = Maps.newHashMap();
+            for (int i = 0; i + SEGMENT_LENGTH <= sample.length; i++) {
+                String segment = new String(sample, i, SEGMENT_LENGTH, StandardCharsets.ISO_8859_1);
+                if (seen.put(segment, Boolean.TRUE) == null) {
+                    sampleCounts.merge(segment, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> segments = Lists.newArrayList(sampleCounts.entrySet());
+        segments.removeIf(entry -> entry.getValue() < 2);
+        segments.sort(Comparator.<Map.Entry<String, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                .thenComparing(Map.Entry::getKey));
+
+        int segmentCount = Math.min(segments.size(), maxSize / SEGMENT_LENGTH);
+        byte[] result = new byte[segmentCount * SEGMENT_LENGTH];
+        for (int i = 0; i < segmentCount; i++) {
+            byte[] segment = segments.get(i).getKey().getBytes(StandardCharsets.ISO_8859_1);
+            System.arraycopy(segment, 0, result, result.length - (i + 1) * SEGMENT_LENGTH, SEGMENT_LENGTH);
+        }
+        return result;
+    }
+
+    static List<byte[]> createSamples() {
+        Random random = new Random(SAMPLE_SEED);
+        List<byte[]> samples = Lists.newArrayListWithCapacity(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            TeraArray blockData = createTerrain(random);
+            TeraArray[] extraData = {new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z)};
+            Vector3i pos = new Vector3i(random.nextInt(64) - 32, random.nextInt(8) - 4, random.nextInt(64) - 32);
+            samples.add(ChunkSerializer.encode(pos, blockData, extraData).build().toByteArray());
+        }
+        return samples;
+    }
+
+    private static TeraArray createTerrain(Random random) {
+        TeraArray blockData = new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        int stone = 1 + random.nextInt(16);
+        int dirt = 1 + random.nextInt(16);
+        int grass = 1 + random.nextInt(16);
+        int water = 1 + random.nextInt(16);
+        int baseHeight = random.nextInt(ChunkConstants.SIZE_Y);
+        int seaLevel = random.nextInt(ChunkConstants.SIZE_Y);
+        double frequency = 0.05 + random.nextDouble() * 0.2;
+        for (int z = 0; z < ChunkConstants.SIZE_Z; z++) {
+            for (int x = 0; x < ChunkConstants.SIZE_X; x++) {
+                int height = baseHeight + (int) (4 * Math.sin(x * frequency) + 4 * Math.cos(z * frequency));
+                for (int y = 0; y < ChunkConstants.SIZE_Y; y++) {
+                    int block = 0;
+                    if (y < height - 3) {
+                        block = stone;
+                    } else if (y < height) {
+                        block = dirt;
+                    } else if (y == height) {
+                        block = grass;
+                    } else if (y <= seaLevel) {
+                        block = water;
+                    }
+                    blockData.set(x, y, z, block);
+                }
+            }
+        }
+        return blockData;
+    }
+}
@@ -62,6 +62,7 @@ public class ClientHandshakeHandler extends SimpleChannelUpstreamHandler {
     private NetData.HandshakeHello clientHello;
 
     private boolean requestedCertificate;
+    private int compressionVersion;
     private ClientIdentity identity;
     private PublicIdentityCertificate serverCertificate;
 
@@ -109,6 +110,7 @@ private void processHandshakeVerification(NetData.HandshakeVerification handshak
         }
 
         // And we're authenticated.
+        finishHandshake(ctx);
         ctx.getPipeline().remove(this);
         channelAuthenticated(ctx);
     }
@@ -168,6 +170,7 @@ private void processNewIdentity(NetData.ProvisionIdentity provisionIdentity, Cha
             }
 
             // And we're authenticated.
+            finishHandshake(ctx);
             ctx.getPipeline().remove(this);
             channelAuthenticated(ctx);
         } catch (InvalidProtocolBufferException e) {
@@ -177,6 +180,17 @@ private void processNewIdentity(NetData.ProvisionIdentity provisionIdentity, Cha
         }
     }
 
+    /**
+     * Switches to per message decompression if it got negotiated, as the server does the same right after sending the
+     * message that is currently being received.
+     * @param ctx Channel Handler Context.
+     */
+    private void finishHandshake(ChannelHandlerContext ctx) {
+        if (compressionVersion > 0) {
+            HandshakeCommon.enableMessageDecompression(ctx.getPipeline());
+        }
+    }
+
     /**
      * Creates a new builder on the channel and sets join status.
      * @param ctx Channel Handler Context.
@@ -208,6 +222,7 @@ private void processServerHello(NetData.HandshakeHello helloMessage, ChannelHand
             }
 
             clientRandom = new byte[IdentityConstants.SERVER_CLIENT_RANDOM_LENGTH];
+            compressionVersion = HandshakeCommon.negotiateCompressionVersion(helloMessage.getCompressionVersion());
 
             identity = config.getSecurity().getIdentity(serverCertificate);
             if (identity == null) {
@@ -233,11 +248,14 @@ private void sendCertificate(NetData.HandshakeHello helloMessage, ChannelHandler
         logger.info("Sending client certificate");
         PublicIdentityCertificate pubClientCert = identity.getPlayerPublicCertificate();
 
-        clientHello = NetData.HandshakeHello.newBuilder()
+        NetData.HandshakeHello.Builder clientHelloBuilder = NetData.HandshakeHello.newBuilder()
                 .setRandom(ByteString.copyFrom(clientRandom))
                 .setCertificate(NetMessageUtil.convert(pubClientCert))
-                .setTimestamp(System.currentTimeMillis())
-                .build();
+                .setTimestamp(System.currentTimeMillis());
+        if (compressionVersion > 0) {
+            clientHelloBuilder.setCompressionVersion(compressionVersion);
+        }
+        clientHello = clientHelloBuilder.build();
 
         byte[] dataToSign = Bytes.concat(helloMessage.toByteArray(), clientHello.toByteArray());
         byte[] signature = identity.getPlayerPrivateCertificate().sign(dataToSign);
@@ -262,11 +280,15 @@ private void requestIdentity(ChannelHandlerContext ctx) {
 
         masterSecret = HandshakeCommon.generateMasterSecret(preMasterSecret, clientRandom, serverRandom);
 
-        ctx.getChannel().write(NetData.NetMessage.newBuilder()
+        NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder()
                 .setNewIdentityRequest(NetData.NewIdentityRequest.newBuilder()
                         .setPreMasterSecret(ByteString.copyFrom(encryptedPreMasterSecret))
-                        .setRandom(ByteString.copyFrom(clientRandom)))
-                .build());
+                        .setRandom(ByteString.copyFrom(clientRandom)));
+        if (compressionVersion > 0) {
+            // Servers that do not support per message compression ignore the hello next to the identity request
+            message.setHandshakeHello(NetData.HandshakeHello.newBuilder().setCompressionVersion(compressionVersion));
+        }
+        ctx.getChannel().write(message.build());
         requestedCertificate = true;
     }
 
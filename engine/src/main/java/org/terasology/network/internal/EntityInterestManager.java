@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.terasology.config.NetworkConfig;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3f;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.network.NetworkComponent;
+import org.terasology.rendering.world.viewDistance.ViewDistance;
+
+import java.util.Collection;
+
+/**
+ * Decides which of the entities that get replicated by relevance ({@link NetworkComponent.ReplicateMode#RELEVANT}) are
+ * replicated to which client.
+ * <br><br>
+ * An entity is relevant to a client if the chunk it is located in lies within the view region of the client, which is
+ * determined the same way as the region of chunks that gets sent to the client (see {@link ViewDistance}). An owned
+ * entity is located where its owner is. Entities owned by the client and entities without location are always
+ * relevant. An entity enters the view of a client as soon as it is within the view region, but only leaves it once it
+ * is more than {@link #LEAVE_MARGIN} chunks outside of it, so that entities moving along the border do not get created
+ * and removed over and over.
+ * <br><br>
+ * Updates of distant entities can be sent less often: the update interval grows by one net tick per
+ * {@link NetworkConfig#getEntityUpdateFalloffDistance()} blocks between the client and the entity, up to
+ * {@link NetworkConfig#getMaxEntityUpdateInterval()} ticks.
+ */
+class EntityInterestManager {
+    static final int LEAVE_MARGIN = 1;
+
+    private final NetworkSystemImpl networkSystem;
+    private final NetworkConfig config;
+    private final TIntSet relevanceEntities = new TIntHashSet();
+
+    EntityInterestManager(NetworkSystemImpl networkSystem, NetworkConfig config) {
+        this.networkSystem = networkSystem;
+        this.config = config;
+    }
+
+    /**
+     * Starts re-evaluating the relevance of the entity every net tick.
+     */
+    public void track(int netId) {
+        relevanceEntities.add(netId);
+    }
+
+    public void untrack(int netId) {
+        relevanceEntities.remove(netId);
+    }
+
+    /**
+     * @return whether the entity is currently within the view of the client
+     */
+    public boolean isRelevant(NetClient client, EntityRef entity) {
+        Vector3f position = getPosition(entity);
+        if (position == null || networkSystem.getOwner(entity) == client) {
+            return true;
+        }
+        ClientView view = ClientView.of(client);
+        return view == null || view.region.encompasses(ChunkMath.calcChunkPos(position));
+    }
+
+    /**
+     * Sends the entities that entered the view of a client to it, removes those that left the view and updates the
+     * update intervals of the rest. Must be called every net tick, before the clients get updated.
+     */
+    public void update(Collection<NetClient> clients) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        ClientView[] views = new ClientView[clients.size()];
+        NetClient[] netClients = clients.toArray(new NetClient[clients.size()]);
+        for (int i = 0; i < netClients.length; i++) {
+            views[i] = ClientView.of(netClients[i]);
+        }
+
+        TIntIterator iterator = relevanceEntities.iterator();
+        while (iterator.hasNext()) {
+            int netId = iterator.next();
+            EntityRef entity = networkSystem.getEntity(netId);
+            if (!entity.exists()) {
+                continue;
+            }
+            Vector3f position = getPosition(entity);
+            Vector3i chunkPos = position != null ? ChunkMath.calcChunkPos(position) : null;
+            NetClient owner = networkSystem.getNetOwner(entity);
+            for (int i = 0; i < netClients.length; i++) {
+                NetClient client = netClients[i];
+                ClientView view = views[i];
+                boolean known = client.isEntityKnown(netId);
+                if (chunkPos == null || view == null || owner == client) {
+                    if (!known) {
+                        client.setNetInitial(netId);
+                    }
+                    client.setEntityUpdateInterval(netId, 1);
+                } else if (view.region.encompasses(chunkPos)) {
+                    if (!known) {
+                        client.setNetInitial(netId);
+                    }
+                    client.setEntityUpdateInterval(netId, getUpdateInterval(view.position.distance(position)));
+                } else if (known) {
+                    if (view.leaveRegion.encompasses(chunkPos)) {
+                        client.setEntityUpdateInterval(netId, getUpdateInterval(view.position.distance(position)));
+                    } else {
+                        client.setNetRemoved(netId);
+                    }
+                }
+            }
+        }
+    }
+
+    private int getUpdateInterval(float distance) {
+        float falloffDistance = config.getEntityUpdateFalloffDistance();
+        if (falloffDistance <= 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(1 + (int) (distance / falloffDistance), config.getMaxEntityUpdateInterval()));
+    }
+
+    /**
+     * @return the world position of the entity or its owner, or null if neither has one
+     */
+    private Vector3f getPosition(EntityRef entity) {
+        EntityRef ownerEntity = networkSystem.getOwnerEntity(entity);
+        LocationComponent location = ownerEntity.getComponent(LocationComponent.class);
+        if (location == null) {
+            location = entity.getComponent(LocationComponent.class);
+        }
+        if (location == null) {
+            return null;
+        }
+        Vector3f position = location.getWorldPosition();
+        if (!Float.isFinite(position.x) || !Float.isFinite(position.y) || !Float.isFinite(position.z)) {
+            return null;
+        }
+        return position;
+    }
+
+    private static final class ClientView {
+        private final Vector3f position;
+        private final Region3i region;
+        private final Region3i leaveRegion;
+
+        private ClientView(Vector3f position, Region3i region) {
+            this.position = position;
+            this.region = region;
+            this.leaveRegion = region.expand(LEAVE_MARGIN);
+        }
+
+        /**
+         * @return the view of the client, or null if the client has no location yet
+         */
+        private static ClientView of(NetClient client) {
+            LocationComponent location = client.getEntity().getComponent(LocationComponent.class);
+            ViewDistance viewDistance = client.getViewDistance();
+            if (location == null || viewDistance == null) {
+                return null;
+            }
+            Vector3f position = location.getWorldPosition();
+            Vector3i chunkDistance = viewDistance.getChunkDistance();
+            Vector3i extents = new Vector3i(chunkDistance.x / 2, chunkDistance.y / 2, chunkDistance.z / 2);
+            return new ClientView(position, Region3i.createFromCenterExtents(ChunkMath.calcChunkPos(position), extents));
+        }
+    }
+}
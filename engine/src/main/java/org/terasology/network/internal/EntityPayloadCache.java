@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.terasology.entitySystem.Component;
+import org.terasology.network.serialization.ServerComponentFieldCheck;
+import org.terasology.protobuf.EntityData;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the serialized entities sent to clients during the current network tick, so that an entity update that is
+ * sent to several clients only has to be serialized once.
+ * <br><br>
+ * A serialized entity is identified by its net id, whether it is the initial send of the entity, whether the receiving
+ * client owns the entity and the sets of added, changed and removed components. Together these determine the output of
+ * the serializer and the {@link ServerComponentFieldCheck}. The cache gets cleared at the start of every network tick,
+ * and the entries of an entity get dropped whenever one of its replicated components changes during the tick, e.g.
+ * while processing the messages of a client that got updated before the others.
+ */
+class EntityPayloadCache {
+    private final Map<Integer, Map<Key, Payload>> payloads = Maps.newHashMap();
+    private final AtomicLong serializeCount = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong serializedBytes = new AtomicLong();
+
+    /**
+     * @param serializer serializes the whole entity, if no other client got it during this tick
+     * @return the serialized entity
+     */
+    public EntityData.PackedEntity getInitialPayload(int netId, boolean owned, Supplier<EntityData.PackedEntity> serializer) {
+        return getPayload(netId, new Key(true, owned, ImmutableSet.of(), ImmutableSet.of(), ImmutableSet.of()), serializer);
+    }
+
+    /**
+     * @param serializer serializes the given component changes of the entity, if no other client got the same changes
+     *                   during this tick
+     * @return the serialized changes, or null if there is nothing to send
+     */
+    public EntityData.PackedEntity getUpdatePayload(int netId, boolean owned, Set<Class<? extends Component>> added,
+                                                    Set<Class<? extends Component>> changed, Set<Class<? extends Component>> removed,
+                                                    Supplier<EntityData.PackedEntity> serializer) {
+        return getPayload(netId, new Key(false, owned, added, changed, removed), serializer);
+    }
+
+    /**
+     * Drops the serialized forms of the entity, must be called whenever one of its replicated components changes.
+     */
+    public void invalidate(int netId) {
+        payloads.remove(netId);
+    }
+
+    /**
+     * Drops all serialized entities, must be called at the start of every network tick.
+     */
+    public void invalidateAll() {
+        payloads.clear();
+    }
+
+    /**
+     * @return the number of times an entity got serialized so far
+     */
+    public long getSerializeCount() {
+        return serializeCount.get();
+    }
+
+    /**
+     * @return the number of serialized entities that got served from the cache so far
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the total size of all entities serialized so far in bytes
+     */
+    public long getSerializedBytes() {
+        return serializedBytes.get();
+    }
+
+    private EntityData.PackedEntity getPayload(int netId, Key key, Supplier<EntityData.PackedEntity> serializer) {
+        Map<Key, Payload> entityPayloads = payloads.computeIfAbsent(netId, id -> Maps.newHashMap());
+        Payload payload = entityPayloads.get(key);
+        if (payload != null) {
+            hitCount.incrementAndGet();
+            return payload.entity;
+        }
+        EntityData.PackedEntity entity = serializer.get();
+        serializeCount.incrementAndGet();
+        if (entity != null) {
+            serializedBytes.addAndGet(entity.getSerializedSize());
+        }
+        // The key may refer to the live component sets of the client, which get cleared after sending
+        entityPayloads.put(key.copy(), new Payload(entity));
+        return entity;
+    }
+
+    private static final class Key {
+        private final boolean initial;
+        private final boolean owned;
+        private final Set<Class<? extends Component>> added;
+        private final Set<Class<? extends Component>> changed;
+        private final Set<Class<? extends Component>> removed;
+
+        private Key(boolean initial, boolean owned, Set<Class<? extends Component>> added, Set<Class<? extends Component>> changed,
+                    Set<Class<? extends Component>> removed) {
+            this.initial = initial;
+            this.owned = owned;
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        private Key copy() {
+            return new Key(initial, owned, ImmutableSet.copyOf(added), ImmutableSet.copyOf(changed), ImmutableSet.copyOf(removed));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return initial == other.initial && owned == other.owned && added.equals(other.added) && changed.equals(other.changed)
+                    && removed.equals(other.removed);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(initial, owned, added, changed, removed);
+        }
+    }
+
+    /**
+     * Holds the serialized entity, which may be null for an update without any fields to send.
+     */
+    private static final class Payload {
+        private final EntityData.PackedEntity entity;
+
+        private Payload(EntityData.PackedEntity entity) {
+            this.entity = entity;
+        }
+    }
+}
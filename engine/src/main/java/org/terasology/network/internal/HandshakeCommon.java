@@ -16,6 +16,7 @@
 package org.terasology.network.internal;
 
 import com.google.common.primitives.Bytes;
+import org.jboss.netty.channel.ChannelPipeline;
 import org.terasology.identity.IdentityConstants;
 import org.terasology.identity.SecretGenerator;
 import org.terasology.protobuf.NetData;
@@ -27,9 +28,44 @@
  */
 public final class HandshakeCommon {
 
+    /**
+     * The highest version of per message compression this end supports, see {@link MessageCompressionEncoder}. Both
+     * ends use the lower of their versions, 0 means that the stream-wide deflate of the connection stays in place.
+     */
+    public static final int MESSAGE_COMPRESSION_VERSION = 1;
+
     private HandshakeCommon() {
     }
 
+    /**
+     * @param remoteVersion the compression version the other end sent in its hello, 0 if it did not send one
+     * @return the compression version both ends support
+     */
+    public static int negotiateCompressionVersion(int remoteVersion) {
+        return Math.max(0, Math.min(remoteVersion, MESSAGE_COMPRESSION_VERSION));
+    }
+
+    /**
+     * Replaces the stream-wide deflate of a server pipeline with per message compression. Must be called right after
+     * the last message of the handshake got written, before anything else gets written to the channel.
+     */
+    public static void enableMessageCompression(ChannelPipeline pipeline) {
+        MetricRecordingHandler metrics = (MetricRecordingHandler) pipeline.get(MetricRecordingHandler.NAME);
+        pipeline.remove("deflateEncoder");
+        pipeline.remove("frameEncoder");
+        pipeline.replace("protobufEncoder", MessageCompressionEncoder.NAME, new MessageCompressionEncoder(metrics));
+    }
+
+    /**
+     * Replaces the stream-wide inflate of a client pipeline with per message decompression. Must be called while the
+     * last message of the handshake gets received, so that the next frame already goes to the new decoder.
+     */
+    public static void enableMessageDecompression(ChannelPipeline pipeline) {
+        pipeline.remove("inflateDecoder");
+        pipeline.remove("frameDecoder");
+        pipeline.replace("protobufDecoder", MessageCompressionDecoder.NAME, new MessageCompressionDecoder());
+    }
+
     /**
      * Generates the master secret, a common secret between the server and client used to generate a symmetric encryption key
      *
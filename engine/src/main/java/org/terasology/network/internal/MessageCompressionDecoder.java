@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.frame.CorruptedFrameException;
+import org.jboss.netty.handler.codec.oneone.OneToOneDecoder;
+import org.terasology.protobuf.NetData;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes the {@link NetData.NetMessage}s written by a {@link MessageCompressionEncoder}. Expects to get one framed
+ * message at a time.
+ */
+public class MessageCompressionDecoder extends OneToOneDecoder {
+    public static final String NAME = "compressionDecoder";
+
+    /**
+     * Upper limit for the uncompressed size of a message, so that a corrupt size does not exhaust the memory.
+     */
+    static final int MAX_MESSAGE_SIZE = 1 << 26;
+
+    private final Inflater inflater = new Inflater();
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
+        if (!(msg instanceof ChannelBuffer)) {
+            return msg;
+        }
+        ChannelBuffer buf = (ChannelBuffer) msg;
+        byte method = buf.readByte();
+        byte[] raw;
+        switch (method) {
+            case MessageCompressionEncoder.METHOD_RAW:
+                raw = new byte[buf.readableBytes()];
+                buf.readBytes(raw);
+                break;
+            case MessageCompressionEncoder.METHOD_DEFLATE:
+            case MessageCompressionEncoder.METHOD_DEFLATE_CHUNK_DICTIONARY:
+                raw = inflate(buf, method == MessageCompressionEncoder.METHOD_DEFLATE_CHUNK_DICTIONARY);
+                break;
+            default:
+                throw new CorruptedFrameException("Unknown message compression method " + method);
+        }
+        return NetData.NetMessage.parseFrom(raw);
+    }
+
+    private byte[] inflate(ChannelBuffer buf, boolean chunkDictionary) throws CorruptedFrameException {
+        int rawLength = buf.readInt();
+        if (rawLength < 0 || rawLength > MAX_MESSAGE_SIZE) {
+            throw new CorruptedFrameException("Invalid uncompressed message size " + rawLength);
+        }
+        byte[] compressed = new byte[buf.readableBytes()];
+        buf.readBytes(compressed);
+
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                length += inflated;
+                if (inflated == 0 && !inflater.finished()) {
+                    if (inflater.needsDictionary() && chunkDictionary) {
+                        inflater.setDictionary(ChunkStoreDictionary.get());
+                    } else if (inflater.needsInput() || inflater.needsDictionary() || length == rawLength) {
+                        throw new CorruptedFrameException("Compressed message does not match its size of " + rawLength);
+                    }
+                }
+            }
+            if (length != rawLength) {
+                throw new CorruptedFrameException("Compressed message does not match its size of " + rawLength);
+            }
+        } catch (DataFormatException e) {
+            throw new CorruptedFrameException("Invalid compressed message", e);
+        }
+        return raw;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
+import org.terasology.protobuf.NetData;
+
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes each {@link NetData.NetMessage} on its own, replacing the stream-wide deflate of the connection once per
+ * message compression got negotiated during the handshake (see {@link HandshakeCommon}).
+ * <br><br>
+ * Each encoded message starts with one of the method bytes below. Compressed messages continue with the size of the
+ * uncompressed message as int, followed by the zlib data. Messages smaller than the threshold are not worth the CPU
+ * time and get sent raw, same as messages that would not get any smaller. Messages with chunks get deflated with the
+ * {@link ChunkStoreDictionary}.
+ * <br><br>
+ * The encoded message must still get framed, which is left to the length field prepender of the pipeline.
+ */
+public class MessageCompressionEncoder extends OneToOneEncoder {
+    public static final String NAME = "compressionEncoder";
+
+    public static final int DEFAULT_THRESHOLD = 128;
+
+    static final byte METHOD_RAW = 0;
+    static final byte METHOD_DEFLATE = 1;
+    static final byte METHOD_DEFLATE_CHUNK_DICTIONARY = 2;
+
+    private final MetricRecordingHandler metrics;
+    private final int threshold;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private byte[] outputBuffer = new byte[4096];
+
+    public MessageCompressionEncoder(MetricRecordingHandler metrics) {
+        this(metrics, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param metrics   the handler to record the compression statistics in, may be null
+     * @param threshold the size in bytes from which on messages get compressed
+     */
+    public MessageCompressionEncoder(MetricRecordingHandler metrics, int threshold) {
+        this.metrics = metrics;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) {
+        if (!(msg instanceof NetData.NetMessage)) {
+            return msg;
+        }
+        long startTime = System.nanoTime();
+        NetData.NetMessage message = (NetData.NetMessage) msg;
+        NetMessageType type = NetMessageType.of(message);
+        byte[] raw = message.toByteArray();
+
+        ChannelBuffer result = null;
+        if (raw.length >= threshold) {
+            result = deflate(raw, type == NetMessageType.CHUNK);
+        }
+        if (result == null) {
+            result = ChannelBuffers.buffer(1 + raw.length);
+            result.writeByte(METHOD_RAW);
+            result.writeBytes(raw);
+        }
+
+        if (metrics != null) {
+            metrics.recordEncodedMessage(type, raw.length, result.readableBytes(), System.nanoTime() - startTime);
+        }
+        return result;
+    }
+
+    /**
+     * Writes might happen from several threads, while there is only one deflater.
+     *
+     * @return the compressed message, or null if it would not be smaller than the raw message
+     */
+    private synchronized ChannelBuffer deflate(byte[] raw, boolean chunks) {
+        deflater.reset();
+        if (chunks) {
+            deflater.setDictionary(ChunkStoreDictionary.get());
+        }
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == outputBuffer.length) {
+                outputBuffer = Arrays.copyOf(outputBuffer, outputBuffer.length * 2);
+            }
+            length += deflater.deflate(outputBuffer, length, outputBuffer.length - length);
+            if (length + 1 + Integer.BYTES >= raw.length) {
+                return null;
+            }
+        }
+
+        ChannelBuffer result = ChannelBuffers.buffer(1 + Integer.BYTES + length);
+        result.writeByte(chunks ? METHOD_DEFLATE_CHUNK_DICTIONARY : METHOD_DEFLATE);
+        result.writeInt(raw.length);
+        result.writeBytes(outputBuffer, 0, length);
+        return result;
+    }
+}
@@ -23,6 +23,7 @@
 import org.terasology.network.NetMetricSource;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * A generic Netty handler for recording metrics on sent and received bytes and messages.
@@ -36,6 +37,14 @@ public class MetricRecordingHandler extends SimpleChannelHandler implements NetM
     private AtomicInteger receivedBytes = new AtomicInteger();
     private AtomicInteger sentMessages = new AtomicInteger();
     private AtomicInteger sentBytes = new AtomicInteger();
+    private AtomicInteger sentChunks = new AtomicInteger();
+    private AtomicInteger encodedChunks = new AtomicInteger();
+    private AtomicInteger sentEntities = new AtomicInteger();
+    private AtomicInteger serializedEntities = new AtomicInteger();
+    private AtomicInteger serializedEntityBytes = new AtomicInteger();
+    private AtomicLongArray rawMessageBytes = new AtomicLongArray(NetMessageType.values().length);
+    private AtomicLongArray encodedMessageBytes = new AtomicLongArray(NetMessageType.values().length);
+    private AtomicLongArray messageEncodingNanos = new AtomicLongArray(NetMessageType.values().length);
 
     @Override
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
@@ -53,6 +62,49 @@ public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exc
         ctx.sendDownstream(e);
     }
 
+    /**
+     * Records a chunk that got sent through this channel.
+     *
+     * @param encoded whether the chunk had to be encoded for this, or a cached encoding got used
+     */
+    public void recordSentChunk(boolean encoded) {
+        sentChunks.incrementAndGet();
+        if (encoded) {
+            encodedChunks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records an entity creation or update that got sent through this channel.
+     */
+    public void recordSentEntity() {
+        sentEntities.incrementAndGet();
+    }
+
+    /**
+     * Records an entity that had to be serialized to be sent through this channel, because no other client got the
+     * same entity data during the current tick.
+     *
+     * @param bytes the serialized size of the entity
+     */
+    public void recordSerializedEntity(int bytes) {
+        serializedEntities.incrementAndGet();
+        serializedEntityBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Records a message that got encoded by the {@link MessageCompressionEncoder} of this channel.
+     *
+     * @param rawBytes     the size of the message before compression
+     * @param encodedBytes the size of the message as it gets sent, without framing
+     * @param nanos        the time it took to serialize and compress the message
+     */
+    public void recordEncodedMessage(NetMessageType type, int rawBytes, int encodedBytes, long nanos) {
+        rawMessageBytes.addAndGet(type.ordinal(), rawBytes);
+        encodedMessageBytes.addAndGet(type.ordinal(), encodedBytes);
+        messageEncodingNanos.addAndGet(type.ordinal(), nanos);
+    }
+
     @Override
     public int getReceivedMessagesSinceLastCall() {
         return receivedMessages.getAndSet(0);
@@ -72,4 +124,53 @@ public int getSentMessagesSinceLastCall() {
     public int getSentBytesSinceLastCall() {
         return sentBytes.getAndSet(0);
     }
+
+    @Override
+    public int getSentChunksSinceLastCall() {
+        return sentChunks.getAndSet(0);
+    }
+
+    @Override
+    public int getEncodedChunksSinceLastCall() {
+        return encodedChunks.getAndSet(0);
+    }
+
+    @Override
+    public int getSentEntitiesSinceLastCall() {
+        return sentEntities.getAndSet(0);
+    }
+
+    @Override
+    public int getSerializedEntitiesSinceLastCall() {
+        return serializedEntities.getAndSet(0);
+    }
+
+    @Override
+    public int getSerializedEntityBytesSinceLastCall() {
+        return serializedEntityBytes.getAndSet(0);
+    }
+
+    /**
+     * @return The size before compression of the messages of the given type encoded since last time this method was
+     * called for the type
+     */
+    public long getRawMessageBytesSinceLastCall(NetMessageType type) {
+        return rawMessageBytes.getAndSet(type.ordinal(), 0);
+    }
+
+    /**
+     * @return The size after compression of the messages of the given type encoded since last time this method was
+     * called for the type
+     */
+    public long getEncodedMessageBytesSinceLastCall(NetMessageType type) {
+        return encodedMessageBytes.getAndSet(type.ordinal(), 0);
+    }
+
+    /**
+     * @return The time spent on encoding the messages of the given type since last time this method was called for the
+     * type
+     */
+    public long getMessageEncodingNanosSinceLastCall(NetMessageType type) {
+        return messageEncodingNanos.getAndSet(type.ordinal(), 0);
+    }
 }
@@ -19,11 +19,12 @@
 import com.google.common.base.Objects;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import gnu.trove.iterator.TIntIterator;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import org.jboss.netty.channel.Channel;
@@ -43,7 +44,6 @@
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.math.ChunkMath;
 import org.terasology.math.geom.Vector3i;
-import org.terasology.network.Client;
 import org.terasology.network.ClientComponent;
 import org.terasology.network.ColorComponent;
 import org.terasology.network.NetMetricSource;
@@ -69,10 +69,10 @@
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * A remote client.
@@ -81,6 +81,7 @@
 public class NetClient extends AbstractClient implements WorldChangeListener {
     private static final Logger logger = LoggerFactory.getLogger(NetClient.class);
     private static final float NET_TICK_RATE = 0.05f;
+    private static final float BYTES_PER_KILOBIT = 1024 / 8f;
 
     private Time time;
     private NetworkSystemImpl networkSystem;
@@ -93,6 +94,11 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     // Relevance
     private Set<Vector3i> relevantChunks = Sets.newHashSet();
     private TIntSet netRelevant = new TIntHashSet();
+    /**
+     * The number of net ticks between two updates of an entity, for entities that do not get updated every tick.
+     */
+    private TIntIntMap entityUpdateIntervals = new TIntIntHashMap();
+    private int netTickCount;
 
     // Entity replication data
     private TIntSet netInitial = new TIntHashSet();
@@ -105,9 +111,16 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private String preferredName = "Player";
     private long lastReceivedTime;
     private ViewDistance viewDistance = ViewDistance.NEAR;
-    private float chunkSendCounter = 1.0f;
-
-    private float chunkSendRate = 0.05469f;
+    /**
+     * The number of bytes of chunk data that may still be sent, refilled every net tick from the bandwidth per client.
+     */
+    private float chunkSendBudget;
+    private int sentChunks;
+    /**
+     * The game time at which the chunk queue became non-empty, or -1 while all relevant chunks are sent.
+     */
+    private long chunkQueueStartTime = -1;
+    private long lastFullViewTime;
 
     private PublicIdentityCertificate identity;
 
@@ -117,7 +130,7 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private List<NetData.EventMessage> queuedOutgoingEvents = Lists.newArrayList();
     private final List<BlockFamily> newlyRegisteredFamilies = Lists.newArrayList();
 
-    private Map<Vector3i, Chunk> readyChunks = Maps.newLinkedHashMap();
+    private ChunkSendQueue readyChunks = new ChunkSendQueue();
     private Set<Vector3i> invalidatedChunks = Sets.newLinkedHashSet();
 
 
@@ -216,6 +229,7 @@ public void disconnect() {
     @Override
     public void update(boolean netTick) {
         if (netTick) {
+            netTickCount++;
             NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder();
             message.setTime(time.getGameTimeInMs());
             sendRegisteredBlocks(message);
@@ -244,32 +258,80 @@ private void sendRegisteredBlocks(NetData.NetMessage.Builder message) {
         }
     }
 
+    /**
+     * Sends the queued chunks closest to the player, as many as the bandwidth per client allows. At least one chunk is
+     * sent per tick while the budget is positive, a chunk that exceeds it is paid off by the following ticks.
+     */
     private void sendNewChunks(NetData.NetMessage.Builder message) {
-        if (!readyChunks.isEmpty()) {
-            chunkSendCounter += chunkSendRate * NET_TICK_RATE * networkSystem.getBandwidthPerClient();
-            if (chunkSendCounter > 1.0f) {
-                chunkSendCounter -= 1.0f;
-                Vector3i center = new Vector3i();
-                LocationComponent loc = getEntity().getComponent(ClientComponent.class).character.getComponent(LocationComponent.class);
-                if (loc != null) {
-                    center.set(ChunkMath.calcChunkPos(new Vector3i(loc.getWorldPosition(), RoundingMode.HALF_UP)));
-                }
-                Vector3i pos = null;
-                int distance = Integer.MAX_VALUE;
-                for (Vector3i chunkPos : readyChunks.keySet()) {
-                    int chunkDistance = chunkPos.distanceSquared(center);
-                    if (pos == null || chunkDistance < distance) {
-                        pos = chunkPos;
-                        distance = chunkDistance;
-                    }
-                }
-                Chunk chunk = readyChunks.remove(pos);
-                relevantChunks.add(pos);
-                message.addChunkInfo(chunk.encode());
-            }
-        } else {
-            chunkSendCounter = 1.0f;
+        if (readyChunks.isEmpty()) {
+            chunkSendBudget = 0;
+            chunkQueueStartTime = -1;
+            return;
+        }
+        float bytesPerTick = networkSystem.getBandwidthPerClient() * BYTES_PER_KILOBIT * NET_TICK_RATE;
+        // Don't let the budget pile up beyond a second worth of bandwidth, so that sending stays smooth
+        chunkSendBudget = Math.min(chunkSendBudget + bytesPerTick, bytesPerTick / NET_TICK_RATE);
+
+        LocationComponent loc = getEntity().getComponent(ClientComponent.class).character.getComponent(LocationComponent.class);
+        if (loc != null) {
+            readyChunks.setCenter(ChunkMath.calcChunkPos(new Vector3i(loc.getWorldPosition(), RoundingMode.HALF_UP)));
         }
+        Vector3i pos = new Vector3i();
+        while (chunkSendBudget > 0 && !readyChunks.isEmpty()) {
+            Chunk chunk = readyChunks.poll(pos);
+            relevantChunks.add(new Vector3i(pos));
+            EntityData.ChunkStore chunkStore = getChunkPayload(pos, chunk);
+            message.addChunkInfo(chunkStore);
+            chunkSendBudget -= chunkStore.getSerializedSize();
+            sentChunks++;
+        }
+        if (readyChunks.isEmpty() && chunkQueueStartTime >= 0) {
+            lastFullViewTime = time.getGameTimeInMs() - chunkQueueStartTime;
+            chunkQueueStartTime = -1;
+            logger.debug("Sent all relevant chunks to {} in {} ms", getName(), lastFullViewTime);
+        }
+    }
+
+    /**
+     * Takes the encoded chunk from the cache shared by all clients, encoding it only if no other client got it since
+     * it last changed.
+     */
+    private EntityData.ChunkStore getChunkPayload(Vector3i pos, Chunk chunk) {
+        ChunkPayloadCache chunkPayloadCache = networkSystem.getChunkPayloadCache();
+        EntityData.ChunkStore chunkStore = null;
+        if (chunkPayloadCache != null) {
+            chunkStore = chunkPayloadCache.getCachedPayload(pos, chunk);
+        }
+        boolean encoded = chunkStore == null;
+        if (encoded) {
+            chunkStore = chunkPayloadCache != null ? chunkPayloadCache.encode(pos, chunk) : chunk.encode().build();
+        }
+        if (metricSource instanceof MetricRecordingHandler) {
+            ((MetricRecordingHandler) metricSource).recordSentChunk(encoded);
+        }
+        return chunkStore;
+    }
+
+    /**
+     * @return the number of relevant chunks that are not sent to the client yet
+     */
+    public int getQueuedChunkCount() {
+        return readyChunks.size();
+    }
+
+    /**
+     * @return the number of chunks sent to the client so far
+     */
+    public int getSentChunkCount() {
+        return sentChunks;
+    }
+
+    /**
+     * @return the time in ms it took from the first queued chunk until the queue was empty again, the last time that
+     * happened
+     */
+    public long getLastFullViewTime() {
+        return lastFullViewTime;
     }
 
     private void sendChunkInvalidations(NetData.NetMessage.Builder message) {
@@ -288,9 +350,10 @@ public void setNetInitial(int netId) {
     }
 
     public void setNetRemoved(int netId) {
-        if (!netInitial.remove(netId)) {
+        if (!netInitial.remove(netId) && netRelevant.contains(netId)) {
             netRemoved.add(netId);
         }
+        entityUpdateIntervals.remove(netId);
         dirtyComponents.keySet().remove(netId);
         addedComponents.keySet().remove(netId);
         removedComponents.keySet().remove(netId);
@@ -298,6 +361,25 @@ public void setNetRemoved(int netId) {
         netRelevant.remove(netId);
     }
 
+    /**
+     * @return whether the entity got sent to the client or is about to be sent
+     */
+    public boolean isEntityKnown(int netId) {
+        return netRelevant.contains(netId) || netInitial.contains(netId);
+    }
+
+    /**
+     * Sets how many net ticks pass between two updates of the entity, changes of it get collected in the meantime.
+     * Additions and removals of components are always sent in the next tick.
+     */
+    public void setEntityUpdateInterval(int netId, int interval) {
+        if (interval > 1) {
+            entityUpdateIntervals.put(netId, interval);
+        } else {
+            entityUpdateIntervals.remove(netId);
+        }
+    }
+
     public void setComponentAdded(int networkId, Class<? extends Component> component) {
         if (netRelevant.contains(networkId) && !netInitial.contains(networkId)) {
             if (removedComponents.remove(networkId, component)) {
@@ -381,7 +463,10 @@ void send(NetData.NetMessage data) {
     @Override
     public void onChunkRelevant(Vector3i pos, Chunk chunk) {
         invalidatedChunks.remove(pos);
-        readyChunks.put(pos, chunk);
+        if (chunkQueueStartTime < 0) {
+            chunkQueueStartTime = time.getGameTimeInMs();
+        }
+        readyChunks.add(pos, chunk);
     }
 
     @Override
@@ -453,21 +538,57 @@ private void sendDirtyEntities(NetData.NetMessage.Builder message) {
         TIntIterator dirtyIterator = netDirty.iterator();
         while (dirtyIterator.hasNext()) {
             int netId = dirtyIterator.next();
+            if (!isUpdateDue(netId)) {
+                continue;
+            }
+            dirtyIterator.remove();
             EntityRef entity = networkSystem.getEntity(netId);
             if (!entity.exists()) {
                 logger.error("Sending non-existent entity update for netId {}", netId);
             }
             boolean isOwner = networkSystem.getOwner(entity) == this;
-            EntityData.PackedEntity entityData = entitySerializer.serialize(entity, addedComponents.get(netId), dirtyComponents.get(netId), removedComponents.get(netId),
-                    new ServerComponentFieldCheck(isOwner, false));
+            Set<Class<? extends Component>> added = addedComponents.get(netId);
+            Set<Class<? extends Component>> changed = dirtyComponents.get(netId);
+            Set<Class<? extends Component>> removed = removedComponents.get(netId);
+            Supplier<EntityData.PackedEntity> serializer = () -> recordSerializedEntity(entitySerializer.serialize(entity, added, changed, removed,
+                    new ServerComponentFieldCheck(isOwner, false)));
+            EntityPayloadCache entityPayloadCache = networkSystem.getEntityPayloadCache();
+            EntityData.PackedEntity entityData = entityPayloadCache != null
+                    ? entityPayloadCache.getUpdatePayload(netId, isOwner, added, changed, removed, serializer)
+                    : serializer.get();
             if (entityData != null) {
                 message.addUpdateEntity(NetData.UpdateEntityMessage.newBuilder().setEntity(entityData).setNetId(netId));
+                recordSentEntity();
             }
+            addedComponents.removeAll(netId);
+            dirtyComponents.removeAll(netId);
+            removedComponents.removeAll(netId);
+        }
+    }
+
+    /**
+     * @return whether the collected changes of the entity should be sent this tick
+     */
+    private boolean isUpdateDue(int netId) {
+        int interval = entityUpdateIntervals.get(netId);
+        if (interval <= 1 || addedComponents.containsKey(netId) || removedComponents.containsKey(netId)) {
+            return true;
+        }
+        // Offset by the net id, so that the updates of distant entities are spread over the ticks
+        return (netTickCount + netId) % interval == 0;
+    }
+
+    private EntityData.PackedEntity recordSerializedEntity(EntityData.PackedEntity entityData) {
+        if (entityData != null && metricSource instanceof MetricRecordingHandler) {
+            ((MetricRecordingHandler) metricSource).recordSerializedEntity(entityData.getSerializedSize());
+        }
+        return entityData;
+    }
+
+    private void recordSentEntity() {
+        if (metricSource instanceof MetricRecordingHandler) {
+            ((MetricRecordingHandler) metricSource).recordSentEntity();
         }
-        netDirty.clear();
-        addedComponents.clear();
-        removedComponents.clear();
-        dirtyComponents.clear();
     }
 
     private void sendRemovedEntities(NetData.NetMessage.Builder message) {
@@ -490,14 +611,20 @@ private void sendInitialEntities(NetData.NetMessage.Builder message) {
                 continue;
             }
             // Note: Send owner->server fields on initial create
-            Client owner = networkSystem.getOwner(entity);
-            EntityData.PackedEntity entityData = entitySerializer.serialize(entity, true, new ServerComponentFieldCheck(owner == this, true)).build();
+            boolean isOwner = networkSystem.getOwner(entity) == this;
+            Supplier<EntityData.PackedEntity> serializer = () -> recordSerializedEntity(entitySerializer.serialize(entity, true,
+                    new ServerComponentFieldCheck(isOwner, true)).build());
+            EntityPayloadCache entityPayloadCache = networkSystem.getEntityPayloadCache();
+            EntityData.PackedEntity entityData = entityPayloadCache != null
+                    ? entityPayloadCache.getInitialPayload(netId, isOwner, serializer)
+                    : serializer.get();
             NetData.CreateEntityMessage.Builder createMessage = NetData.CreateEntityMessage.newBuilder().setEntity(entityData);
             BlockComponent blockComponent = entity.getComponent(BlockComponent.class);
             if (blockComponent != null) {
                 createMessage.setBlockPos(NetMessageUtil.convert(blockComponent.position));
             }
             message.addCreateEntity(createMessage);
+            recordSentEntity();
         }
 
     }
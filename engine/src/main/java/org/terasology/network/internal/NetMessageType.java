@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.network.internal;
+
+import org.terasology.protobuf.NetData;
+
+/**
+ * The kinds of {@link NetData.NetMessage} the network metrics are broken down by. A message that carries several kinds
+ * of content is counted as the first of them in declaration order, as that is the one that dominates its size.
+ */
+public enum NetMessageType {
+    CHUNK,
+    ENTITY,
+    BLOCK,
+    EVENT,
+    OTHER;
+
+    public static NetMessageType of(NetData.NetMessage message) {
+        if (message.getChunkInfoCount() > 0) {
+            return CHUNK;
+        }
+        if (message.getCreateEntityCount() > 0 || message.getUpdateEntityCount() > 0 || message.getRemoveEntityCount() > 0) {
+            return ENTITY;
+        }
+        if (message.getBlockChangeCount() > 0 || message.getExtraDataChangeCount() > 0 || message.getInvalidateChunkCount() > 0) {
+            return BLOCK;
+        }
+        if (message.getEventCount() > 0) {
+            return EVENT;
+        }
+        return OTHER;
+    }
+}
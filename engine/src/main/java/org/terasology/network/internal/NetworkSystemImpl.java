@@ -147,6 +147,9 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
     private Map<EntityRef, EntityRef> ownerLookup = Maps.newHashMap();
     private SetMultimap<EntityRef, EntityRef> ownedLookup = HashMultimap.create();
     private StorageManager storageManager;
+    private ChunkPayloadCache chunkPayloadCache;
+    private EntityPayloadCache entityPayloadCache;
+    private EntityInterestManager entityInterestManager;
 
     // Client only
     private ServerImpl server;
@@ -165,10 +168,17 @@ public void host(int port, boolean dedicatedServer) throws HostingFailedExceptio
                     hibernationSettings.get().setHibernationAllowed(false);
                 }
                 mode = dedicatedServer ? NetworkMode.DEDICATED_SERVER : NetworkMode.LISTEN_SERVER;
+                entityInterestManager = new EntityInterestManager(this, config);
                 for (EntityRef entity : entityManager.getEntitiesWith(NetworkComponent.class)) {
                     registerNetworkEntity(entity);
                 }
                 generateSerializationTables();
+                chunkPayloadCache = new ChunkPayloadCache();
+                entityPayloadCache = new EntityPayloadCache();
+                WorldProvider worldProvider = CoreRegistry.get(WorldProvider.class);
+                if (worldProvider != null) {
+                    worldProvider.registerListener(chunkPayloadCache);
+                }
 
                 factory = new NioServerSocketChannelFactory(Executors.newCachedThreadPool(), Executors.newCachedThreadPool());
                 ServerBootstrap bootstrap = new ServerBootstrap(factory);
@@ -260,6 +270,16 @@ public void shutdown() {
         }
         processPendingDisconnects();
         clientList.forEach(this::processRemovedClient);
+        if (chunkPayloadCache != null) {
+            WorldProvider worldProvider = CoreRegistry.get(WorldProvider.class);
+            if (worldProvider != null) {
+                worldProvider.unregisterListener(chunkPayloadCache);
+            }
+            chunkPayloadCache.invalidateAll();
+            chunkPayloadCache = null;
+        }
+        entityPayloadCache = null;
+        entityInterestManager = null;
         server = null;
         nextNetId = 1;
         netIdToEntityId.clear();
@@ -309,6 +329,12 @@ public void update() {
                 if (currentTimer > nextNetworkTick) {
                     nextNetworkTick += NET_TICK_RATE;
                     netTick = true;
+                    if (entityPayloadCache != null) {
+                        entityPayloadCache.invalidateAll();
+                    }
+                    if (entityInterestManager != null) {
+                        entityInterestManager.update(netClientList);
+                    }
                 }
                 PerformanceMonitor.startActivity("Client update");
                 for (Client client : clientList) {
@@ -421,9 +447,18 @@ public void registerNetworkEntity(EntityRef entity) {
                         clientPlayer.setNetInitial(netComponent.getNetworkId());
                     }
                     break;
+                case RELEVANT:
+                    if (entityInterestManager != null) {
+                        entityInterestManager.track(netComponent.getNetworkId());
+                    }
+                    for (NetClient client : netClientList) {
+                        if (isRelevant(client, entity)) {
+                            client.setNetInitial(netComponent.getNetworkId());
+                        }
+                    }
+                    break;
                 default:
                     for (NetClient client : netClientList) {
-                        // TODO: Relevance Check
                         client.setNetInitial(netComponent.getNetworkId());
                     }
                     break;
@@ -507,6 +542,9 @@ public void unregisterNetworkEntity(EntityRef entity) {
             if (netComponent != null) {
                 logger.debug("Unregistering network entity: {} with netId {}", entity, netComponent.getNetworkId());
                 netIdToEntityId.remove(netComponent.getNetworkId());
+                if (entityInterestManager != null) {
+                    entityInterestManager.untrack(netComponent.getNetworkId());
+                }
                 if (mode.isServer()) {
                     for (NetClient client : netClientList) {
                         client.setNetRemoved(netComponent.getNetworkId());
@@ -559,6 +597,7 @@ public void onEntityComponentAdded(EntityRef entity, Class<? extends Component>
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID) {
             if (mode.isServer()) {
                 if (metadata.isReplicated()) {
+                    invalidateEntityPayloads(netComp.getNetworkId());
                     for (NetClient client : netClientList) {
                         logger.info("Component {} added to {}", component, entity);
                         client.setComponentAdded(netComp.getNetworkId(), component);
@@ -576,6 +615,7 @@ public void onEntityComponentRemoved(EntityRef entity, Class<? extends Component
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID) {
             if (mode.isServer()) {
                 if (metadata.isReplicated()) {
+                    invalidateEntityPayloads(netComp.getNetworkId());
                     for (NetClient client : netClientList) {
                         logger.info("Component {} removed from {}", component, entity);
                         client.setComponentRemoved(netComp.getNetworkId(), component);
@@ -607,6 +647,7 @@ public void onEntityComponentChange(EntityRef entity, Class<? extends Component>
                 case LISTEN_SERVER:
                 case DEDICATED_SERVER:
                     if (metadata.isReplicated()) {
+                        invalidateEntityPayloads(netComp.getNetworkId());
                         for (NetClient client : netClientList) {
                             client.setComponentDirty(netComp.getNetworkId(), component);
                         }
@@ -624,6 +665,12 @@ public void onEntityComponentChange(EntityRef entity, Class<? extends Component>
         updatedOwnedEntities(entity, component, metadata);
     }
 
+    private void invalidateEntityPayloads(int netId) {
+        if (entityPayloadCache != null) {
+            entityPayloadCache.invalidate(netId);
+        }
+    }
+
     private void updatedOwnedEntities(EntityRef entity, Class<? extends Component> component, ComponentMetadata<? extends Component> metadata) {
         if (mode.isAuthority() && metadata.isReferenceOwner()) {
             for (EntityRef ownedEntity : ownershipHelper.listOwnedEntities(entity.getComponent(component))) {
@@ -721,6 +768,70 @@ public int getOutgoingBytesDelta() {
         }
     }
 
+    @Override
+    public int getOutgoingChunksDelta() {
+        int total = 0;
+        for (NetClient client : netClientList) {
+            total += client.getMetrics().getSentChunksSinceLastCall();
+        }
+        return total;
+    }
+
+    @Override
+    public int getEncodedChunksDelta() {
+        int total = 0;
+        for (NetClient client : netClientList) {
+            total += client.getMetrics().getEncodedChunksSinceLastCall();
+        }
+        return total;
+    }
+
+    @Override
+    public long getChunkPayloadCacheSize() {
+        return chunkPayloadCache != null ? chunkPayloadCache.getCachedBytes() : 0;
+    }
+
+    /**
+     * @return the encodings of the chunks sent to clients, or null if this is not a server
+     */
+    ChunkPayloadCache getChunkPayloadCache() {
+        return chunkPayloadCache;
+    }
+
+    @Override
+    public int getOutgoingEntitiesDelta() {
+        int total = 0;
+        for (NetClient client : netClientList) {
+            total += client.getMetrics().getSentEntitiesSinceLastCall();
+        }
+        return total;
+    }
+
+    @Override
+    public int getSerializedEntitiesDelta() {
+        int total = 0;
+        for (NetClient client : netClientList) {
+            total += client.getMetrics().getSerializedEntitiesSinceLastCall();
+        }
+        return total;
+    }
+
+    @Override
+    public int getSerializedEntityBytesDelta() {
+        int total = 0;
+        for (NetClient client : netClientList) {
+            total += client.getMetrics().getSerializedEntityBytesSinceLastCall();
+        }
+        return total;
+    }
+
+    /**
+     * @return the entities serialized for clients during the current network tick, or null if this is not a server
+     */
+    EntityPayloadCache getEntityPayloadCache() {
+        return entityPayloadCache;
+    }
+
     long getEntityId(int netId) {
         return netIdToEntityId.get(netId);
     }
@@ -825,8 +936,12 @@ private void processNewClient(NetClient client) {
                             client.setNetInitial(netComp.getNetworkId());
                         }
                         break;
+                    case RELEVANT:
+                        if (isRelevant(client, netEntity)) {
+                            client.setNetInitial(netComp.getNetworkId());
+                        }
+                        break;
                     default:
-                        // TODO: Relevance Check
                         client.setNetInitial(netComp.getNetworkId());
                         break;
                 }
@@ -834,6 +949,10 @@ private void processNewClient(NetClient client) {
         }
     }
 
+    private boolean isRelevant(NetClient client, EntityRef entity) {
+        return entityInterestManager == null || entityInterestManager.isRelevant(client, entity);
+    }
+
     private void connectClient(Client client) {
         PlayerStore entityStore = storageManager.loadPlayerStore(client.getId());
         client.getEntity().send(new ConnectedEvent(entityStore));
@@ -928,7 +1047,7 @@ void setServer(ServerImpl server) {
 
     }
 
-    private void generateSerializationTables() {
+    void generateSerializationTables() {
         entitySerializer.setIdMapping(generateIds(componentLibrary));
         eventSerializer.setIdMapping(generateIds(eventLibrary));
     }
@@ -985,6 +1104,8 @@ private <T> Map<Class<? extends T>, Integer> applySerializationInfo(List<NetData
      */
     void mockHost() {
         mode = NetworkMode.DEDICATED_SERVER;
+        entityInterestManager = new EntityInterestManager(this, config);
+        entityPayloadCache = new EntityPayloadCache();
     }
 
     @Override
@@ -68,6 +68,7 @@ public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) thr
                 .setRandom(ByteString.copyFrom(serverRandom))
                 .setCertificate(NetMessageUtil.convert(serverPublicCert))
                 .setTimestamp(System.currentTimeMillis())
+                .setCompressionVersion(HandshakeCommon.MESSAGE_COMPRESSION_VERSION)
                 .build();
 
         e.getChannel().write(NetData.NetMessage.newBuilder()
@@ -79,7 +80,8 @@ public void channelConnected(ChannelHandlerContext ctx, ChannelStateEvent e) thr
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
         NetData.NetMessage message = (NetData.NetMessage) e.getMessage();
         if (message.hasNewIdentityRequest()) {
-            processNewIdentityRequest(message.getNewIdentityRequest(), ctx);
+            // A client that requests an identity only sends its hello for the compression version
+            processNewIdentityRequest(message.getNewIdentityRequest(), message.getHandshakeHello().getCompressionVersion(), ctx);
         } else if (message.hasHandshakeHello() && message.hasHandshakeVerification()) {
             processClientHandshake(message.getHandshakeHello(), message.getHandshakeVerification(), ctx);
         }
@@ -108,13 +110,14 @@ private void processClientHandshake(NetData.HandshakeHello clientHello, NetData.
         ctx.getChannel().write(NetData.NetMessage.newBuilder()
                 .setHandshakeVerification(NetData.HandshakeVerification.newBuilder()
                         .setSignature(ByteString.copyFrom(serverSignature))).build());
+        finishHandshake(clientHello.getCompressionVersion(), ctx);
 
         // Identity has been established, inform the server handler and withdraw from the pipeline
         ctx.getPipeline().remove(this);
         serverConnectionHandler.channelAuthenticated(clientCert);
     }
 
-    private void processNewIdentityRequest(NetData.NewIdentityRequest newIdentityRequest, ChannelHandlerContext ctx) {
+    private void processNewIdentityRequest(NetData.NewIdentityRequest newIdentityRequest, int clientCompressionVersion, ChannelHandlerContext ctx) {
         logger.info("Received new identity request");
         try {
             byte[] preMasterSecret = config.getSecurity().getServerPrivateCertificate().decrypt(newIdentityRequest.getPreMasterSecret().toByteArray());
@@ -144,6 +147,7 @@ private void processNewIdentityRequest(NetData.NewIdentityRequest newIdentityReq
                     .setProvisionIdentity(NetData.ProvisionIdentity.newBuilder()
                             .setEncryptedCertificates(ByteString.copyFrom(encryptedCert)))
                     .build());
+            finishHandshake(clientCompressionVersion, ctx);
 
             // Identity has been established, inform the server handler and withdraw from the pipeline
             ctx.getPipeline().remove(this);
@@ -153,4 +157,13 @@ private void processNewIdentityRequest(NetData.NewIdentityRequest newIdentityReq
             ctx.getChannel().close();
         }
     }
+
+    /**
+     * Switches to per message compression if the client supports it. The last handshake message must already be written.
+     */
+    private void finishHandshake(int clientCompressionVersion, ChannelHandlerContext ctx) {
+        if (HandshakeCommon.negotiateCompressionVersion(clientCompressionVersion) > 0) {
+            HandshakeCommon.enableMessageCompression(ctx.getPipeline());
+        }
+    }
 }
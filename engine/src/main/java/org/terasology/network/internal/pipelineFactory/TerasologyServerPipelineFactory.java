@@ -54,6 +54,7 @@ public ChannelPipeline getPipeline() throws Exception {
         p.addLast("protobufDecoder", new ProtobufDecoder(NetData.NetMessage.getDefaultInstance()));
 
         p.addLast("frameLengthEncoder", new LengthFieldPrepender(3));
+        // The next three get replaced by per message compression after the handshake, if the client supports it
         p.addLast("deflateEncoder", new ZlibEncoder());
         p.addLast("frameEncoder", new ProtobufVarint32LengthFieldPrepender());
         p.addLast("protobufEncoder", new ProtobufEncoder());
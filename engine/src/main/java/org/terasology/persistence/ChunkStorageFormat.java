@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence;
+
+/**
+ * The ways a {@link StorageManager} can lay out the chunks of a world on disk. All of them store the same encoded
+ * chunk data, they only differ in how it gets grouped into files.
+ */
+public enum ChunkStorageFormat {
+    /**
+     * Every chunk is stored in a file of its own.
+     */
+    FILE_PER_CHUNK,
+    /**
+     * Chunks are stored as entries of ZIP files that each cover a cube of 32x32x32 chunks. A ZIP gets rewritten
+     * completely whenever one of its chunks gets saved.
+     */
+    ZIP,
+    /**
+     * Chunks are stored in sector aligned region files that each cover a cube of 16x16x16 chunks. Region files get
+     * read via memory mapping and updated in place, only the saved chunks get written.
+     */
+    REGION_FILE
+}
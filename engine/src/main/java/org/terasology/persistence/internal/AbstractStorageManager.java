@@ -22,11 +22,13 @@
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.entitySystem.entity.internal.OwnershipHelper;
+import org.terasology.game.GameManifest;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.math.AABB;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.module.ModuleEnvironment;
 import org.terasology.network.ClientComponent;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.persistence.ChunkStore;
 import org.terasology.persistence.PlayerStore;
 import org.terasology.persistence.StorageManager;
@@ -40,10 +42,10 @@
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -58,6 +60,8 @@ public abstract class AbstractStorageManager implements StorageManager {
     private static final Logger logger = LoggerFactory.getLogger(AbstractStorageManager.class);
 
     private final StoragePathProvider storagePathProvider;
+    private final ChunkZipReaderCache chunkZipReaderCache;
+    private final RegionFileChunkStore regionFileChunkStore;
     private final BlockManager blockManager;
     private final ExtraBlockDataManager extraDataManager;
 
@@ -66,21 +70,74 @@ public abstract class AbstractStorageManager implements StorageManager {
     private final PrefabSerializer prefabSerializer;
     private final OwnershipHelper helper;
 
-    private boolean storeChunksInZips = true;
+    private ChunkStorageFormat chunkStorageFormat;
 
     public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                   BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips) {
+        this(savePath, environment, entityManager, blockManager, extraDataManager,
+                storeChunksInZips ? ChunkStorageFormat.ZIP : ChunkStorageFormat.FILE_PER_CHUNK);
+    }
+
+    public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                  BlockManager blockManager, ExtraBlockDataManager extraDataManager,
+                                  ChunkStorageFormat chunkStorageFormat) {
         this.entityManager = entityManager;
         this.environment = environment;
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageFormat = chunkStorageFormat;
         this.prefabSerializer = new PrefabSerializer(entityManager.getComponentLibrary(), entityManager.getTypeSerializerLibrary());
         this.blockManager = blockManager;
         this.extraDataManager = extraDataManager;
 
         this.storagePathProvider = new StoragePathProvider(savePath);
+        this.chunkZipReaderCache = new ChunkZipReaderCache(storagePathProvider);
+        this.regionFileChunkStore = new RegionFileChunkStore(storagePathProvider);
         this.helper = new OwnershipHelper(entityManager.getComponentLibrary());
     }
 
+    /**
+     * Determines the format in which the chunks of a save game are stored. The format recorded in the game manifest
+     * takes precedence. Save games that predate it get recognized by their chunk files, so only a save game without
+     * any chunks uses the format preferred for new save games.
+     */
+    public static ChunkStorageFormat determineChunkStorageFormat(Path savePath, GameManifest gameManifest,
+                                                                 ChunkStorageFormat formatForNewSaves) throws IOException {
+        if (gameManifest.getChunkStorageFormat() != null) {
+            return gameManifest.getChunkStorageFormat();
+        }
+        StoragePathProvider storagePathProvider = new StoragePathProvider(savePath);
+        for (Path worldPath : Arrays.asList(storagePathProvider.getWorldPath(), storagePathProvider.getWorldUnmergedPath())) {
+            ChunkStorageFormat detectedFormat = detectChunkStorageFormat(worldPath);
+            if (detectedFormat != null) {
+                return detectedFormat;
+            }
+        }
+        return formatForNewSaves;
+    }
+
+    /**
+     * @return the format of the chunk files in the directory or null if it contains none. Region files win over the
+     * other formats, as their presence means that a conversion to them has been started.
+     */
+    private static ChunkStorageFormat detectChunkStorageFormat(Path worldPath) throws IOException {
+        if (!Files.isDirectory(worldPath)) {
+            return null;
+        }
+        ChunkStorageFormat detectedFormat = null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(worldPath)) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (filename.endsWith(".region")) {
+                    return ChunkStorageFormat.REGION_FILE;
+                } else if (filename.endsWith(".chunks.zip")) {
+                    detectedFormat = ChunkStorageFormat.ZIP;
+                } else if (filename.endsWith(".chunk") && detectedFormat == null) {
+                    detectedFormat = ChunkStorageFormat.FILE_PER_CHUNK;
+                }
+            }
+        }
+        return detectedFormat;
+    }
+
     @Override
     public void loadGlobalStore() throws IOException {
         Path globalDataFile = storagePathProvider.getGlobalEntityStorePath();
@@ -119,20 +176,13 @@ public ChunkStore loadChunkStore(Vector3i chunkPos) {
     }
 
     protected byte[] loadChunkZip(Vector3i chunkPos) {
-        byte[] chunkData = null;
-        Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
-        Path chunkPath = storagePathProvider.getChunkZipPath(chunkZipPos);
-        if (Files.isRegularFile(chunkPath)) {
-            try (FileSystem chunkZip = FileSystems.newFileSystem(chunkPath, null)) {
-                Path targetChunk = chunkZip.getPath(storagePathProvider.getChunkFilename(chunkPos));
-                if (Files.isRegularFile(targetChunk)) {
-                    chunkData = Files.readAllBytes(targetChunk);
-                }
-            } catch (IOException e) {
-                logger.error("Failed to load chunk zip {}", chunkPath, e);
-            }
+        try {
+            return chunkZipReaderCache.readChunk(chunkPos);
+        } catch (IOException e) {
+            Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
+            logger.error("Failed to load chunk zip {}", storagePathProvider.getChunkZipPath(chunkZipPos), e);
+            return null;
         }
-        return chunkData;
     }
 
     @Override
@@ -140,18 +190,45 @@ public void update() {
     }
 
     public boolean isStoreChunksInZips() {
-        return storeChunksInZips;
+        return chunkStorageFormat == ChunkStorageFormat.ZIP;
+    }
+
+    public ChunkStorageFormat getChunkStorageFormat() {
+        return chunkStorageFormat;
     }
 
     /**
      * For tests only
      */
     void setStoreChunksInZips(boolean storeChunksInZips) {
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageFormat = storeChunksInZips ? ChunkStorageFormat.ZIP : ChunkStorageFormat.FILE_PER_CHUNK;
+    }
+
+    /**
+     * Changes the format in which chunks get loaded and saved. Does not convert any stored chunks.
+     */
+    void setChunkStorageFormat(ChunkStorageFormat chunkStorageFormat) {
+        this.chunkStorageFormat = chunkStorageFormat;
+    }
+
+    protected byte[] loadRegionFileChunk(Vector3i chunkPos) {
+        try {
+            byte[] chunkData = regionFileChunkStore.readChunk(chunkPos);
+            if (chunkData != null) {
+                return chunkData;
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load chunk {} from region file", chunkPos, e);
+            return null;
+        }
+        // Not converted yet, see RegionFileConverter
+        return loadChunkZip(chunkPos);
     }
 
     protected byte[] loadCompressedChunk(Vector3i chunkPos) {
-        if (isStoreChunksInZips()) {
+        if (chunkStorageFormat == ChunkStorageFormat.REGION_FILE) {
+            return loadRegionFileChunk(chunkPos);
+        } else if (chunkStorageFormat == ChunkStorageFormat.ZIP) {
             return loadChunkZip(chunkPos);
         } else {
             Path chunkPath = storagePathProvider.getChunkPath(chunkPos);
@@ -217,6 +294,17 @@ protected StoragePathProvider getStoragePathProvider() {
         return storagePathProvider;
     }
 
+    public RegionFileChunkStore getRegionFileChunkStore() {
+        return regionFileChunkStore;
+    }
+
+    /**
+     * @return the cache of open chunk ZIPs. Exposes the hit, miss and open file counters of chunk loading.
+     */
+    public ChunkZipReaderCache getChunkZipReaderCache() {
+        return chunkZipReaderCache;
+    }
+
     protected ModuleEnvironment getEnvironment() {
         return environment;
     }
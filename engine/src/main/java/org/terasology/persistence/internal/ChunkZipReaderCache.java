@@ -0,0 +1,239 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a bounded number of chunk ZIP files open for reading, so that loading a chunk does not have to parse the
+ * central directory of its region ZIP again.
+ * <br><br>
+ * The readers are keyed by the position returned by {@link StoragePathProvider#getChunkZipPosition(Vector3i)} and
+ * evicted in least recently used order. A reader that gets evicted or invalidated while other threads are still
+ * reading from it is closed once the last of those reads has finished.
+ * <br><br>
+ * Whenever a chunk ZIP gets replaced on disk, {@link #invalidate(Vector3i)} or {@link #invalidateAll()} must be
+ * called while the world directory write lock is held, so that no stale reader survives the change.
+ */
+public class ChunkZipReaderCache {
+    public static final int DEFAULT_MAX_OPEN_FILES = 32;
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkZipReaderCache.class);
+
+    private final int maxOpenFiles;
+    private final StoragePathProvider storagePathProvider;
+
+    /**
+     * Access ordered, so iteration starts with the least recently used reader. Guarded by this.
+     */
+    private final Map<Vector3i, Reader> readers = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public ChunkZipReaderCache(StoragePathProvider storagePathProvider) {
+        this(storagePathProvider, DEFAULT_MAX_OPEN_FILES);
+    }
+
+    public ChunkZipReaderCache(StoragePathProvider storagePathProvider, int maxOpenFiles) {
+        Preconditions.checkArgument(maxOpenFiles > 0, "maxOpenFiles must be greater than zero");
+        this.storagePathProvider = storagePathProvider;
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * @param chunkPos the position of the chunk to read
+     * @return the stored data of the chunk or null if neither the chunk ZIP nor the chunk within it exists.
+     * @throws IOException if the chunk ZIP could not be opened or read
+     */
+    public byte[] readChunk(Vector3i chunkPos) throws IOException {
+        Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
+        Reader reader = acquire(chunkZipPos);
+        if (reader == null) {
+            return null;
+        }
+        try {
+            Path targetChunk = reader.fileSystem.getPath(storagePathProvider.getChunkFilename(chunkPos));
+            if (Files.isRegularFile(targetChunk)) {
+                return Files.readAllBytes(targetChunk);
+            }
+            return null;
+        } finally {
+            release(reader);
+        }
+    }
+
+    /**
+     * Closes the reader of the given chunk ZIP, if there is one. Must be called before the chunk ZIP gets replaced.
+     */
+    public void invalidate(Vector3i chunkZipPos) {
+        Reader reader;
+        synchronized (this) {
+            reader = readers.remove(chunkZipPos);
+            if (reader == null || !reader.retire()) {
+                return;
+            }
+        }
+        reader.close();
+    }
+
+    /**
+     * Closes all readers. Must be called before a larger set of chunk ZIPs gets replaced or deleted.
+     */
+    public void invalidateAll() {
+        List<Reader> readersToClose = Lists.newArrayList();
+        synchronized (this) {
+            for (Reader reader : readers.values()) {
+                if (reader.retire()) {
+                    readersToClose.add(reader);
+                }
+            }
+            readers.clear();
+        }
+        readersToClose.forEach(Reader::close);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public synchronized int getOpenFileCount() {
+        return readers.size();
+    }
+
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    private Reader acquire(Vector3i chunkZipPos) throws IOException {
+        synchronized (this) {
+            Reader reader = readers.get(chunkZipPos);
+            if (reader != null) {
+                hitCount.incrementAndGet();
+                reader.users++;
+                return reader;
+            }
+        }
+
+        Path chunkZipPath = storagePathProvider.getChunkZipPath(chunkZipPos);
+        if (!Files.isRegularFile(chunkZipPath)) {
+            return null;
+        }
+        missCount.incrementAndGet();
+        Reader newReader = new Reader(FileSystems.newFileSystem(chunkZipPath, (ClassLoader) null));
+
+        List<Reader> readersToClose = Lists.newArrayList();
+        Reader result;
+        synchronized (this) {
+            Reader concurrentlyOpened = readers.get(chunkZipPos);
+            if (concurrentlyOpened != null) {
+                // Another thread opened the same ZIP in the meantime, use that one and discard ours
+                readersToClose.add(newReader);
+                result = concurrentlyOpened;
+            } else {
+                readers.put(chunkZipPos, newReader);
+                result = newReader;
+                evictEldest(readersToClose);
+            }
+            result.users++;
+        }
+        readersToClose.forEach(Reader::close);
+        return result;
+    }
+
+    private void release(Reader reader) {
+        synchronized (this) {
+            reader.users--;
+            if (!reader.retired || reader.users > 0) {
+                return;
+            }
+        }
+        reader.close();
+    }
+
+    /**
+     * Must be called while holding the lock of this object.
+     */
+    private void evictEldest(List<Reader> readersToClose) {
+        Iterator<Reader> iterator = readers.values().iterator();
+        while (readers.size() > maxOpenFiles && iterator.hasNext()) {
+            Reader eldest = iterator.next();
+            iterator.remove();
+            evictionCount.incrementAndGet();
+            if (eldest.retire()) {
+                readersToClose.add(eldest);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final FileSystem fileSystem;
+        /**
+         * Number of reads currently in progress. Guarded by the lock of the owning cache.
+         */
+        private int users;
+        /**
+         * Set once the reader got removed from the cache. Guarded by the lock of the owning cache.
+         */
+        private boolean retired;
+
+        private Reader(FileSystem fileSystem) {
+            this.fileSystem = fileSystem;
+        }
+
+        /**
+         * Must be called while holding the lock of the owning cache.
+         *
+         * @return true if the reader is not in use and can be closed right away.
+         */
+        private boolean retire() {
+            retired = true;
+            return users == 0;
+        }
+
+        private void close() {
+            try {
+                fileSystem.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close chunk zip {}", fileSystem, e);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@
 import org.terasology.module.ModuleEnvironment;
 import org.terasology.network.Client;
 import org.terasology.network.ClientComponent;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.chunks.Chunk;
 import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
@@ -44,9 +45,16 @@ public ReadOnlyStorageManager(Path savePath, ModuleEnvironment environment, Engi
         super(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips);
     }
 
+    public ReadOnlyStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                  BlockManager blockManager, ExtraBlockDataManager extraDataManager,
+                                  ChunkStorageFormat chunkStorageFormat) {
+        super(savePath, environment, entityManager, blockManager, extraDataManager, chunkStorageFormat);
+    }
+
     @Override
     public void finishSavingAndShutdown() {
-        // don't care
+        getChunkZipReaderCache().invalidateAll();
+        getRegionFileChunkStore().closeAll();
     }
 
     @Override
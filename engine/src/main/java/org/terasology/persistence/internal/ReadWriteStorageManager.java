@@ -44,6 +44,7 @@
 import org.terasology.network.Client;
 import org.terasology.network.ClientComponent;
 import org.terasology.network.NetworkSystem;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.persistence.typeHandling.TypeHandlerLibrary;
 import org.terasology.protobuf.EntityData;
 import org.terasology.recording.RecordAndReplayCurrentStatus;
@@ -124,21 +125,31 @@ public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, Eng
             , ExtraBlockDataManager extraDataManager, RecordAndReplaySerializer recordAndReplaySerializer,
                                    RecordAndReplayUtils recordAndReplayUtils, RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) throws IOException {
         this(savePath, environment, entityManager, blockManager, extraDataManager,
-            true, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+            ChunkStorageFormat.ZIP, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
     }
 
     ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                    BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips,
                                    RecordAndReplaySerializer recordAndReplaySerializer, RecordAndReplayUtils recordAndReplayUtils,
                             RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) throws IOException {
-        super(savePath, environment, entityManager, blockManager, extraDataManager, storeChunksInZips);
+        this(savePath, environment, entityManager, blockManager, extraDataManager,
+                storeChunksInZips ? ChunkStorageFormat.ZIP : ChunkStorageFormat.FILE_PER_CHUNK,
+                recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+    }
+
+    public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
+                                   BlockManager blockManager, ExtraBlockDataManager extraDataManager,
+                                   ChunkStorageFormat chunkStorageFormat, RecordAndReplaySerializer recordAndReplaySerializer,
+                                   RecordAndReplayUtils recordAndReplayUtils,
+                                   RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) throws IOException {
+        super(savePath, environment, entityManager, blockManager, extraDataManager, chunkStorageFormat);
 
         entityManager.subscribeForDestruction(this);
         entityManager.subscribeForChanges(this);
         // TODO Ensure that the component library and the type serializer library are thread save (e.g. immutable)
         this.privateEntityManager = createPrivateEntityManager(entityManager.getComponentLibrary());
         Files.createDirectories(getStoragePathProvider().getStoragePathDirectory());
-        this.saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider());
+        this.saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider(), getRegionFileChunkStore());
         this.saveThreadManager = TaskMaster.createFIFOTaskMaster("Saving", 1);
         this.config = CoreRegistry.get(Config.class);
         this.entityRefReplacingComponentLibrary = privateEntityManager.getComponentLibrary()
@@ -164,6 +175,8 @@ public void finishSavingAndShutdown() {
         }
         saveThreadManager.shutdown(new ShutdownTask(), true);
         checkSaveTransactionAndClearUpIfItIsDone();
+        getChunkZipReaderCache().invalidateAll();
+        getRegionFileChunkStore().closeAll();
     }
 
     private void checkSaveTransactionAndClearUpIfItIsDone() {
@@ -264,7 +277,8 @@ private void waitForCompletionOfPreviousSave() {
 
     private SaveTransaction createSaveTransaction() {
         SaveTransactionBuilder saveTransactionBuilder = new SaveTransactionBuilder(privateEntityManager,
-                entitySetDeltaRecorder, isStoreChunksInZips(), getStoragePathProvider(), worldDirectoryWriteLock,
+                entitySetDeltaRecorder, getChunkStorageFormat(), getStoragePathProvider(), worldDirectoryWriteLock,
+                getChunkZipReaderCache(), getRegionFileChunkStore(),
                 recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
 
         ChunkProvider chunkProvider = CoreRegistry.get(ChunkProvider.class);
@@ -374,6 +388,7 @@ private void addGameManifestToSaveTransaction(SaveTransactionBuilder saveTransac
         }
         gameManifest.setRegisteredBlockFamilies(registeredBlockFamilies);
         gameManifest.setBlockIdMap(blockManager.getBlockIdMap());
+        gameManifest.setChunkStorageFormat(getChunkStorageFormat());
         List<WorldInfo> worlds = universeConfig.getWorlds();
         for (WorldInfo worldInfo: worlds) {
             gameManifest.addWorld(worldInfo);
@@ -489,7 +504,56 @@ public boolean isSaving() {
     public void checkAndRepairSaveIfNecessary() throws IOException {
         saveTransactionHelper.cleanupSaveTransactionDirectory();
         if (Files.exists(getStoragePathProvider().getUnmergedChangesPath())) {
-            saveTransactionHelper.mergeChanges();
+            worldDirectoryWriteLock.lock();
+            try {
+                getChunkZipReaderCache().invalidateAll();
+                saveTransactionHelper.mergeChanges();
+            } finally {
+                worldDirectoryWriteLock.unlock();
+            }
+        }
+        if (getChunkStorageFormat() == ChunkStorageFormat.REGION_FILE) {
+            // Continues a conversion that got interrupted
+            convertChunksToRegionFiles();
+        }
+    }
+
+    /**
+     * Switches the save game to region files and moves all of its stored chunks into them. The new format gets
+     * recorded in the game manifest before the conversion starts, so that an interrupted conversion gets continued
+     * by {@link #checkAndRepairSaveIfNecessary()} instead of the chunks being considered missing.
+     *
+     * @return the number of chunks that got moved into region files
+     */
+    public int convertToRegionFiles() throws IOException {
+        waitForCompletionOfPreviousSave();
+        worldDirectoryWriteLock.lock();
+        try {
+            Path manifestPath = getStoragePathProvider().getGameManifestPath();
+            if (Files.isRegularFile(manifestPath)) {
+                GameManifest manifest = GameManifest.load(manifestPath);
+                manifest.setChunkStorageFormat(ChunkStorageFormat.REGION_FILE);
+                GameManifest.save(manifestPath, manifest);
+            }
+            setChunkStorageFormat(ChunkStorageFormat.REGION_FILE);
+            getChunkZipReaderCache().invalidateAll();
+            return new RegionFileConverter(getStoragePathProvider(), getRegionFileChunkStore()).convert();
+        } finally {
+            worldDirectoryWriteLock.unlock();
+        }
+    }
+
+    private void convertChunksToRegionFiles() throws IOException {
+        RegionFileConverter converter = new RegionFileConverter(getStoragePathProvider(), getRegionFileChunkStore());
+        if (!converter.isConversionNecessary()) {
+            return;
+        }
+        worldDirectoryWriteLock.lock();
+        try {
+            getChunkZipReaderCache().invalidateAll();
+            converter.convert();
+        } finally {
+            worldDirectoryWriteLock.unlock();
         }
     }
 
@@ -502,10 +566,15 @@ public void deleteWorld() {
         unloadedAndUnsavedPlayerMap.clear();
         unloadedAndSavingPlayerMap.clear();
 
+        worldDirectoryWriteLock.lock();
         try {
+            getChunkZipReaderCache().invalidateAll();
+            getRegionFileChunkStore().closeAll();
             FilesUtil.recursiveDelete(getStoragePathProvider().getWorldPath());
         } catch (IOException e) {
             logger.error("Failed to purge chunks", e);
+        } finally {
+            worldDirectoryWriteLock.unlock();
         }
     }
 
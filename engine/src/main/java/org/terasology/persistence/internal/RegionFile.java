@@ -0,0 +1,328 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A file that stores the encoded chunks of a cube of {@link #REGION_DIM}<sup>3</sup> chunks.
+ * <br><br>
+ * The file consists of sectors of {@link #SECTOR_SIZE} bytes. The first {@link #HEADER_SECTORS} sectors hold an offset
+ * table with one entry per chunk: the index of the first sector of the chunk data and its length in bytes. A length of
+ * 0 means that the chunk is not stored. The data of each chunk starts at a sector boundary.
+ * <br><br>
+ * The file is memory mapped. A chunk that gets written is always placed in free sectors (reusing freed space or
+ * appending to the file), and these get forced to the storage device before its offset table entry gets switched.
+ * The sectors it occupied before are only freed once the new offset table has been forced as well. That way an
+ * interrupted write leaves the previous version of the chunk intact.
+ * <br><br>
+ * The methods of this class are thread safe: reads can happen in parallel, writes are exclusive.
+ */
+public class RegionFile implements Closeable {
+    /**
+     * Number of chunks per axis that are stored in one region file.
+     */
+    public static final int REGION_DIM = 16;
+    public static final int SECTOR_SIZE = 4096;
+
+    static final int ENTRY_COUNT = REGION_DIM * REGION_DIM * REGION_DIM;
+    static final int ENTRY_SIZE = 2 * Integer.BYTES;
+    static final int HEADER_SECTORS = ENTRY_COUNT * ENTRY_SIZE / SECTOR_SIZE;
+
+    /**
+     * The file grows at least by this many sectors at once, to avoid remapping it for every appended chunk.
+     */
+    private static final int MIN_GROWTH_SECTORS = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionFile.class);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int[] firstSectors = new int[ENTRY_COUNT];
+    private final int[] lengths = new int[ENTRY_COUNT];
+    private final BitSet usedSectors = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    private MappedByteBuffer buffer;
+    private int sectorCount;
+    private boolean closed;
+
+    /**
+     * Opens the region file at the given path, creating it if it does not exist yet.
+     */
+    public RegionFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        try {
+            int existingSectors = (int) ((channel.size() + SECTOR_SIZE - 1) / SECTOR_SIZE);
+            map(Math.max(existingSectors, HEADER_SECTORS));
+            readHeader();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static Vector3i getRegionPosition(Vector3i chunkPos) {
+        return new Vector3i(Math.floorDiv(chunkPos.x, REGION_DIM), Math.floorDiv(chunkPos.y, REGION_DIM),
+                Math.floorDiv(chunkPos.z, REGION_DIM));
+    }
+
+    public static int getChunkIndex(Vector3i chunkPos) {
+        int x = Math.floorMod(chunkPos.x, REGION_DIM);
+        int y = Math.floorMod(chunkPos.y, REGION_DIM);
+        int z = Math.floorMod(chunkPos.z, REGION_DIM);
+        return x + REGION_DIM * (y + REGION_DIM * z);
+    }
+
+    /**
+     * @param chunkIndex index of the chunk as returned by {@link #getChunkIndex(Vector3i)}
+     * @return the stored data of the chunk or null if the chunk is not stored in this region file
+     */
+    public byte[] read(int chunkIndex) throws IOException {
+        readLock.lock();
+        try {
+            ensureOpen();
+            int length = lengths[chunkIndex];
+            if (length == 0) {
+                return null;
+            }
+            byte[] data = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(firstSectors[chunkIndex] * SECTOR_SIZE);
+            view.get(data);
+            return data;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Stores the data of a chunk, replacing any previously stored data of it.
+     *
+     * @param chunkIndex index of the chunk as returned by {@link #getChunkIndex(Vector3i)}
+     * @param data       the data to store, must not be empty
+     */
+    public void write(int chunkIndex, byte[] data) throws IOException {
+        writeAll(Collections.singletonMap(chunkIndex, data));
+    }
+
+    /**
+     * Stores the data of several chunks, replacing any previously stored data of them. The data of all chunks gets
+     * forced to the storage device before the offset table gets updated, so an interruption either keeps the old or
+     * exposes the new version of each chunk, but never an entry that points to unwritten sectors.
+     *
+     * @param chunks the data to store by chunk index as returned by {@link #getChunkIndex(Vector3i)}, must not
+     *               contain empty data
+     */
+    public void writeAll(Map<Integer, byte[]> chunks) throws IOException {
+        for (byte[] data : chunks.values()) {
+            if (data.length == 0) {
+                throw new IllegalArgumentException("Chunk data must not be empty");
+            }
+        }
+        writeLock.lock();
+        try {
+            ensureOpen();
+            // The old sectors stay marked as used until the new entries are durable, so they can't get overwritten
+            Map<Integer, Integer> newFirstSectors = Maps.newHashMapWithExpectedSize(chunks.size());
+            for (Map.Entry<Integer, byte[]> entry : chunks.entrySet()) {
+                byte[] data = entry.getValue();
+                int firstSector = allocate(sectorsFor(data.length));
+                ByteBuffer view = buffer.duplicate();
+                view.position(firstSector * SECTOR_SIZE);
+                view.put(data);
+                newFirstSectors.put(entry.getKey(), firstSector);
+            }
+            buffer.force();
+
+            BitSet oldSectors = new BitSet();
+            for (Map.Entry<Integer, byte[]> entry : chunks.entrySet()) {
+                int chunkIndex = entry.getKey();
+                int oldFirstSector = firstSectors[chunkIndex];
+                oldSectors.set(oldFirstSector, oldFirstSector + sectorsFor(lengths[chunkIndex]));
+                writeEntry(chunkIndex, newFirstSectors.get(chunkIndex), entry.getValue().length);
+            }
+            buffer.force();
+            usedSectors.andNot(oldSectors);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the given chunk is stored in this region file
+     */
+    public boolean contains(int chunkIndex) {
+        readLock.lock();
+        try {
+            return lengths[chunkIndex] != 0;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all changes through to the storage device.
+     */
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            ensureOpen();
+            buffer.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the size of the file in bytes, including free sectors
+     */
+    public long getFileSize() {
+        readLock.lock();
+        try {
+            return (long) sectorCount * SECTOR_SIZE;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            buffer = null;
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    private void readHeader() {
+        usedSectors.set(0, HEADER_SECTORS);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            int firstSector = buffer.getInt(i * ENTRY_SIZE);
+            int length = buffer.getInt(i * ENTRY_SIZE + Integer.BYTES);
+            if (length == 0) {
+                continue;
+            }
+            // Validate the raw values before using them, so that a corrupt entry only costs its own chunk
+            if (length < 0 || firstSector < HEADER_SECTORS || firstSector >= sectorCount) {
+                dropCorruptEntry(i);
+                continue;
+            }
+            int sectors = sectorsFor(length);
+            int nextUsedSector = usedSectors.nextSetBit(firstSector);
+            boolean overlapsOtherChunk = nextUsedSector != -1 && nextUsedSector < firstSector + sectors;
+            if (sectors > sectorCount - firstSector || overlapsOtherChunk) {
+                dropCorruptEntry(i);
+                continue;
+            }
+            firstSectors[i] = firstSector;
+            lengths[i] = length;
+            usedSectors.set(firstSector, firstSector + sectors);
+        }
+    }
+
+    private void dropCorruptEntry(int chunkIndex) {
+        logger.warn("Dropping corrupt entry {} of region file {}", chunkIndex, path);
+        writeEntry(chunkIndex, 0, 0);
+    }
+
+    /**
+     * Finds the first run of free sectors that is large enough, growing the file if there is none, and marks it used.
+     */
+    private int allocate(int neededSectors) throws IOException {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (start < sectorCount) {
+            int end = usedSectors.nextSetBit(start);
+            if (end == -1 || end > sectorCount) {
+                end = sectorCount;
+            }
+            if (end - start >= neededSectors) {
+                usedSectors.set(start, start + neededSectors);
+                return start;
+            }
+            if (end == sectorCount) {
+                break;
+            }
+            start = usedSectors.nextClearBit(end);
+        }
+        // Append, reusing the free sectors at the end of the file if there are any
+        start = Math.max(usedSectors.length(), HEADER_SECTORS);
+        int requiredSectors = start + neededSectors;
+        if (requiredSectors > sectorCount) {
+            map(Math.max(requiredSectors, sectorCount + Math.max(MIN_GROWTH_SECTORS, sectorCount / 4)));
+        }
+        usedSectors.set(start, start + neededSectors);
+        return start;
+    }
+
+    private void map(int sectors) throws IOException {
+        // Mapping beyond the end of the file grows it; the old mapping gets released by the garbage collector
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) sectors * SECTOR_SIZE);
+        sectorCount = sectors;
+    }
+
+    private void writeEntry(int chunkIndex, int firstSector, int length) {
+        buffer.putInt(chunkIndex * ENTRY_SIZE, firstSector);
+        buffer.putInt(chunkIndex * ENTRY_SIZE + Integer.BYTES, length);
+        firstSectors[chunkIndex] = firstSector;
+        lengths[chunkIndex] = length;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private static int sectorsFor(int length) {
+        return (int) ((length + (long) SECTOR_SIZE - 1) / SECTOR_SIZE);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes encoded chunks in the {@link RegionFile}s of a save game. Region files get opened on first access
+ * and stay open (and mapped) until {@link #closeAll()} gets called.
+ */
+public class RegionFileChunkStore {
+    private static final Logger logger = LoggerFactory.getLogger(RegionFileChunkStore.class);
+
+    private final StoragePathProvider storagePathProvider;
+    private final Map<Vector3i, RegionFile> regionFiles = Maps.newHashMap();
+
+    public RegionFileChunkStore(StoragePathProvider storagePathProvider) {
+        this.storagePathProvider = storagePathProvider;
+    }
+
+    /**
+     * @return the stored data of the chunk or null if it is not stored
+     */
+    public byte[] readChunk(Vector3i chunkPos) throws IOException {
+        RegionFile regionFile = getRegionFile(RegionFile.getRegionPosition(chunkPos), false);
+        if (regionFile == null) {
+            return null;
+        }
+        return regionFile.read(RegionFile.getChunkIndex(chunkPos));
+    }
+
+    public boolean containsChunk(Vector3i chunkPos) throws IOException {
+        RegionFile regionFile = getRegionFile(RegionFile.getRegionPosition(chunkPos), false);
+        return regionFile != null && regionFile.contains(RegionFile.getChunkIndex(chunkPos));
+    }
+
+    /**
+     * Stores the data of the chunk in its region file, creating the file if needed. The change is forced to the
+     * storage device before this method returns.
+     */
+    public void writeChunk(Vector3i chunkPos, byte[] data) throws IOException {
+        RegionFile regionFile = getRegionFile(RegionFile.getRegionPosition(chunkPos), true);
+        regionFile.write(RegionFile.getChunkIndex(chunkPos), data);
+    }
+
+    /**
+     * Stores the data of several chunks, writing each affected region file only once. See
+     * {@link RegionFile#writeAll(Map)} for the guarantees in case of an interruption.
+     */
+    public void writeChunks(Map<Vector3i, byte[]> chunks) throws IOException {
+        Map<Vector3i, Map<Integer, byte[]>> chunksByRegion = Maps.newHashMap();
+        for (Map.Entry<Vector3i, byte[]> entry : chunks.entrySet()) {
+            Vector3i chunkPos = entry.getKey();
+            chunksByRegion.computeIfAbsent(RegionFile.getRegionPosition(chunkPos), k -> Maps.newHashMap())
+                    .put(RegionFile.getChunkIndex(chunkPos), entry.getValue());
+        }
+        for (Map.Entry<Vector3i, Map<Integer, byte[]>> entry : chunksByRegion.entrySet()) {
+            getRegionFile(entry.getKey(), true).writeAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Stages encoded chunks in a journal file, so that they can be applied to the region files later with
+     * {@link #applyJournal(Path)}.
+     */
+    public static void writeJournal(Path journal, Map<Vector3i, byte[]> chunks) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journal)))) {
+            out.writeInt(chunks.size());
+            for (Map.Entry<Vector3i, byte[]> entry : chunks.entrySet()) {
+                Vector3i chunkPos = entry.getKey();
+                out.writeInt(chunkPos.x);
+                out.writeInt(chunkPos.y);
+                out.writeInt(chunkPos.z);
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes the chunks of a journal created by {@link #writeJournal(Path, Map)} into their region files and forces
+     * them to the storage device. Applying the same journal again has no further effect, so an interrupted merge can
+     * simply be repeated as long as the journal gets deleted only afterwards.
+     */
+    public void applyJournal(Path journal) throws IOException {
+        Map<Vector3i, byte[]> chunks = Maps.newHashMap();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+            int chunkCount = in.readInt();
+            for (int i = 0; i < chunkCount; i++) {
+                Vector3i chunkPos = new Vector3i(in.readInt(), in.readInt(), in.readInt());
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                chunks.put(chunkPos, data);
+            }
+        }
+        writeChunks(chunks);
+    }
+
+    public void flush() throws IOException {
+        for (RegionFile regionFile : getOpenRegionFiles()) {
+            regionFile.flush();
+        }
+    }
+
+    /**
+     * Closes all open region files. Must be called before the region files get deleted and on shutdown.
+     */
+    public void closeAll() {
+        List<RegionFile> filesToClose;
+        synchronized (regionFiles) {
+            filesToClose = Lists.newArrayList(regionFiles.values());
+            regionFiles.clear();
+        }
+        for (RegionFile regionFile : filesToClose) {
+            try {
+                regionFile.close();
+            } catch (IOException e) {
+                logger.error("Failed to close region file {}", regionFile, e);
+            }
+        }
+    }
+
+    public int getOpenFileCount() {
+        synchronized (regionFiles) {
+            return regionFiles.size();
+        }
+    }
+
+    private List<RegionFile> getOpenRegionFiles() {
+        synchronized (regionFiles) {
+            return Lists.newArrayList(regionFiles.values());
+        }
+    }
+
+    private RegionFile getRegionFile(Vector3i regionPos, boolean create) throws IOException {
+        synchronized (regionFiles) {
+            RegionFile regionFile = regionFiles.get(regionPos);
+            if (regionFile == null) {
+                Path path = storagePathProvider.getRegionFilePath(regionPos);
+                if (!create && !Files.isRegularFile(path)) {
+                    return null;
+                }
+                Files.createDirectories(path.getParent());
+                regionFile = new RegionFile(path);
+                regionFiles.put(regionPos, regionFile);
+            }
+            return regionFile;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.persistence.internal;
+
+import com.google.common.collect.Maps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.math.geom.Vector3i;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Moves the chunks of a save game that got stored as ZIPs or as one file per chunk into region files.
+ * <br><br>
+ * A chunk that is already stored in a region file is considered newer and is not overwritten. The old files get
+ * deleted once all of their chunks are stored in the region files, so the conversion can be continued if it got
+ * interrupted.
+ */
+public class RegionFileConverter {
+    private static final Logger logger = LoggerFactory.getLogger(RegionFileConverter.class);
+
+    private static final Pattern CHUNK_FILENAME = Pattern.compile("(-?\\d+)\\.(-?\\d+)\\.(-?\\d+)\\.chunk");
+    private static final String CHUNK_ZIP_SUFFIX = ".chunks.zip";
+    private static final String CHUNK_SUFFIX = ".chunk";
+
+    private final StoragePathProvider storagePathProvider;
+    private final RegionFileChunkStore regionFileChunkStore;
+
+    private int convertedChunkCount;
+
+    public RegionFileConverter(StoragePathProvider storagePathProvider, RegionFileChunkStore regionFileChunkStore) {
+        this.storagePathProvider = storagePathProvider;
+        this.regionFileChunkStore = regionFileChunkStore;
+    }
+
+    /**
+     * @return true if the world directory contains chunks that are not stored in region files
+     */
+    public boolean isConversionNecessary() throws IOException {
+        Path worldPath = storagePathProvider.getWorldPath();
+        if (!Files.isDirectory(worldPath)) {
+            return false;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(worldPath)) {
+            for (Path file : files) {
+                if (isChunkZip(file) || isChunkFile(file)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts all chunk ZIPs and chunk files of the world. The world directory write lock must be held.
+     *
+     * @return the number of chunks that got written to region files
+     */
+    public int convert() throws IOException {
+        convertedChunkCount = 0;
+        Path worldPath = storagePathProvider.getWorldPath();
+        if (!Files.isDirectory(worldPath)) {
+            return 0;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(worldPath)) {
+            for (Path file : files) {
+                if (isChunkZip(file)) {
+                    convertChunkZip(file);
+                } else if (isChunkFile(file)) {
+                    Map<Vector3i, byte[]> chunks = Maps.newHashMap();
+                    readChunk(file, file.getFileName().toString(), chunks);
+                    regionFileChunkStore.writeChunks(chunks);
+                    convertedChunkCount += chunks.size();
+                    Files.delete(file);
+                }
+            }
+        }
+        logger.info("Converted {} chunks to region files", convertedChunkCount);
+        return convertedChunkCount;
+    }
+
+    private void convertChunkZip(Path chunkZipPath) throws IOException {
+        Map<Vector3i, byte[]> chunks = Maps.newHashMap();
+        try (FileSystem chunkZip = FileSystems.newFileSystem(chunkZipPath, (ClassLoader) null)) {
+            for (Path root : chunkZip.getRootDirectories()) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+                    for (Path entry : entries) {
+                        readChunk(entry, entry.getFileName().toString(), chunks);
+                    }
+                }
+            }
+        }
+        regionFileChunkStore.writeChunks(chunks);
+        convertedChunkCount += chunks.size();
+        Files.delete(chunkZipPath);
+    }
+
+    /**
+     * Adds the data of the chunk to the given map unless the chunk is already stored in a region file.
+     */
+    private void readChunk(Path chunkPath, String filename, Map<Vector3i, byte[]> chunks) throws IOException {
+        Matcher matcher = CHUNK_FILENAME.matcher(filename);
+        if (!matcher.matches()) {
+            logger.warn("Skipping unexpected file {} during region file conversion", chunkPath);
+            return;
+        }
+        Vector3i chunkPos = new Vector3i(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)));
+        if (regionFileChunkStore.containsChunk(chunkPos)) {
+            return;
+        }
+        chunks.put(chunkPos, Files.readAllBytes(chunkPath));
+    }
+
+    private static boolean isChunkZip(Path file) {
+        return file.getFileName().toString().endsWith(CHUNK_ZIP_SUFFIX) && Files.isRegularFile(file);
+    }
+
+    private static boolean isChunkFile(Path file) {
+        return file.getFileName().toString().endsWith(CHUNK_SUFFIX) && Files.isRegularFile(file);
+    }
+}
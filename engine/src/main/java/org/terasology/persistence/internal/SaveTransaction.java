@@ -30,6 +30,7 @@
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.network.ClientComponent;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.protobuf.EntityData;
 import org.terasology.recording.RecordAndReplayCurrentStatus;
 import org.terasology.recording.RecordAndReplaySerializer;
@@ -72,6 +73,8 @@ public class SaveTransaction extends AbstractTask {
     private static final ImmutableMap<String, String> CREATE_ZIP_OPTIONS = ImmutableMap.of("create", "true", "encoding", "UTF-8");
     private final GameManifest gameManifest;
     private final Lock worldDirectoryWriteLock;
+    private final ChunkZipReaderCache chunkZipReaderCache;
+    private final RegionFileChunkStore regionFileChunkStore;
     private final EngineEntityManager privateEntityManager;
     private final EntitySetDeltaRecorder deltaToSave;
     private volatile SaveTransactionResult result;
@@ -87,10 +90,11 @@ public class SaveTransaction extends AbstractTask {
     private EntityData.GlobalStore globalStore;
     private Map<String, EntityData.PlayerStore> allPlayers;
     private Map<Vector3i, CompressedChunkBuilder> allChunks;
+    private Set<Vector3i> rewrittenChunkZips = Collections.emptySet();
 
 
     // Save parameters:
-    private final boolean storeChunksInZips;
+    private final ChunkStorageFormat chunkStorageFormat;
 
     // utility classes for saving:
     private final StoragePathProvider storagePathProvider;
@@ -106,8 +110,9 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
                            Map<String, EntityData.PlayerStore> unloadedPlayers,
                            Map<String, PlayerStoreBuilder> loadedPlayers, GlobalStoreBuilder globalStoreBuilder,
                            Map<Vector3i, CompressedChunkBuilder> unloadedChunks, Map<Vector3i, ChunkImpl> loadedChunks,
-                           GameManifest gameManifest, boolean storeChunksInZips,
+                           GameManifest gameManifest, ChunkStorageFormat chunkStorageFormat,
                            StoragePathProvider storagePathProvider, Lock worldDirectoryWriteLock,
+                           ChunkZipReaderCache chunkZipReaderCache, RegionFileChunkStore regionFileChunkStore,
                            RecordAndReplaySerializer recordAndReplaySerializer,
                            RecordAndReplayUtils recordAndReplayUtils,
                            RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) {
@@ -119,10 +124,12 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
         this.loadedChunks = loadedChunks;
         this.globalStoreBuilder = globalStoreBuilder;
         this.gameManifest = gameManifest;
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageFormat = chunkStorageFormat;
         this.storagePathProvider = storagePathProvider;
-        this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider);
+        this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider, regionFileChunkStore);
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
+        this.chunkZipReaderCache = chunkZipReaderCache;
+        this.regionFileChunkStore = regionFileChunkStore;
         this.recordAndReplaySerializer = recordAndReplaySerializer;
         this.recordAndReplayUtils = recordAndReplayUtils;
         this.recordAndReplayCurrentStatus = recordAndReplayCurrentStatus;
@@ -402,7 +409,9 @@ private void writeGlobalStore() throws IOException {
     private void writeChunkStores() throws IOException {
         Path chunksPath = storagePathProvider.getWorldTempPath();
         Files.createDirectories(chunksPath);
-        if (storeChunksInZips) {
+        if (chunkStorageFormat == ChunkStorageFormat.REGION_FILE) {
+            writeRegionFileChunks();
+        } else if (chunkStorageFormat == ChunkStorageFormat.ZIP) {
             Map<Vector3i, FileSystem> newChunkZips = Maps.newHashMap();
             for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
                 Vector3i chunkPos = entry.getKey();
@@ -444,6 +453,7 @@ public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
                 }
                 zip.close();
             }
+            rewrittenChunkZips = newChunkZips.keySet();
         } else {
             for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
                 Vector3i chunkPos = entry.getKey();
@@ -457,6 +467,24 @@ public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
         }
     }
 
+    /**
+     * The chunks of each region get staged in a journal file instead of a copy of the region file, as rewriting the
+     * whole region file would defeat its purpose. The journals get applied to the region files when the changes get
+     * merged, so that the region files never contain chunks of a save whose entity store has not been merged yet.
+     */
+    private void writeRegionFileChunks() throws IOException {
+        Map<Vector3i, Map<Vector3i, byte[]>> chunksByRegion = Maps.newHashMap();
+        for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
+            Vector3i chunkPos = entry.getKey();
+            chunksByRegion.computeIfAbsent(RegionFile.getRegionPosition(chunkPos), k -> Maps.newHashMap())
+                    .put(chunkPos, entry.getValue().buildEncodedChunk());
+        }
+        for (Map.Entry<Vector3i, Map<Vector3i, byte[]>> entry : chunksByRegion.entrySet()) {
+            RegionFileChunkStore.writeJournal(storagePathProvider.getRegionJournalTempPath(entry.getKey()),
+                    entry.getValue());
+        }
+    }
+
     /**
      * @return the result if there is one yet or null. This method returns the value of a volatile variable and
      * can thus be used even from another thread.
@@ -477,6 +505,8 @@ private void saveGameManifest() {
     private void mergeChanges() throws IOException {
         worldDirectoryWriteLock.lock();
         try {
+            // Open readers would keep the replaced chunk zips alive (and locked on some platforms):
+            rewrittenChunkZips.forEach(chunkZipReaderCache::invalidate);
             saveTransactionHelper.mergeChanges();
         } finally {
             worldDirectoryWriteLock.unlock();
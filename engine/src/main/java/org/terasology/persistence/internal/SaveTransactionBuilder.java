@@ -19,6 +19,7 @@
 import org.terasology.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.game.GameManifest;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.persistence.ChunkStorageFormat;
 import org.terasology.protobuf.EntityData;
 import org.terasology.recording.RecordAndReplayCurrentStatus;
 import org.terasology.recording.RecordAndReplaySerializer;
@@ -34,6 +35,8 @@
  */
 class SaveTransactionBuilder {
     private final Lock worldDirectoryWriteLock;
+    private final ChunkZipReaderCache chunkZipReaderCache;
+    private final RegionFileChunkStore regionFileChunkStore;
     private final EngineEntityManager privateEntityManager;
     private final EntitySetDeltaRecorder deltaToSave;
     private Map<String, EntityData.PlayerStore> unloadedPlayers = Maps.newHashMap();
@@ -41,7 +44,7 @@ class SaveTransactionBuilder {
     private Map<Vector3i, CompressedChunkBuilder> unloadedChunks = Maps.newHashMap();
     private Map<Vector3i, ChunkImpl> loadedChunks = Maps.newHashMap();
     private GlobalStoreBuilder globalStoreBuilder;
-    private final boolean storeChunksInZips;
+    private final ChunkStorageFormat chunkStorageFormat;
     private final StoragePathProvider storagePathProvider;
     private GameManifest gameManifest;
     private RecordAndReplaySerializer recordAndReplaySerializer;
@@ -49,15 +52,19 @@ class SaveTransactionBuilder {
     private RecordAndReplayCurrentStatus recordAndReplayCurrentStatus;
 
     SaveTransactionBuilder(EngineEntityManager privateEntityManager, EntitySetDeltaRecorder deltaToSave,
-                           boolean storeChunksInZips, StoragePathProvider storagePathProvider,
-                           Lock worldDirectoryWriteLock, RecordAndReplaySerializer recordAndReplaySerializer,
+                           ChunkStorageFormat chunkStorageFormat, StoragePathProvider storagePathProvider,
+                           Lock worldDirectoryWriteLock, ChunkZipReaderCache chunkZipReaderCache,
+                           RegionFileChunkStore regionFileChunkStore,
+                           RecordAndReplaySerializer recordAndReplaySerializer,
                            RecordAndReplayUtils recordAndReplayUtils,
                            RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) {
         this.privateEntityManager = privateEntityManager;
         this.deltaToSave = deltaToSave;
-        this.storeChunksInZips = storeChunksInZips;
+        this.chunkStorageFormat = chunkStorageFormat;
         this.storagePathProvider = storagePathProvider;
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
+        this.chunkZipReaderCache = chunkZipReaderCache;
+        this.regionFileChunkStore = regionFileChunkStore;
         this.recordAndReplaySerializer = recordAndReplaySerializer;
         this.recordAndReplayUtils = recordAndReplayUtils;
         this.recordAndReplayCurrentStatus = recordAndReplayCurrentStatus;
@@ -86,8 +93,9 @@ void addLoadedChunk(final Vector3i chunkPosition, final ChunkImpl chunk) {
 
     public SaveTransaction build() {
         return new SaveTransaction(privateEntityManager, deltaToSave, unloadedPlayers, loadedPlayers, globalStoreBuilder,
-                unloadedChunks, loadedChunks, gameManifest, storeChunksInZips, storagePathProvider,
-                worldDirectoryWriteLock, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+                unloadedChunks, loadedChunks, gameManifest, chunkStorageFormat, storagePathProvider,
+                worldDirectoryWriteLock, chunkZipReaderCache, regionFileChunkStore, recordAndReplaySerializer,
+                recordAndReplayUtils, recordAndReplayCurrentStatus);
 
     }
 
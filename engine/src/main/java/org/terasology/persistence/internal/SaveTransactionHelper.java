@@ -35,9 +35,11 @@
 public class SaveTransactionHelper {
     private static final Logger logger = LoggerFactory.getLogger(SaveTransactionHelper.class);
     private final StoragePathProvider storagePathProvider;
+    private final RegionFileChunkStore regionFileChunkStore;
 
-    public SaveTransactionHelper(StoragePathProvider storagePathProvider) {
+    public SaveTransactionHelper(StoragePathProvider storagePathProvider, RegionFileChunkStore regionFileChunkStore) {
         this.storagePathProvider = storagePathProvider;
+        this.regionFileChunkStore = regionFileChunkStore;
     }
 
     public void cleanupSaveTransactionDirectory() throws IOException {
@@ -64,6 +66,9 @@ public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOEx
      * Merges all outstanding changes into the save game. If this operation gets interrupted it can be started again
      * without any file corruption when the file system supports atomic moves.
      * <br><br>
+     * Region journals get applied to their region files instead of being moved. A journal only gets deleted once its
+     * chunks have been forced to the storage device, so applying it again after an interruption is harmless.
+     * <br><br>
      * The write lock for the save directory should be acquired before this method gets called.
      */
     public void mergeChanges() throws IOException {
@@ -84,6 +89,11 @@ public FileVisitResult preVisitDirectory(Path sourceSubDir, BasicFileAttributes
 
             @Override
             public FileVisitResult visitFile(Path sourcePath, BasicFileAttributes attrs) throws IOException {
+                if (storagePathProvider.isRegionJournal(sourcePath)) {
+                    regionFileChunkStore.applyJournal(sourcePath);
+                    Files.delete(sourcePath);
+                    return FileVisitResult.CONTINUE;
+                }
                 Path targetPath = targetDirectory.resolve(sourceDirectory.relativize(sourcePath));
                 try {
                     // Delete file, as behavior of atomic move is undefined if target file exists:
@@ -31,6 +31,7 @@ public class StoragePathProvider {
     private static final String GLOBAL_ENTITY_STORE = "global.dat";
     private static final String UNFINISHED_SAVE_TRANSACTION = "unfinished-save-transaction";
     private static final String UNMERGED_CHANGED = "unmerged-changes";
+    private static final String REGION_JOURNAL_EXTENSION = ".regionjournal";
     private static final int CHUNK_ZIP_DIM = 32;
 
     private final Path storagePathDirectory;
@@ -84,6 +85,10 @@ public Path getWorldPath() {
         return worldPath;
     }
 
+    public Path getWorldUnmergedPath() {
+        return unmergedChangesPath.resolve(WORLDS_PATH).resolve(TerasologyConstants.MAIN_WORLD);
+    }
+
     public Path getWorldTempPath() {
         return unfinishedSaveTransactionPath.resolve(WORLDS_PATH).resolve(TerasologyConstants.MAIN_WORLD);
     }
@@ -114,6 +119,23 @@ private String getChunkZipFilename(Vector3i pos) {
         return String.format("%d.%d.%d.chunks.zip", pos.x, pos.y, pos.z);
     }
 
+    public Path getRegionFilePath(Vector3i regionPos) {
+        return worldPath.resolve(String.format("%d.%d.%d.region", regionPos.x, regionPos.y, regionPos.z));
+    }
+
+    /**
+     * @return the path of the file in which a save transaction stages the chunks of a region until they get merged
+     * into its region file.
+     */
+    public Path getRegionJournalTempPath(Vector3i regionPos) {
+        return getWorldTempPath().resolve(String.format("%d.%d.%d%s", regionPos.x, regionPos.y, regionPos.z,
+                REGION_JOURNAL_EXTENSION));
+    }
+
+    public boolean isRegionJournal(Path path) {
+        return path.getFileName().toString().endsWith(REGION_JOURNAL_EXTENSION);
+    }
+
     public Vector3i getChunkZipPosition(Vector3i chunkPos) {
         Vector3i result = new Vector3i(chunkPos);
         result.div(CHUNK_ZIP_DIM);
@@ -137,6 +159,9 @@ public Path getChunkTempPath(Vector3i chunkPos) {
         return getWorldTempPath().resolve(getChunkFilename(chunkPos));
     }
 
+    public Path getGameManifestPath() {
+        return storagePathDirectory.resolve(GameManifest.DEFAULT_FILE_NAME);
+    }
 
     public Path getGameManifestTempPath() {
         return unfinishedSaveTransactionPath.resolve(GameManifest.DEFAULT_FILE_NAME);
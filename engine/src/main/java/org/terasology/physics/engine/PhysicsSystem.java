@@ -31,6 +31,7 @@
 import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.logic.location.LocationResynchEvent;
+import org.terasology.math.Region3i;
 import org.terasology.math.geom.Quat4f;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.monitoring.PerformanceMonitor;
@@ -51,6 +52,8 @@
 import org.terasology.physics.events.BlockImpactEvent;
 import org.terasology.registry.In;
 import org.terasology.world.OnChangedBlock;
+import org.terasology.world.OnChangedBlocks;
+import org.terasology.world.WorldComponent;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockComponent;
@@ -149,6 +152,14 @@ public void onBlockAltered(OnChangedBlock event, EntityRef entity) {
         physics.awakenArea(event.getBlockPosition().toVector3f(), 0.6f);
     }
 
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void onBlocksAltered(OnChangedBlocks event, EntityRef worldEntity) {
+        Region3i region = event.getRegion();
+        Vector3f center = region.min().toVector3f().add(region.max().toVector3f()).mul(0.5f);
+        Vector3f halfSize = region.size().toVector3f().mul(0.5f);
+        physics.awakenArea(center, halfSize.length() + 0.6f);
+    }
+
     @ReceiveEvent
     public void onItemImpact(ImpactEvent event, EntityRef entity) {
         RigidBody rigidBody = physics.getRigidBody(entity);
@@ -6670,6 +6670,16 @@ public interface HandshakeHelloOrBuilder extends
      * <code>optional sint64 timestamp = 3;</code>
      */
     long getTimestamp();
+
+    // optional int32 compressionVersion = 4;
+    /**
+     * <code>optional int32 compressionVersion = 4;</code>
+     */
+    boolean hasCompressionVersion();
+    /**
+     * <code>optional int32 compressionVersion = 4;</code>
+     */
+    int getCompressionVersion();
   }
   /**
    * Protobuf type {@code HandshakeHello}
@@ -6745,6 +6755,11 @@ private HandshakeHello(
               timestamp_ = input.readSInt64();
               break;
             }
+            case 32: {
+              bitField0_ |= 0x00000008;
+              compressionVersion_ = input.readInt32();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -6839,10 +6854,27 @@ public long getTimestamp() {
       return timestamp_;
     }
 
+    // optional int32 compressionVersion = 4;
+    public static final int COMPRESSIONVERSION_FIELD_NUMBER = 4;
+    private int compressionVersion_;
+    /**
+     * <code>optional int32 compressionVersion = 4;</code>
+     */
+    public boolean hasCompressionVersion() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional int32 compressionVersion = 4;</code>
+     */
+    public int getCompressionVersion() {
+      return compressionVersion_;
+    }
+
     private void initFields() {
       random_ = com.google.protobuf.ByteString.EMPTY;
       certificate_ = org.terasology.protobuf.NetData.Certificate.getDefaultInstance();
       timestamp_ = 0L;
+      compressionVersion_ = 0;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -6878,6 +6910,9 @@ public void writeTo(com.google.protobuf.CodedOutputStream output)
       if (((bitField0_ & 0x00000004) == 0x00000004)) {
         output.writeSInt64(3, timestamp_);
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeInt32(4, compressionVersion_);
+      }
       extensionWriter.writeUntil(536870912, output);
       getUnknownFields().writeTo(output);
     }
@@ -6900,6 +6935,10 @@ public int getSerializedSize() {
         size += com.google.protobuf.CodedOutputStream
           .computeSInt64Size(3, timestamp_);
       }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(4, compressionVersion_);
+      }
       size += extensionsSerializedSize();
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -7028,6 +7067,8 @@ public Builder clear() {
         bitField0_ = (bitField0_ & ~0x00000002);
         timestamp_ = 0L;
         bitField0_ = (bitField0_ & ~0x00000004);
+        compressionVersion_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000008);
         return this;
       }
 
@@ -7072,6 +7113,10 @@ public org.terasology.protobuf.NetData.HandshakeHello buildPartial() {
           to_bitField0_ |= 0x00000004;
         }
         result.timestamp_ = timestamp_;
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.compressionVersion_ = compressionVersion_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -7097,6 +7142,9 @@ public Builder mergeFrom(org.terasology.protobuf.NetData.HandshakeHello other) {
         if (other.hasTimestamp()) {
           setTimestamp(other.getTimestamp());
         }
+        if (other.hasCompressionVersion()) {
+          setCompressionVersion(other.getCompressionVersion());
+        }
         this.mergeExtensionFields(other);
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
@@ -7321,6 +7369,39 @@ public Builder clearTimestamp() {
         return this;
       }
 
+      // optional int32 compressionVersion = 4;
+      private int compressionVersion_ ;
+      /**
+       * <code>optional int32 compressionVersion = 4;</code>
+       */
+      public boolean hasCompressionVersion() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional int32 compressionVersion = 4;</code>
+       */
+      public int getCompressionVersion() {
+        return compressionVersion_;
+      }
+      /**
+       * <code>optional int32 compressionVersion = 4;</code>
+       */
+      public Builder setCompressionVersion(int value) {
+        bitField0_ |= 0x00000008;
+        compressionVersion_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int32 compressionVersion = 4;</code>
+       */
+      public Builder clearCompressionVersion() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        compressionVersion_ = 0;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:HandshakeHello)
     }
 
@@ -26680,9 +26761,10 @@ public org.terasology.protobuf.NetData.Vector3iDataOrBuilder getTargetBlockPosOr
       "uest\030e \001(\0132\023.NewIdentityRequest\022-\n\021provi" +
       "sionIdentity\030f \001(\0132\022.ProvisionIdentity\0225" +
       "\n\025handshakeVerification\030g \001(\0132\026.Handshak" +
-      "eVerification*\t\010\210\'\020\200\200\200\200\002\"a\n\016HandshakeHel" +
+      "eVerification*\t\010\210\'\020\200\200\200\200\002\"}\n\016HandshakeHel" +
       "lo\022\016\n\006random\030\001 \001(\014\022!\n\013certificate\030\002 \001(\0132" +
-      "\014.Certificate\022\021\n\ttimestamp\030\003 \001(\022*\t\010\210\'\020\200\200" +
+      "\014.Certificate\022\021\n\ttimestamp\030\003 \001(\022\022\032\n\022compr" +
+      "essionVersion\030\004 \001(\005*\t\010\210\'\020\200\200" +
       "\200\200\002\"H\n\022NewIdentityRequest\022\027\n\017preMasterSe" +
       "cret\030\001 \001(\014\022\016\n\006random\030\002 \001(\014*\t\010\210\'\020\200\200\200\200\002\"=\n" +
       "\021ProvisionIdentity\022\035\n\025encryptedCertifica",
@@ -26758,7 +26840,7 @@ public com.google.protobuf.ExtensionRegistry assignDescriptors(
           internal_static_HandshakeHello_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_HandshakeHello_descriptor,
-              new java.lang.String[] { "Random", "Certificate", "Timestamp", });
+              new java.lang.String[] { "Random", "Certificate", "Timestamp", "CompressionVersion", });
           internal_static_NewIdentityRequest_descriptor =
             getDescriptor().getMessageTypes().get(2);
           internal_static_NewIdentityRequest_fieldAccessorTable = new
@@ -81,6 +81,10 @@ public class SkeletonRenderer extends BaseComponentSystem implements RenderSyste
 
     private Random random = new Random();
 
+    // Reused for the bones of every rendered skeleton, one position and rotation per bone
+    private final List<Vector3f> bonePositions = Lists.newArrayList();
+    private final List<Quat4f> boneRotations = Lists.newArrayList();
+
     @ReceiveEvent(components = {SkeletalMeshComponent.class, LocationComponent.class})
     public void newSkeleton(OnActivatedComponent event, EntityRef entity) {
         SkeletalMeshComponent skeleton = entity.getComponent(SkeletalMeshComponent.class);
@@ -269,30 +273,35 @@ public void renderOpaque() {
             skeletalMesh.material.setFloat("sunlight", worldRenderer.getMainLightIntensityAt(worldPos), true);
             skeletalMesh.material.setFloat("blockLight", worldRenderer.getBlockLightIntensityAt(worldPos), true);
 
-            List<Vector3f> bonePositions = Lists.newArrayListWithCapacity(skeletalMesh.mesh.getVertexCount());
-            List<Quat4f> boneRotations = Lists.newArrayListWithCapacity(skeletalMesh.mesh.getVertexCount());
+            int boneIndex = 0;
             for (Bone bone : skeletalMesh.mesh.getBones()) {
+                if (boneIndex == bonePositions.size()) {
+                    bonePositions.add(new Vector3f());
+                    boneRotations.add(new Quat4f());
+                }
+                Vector3f pos = bonePositions.get(boneIndex);
+                Quat4f rot = boneRotations.get(boneIndex);
+                boneIndex++;
+
                 EntityRef boneEntity = skeletalMesh.boneEntities.get(bone.getName());
                 if (boneEntity == null) {
                     boneEntity = EntityRef.NULL;
                 }
                 LocationComponent boneLocation = boneEntity.getComponent(LocationComponent.class);
                 if (boneLocation != null) {
-                    Vector3f pos = boneLocation.getWorldPosition();
+                    boneLocation.getWorldPosition(pos);
                     pos.sub(worldPos);
                     inverseWorldRot.rotate(pos, pos);
-                    bonePositions.add(pos);
-                    Quat4f rot = new Quat4f(inverseWorldRot);
-                    rot.mul(boneLocation.getWorldRotation());
-                    boneRotations.add(rot);
+                    boneLocation.getWorldRotation(rot);
+                    rot.mul(inverseWorldRot, rot);
                 } else {
                     logger.warn("Unable to resolve bone \"{}\"", bone.getName());
-                    bonePositions.add(new Vector3f());
-                    boneRotations.add(new Quat4f());
+                    pos.set(new Vector3f());
+                    rot.set(new Quat4f());
                 }
             }
             ((OpenGLSkeletalMesh) skeletalMesh.mesh).setScaleTranslate(skeletalMesh.scale, skeletalMesh.translate);
-            ((OpenGLSkeletalMesh) skeletalMesh.mesh).render(bonePositions, boneRotations);
+            ((OpenGLSkeletalMesh) skeletalMesh.mesh).render(bonePositions.subList(0, boneIndex), boneRotations.subList(0, boneIndex));
         }
     }
 
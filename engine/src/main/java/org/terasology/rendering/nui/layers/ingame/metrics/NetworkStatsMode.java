@@ -17,8 +17,12 @@
 package org.terasology.rendering.nui.layers.ingame.metrics;
 
 import org.terasology.engine.Time;
+import org.terasology.network.Client;
 import org.terasology.network.NetworkMode;
 import org.terasology.network.NetworkSystem;
+import org.terasology.network.internal.MetricRecordingHandler;
+import org.terasology.network.internal.NetClient;
+import org.terasology.network.internal.NetMessageType;
 import org.terasology.registry.CoreRegistry;
 
 /**
@@ -51,6 +55,27 @@ public String getMetrics() {
             builder.append(String.format("In Bytes: %d%n", networkSystem.getIncomingBytesDelta()));
             builder.append(String.format("Out Msg: %d%n", networkSystem.getOutgoingMessagesDelta()));
             builder.append(String.format("Out Bytes: %d%n", networkSystem.getOutgoingBytesDelta()));
+            int outgoingChunks = networkSystem.getOutgoingChunksDelta();
+            int encodedChunks = networkSystem.getEncodedChunksDelta();
+            if (outgoingChunks > 0) {
+                builder.append(String.format("Out Chunks: %d (%d encoded, %.0f%% cached)%n", outgoingChunks, encodedChunks,
+                        100f * (outgoingChunks - encodedChunks) / outgoingChunks));
+            }
+            builder.append(String.format("Chunk Cache: %d KB%n", networkSystem.getChunkPayloadCacheSize() / 1024));
+            int outgoingEntities = networkSystem.getOutgoingEntitiesDelta();
+            int serializedEntities = networkSystem.getSerializedEntitiesDelta();
+            if (outgoingEntities > 0) {
+                builder.append(String.format("Out Entities: %d (%d serialized to %d KB, %.0f%% shared)%n", outgoingEntities, serializedEntities,
+                        networkSystem.getSerializedEntityBytesDelta() / 1024, 100f * (outgoingEntities - serializedEntities) / outgoingEntities));
+            }
+            appendCompressionMetrics(builder);
+            for (Client client : networkSystem.getPlayers()) {
+                if (client instanceof NetClient) {
+                    NetClient netClient = (NetClient) client;
+                    builder.append(String.format("%s: %d chunks queued, %d sent, last full view in %dms%n", netClient.getName(),
+                            netClient.getQueuedChunkCount(), netClient.getSentChunkCount(), netClient.getLastFullViewTime()));
+                }
+            }
             if (lastTime != 0) {
                 // ignore the first update as it will not have useful data
                 lastMetric = builder.toString();
@@ -61,6 +86,26 @@ public String getMetrics() {
         return lastMetric;
     }
 
+    private void appendCompressionMetrics(StringBuilder builder) {
+        for (NetMessageType type : NetMessageType.values()) {
+            long rawBytes = 0;
+            long encodedBytes = 0;
+            long encodingNanos = 0;
+            for (Client client : networkSystem.getPlayers()) {
+                if (client instanceof NetClient && ((NetClient) client).getMetrics() instanceof MetricRecordingHandler) {
+                    MetricRecordingHandler metrics = (MetricRecordingHandler) ((NetClient) client).getMetrics();
+                    rawBytes += metrics.getRawMessageBytesSinceLastCall(type);
+                    encodedBytes += metrics.getEncodedMessageBytesSinceLastCall(type);
+                    encodingNanos += metrics.getMessageEncodingNanosSinceLastCall(type);
+                }
+            }
+            if (rawBytes > 0) {
+                builder.append(String.format("Out %s: %d KB compressed to %d KB in %.1fms%n", type, rawBytes / 1024,
+                        encodedBytes / 1024, encodingNanos / 1000000f));
+            }
+        }
+    }
+
     @Override
     public boolean isAvailable() {
         return networkSystem.getMode() != NetworkMode.NONE;
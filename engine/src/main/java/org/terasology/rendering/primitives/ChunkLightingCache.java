@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.rendering.primitives;
+
+import org.terasology.math.Direction;
+import org.terasology.math.TeraMath;
+import org.terasology.world.ChunkView;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+
+import java.util.Arrays;
+
+/**
+ * Calculates the lighting values of chunk mesh vertices from a local cube of the sunlight, block light and shadow
+ * casting of the blocks around the mesh. The cube gets filled lazily, so each block is fetched from the chunk view at
+ * most once per mesh, and is reused for the following meshes built by the same thread.
+ * <br><br>
+ * Blocks are sampled like {@link ChunkView#getBlock(float, float, float)} does, vertices outside of the cube fall back
+ * to the chunk view.
+ */
+final class ChunkLightingCache {
+    /**
+     * Vertices lie at most half a block outside of their block and get sampled up to 0.9 blocks away from there.
+     */
+    private static final int MARGIN = 2;
+    private static final int SIZE_X = ChunkConstants.SIZE_X + 2 * MARGIN;
+    private static final int SIZE_Z = ChunkConstants.SIZE_Z + 2 * MARGIN;
+
+    private static final byte UNKNOWN = 0;
+    private static final byte NO_SHADOW = 1;
+    private static final byte OPAQUE_SHADOW = 2;
+    private static final byte TRANSLUCENT_SHADOW = 3;
+
+    /**
+     * The ambient occlusion by the number of opaque and translucent shadow casting blocks around a vertex.
+     */
+    private static final float[] AMBIENT_OCCLUSION = new float[5 * 5];
+
+    static {
+        for (int opaque = 0; opaque <= 4; opaque++) {
+            for (int translucent = 0; translucent <= 4; translucent++) {
+                AMBIENT_OCCLUSION[opaque * 5 + translucent] =
+                        (float) ((TeraMath.pow(0.40, opaque) + TeraMath.pow(0.80, translucent)) / 2.0);
+            }
+        }
+    }
+
+    private ChunkView chunkView;
+    private int minY;
+    private int sizeY;
+
+    private byte[] shadows = new byte[0];
+    private byte[] sunlight = new byte[0];
+    private byte[] light = new byte[0];
+
+    private int opaqueShadows;
+    private int translucentShadows;
+    private int sunlightSum;
+    private int sunlightCount;
+    private int lightSum;
+    private int lightCount;
+
+    /**
+     * Prepares the cache for the mesh of the given vertical slice of a chunk view.
+     */
+    void reset(ChunkView view, int verticalOffset, int meshHeight) {
+        this.chunkView = view;
+        this.minY = verticalOffset - MARGIN;
+        this.sizeY = meshHeight + 2 * MARGIN;
+        int volume = SIZE_X * SIZE_Z * sizeY;
+        if (shadows.length < volume) {
+            shadows = new byte[volume];
+            sunlight = new byte[volume];
+            light = new byte[volume];
+        } else {
+            Arrays.fill(shadows, 0, volume, UNKNOWN);
+        }
+    }
+
+    /**
+     * Drops the reference to the chunk view, so that its chunks don't stay reachable from an idle thread.
+     */
+    void release() {
+        chunkView = null;
+    }
+
+    /**
+     * Calculates the sunlight, block light and ambient occlusion of a vertex.
+     *
+     * @param output receives the three lighting values
+     */
+    void calcLighting(float x, float y, float z, float normalX, float normalY, float normalZ, float[] output) {
+        opaqueShadows = 0;
+        translucentShadows = 0;
+        switch (Direction.inDirection(normalX, normalY, normalZ)) {
+            case LEFT:
+            case RIGHT:
+                float sideX = x + 0.8f * normalX;
+                countShadow(sideX, y + 0.1f, z + 0.1f);
+                countShadow(sideX, y + 0.1f, z - 0.1f);
+                countShadow(sideX, y - 0.1f, z - 0.1f);
+                countShadow(sideX, y - 0.1f, z + 0.1f);
+                break;
+            case FORWARD:
+            case BACKWARD:
+                float sideZ = z + 0.8f * normalZ;
+                countShadow(x + 0.1f, y + 0.1f, sideZ);
+                countShadow(x + 0.1f, y - 0.1f, sideZ);
+                countShadow(x - 0.1f, y - 0.1f, sideZ);
+                countShadow(x - 0.1f, y + 0.1f, sideZ);
+                break;
+            default:
+                float sideY = y + 0.8f * normalY;
+                countShadow(x + 0.1f, sideY, z + 0.1f);
+                countShadow(x + 0.1f, sideY, z - 0.1f);
+                countShadow(x - 0.1f, sideY, z - 0.1f);
+                countShadow(x - 0.1f, sideY, z + 0.1f);
+        }
+
+        sunlightSum = 0;
+        sunlightCount = 0;
+        lightSum = 0;
+        lightCount = 0;
+        addLightSample(x + 0.1f, y + 0.8f, z + 0.1f);
+        addLightSample(x + 0.1f, y + 0.8f, z - 0.1f);
+        addLightSample(x - 0.1f, y + 0.8f, z - 0.1f);
+        addLightSample(x - 0.1f, y + 0.8f, z + 0.1f);
+        addLightSample(x + 0.1f, y - 0.1f, z + 0.1f);
+        addLightSample(x + 0.1f, y - 0.1f, z - 0.1f);
+        addLightSample(x - 0.1f, y - 0.1f, z - 0.1f);
+        addLightSample(x - 0.1f, y - 0.1f, z + 0.1f);
+
+        output[0] = sunlightCount == 0 ? 0 : (float) sunlightSum / sunlightCount / 15f;
+        output[1] = lightCount == 0 ? 0 : (float) lightSum / lightCount / 15f;
+        output[2] = AMBIENT_OCCLUSION[opaqueShadows * 5 + translucentShadows];
+    }
+
+    private void countShadow(float x, float y, float z) {
+        int blockX = TeraMath.floorToInt(x + 0.5f);
+        int blockY = TeraMath.floorToInt(y + 0.5f);
+        int blockZ = TeraMath.floorToInt(z + 0.5f);
+        int index = fetch(blockX, blockY, blockZ);
+        byte shadow = index >= 0 ? shadows[index] : shadowOf(chunkView.getBlock(blockX, blockY, blockZ));
+        if (shadow == OPAQUE_SHADOW) {
+            opaqueShadows++;
+        } else if (shadow == TRANSLUCENT_SHADOW) {
+            translucentShadows++;
+        }
+    }
+
+    private void addLightSample(float x, float y, float z) {
+        int blockX = TeraMath.floorToInt(x + 0.5f);
+        int blockY = TeraMath.floorToInt(y + 0.5f);
+        int blockZ = TeraMath.floorToInt(z + 0.5f);
+        int sampleSunlight;
+        int sampleLight;
+        int index = fetch(blockX, blockY, blockZ);
+        if (index >= 0) {
+            sampleSunlight = sunlight[index];
+            sampleLight = light[index];
+        } else {
+            sampleSunlight = chunkView.getSunlight(blockX, blockY, blockZ);
+            sampleLight = chunkView.getLight(blockX, blockY, blockZ);
+        }
+        if (sampleSunlight > 0) {
+            sunlightSum += sampleSunlight;
+            sunlightCount++;
+        }
+        if (sampleLight > 0) {
+            lightSum += sampleLight;
+            lightCount++;
+        }
+    }
+
+    /**
+     * @return the index of the block within the cube, fetching its data if necessary, or -1 if it is outside the cube
+     */
+    private int fetch(int blockX, int blockY, int blockZ) {
+        int x = blockX + MARGIN;
+        int y = blockY - minY;
+        int z = blockZ + MARGIN;
+        if (x < 0 || x >= SIZE_X || y < 0 || y >= sizeY || z < 0 || z >= SIZE_Z) {
+            return -1;
+        }
+        int index = x + SIZE_X * (z + SIZE_Z * y);
+        if (shadows[index] == UNKNOWN) {
+            shadows[index] = shadowOf(chunkView.getBlock(blockX, blockY, blockZ));
+            sunlight[index] = chunkView.getSunlight(blockX, blockY, blockZ);
+            light[index] = chunkView.getLight(blockX, blockY, blockZ);
+        }
+        return index;
+    }
+
+    private static byte shadowOf(Block block) {
+        if (!block.isShadowCasting()) {
+            return NO_SHADOW;
+        }
+        return block.isTranslucent() ? TRANSLUCENT_SHADOW : OPAQUE_SHADOW;
+    }
+}
@@ -16,12 +16,8 @@
 package org.terasology.rendering.primitives;
 
 import com.google.common.base.Stopwatch;
-import gnu.trove.iterator.TIntIterator;
 import org.lwjgl.BufferUtils;
 import org.terasology.engine.subsystem.lwjgl.GLBufferPool;
-import org.terasology.math.Direction;
-import org.terasology.math.TeraMath;
-import org.terasology.math.geom.Vector3f;
 import org.terasology.monitoring.PerformanceMonitor;
 import org.terasology.rendering.RenderMath;
 import org.terasology.world.ChunkView;
@@ -37,10 +33,20 @@
  */
 public final class ChunkTessellator {
 
+    /**
+     * Number of ints per vertex: position (3), tex data 0 (4), lighting (3), packed color (1), normal (3).
+     */
+    private static final int VERTEX_SIZE = 14;
+
     private static int statVertexArrayUpdateCount;
 
     private GLBufferPool bufferPool;
 
+    /**
+     * Meshes get generated by multiple threads, each one reuses its own buffers for all meshes.
+     */
+    private final ThreadLocal<BuildBuffers> buildBuffers = ThreadLocal.withInitial(BuildBuffers::new);
+
     public ChunkTessellator(GLBufferPool bufferPool) {
         this.bufferPool = bufferPool;
     }
@@ -66,7 +72,7 @@ public ChunkMesh generateMesh(ChunkView chunkView, Region worldData, int meshHei
         mesh.setTimeToGenerateBlockVertices((int) watch.elapsed(TimeUnit.MILLISECONDS));
 
         watch.reset().start();
-        generateOptimizedBuffers(chunkView, mesh);
+        generateOptimizedBuffers(chunkView, mesh, verticalOffset, meshHeight);
         watch.stop();
         mesh.setTimeToGenerateOptimizedBuffers((int) watch.elapsed(TimeUnit.MILLISECONDS));
         statVertexArrayUpdateCount++;
@@ -75,176 +81,91 @@ public ChunkMesh generateMesh(ChunkView chunkView, Region worldData, int meshHei
         return mesh;
     }
 
-    private void generateOptimizedBuffers(ChunkView chunkView, ChunkMesh mesh) {
+    private void generateOptimizedBuffers(ChunkView chunkView, ChunkMesh mesh, int verticalOffset, int meshHeight) {
         PerformanceMonitor.startActivity("OptimizeBuffers");
+        BuildBuffers buffers = buildBuffers.get();
+        buffers.lighting.reset(chunkView, verticalOffset, meshHeight);
 
         for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
             ChunkMesh.VertexElements elements = mesh.getVertexElements(type);
-            // Vertices double to account for light info
-            elements.finalVertices = BufferUtils.createIntBuffer(
-                    elements.vertices.size() + /* POSITION */
-                    elements.tex.size() + /* TEX0.xy (texture coords) */
-                    elements.flags.size() + /* TEX0.z (flags) */
-                    elements.frames.size() + /* TEX0.w (animation frame counts) */
-                    elements.vertexCount * 3 + /* TEX1 (lighting data) */
-                    elements.color.size() + /* COLOR */
-                    elements.normals.size() /* NORMALS */
-            );
+            int[] vertexData = buffers.ensureCapacity(elements.vertexCount * VERTEX_SIZE);
+            int pos = 0;
 
             for (int i = 0; i < elements.vertexCount; i++) {
-                Vector3f vertexPos = new Vector3f(
-                        elements.vertices.get(i * 3),
-                        elements.vertices.get(i * 3 + 1),
-                        elements.vertices.get(i * 3 + 2));
+                float x = elements.vertices.get(i * 3);
+                float y = elements.vertices.get(i * 3 + 1);
+                float z = elements.vertices.get(i * 3 + 2);
+                float normalX = elements.normals.get(i * 3);
+                float normalY = elements.normals.get(i * 3 + 1);
+                float normalZ = elements.normals.get(i * 3 + 2);
 
                 /* POSITION */
-                elements.finalVertices.put(Float.floatToIntBits(vertexPos.x));
-                elements.finalVertices.put(Float.floatToIntBits(vertexPos.y));
-                elements.finalVertices.put(Float.floatToIntBits(vertexPos.z));
+                vertexData[pos++] = Float.floatToIntBits(x);
+                vertexData[pos++] = Float.floatToIntBits(y);
+                vertexData[pos++] = Float.floatToIntBits(z);
 
                 /* UV0 - TEX DATA 0.xy */
-                elements.finalVertices.put(Float.floatToIntBits(elements.tex.get(i * 2)));
-                elements.finalVertices.put(Float.floatToIntBits(elements.tex.get(i * 2 + 1)));
+                vertexData[pos++] = Float.floatToIntBits(elements.tex.get(i * 2));
+                vertexData[pos++] = Float.floatToIntBits(elements.tex.get(i * 2 + 1));
 
                 /* FLAGS - TEX DATA 0.z */
-                elements.finalVertices.put(Float.floatToIntBits(elements.flags.get(i)));
-                
-                /* ANIMATION FRAME COUNT - TEX DATA 0.w*/
-                elements.finalVertices.put(Float.floatToIntBits(elements.frames.get(i)));
+                vertexData[pos++] = Float.floatToIntBits(elements.flags.get(i));
 
-                float[] result = new float[3];
-                Vector3f normal = new Vector3f(elements.normals.get(i * 3), elements.normals.get(i * 3 + 1), elements.normals.get(i * 3 + 2));
-                calcLightingValuesForVertexPos(chunkView, vertexPos, result, normal);
+                /* ANIMATION FRAME COUNT - TEX DATA 0.w*/
+                vertexData[pos++] = Float.floatToIntBits(elements.frames.get(i));
 
                 /* LIGHTING DATA / TEX DATA 1 */
-                elements.finalVertices.put(Float.floatToIntBits(result[0]));
-                elements.finalVertices.put(Float.floatToIntBits(result[1]));
-                elements.finalVertices.put(Float.floatToIntBits(result[2]));
+                buffers.lighting.calcLighting(x, y, z, normalX, normalY, normalZ, buffers.vertexLight);
+                vertexData[pos++] = Float.floatToIntBits(buffers.vertexLight[0]);
+                vertexData[pos++] = Float.floatToIntBits(buffers.vertexLight[1]);
+                vertexData[pos++] = Float.floatToIntBits(buffers.vertexLight[2]);
 
                 /* PACKED COLOR */
-                final int packedColor = RenderMath.packColor(
+                vertexData[pos++] = RenderMath.packColor(
                         elements.color.get(i * 4),
                         elements.color.get(i * 4 + 1),
                         elements.color.get(i * 4 + 2),
                         elements.color.get(i * 4 + 3));
-                elements.finalVertices.put(packedColor);
 
                 /* NORMALS */
-                elements.finalVertices.put(Float.floatToIntBits(normal.x));
-                elements.finalVertices.put(Float.floatToIntBits(normal.y));
-                elements.finalVertices.put(Float.floatToIntBits(normal.z));
-            }
-
-            elements.finalIndices = BufferUtils.createIntBuffer(elements.indices.size());
-            TIntIterator indexIterator = elements.indices.iterator();
-            while (indexIterator.hasNext()) {
-                elements.finalIndices.put(indexIterator.next());
+                vertexData[pos++] = Float.floatToIntBits(normalX);
+                vertexData[pos++] = Float.floatToIntBits(normalY);
+                vertexData[pos++] = Float.floatToIntBits(normalZ);
             }
 
+            elements.finalVertices = BufferUtils.createIntBuffer(pos);
+            elements.finalVertices.put(vertexData, 0, pos);
             elements.finalVertices.flip();
-            elements.finalIndices.flip();
-        }
-        PerformanceMonitor.endActivity();
-    }
-
-    private void calcLightingValuesForVertexPos(ChunkView chunkView, Vector3f vertexPos, float[] output, Vector3f normal) {
-        PerformanceMonitor.startActivity("calcLighting");
-        float[] lights = new float[8];
-        float[] blockLights = new float[8];
-        Block[] blocks = new Block[4];
-
-        PerformanceMonitor.startActivity("gatherLightInfo");
-        Direction dir = Direction.inDirection(normal);
-        switch (dir) {
-            case LEFT:
-            case RIGHT:
-                blocks[0] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y + 0.1f), (vertexPos.z + 0.1f));
-                blocks[1] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y + 0.1f), (vertexPos.z - 0.1f));
-                blocks[2] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-                blocks[3] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-                break;
-            case FORWARD:
-            case BACKWARD:
-                blocks[0] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y + 0.1f), (vertexPos.z + 0.8f * normal.z));
-                blocks[1] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.8f * normal.z));
-                blocks[2] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.8f * normal.z));
-                blocks[3] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y + 0.1f), (vertexPos.z + 0.8f * normal.z));
-                break;
-            default:
-                blocks[0] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z + 0.1f));
-                blocks[1] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z - 0.1f));
-                blocks[2] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z - 0.1f));
-                blocks[3] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z + 0.1f));
-        }
-
-        lights[0] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-        lights[1] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        lights[2] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        lights[3] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-
-        lights[4] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-        lights[5] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        lights[6] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        lights[7] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-
-        blockLights[0] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-        blockLights[1] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        blockLights[2] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        blockLights[3] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-
-        blockLights[4] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-        blockLights[5] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        blockLights[6] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        blockLights[7] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-        PerformanceMonitor.endActivity();
-
-        float resultLight = 0;
-        float resultBlockLight = 0;
-        int counterLight = 0;
-        int counterBlockLight = 0;
-
-        int occCounter = 0;
-        int occCounterBillboard = 0;
-        for (int i = 0; i < 8; i++) {
-            if (lights[i] > 0) {
-                resultLight += lights[i];
-                counterLight++;
-            }
-            if (blockLights[i] > 0) {
-                resultBlockLight += blockLights[i];
-                counterBlockLight++;
-            }
-
-            if (i < 4) {
-                Block b = blocks[i];
-
-                if (b.isShadowCasting() && !b.isTranslucent()) {
-                    occCounter++;
-                } else if (b.isShadowCasting()) {
-                    occCounterBillboard++;
-                }
-            }
-        }
-
-        double resultAmbientOcclusion = (TeraMath.pow(0.40, occCounter) + TeraMath.pow(0.80, occCounterBillboard)) / 2.0;
 
-        if (counterLight == 0) {
-            output[0] = 0;
-        } else {
-            output[0] = resultLight / counterLight / 15f;
-        }
-
-        if (counterBlockLight == 0) {
-            output[1] = 0;
-        } else {
-            output[1] = resultBlockLight / counterBlockLight / 15f;
+            int indexCount = elements.indices.size();
+            int[] indexData = buffers.ensureCapacity(indexCount);
+            elements.indices.toArray(indexData, 0, indexCount);
+            elements.finalIndices = BufferUtils.createIntBuffer(indexCount);
+            elements.finalIndices.put(indexData, 0, indexCount);
+            elements.finalIndices.flip();
         }
 
-        output[2] = (float) resultAmbientOcclusion;
+        buffers.lighting.release();
         PerformanceMonitor.endActivity();
     }
 
     public static int getVertexArrayUpdateCount() {
         return statVertexArrayUpdateCount;
     }
+
+    private static final class BuildBuffers {
+        private final ChunkLightingCache lighting = new ChunkLightingCache();
+        private final float[] vertexLight = new float[3];
+        private int[] data = new int[0];
+
+        /**
+         * @return a scratch array that holds at least the given number of ints, its previous content is lost
+         */
+        private int[] ensureCapacity(int size) {
+            if (data.length < size) {
+                data = new int[Math.max(size, data.length * 3 / 2)];
+            }
+            return data;
+        }
+    }
 }
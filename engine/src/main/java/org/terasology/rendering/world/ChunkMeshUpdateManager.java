@@ -20,6 +20,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.monitoring.chunk.ChunkMonitor;
@@ -37,17 +38,23 @@
 import org.terasology.world.generator.WorldGenerator;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
 
 /**
  * Provides the mechanism for updating and generating chunk meshes.
- *
+ * <br><br>
+ * Mesh updates of chunks that left the renderable region get cancelled, see {@link #cancelOutside(Region3i)}. The
+ * time spent on meshes is reported to the {@link ChunkMonitor} as useful or wasted work, depending on whether the
+ * mesh got used, see {@link #recordMeshUsage(RenderableChunk, boolean)}.
  */
 public final class ChunkMeshUpdateManager {
+    public static final String WORK_KIND = "Chunk Mesh";
+
     private static final int NUM_TASK_THREADS = 8;
 
     private static final Logger logger = LoggerFactory.getLogger(ChunkMeshUpdateManager.class);
@@ -57,6 +64,11 @@ public final class ChunkMeshUpdateManager {
 
     private final BlockingDeque<RenderableChunk> chunksComplete = Queues.newLinkedBlockingDeque();
 
+    /**
+     * The time it took to build the pending meshes that were not used or thrown away yet.
+     */
+    private final Map<RenderableChunk, Long> pendingMeshNanos = new ConcurrentHashMap<>();
+
     private TaskMaster<ChunkTask> chunkUpdater;
 
     private final ChunkTessellator tessellator;
@@ -68,12 +80,17 @@ public final class ChunkMeshUpdateManager {
     private volatile float cameraChunkPosX;
     private volatile float cameraChunkPosY;
     private volatile float cameraChunkPosZ;
+    /**
+     * Mesh updates of chunks outside of this region get skipped. Null until the first call to
+     * {@link #cancelOutside(Region3i)}.
+     */
+    private volatile Region3i renderableRegion;
 
     public ChunkMeshUpdateManager(ChunkTessellator tessellator, WorldProvider worldProvider) {
         this.tessellator = tessellator;
         this.worldProvider = worldProvider;
 
-        chunkUpdater = TaskMaster.createDynamicPriorityTaskMaster("Chunk-Updater", NUM_TASK_THREADS, new ChunkUpdaterComparator());
+        chunkUpdater = TaskMaster.createDynamicPriorityTaskMaster("Chunk-Updater", NUM_TASK_THREADS, new ChunkUpdatePriority());
     }
 
     /**
@@ -97,13 +114,51 @@ public boolean queueChunkUpdate(RenderableChunk chunk) {
     /**
      * The method tells the chunk mesh update manager where the camera is, so that is able to prioritize chunks near the
      * camera. It stores the values in volatile variables so that the change is visible to the chunk updating threads
-     * immediately.
+     * immediately, and reprioritizes the queued updates when the camera moved to another chunk.
      */
     public void setCameraPosition(Vector3f cameraPosition) {
         Vector3i chunkPos = ChunkMath.calcChunkPos(cameraPosition);
+        if (chunkPos.x == cameraChunkPosX && chunkPos.y == cameraChunkPosY && chunkPos.z == cameraChunkPosZ) {
+            return;
+        }
         cameraChunkPosX = chunkPos.x;
         cameraChunkPosY = chunkPos.y;
         cameraChunkPosZ = chunkPos.z;
+        chunkUpdater.reprioritize();
+    }
+
+    /**
+     * Drops the queued mesh updates of chunks outside the given region, and makes updates that are about to start skip
+     * those chunks. Must be called whenever the renderable region changes, e.g. because the camera moved or the view
+     * distance changed.
+     */
+    public void cancelOutside(Region3i region) {
+        renderableRegion = region;
+        chunkUpdater.removeIf(task -> {
+            if (task.isTerminateSignal() || region.encompasses(task.getPosition())) {
+                return false;
+            }
+            chunksProcessing.remove(((ChunkUpdateTask) task).c);
+            ChunkMonitor.fireChunkWorkCancelled(WORK_KIND);
+            return true;
+        });
+    }
+
+    /**
+     * Reports the work that went into the pending mesh of a chunk returned by {@link #availableChunksForUpdate()}.
+     *
+     * @param used whether the mesh got used or thrown away
+     */
+    public void recordMeshUsage(RenderableChunk chunk, boolean used) {
+        Long nanos = pendingMeshNanos.remove(chunk);
+        if (nanos == null) {
+            return;
+        }
+        if (used) {
+            ChunkMonitor.fireChunkWorkUseful(WORK_KIND, nanos);
+        } else {
+            ChunkMonitor.fireChunkWorkWasted(WORK_KIND, nanos);
+        }
     }
 
     public List<RenderableChunk> availableChunksForUpdate() {
@@ -166,6 +221,21 @@ public boolean isTerminateSignal() {
 
         @Override
         public void run() {
+            Region3i region = chunkMeshUpdateManager.renderableRegion;
+            if (region != null && !region.encompasses(c.getPosition())) {
+                ChunkMonitor.fireChunkWorkCancelled(WORK_KIND);
+            } else {
+                updateMesh();
+            }
+            chunkMeshUpdateManager.finishedProcessing(c);
+            // Clean these up because the task executor holds the object in memory.
+            c = null;
+            tessellator = null;
+            worldProvider = null;
+        }
+
+        private void updateMesh() {
+            long startTime = System.nanoTime();
             ChunkMesh newMesh;
             ChunkView chunkView = worldProvider.getLocalView(c.getPosition());
             if (chunkView != null) {
@@ -178,25 +248,17 @@ public void run() {
                     newMesh = tessellator.generateMesh(chunkView, world.getWorldData(chunkView.getWorldRegion()), ChunkConstants.SIZE_Y, 0);
 
                     c.setPendingMesh(newMesh);
+                    chunkMeshUpdateManager.pendingMeshNanos.put(c, System.nanoTime() - startTime);
                     ChunkMonitor.fireChunkTessellated(c.getPosition(), newMesh);
                 }
 
             }
-            chunkMeshUpdateManager.finishedProcessing(c);
-            // Clean these up because the task executor holds the object in memory.
-            c = null;
-            tessellator = null;
-            worldProvider = null;
         }
     }
 
-    private class ChunkUpdaterComparator implements Comparator<ChunkTask> {
+    private class ChunkUpdatePriority implements ToIntFunction<ChunkTask> {
         @Override
-        public int compare(ChunkTask o1, ChunkTask o2) {
-            return score(o1) - score(o2);
-        }
-
-        private int score(ChunkTask task) {
+        public int applyAsInt(ChunkTask task) {
             if (task.isTerminateSignal()) {
                 return -1;
             }
@@ -234,6 +234,7 @@ public boolean updateChunksInProximity(Region3i newRenderableRegion) {
                 Collections.sort(chunksInProximityOfCamera, new ChunkFrontToBackComparator());
             }
             renderableRegion = newRenderableRegion;
+            chunkMeshUpdateManager.cancelOutside(renderableRegion);
             return true;
         }
 
@@ -285,12 +286,14 @@ public void generateVBOs() {
                 }
                 chunk.setMesh(pendingMesh);
                 chunk.setPendingMesh(null);
+                chunkMeshUpdateManager.recordMeshUsage(chunk, true);
 
             } else {
                 if (chunk.hasPendingMesh()) {
                     chunk.getPendingMesh().dispose();
                     chunk.setPendingMesh(null);
                 }
+                chunkMeshUpdateManager.recordMeshUsage(chunk, false);
             }
         }
         PerformanceMonitor.endActivity();
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.utilities.collection;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hierarchical timing wheel that schedules items at points in time with a resolution of one time unit
+ * (e.g. milliseconds), with O(1) scheduling and cancellation.
+ * <br><br>
+ * The wheel has {@link #LEVELS} levels of {@link #SLOTS} slots. Level 0 holds the items of the next {@link #SLOTS}
+ * time units, one slot per unit. Each further level covers {@link #SLOTS} times the range of the previous one with
+ * the same number of slots, so the items of a slot of a higher level get distributed to the lower levels once the
+ * wheel reaches that slot. Items beyond the range of the highest level are kept in an overflow list until the highest
+ * level wraps around.
+ * <br><br>
+ * The wheel starts at the time of the first call to {@link #advanceTo(long, Collection)}. Each item is scheduled at
+ * most once, scheduling it again moves it to the new time. This class is not thread safe.
+ *
+ * @param <T> the type of the scheduled items, which must be usable as hash map keys
+ */
+public final class TimingWheel<T> {
+    public static final int SLOTS = 64;
+    public static final int LEVELS = 5;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int DUE_BUCKET = LEVELS * SLOTS;
+    private static final int OVERFLOW_BUCKET = DUE_BUCKET + 1;
+
+    private final Map<T, Node<T>> nodes = Maps.newHashMap();
+    /**
+     * Doubly linked lists of nodes: the slots of all levels, followed by the due and the overflow bucket.
+     */
+    @SuppressWarnings("unchecked")
+    private final Node<T>[] buckets = new Node[OVERFLOW_BUCKET + 1];
+    private final int[] levelSizes = new int[LEVELS];
+
+    private boolean started;
+    /**
+     * The last time the wheel got advanced to. All items due until then are in the due bucket.
+     */
+    private long currentTime;
+
+    /**
+     * Schedules the item at the given time, replacing any previous schedule of it. Items that are already due get
+     * returned by the next {@link #advanceTo(long, Collection)}.
+     */
+    public void schedule(T item, long time) {
+        Node<T> node = nodes.get(item);
+        if (node == null) {
+            node = new Node<>(item);
+            nodes.put(item, node);
+        } else {
+            unlink(node);
+        }
+        node.time = time;
+        insert(node, currentTime);
+    }
+
+    /**
+     * @return true if the item was scheduled
+     */
+    public boolean cancel(T item) {
+        Node<T> node = nodes.remove(item);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    public boolean contains(T item) {
+        return nodes.containsKey(item);
+    }
+
+    /**
+     * @return the time the item is scheduled at, or Long.MAX_VALUE if it isn't scheduled
+     */
+    public long getScheduledTime(T item) {
+        Node<T> node = nodes.get(item);
+        return node != null ? node.time : Long.MAX_VALUE;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public void clear() {
+        nodes.clear();
+        Arrays.fill(buckets, null);
+        Arrays.fill(levelSizes, 0);
+    }
+
+    /**
+     * Advances the wheel to the given time and removes all items scheduled up to then.
+     *
+     * @param time    the new time of the wheel, earlier times than the current one are ignored
+     * @param expired receives the removed items, in the order of their scheduled time
+     */
+    public void advanceTo(long time, Collection<? super T> expired) {
+        if (!started) {
+            start(time);
+        }
+        expireDue(expired);
+        while (currentTime < time) {
+            int emptyLevels = 0;
+            while (emptyLevels < LEVELS && levelSizes[emptyLevels] == 0) {
+                emptyLevels++;
+            }
+            if (emptyLevels > 0) {
+                // Nothing happens before the next slot of the lowest occupied level (or the overflow) is reached
+                if (emptyLevels == LEVELS && buckets[OVERFLOW_BUCKET] == null) {
+                    currentTime = time;
+                    break;
+                }
+                long nextBoundary = ((currentTime >> (SLOT_BITS * emptyLevels)) + 1) << (SLOT_BITS * emptyLevels);
+                if (nextBoundary > time) {
+                    currentTime = time;
+                    break;
+                }
+                currentTime = nextBoundary - 1;
+            }
+            currentTime++;
+            cascade();
+            expireSlot(0, (int) (currentTime & SLOT_MASK), expired);
+        }
+    }
+
+    private void start(long time) {
+        started = true;
+        currentTime = time;
+        // Items scheduled before the start wait in the due bucket
+        Node<T> node = buckets[DUE_BUCKET];
+        buckets[DUE_BUCKET] = null;
+        while (node != null) {
+            Node<T> next = node.next;
+            node.prev = null;
+            node.next = null;
+            insert(node, currentTime);
+            node = next;
+        }
+    }
+
+    /**
+     * Redistributes the slots of the higher levels that begin at the current time, highest level first.
+     */
+    private void cascade() {
+        if ((currentTime & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            redistribute(OVERFLOW_BUCKET);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTime & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                int slot = (int) ((currentTime >> (SLOT_BITS * level)) & SLOT_MASK);
+                redistribute(level * SLOTS + slot);
+            }
+        }
+    }
+
+    private void redistribute(int bucket) {
+        Node<T> node = buckets[bucket];
+        if (node == null) {
+            return;
+        }
+        buckets[bucket] = null;
+        while (node != null) {
+            Node<T> next = node.next;
+            node.prev = null;
+            node.next = null;
+            if (node.level >= 0) {
+                levelSizes[node.level]--;
+            }
+            // Items of the current time belong into the level 0 slot that is about to expire
+            insert(node, currentTime - 1);
+            node = next;
+        }
+    }
+
+    private void expireDue(Collection<? super T> expired) {
+        Node<T> node = buckets[DUE_BUCKET];
+        if (node == null) {
+            return;
+        }
+        // The due bucket is unordered, items scheduled in the past should still come out by time
+        List<Node<T>> dueNodes = Lists.newArrayList();
+        for (; node != null; node = node.next) {
+            dueNodes.add(node);
+        }
+        dueNodes.sort(Comparator.comparingLong(dueNode -> dueNode.time));
+        buckets[DUE_BUCKET] = null;
+        for (Node<T> dueNode : dueNodes) {
+            dueNode.prev = null;
+            dueNode.next = null;
+            nodes.remove(dueNode.item);
+            expired.add(dueNode.item);
+        }
+    }
+
+    private void expireSlot(int level, int slot, Collection<? super T> expired) {
+        int bucket = level * SLOTS + slot;
+        Node<T> node = buckets[bucket];
+        buckets[bucket] = null;
+        while (node != null) {
+            Node<T> next = node.next;
+            node.prev = null;
+            node.next = null;
+            levelSizes[level]--;
+            nodes.remove(node.item);
+            expired.add(node.item);
+            node = next;
+        }
+    }
+
+    /**
+     * Puts the node into the bucket for its time. A node goes to the lowest level whose current rotation contains
+     * its time, so that it only needs to be redistributed when the wheel reaches the slot.
+     *
+     * @param dueUntil nodes scheduled up to this time go to the due bucket
+     */
+    private void insert(Node<T> node, long dueUntil) {
+        if (!started || node.time <= dueUntil) {
+            link(node, DUE_BUCKET, -1);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int rotationBits = SLOT_BITS * (level + 1);
+            if ((node.time >> rotationBits) == (currentTime >> rotationBits)) {
+                int slot = (int) ((node.time >> (SLOT_BITS * level)) & SLOT_MASK);
+                link(node, level * SLOTS + slot, level);
+                levelSizes[level]++;
+                return;
+            }
+        }
+        link(node, OVERFLOW_BUCKET, -1);
+    }
+
+    private void link(Node<T> node, int bucket, int level) {
+        node.bucket = bucket;
+        node.level = level;
+        Node<T> head = buckets[bucket];
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        buckets[bucket] = node;
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.bucket] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        if (node.level >= 0) {
+            levelSizes[node.level]--;
+        }
+    }
+
+    private static final class Node<T> {
+        private final T item;
+        private long time;
+        private int bucket;
+        /**
+         * The wheel level of the bucket, -1 for the due and overflow buckets.
+         */
+        private int level;
+        private Node<T> prev;
+        private Node<T> next;
+
+        private Node(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -15,22 +15,46 @@
  */
 package org.terasology.utilities.concurrency;
 
-import com.google.common.collect.Lists;
-
 import java.util.AbstractQueue;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
+/**
+ * A blocking queue, optionally bounded, whose elements are taken in the order of a priority that can change over time, lowest
+ * priority first. Elements with equal priority are taken in the order they were added.
+ * <br><br>
+ * The priority of an element is computed by the priority function when the element gets added and is cached after
+ * that, so the elements are kept in a binary heap and taking one costs O(log n). When the state the priority function
+ * depends on changes (e.g. the player moved to another chunk), {@link #reprioritize()} must be called to recompute
+ * the priorities of all queued elements in one O(n) pass.
+ * <br><br>
+ * If the queue got created with a maximum size, {@link #put(Object)} blocks while the queue is full and
+ * {@link #offer(Object)} fails, which lets a slow consumer hold back its producers.
+ *
+ * @param <T> the type of the queued elements
+ */
 public class DynamicPriorityBlockingQueue<T> extends AbstractQueue<T> implements BlockingQueue<T> {
-    private Comparator<T> comparator;
-    private List<T> elements = Lists.newLinkedList();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ToIntFunction<? super T> priorityFunction;
+    private final int maxSize;
+
+    /**
+     * The heap, stored as parallel arrays. The children of index i are at 2i + 1 and 2i + 2.
+     */
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private int[] priorities = new int[INITIAL_CAPACITY];
+    private long[] sequenceNumbers = new long[INITIAL_CAPACITY];
+    private int size;
+    private long nextSequenceNumber;
 
     /**
      * Lock used for all public operations
@@ -42,11 +66,36 @@
      */
     private final Condition notEmpty;
 
-    public DynamicPriorityBlockingQueue(Comparator<T> comparator) {
-        this.comparator = comparator;
+    /**
+     * Condition for blocking when full
+     */
+    private final Condition notFull;
+
+    /**
+     * Creates an unbounded queue.
+     *
+     * @param priorityFunction computes the priority of an element, elements with a lower priority are taken first.
+     *                         Gets called while the lock of the queue is held, so it should be cheap and must not
+     *                         access the queue.
+     */
+    public DynamicPriorityBlockingQueue(ToIntFunction<? super T> priorityFunction) {
+        this(priorityFunction, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param priorityFunction see {@link #DynamicPriorityBlockingQueue(ToIntFunction)}
+     * @param maxSize          the maximum number of queued elements
+     */
+    public DynamicPriorityBlockingQueue(ToIntFunction<? super T> priorityFunction, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than zero");
+        }
+        this.priorityFunction = priorityFunction;
+        this.maxSize = maxSize;
 
         lock = new ReentrantLock();
         notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
     }
 
     @Override
@@ -56,20 +105,46 @@ public boolean add(T t) {
 
     @Override
     public void put(T t) throws InterruptedException {
-        offer(t);
+        Objects.requireNonNull(t);
+        lock.lockInterruptibly();
+        try {
+            while (size >= maxSize) {
+                notFull.await();
+            }
+            enqueue(t);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public boolean offer(T t, long timeout, TimeUnit unit) throws InterruptedException {
-        return offer(t);
+        Objects.requireNonNull(t);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size >= maxSize) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(t);
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public boolean offer(T t) {
+        Objects.requireNonNull(t);
         lock.lock();
         try {
-            elements.add(t);
-            notEmpty.signal();
+            if (size >= maxSize) {
+                return false;
+            }
+            enqueue(t);
             return true;
         } finally {
             lock.unlock();
@@ -121,55 +196,109 @@ public T poll(long timeout, TimeUnit unit) throws InterruptedException {
     public T peek() {
         lock.lock();
         try {
-            return elements.size() == 0 ? null : elements.get(0);
+            return size == 0 ? null : elementAt(0);
         } finally {
             lock.unlock();
         }
     }
 
-    private T dequeue() {
-        if (elements.size() == 0) {
-            return null;
-        }
-        T smallest = elements.remove(0);
-        ListIterator<T> iterator = elements.listIterator();
-        while (iterator.hasNext()) {
-            T next = iterator.next();
-            if (comparator.compare(smallest, next) > 0) {
-                iterator.set(smallest);
-                smallest = next;
+    /**
+     * Recomputes the priorities of all queued elements and restores the heap order.
+     */
+    public void reprioritize() {
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                priorities[i] = priorityFunction.applyAsInt(elementAt(i));
             }
+            heapify();
+        } finally {
+            lock.unlock();
         }
-        return smallest;
     }
 
     @Override
-    public int remainingCapacity() {
-        return Integer.MAX_VALUE;
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        lock.lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                if (o.equals(elements[i])) {
+                    removeAt(i);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
     }
 
+    /**
+     * Removes all queued elements that match the filter in one O(n) pass.
+     */
     @Override
-    public int drainTo(Collection<? super T> c) {
+    public boolean removeIf(Predicate<? super T> filter) {
         lock.lock();
         try {
-            int count = 0;
-            while (!elements.isEmpty()) {
-                c.add(elements.remove(0));
-                count++;
+            int newSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (!filter.test(elementAt(i))) {
+                    move(i, newSize++);
+                }
             }
-            return count;
+            if (newSize == size) {
+                return false;
+            }
+            Arrays.fill(elements, newSize, size, null);
+            size = newSize;
+            heapify();
+            notFull.signalAll();
+            return true;
         } finally {
             lock.unlock();
         }
     }
 
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            Arrays.fill(elements, 0, size, null);
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        if (maxSize == Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        lock.lock();
+        try {
+            return maxSize - size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super T> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
     @Override
     public int drainTo(Collection<? super T> c, int maxElements) {
         lock.lock();
         try {
             int count = 0;
-            while (!elements.isEmpty() && count < maxElements) {
-                c.add(elements.remove(0));
+            while (size > 0 && count < maxElements) {
+                c.add(dequeue());
                 count++;
             }
             return count;
@@ -182,7 +311,7 @@ public int drainTo(Collection<? super T> c, int maxElements) {
     public int size() {
         lock.lock();
         try {
-            return elements.size();
+            return size;
         } finally {
             lock.unlock();
         }
@@ -192,4 +321,113 @@ public int size() {
     public Iterator<T> iterator() {
         throw new UnsupportedOperationException();
     }
+
+    private void enqueue(T t) {
+        if (size == elements.length) {
+            grow();
+        }
+        int index = size++;
+        elements[index] = t;
+        priorities[index] = priorityFunction.applyAsInt(t);
+        sequenceNumbers[index] = nextSequenceNumber++;
+        siftUp(index);
+        notEmpty.signal();
+    }
+
+    private T dequeue() {
+        if (size == 0) {
+            return null;
+        }
+        T result = elementAt(0);
+        removeAt(0);
+        return result;
+    }
+
+    private void removeAt(int index) {
+        int last = --size;
+        if (index != last) {
+            move(last, index);
+            if (siftDown(index) == index) {
+                siftUp(index);
+            }
+        }
+        elements[last] = null;
+        notFull.signal();
+    }
+
+    private void heapify() {
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private void siftUp(int index) {
+        int i = index;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBefore(i, parent)) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * @return the index the element ended up at
+     */
+    private int siftDown(int index) {
+        int i = index;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && isBefore(right, child)) {
+                child = right;
+            }
+            if (!isBefore(child, i)) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+        return i;
+    }
+
+    private boolean isBefore(int a, int b) {
+        if (priorities[a] != priorities[b]) {
+            return priorities[a] < priorities[b];
+        }
+        return sequenceNumbers[a] < sequenceNumbers[b];
+    }
+
+    private void swap(int a, int b) {
+        Object element = elements[a];
+        elements[a] = elements[b];
+        elements[b] = element;
+        int priority = priorities[a];
+        priorities[a] = priorities[b];
+        priorities[b] = priority;
+        long sequenceNumber = sequenceNumbers[a];
+        sequenceNumbers[a] = sequenceNumbers[b];
+        sequenceNumbers[b] = sequenceNumber;
+    }
+
+    private void move(int from, int to) {
+        elements[to] = elements[from];
+        priorities[to] = priorities[from];
+        sequenceNumbers[to] = sequenceNumbers[from];
+    }
+
+    private void grow() {
+        int newCapacity = elements.length * 2;
+        elements = Arrays.copyOf(elements, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        sequenceNumbers = Arrays.copyOf(sequenceNumbers, newCapacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int index) {
+        return (T) elements[index];
+    }
 }
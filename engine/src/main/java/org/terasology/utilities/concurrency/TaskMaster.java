@@ -29,6 +29,8 @@
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 /**
  * Manages execution of tasks on a queue.
@@ -95,8 +97,24 @@ public static <T extends Task> TaskMaster<T> createPriorityTaskMaster(String nam
         return new TaskMaster<>(name, threads, new PriorityBlockingQueue<>(queueSize, comparator));
     }
 
-    public static <T extends Task> TaskMaster<T> createDynamicPriorityTaskMaster(String name, int threads, Comparator<T> comparator) {
-        return new TaskMaster<>(name, threads, new DynamicPriorityBlockingQueue<>(comparator));
+    /**
+     * Creates a prioritized taskmaster whose task priorities can change over time. The task with the <em>lowest</em>
+     * priority is processed first. {@link #reprioritize()} must be called whenever the priorities of the queued tasks
+     * have changed.
+     *
+     * @see DynamicPriorityBlockingQueue
+     */
+    public static <T extends Task> TaskMaster<T> createDynamicPriorityTaskMaster(String name, int threads, ToIntFunction<? super T> priorityFunction) {
+        return new TaskMaster<>(name, threads, new DynamicPriorityBlockingQueue<>(priorityFunction));
+    }
+
+    /**
+     * Like {@link #createDynamicPriorityTaskMaster(String, int, ToIntFunction)}, but the queue holds at most
+     * maxQueueSize tasks: {@link #put(Task)} blocks and {@link #offer(Task)} fails while it is full.
+     */
+    public static <T extends Task> TaskMaster<T> createDynamicPriorityTaskMaster(String name, int threads, ToIntFunction<? super T> priorityFunction,
+                                                                                 int maxQueueSize) {
+        return new TaskMaster<>(name, threads, new DynamicPriorityBlockingQueue<>(priorityFunction, maxQueueSize));
     }
 
     /**
@@ -109,6 +127,15 @@ public boolean offer(T task) {
         return taskQueue.offer(task);
     }
 
+    /**
+     * Offers a task to this task master, waiting up to the given time if the queue is full.
+     *
+     * @return Whether the task was successfully added to the queue.
+     */
+    public boolean offer(T task, long timeout, TimeUnit unit) throws InterruptedException {
+        return taskQueue.offer(task, timeout, unit);
+    }
+
     /**
      * Adds a task to this task master. This blocks until the task can be added if the queue is full.
      *
@@ -118,6 +145,32 @@ public void put(T task) throws InterruptedException {
         taskQueue.put(task);
     }
 
+    /**
+     * Recomputes the priorities of the queued tasks. Only has an effect on task masters created with
+     * {@link #createDynamicPriorityTaskMaster(String, int, ToIntFunction)}.
+     */
+    public void reprioritize() {
+        if (taskQueue instanceof DynamicPriorityBlockingQueue) {
+            ((DynamicPriorityBlockingQueue<?>) taskQueue).reprioritize();
+        }
+    }
+
+    /**
+     * Removes all queued tasks that match the filter. Tasks that are already running are not affected.
+     *
+     * @return Whether any task got removed.
+     */
+    public boolean removeIf(Predicate<? super T> filter) {
+        return taskQueue.removeIf(filter);
+    }
+
+    /**
+     * @return the number of tasks waiting in the queue
+     */
+    public int getQueueSize() {
+        return taskQueue.size();
+    }
+
     public void shutdown(T shutdownTask, boolean awaitComplete) {
         if (!shutdownTask.isTerminateSignal()) {
             throw new IllegalArgumentException("Expected task to provide terminate signal");
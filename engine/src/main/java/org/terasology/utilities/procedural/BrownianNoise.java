@@ -16,6 +16,8 @@
 
 package org.terasology.utilities.procedural;
 
+import java.util.Arrays;
+
 /**
  * Computes Brownian noise based on some noise generator.
  * Originally, Brown integrates white noise, but using other noises can be sometimes useful, too.
@@ -107,6 +109,65 @@ public float noise(float x, float y, float z) {
         return result * scale;
     }
 
+    /**
+     * Computes the same values as {@link #noise(float, float)}, one octave at a time: the base noise fills a whole
+     * octave at once and the coordinates get scaled per axis instead of per sample.
+     */
+    @Override
+    public void noise(float[] xs, float[] ys, float[] output) {
+        final int size = xs.length * ys.length;
+        final float[] workingXs = xs.clone();
+        final float[] workingYs = ys.clone();
+        final float[] octave = new float[size];
+        final float lacunarityF = (float) getLacunarity();
+        Arrays.fill(output, 0, size, 0.0f);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(workingXs, workingYs, octave);
+            addOctave(output, octave, spectralWeights[i], size);
+            scaleCoordinates(workingXs, lacunarityF);
+            scaleCoordinates(workingYs, lacunarityF);
+        }
+        for (int i = 0; i < size; i++) {
+            output[i] *= scale;
+        }
+    }
+
+    /**
+     * Computes the same values as {@link #noise(float, float, float)}, one octave at a time.
+     */
+    @Override
+    public void noise(float[] xs, float[] ys, float[] zs, float[] output) {
+        final int size = xs.length * ys.length * zs.length;
+        final float[] workingXs = xs.clone();
+        final float[] workingYs = ys.clone();
+        final float[] workingZs = zs.clone();
+        final float[] octave = new float[size];
+        final float lacunarityF = (float) getLacunarity();
+        Arrays.fill(output, 0, size, 0.0f);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noise(workingXs, workingYs, workingZs, octave);
+            addOctave(output, octave, spectralWeights[i], size);
+            scaleCoordinates(workingXs, lacunarityF);
+            scaleCoordinates(workingYs, lacunarityF);
+            scaleCoordinates(workingZs, lacunarityF);
+        }
+        for (int i = 0; i < size; i++) {
+            output[i] *= scale;
+        }
+    }
+
+    private static void addOctave(float[] result, float[] octave, float weight, int size) {
+        for (int i = 0; i < size; i++) {
+            result[i] += octave[i] * weight;
+        }
+    }
+
+    private static void scaleCoordinates(float[] coordinates, float factor) {
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] *= factor;
+        }
+    }
+
     private static float computeScale(float[] spectralWeights) {
         float sum = 0;
         for (float weight : spectralWeights) {
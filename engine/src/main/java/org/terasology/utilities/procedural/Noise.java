@@ -59,4 +59,85 @@ public interface Noise {
      * @return The noise value in the range [-1..1]
      */
     float noise(float x, float y, float z);
+
+    /**
+     * Fills the output with the noise values at all combinations of the given coordinates, the x coordinate varying
+     * fastest: the value at {@code (xs[i], ys[j])} is stored at {@code output[i + xs.length * j]}.
+     * <br><br>
+     * The values are the same as those returned by {@link #noise(float, float)} for the same positions. Implementations
+     * override this to hoist work that only depends on one of the coordinates out of the inner loop.
+     *
+     * @param xs     the positions on the x-axis
+     * @param ys     the positions on the y-axis
+     * @param output the array to fill, at least {@code xs.length * ys.length} long
+     */
+    default void noise(float[] xs, float[] ys, float[] output) {
+        int index = 0;
+        for (float y : ys) {
+            for (float x : xs) {
+                output[index++] = noise(x, y);
+            }
+        }
+    }
+
+    /**
+     * Fills the output with the noise values at all combinations of the given coordinates, the x coordinate varying
+     * fastest and the z coordinate slowest: the value at {@code (xs[i], ys[j], zs[k])} is stored at
+     * {@code output[i + xs.length * (j + ys.length * k)]}.
+     * <br><br>
+     * The values are the same as those returned by {@link #noise(float, float, float)} for the same positions.
+     *
+     * @param xs     the positions on the x-axis
+     * @param ys     the positions on the y-axis
+     * @param zs     the positions on the z-axis
+     * @param output the array to fill, at least {@code xs.length * ys.length * zs.length} long
+     */
+    default void noise(float[] xs, float[] ys, float[] zs, float[] output) {
+        int index = 0;
+        for (float z : zs) {
+            for (float y : ys) {
+                for (float x : xs) {
+                    output[index++] = noise(x, y, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the output with the noise values on a regular 2D grid, see {@link #noise(float[], float[], float[])}.
+     *
+     * @param output  the array to fill, at least {@code sizeX * sizeY} long
+     * @param originX the position of the first sample on the x-axis
+     * @param originY the position of the first sample on the y-axis
+     * @param stepX   the distance between two samples on the x-axis
+     * @param stepY   the distance between two samples on the y-axis
+     * @param sizeX   the number of samples on the x-axis
+     * @param sizeY   the number of samples on the y-axis
+     */
+    default void noise(float[] output, float originX, float originY, float stepX, float stepY, int sizeX, int sizeY) {
+        noise(gridCoordinates(originX, stepX, sizeX), gridCoordinates(originY, stepY, sizeY), output);
+    }
+
+    /**
+     * Fills the output with the noise values on a regular 3D grid, see
+     * {@link #noise(float[], float[], float[], float[])}.
+     *
+     * @param output the array to fill, at least {@code sizeX * sizeY * sizeZ} long
+     */
+    default void noise(float[] output, float originX, float originY, float originZ, float stepX, float stepY, float stepZ,
+                       int sizeX, int sizeY, int sizeZ) {
+        noise(gridCoordinates(originX, stepX, sizeX), gridCoordinates(originY, stepY, sizeY),
+                gridCoordinates(originZ, stepZ, sizeZ), output);
+    }
+
+    /**
+     * @return the positions {@code origin + i * step} of {@code size} samples along one axis
+     */
+    static float[] gridCoordinates(float origin, float step, int size) {
+        float[] result = new float[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = origin + i * step;
+        }
+        return result;
+    }
 }
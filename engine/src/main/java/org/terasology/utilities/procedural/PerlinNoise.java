@@ -26,6 +26,8 @@
 @Deprecated
 public class PerlinNoise extends AbstractNoise implements Noise2D, Noise3D {
 
+    private static final float[] PLANE_Z = {0};
+
     private final int[] noisePermutations;
 
     /**
@@ -108,6 +110,69 @@ public float noise(float posX, float posY, float posZ) {
         return TeraMath.lerp(val1, val2, w);
     }
 
+    /**
+     * Computes the same values as {@link #noise(float, float)}, which samples the plane at z = 0.
+     */
+    @Override
+    public void noise(float[] xs, float[] ys, float[] output) {
+        noise(xs, ys, PLANE_Z, output);
+    }
+
+    /**
+     * Computes exactly the same values as {@link #noise(float, float, float)}. The lattice cell, the fractional part
+     * and the fade curve of each coordinate only get computed once per axis instead of once per sample.
+     */
+    @Override
+    public void noise(float[] xs, float[] ys, float[] zs, float[] output) {
+        final int[] p = noisePermutations;
+        final int[] xInts = new int[xs.length];
+        final float[] xFracs = new float[xs.length];
+        final float[] us = new float[xs.length];
+        prepareAxis(xs, xInts, xFracs, us);
+        final int[] yInts = new int[ys.length];
+        final float[] yFracs = new float[ys.length];
+        final float[] vs = new float[ys.length];
+        prepareAxis(ys, yInts, yFracs, vs);
+
+        int index = 0;
+        for (float posZ : zs) {
+            int zInt = (int) TeraMath.fastFloor(posZ) & 255;
+            float z = posZ - TeraMath.fastFloor(posZ);
+            float w = TeraMath.fadePerlin(z);
+            for (int j = 0; j < ys.length; j++) {
+                int yInt = yInts[j];
+                float y = yFracs[j];
+                float v = vs[j];
+                for (int i = 0; i < xs.length; i++) {
+                    int xInt = xInts[i];
+                    float x = xFracs[i];
+                    float u = us[i];
+
+                    int a = p[xInt] + yInt;
+                    int aa = p[a] + zInt;
+                    int ab = p[(a + 1)] + zInt;
+                    int b = p[(xInt + 1)] + yInt;
+                    int ba = p[b] + zInt;
+                    int bb = p[(b + 1)] + zInt;
+
+                    float val1 = TeraMath.lerp(TeraMath.lerp(grad(p[aa], x, y, z), grad(p[ba], x - 1, y, z), u),
+                            TeraMath.lerp(grad(p[ab], x, y - 1, z), grad(p[bb], x - 1, y - 1, z), u), v);
+                    float val2 = TeraMath.lerp(TeraMath.lerp(grad(p[(aa + 1)], x, y, z - 1), grad(p[(ba + 1)], x - 1, y, z - 1), u),
+                            TeraMath.lerp(grad(p[(ab + 1)], x, y - 1, z - 1), grad(p[(bb + 1)], x - 1, y - 1, z - 1), u), v);
+                    output[index++] = TeraMath.lerp(val1, val2, w);
+                }
+            }
+        }
+    }
+
+    private static void prepareAxis(float[] positions, int[] ints, float[] fracs, float[] fades) {
+        for (int i = 0; i < positions.length; i++) {
+            ints[i] = (int) TeraMath.fastFloor(positions[i]) & 255;
+            fracs[i] = positions[i] - TeraMath.fastFloor(positions[i]);
+            fades[i] = TeraMath.fadePerlin(fracs[i]);
+        }
+    }
+
     private static float grad(int hash, float x, float y, float z) {
         int h = hash & 15;
         float u = h < 8 ? x : y;
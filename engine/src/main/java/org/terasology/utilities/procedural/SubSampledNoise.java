@@ -24,6 +24,7 @@
 import org.terasology.math.geom.Vector2i;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.world.generation.FacetBufferPool;
 
 /**
  */
@@ -70,12 +71,17 @@ public float[] noise(Rect2i region) {
         Rect2i fullRegion = determineRequiredRegion(region);
         float[] keyData = getKeyValues(fullRegion);
         float[] fullData = mapExpand(keyData, fullRegion);
-        return getSubset(fullData, fullRegion, region);
+        FacetBufferPool.recycle(keyData);
+        float[] result = getSubset(fullData, fullRegion, region);
+        if (result != fullData) {
+            FacetBufferPool.recycle(fullData);
+        }
+        return result;
     }
 
     private float[] getSubset(float[] fullData, Rect2i fullRegion, Rect2i subRegion) {
         if (subRegion.sizeX() != fullRegion.sizeX() || subRegion.sizeY() != fullRegion.sizeY()) {
-            float[] result = new float[subRegion.sizeX() * subRegion.sizeY()];
+            float[] result = FacetBufferPool.floats(subRegion.sizeX() * subRegion.sizeY());
             Vector2i offset = new Vector2i(subRegion.minX() - fullRegion.minX(), subRegion.minY() - fullRegion.minY());
             for (int y = 0; y < subRegion.sizeY(); ++y) {
                 System.arraycopy(fullData, offset.getX() + fullRegion.sizeX() * (y + offset.getY()), result, subRegion.sizeX() * y, subRegion.sizeX());
@@ -87,7 +93,7 @@ private float[] getSubset(float[] fullData, Rect2i fullRegion, Rect2i subRegion)
     }
 
     private float[] mapExpand(float[] keyData, Rect2i fullRegion) {
-        float[] fullData = new float[fullRegion.sizeX() * fullRegion.sizeY()];
+        float[] fullData = FacetBufferPool.floats(fullRegion.sizeX() * fullRegion.sizeY());
         int samplesX = fullRegion.sizeX() / sampleRate + 1;
         int samplesY = fullRegion.sizeY() / sampleRate + 1;
         for (int y = 0; y < samplesY - 1; y++) {
@@ -110,15 +116,12 @@ private float[] mapExpand(float[] keyData, Rect2i fullRegion) {
     private float[] getKeyValues(Rect2i fullRegion) {
         int xDim = fullRegion.sizeX() / sampleRate + 1;
         int yDim = fullRegion.sizeY() / sampleRate + 1;
-        float[] fullData = new float[xDim * yDim];
-        for (int y = 0; y < yDim; y++) {
-            for (int x = 0; x < xDim; x++) {
-                int actualX = x * sampleRate + fullRegion.minX();
-                int actualY = y * sampleRate + fullRegion.minY();
-                fullData[x + y * xDim] = source.noise(zoom.x * actualX, zoom.y * actualY);
-            }
-        }
-
+        float[] fullData = FacetBufferPool.floats(xDim * yDim);
+        float[] xs = keyCoordinates(fullRegion.minX(), xDim, zoom.x);
+        float[] ys = keyCoordinates(fullRegion.minY(), yDim, zoom.y);
+        source.noise(xs, ys, fullData);
+        FacetBufferPool.recycle(ys);
+        FacetBufferPool.recycle(xs);
         return fullData;
     }
 
@@ -159,12 +162,17 @@ public float[] noise(Region3i region) {
         Region3i fullRegion = determineRequiredRegion(region);
         float[] keyData = getKeyValues(fullRegion);
         float[] fullData = mapExpand(keyData, fullRegion);
-        return getSubset(fullData, fullRegion, region);
+        FacetBufferPool.recycle(keyData);
+        float[] result = getSubset(fullData, fullRegion, region);
+        if (result != fullData) {
+            FacetBufferPool.recycle(fullData);
+        }
+        return result;
     }
 
     private float[] getSubset(float[] fullData, Region3i fullRegion, Region3i subRegion) {
         if (subRegion.sizeX() != fullRegion.sizeX() || subRegion.sizeY() != fullRegion.sizeY() || subRegion.sizeZ() != fullRegion.sizeZ()) {
-            float[] result = new float[subRegion.sizeX() * subRegion.sizeY() * subRegion.sizeZ()];
+            float[] result = FacetBufferPool.floats(subRegion.sizeX() * subRegion.sizeY() * subRegion.sizeZ());
             Vector3i offset = new Vector3i(subRegion.minX() - fullRegion.minX(), subRegion.minY() - fullRegion.minY(), subRegion.minZ() - fullRegion.minZ());
             for (int z = 0; z < subRegion.sizeZ(); ++z) {
                 for (int y = 0; y < subRegion.sizeY(); ++y) {
@@ -179,7 +187,7 @@ private float[] getSubset(float[] fullData, Region3i fullRegion, Region3i subReg
     }
 
     private float[] mapExpand(float[] keyData, Region3i fullRegion) {
-        float[] fullData = new float[fullRegion.sizeX() * fullRegion.sizeY() * fullRegion.sizeZ()];
+        float[] fullData = FacetBufferPool.floats(fullRegion.sizeX() * fullRegion.sizeY() * fullRegion.sizeZ());
         int samplesX = fullRegion.sizeX() / sampleRate + 1;
         int samplesY = fullRegion.sizeY() / sampleRate + 1;
         int samplesZ = fullRegion.sizeZ() / sampleRate + 1;
@@ -213,20 +221,30 @@ private float[] getKeyValues(Region3i fullRegion) {
         int xDim = fullRegion.sizeX() / sampleRate + 1;
         int yDim = fullRegion.sizeY() / sampleRate + 1;
         int zDim = fullRegion.sizeZ() / sampleRate + 1;
-        float[] fullData = new float[xDim * yDim * zDim];
-        for (int z = 0; z < zDim; z++) {
-            for (int y = 0; y < yDim; y++) {
-                for (int x = 0; x < xDim; x++) {
-                    int actualX = x * sampleRate + fullRegion.minX();
-                    int actualY = y * sampleRate + fullRegion.minY();
-                    int actualZ = z * sampleRate + fullRegion.minZ();
-                    fullData[x + xDim * (y + yDim * z)] = source.noise(zoom.x * actualX, zoom.y * actualY, zoom.z * actualZ);
-                }
-            }
-        }
+        float[] fullData = FacetBufferPool.floats(xDim * yDim * zDim);
+        float[] xs = keyCoordinates(fullRegion.minX(), xDim, zoom.x);
+        float[] ys = keyCoordinates(fullRegion.minY(), yDim, zoom.y);
+        float[] zs = keyCoordinates(fullRegion.minZ(), zDim, zoom.z);
+        source.noise(xs, ys, zs, fullData);
+        FacetBufferPool.recycle(zs);
+        FacetBufferPool.recycle(ys);
+        FacetBufferPool.recycle(xs);
         return fullData;
     }
 
+    /**
+     * The key samples are taken at every sampleRate-th block. Each position is computed from its block coordinate on
+     * its own, so neighbouring regions get exactly the same values at shared key samples.
+     */
+    private float[] keyCoordinates(int min, int count, float zoomFactor) {
+        float[] result = FacetBufferPool.floats(count);
+        for (int i = 0; i < count; i++) {
+            int actual = i * sampleRate + min;
+            result[i] = zoomFactor * actual;
+        }
+        return result;
+    }
+
     private Region3i determineRequiredRegion(Region3i region) {
         int newMinX = region.minX() - IntMath.mod(region.minX(), sampleRate);
         int newMinY = region.minY() - IntMath.mod(region.minY(), sampleRate);
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A set of block changes that gets applied in one go via {@link WorldProvider#setBlocks(BulkBlockEdit)}.
+ * <br><br>
+ * The changes are grouped by chunk while they get added, so that applying the edit looks up every affected chunk only
+ * once, marks neighbouring chunks dirty only once and informs the listeners with a single region level notification.
+ * If a position gets set more than once, the block that got set last wins.
+ */
+public final class BulkBlockEdit {
+    private static final int INITIAL_CHUNK_CAPACITY = 64;
+
+    private final Map<Vector3i, ChunkBlocks> chunks = Maps.newLinkedHashMap();
+    private ChunkBlocks lastChunk;
+    private int size;
+
+    private int minX = Integer.MAX_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+    private int maxZ = Integer.MIN_VALUE;
+
+    /**
+     * @return an edit that sets every block of the region to the given block.
+     */
+    public static BulkBlockEdit fill(Region3i region, Block block) {
+        return new BulkBlockEdit().addFill(region, block);
+    }
+
+    /**
+     * @return an edit that stamps the given stencil into the world, see {@link #addStencil}.
+     */
+    public static BulkBlockEdit stencil(Vector3i origin, Vector3i size, short[] paletteIndices, Block[] palette) {
+        return new BulkBlockEdit().addStencil(origin, size, paletteIndices, palette);
+    }
+
+    public BulkBlockEdit setBlock(Vector3i pos, Block block) {
+        return setBlock(pos.x, pos.y, pos.z, block);
+    }
+
+    public BulkBlockEdit setBlock(int x, int y, int z, Block block) {
+        Preconditions.checkNotNull(block);
+        ChunkBlocks chunk = getChunkBlocks(ChunkMath.calcChunkPosX(x), ChunkMath.calcChunkPosY(y), ChunkMath.calcChunkPosZ(z));
+        chunk.add(ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z), block);
+        size++;
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+        return this;
+    }
+
+    /**
+     * Sets every block of the region to the given block. The region gets walked chunk by chunk.
+     */
+    public BulkBlockEdit addFill(Region3i region, Block block) {
+        if (region.isEmpty()) {
+            return this;
+        }
+        for (Vector3i chunkPos : ChunkMath.calcChunkPos(region)) {
+            Vector3i chunkMin = new Vector3i(chunkPos.x * ChunkConstants.SIZE_X, chunkPos.y * ChunkConstants.SIZE_Y,
+                    chunkPos.z * ChunkConstants.SIZE_Z);
+            Region3i part = Region3i.createFromMinAndSize(chunkMin, ChunkConstants.CHUNK_SIZE).intersect(region);
+            for (int z = part.minZ(); z <= part.maxZ(); z++) {
+                for (int y = part.minY(); y <= part.maxY(); y++) {
+                    for (int x = part.minX(); x <= part.maxX(); x++) {
+                        setBlock(x, y, z, block);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Stamps a box of palette indices into the world, for example a prefabricated structure.
+     *
+     * @param origin         the world position of the first entry of the stencil
+     * @param size           the size of the stencil box
+     * @param paletteIndices the palette index of every position, x varies fastest, then y, then z. A negative index
+     *                       leaves the block of that position untouched.
+     * @param palette        the blocks the indices refer to
+     */
+    public BulkBlockEdit addStencil(Vector3i origin, Vector3i size, short[] paletteIndices, Block[] palette) {
+        Preconditions.checkArgument(paletteIndices.length == size.x * size.y * size.z,
+                "Expected %s palette indices for a stencil of size %s, got %s", size.x * size.y * size.z, size, paletteIndices.length);
+        int i = 0;
+        for (int z = 0; z < size.z; z++) {
+            for (int y = 0; y < size.y; y++) {
+                for (int x = 0; x < size.x; x++) {
+                    short index = paletteIndices[i++];
+                    if (index >= 0) {
+                        setBlock(origin.x + x, origin.y + y, origin.z + z, palette[index]);
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the bounding box of all changed positions, {@link Region3i#EMPTY} if there are none.
+     */
+    public Region3i getRegion() {
+        if (size == 0) {
+            return Region3i.EMPTY;
+        }
+        return Region3i.createFromMinMax(new Vector3i(minX, minY, minZ), new Vector3i(maxX, maxY, maxZ));
+    }
+
+    /**
+     * @return the number of block changes, including repeated changes of the same position.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the changes grouped by chunk, in the order the chunks got first touched.
+     */
+    public Collection<ChunkBlocks> getChunks() {
+        return Collections.unmodifiableCollection(chunks.values());
+    }
+
+    private ChunkBlocks getChunkBlocks(int chunkX, int chunkY, int chunkZ) {
+        ChunkBlocks chunk = lastChunk;
+        if (chunk != null && chunk.chunkPos.x == chunkX && chunk.chunkPos.y == chunkY && chunk.chunkPos.z == chunkZ) {
+            return chunk;
+        }
+        Vector3i chunkPos = new Vector3i(chunkX, chunkY, chunkZ);
+        chunk = chunks.computeIfAbsent(chunkPos, ChunkBlocks::new);
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * The changes of a {@link BulkBlockEdit} that fall into one chunk, stored as positions relative to the chunk.
+     */
+    public static final class ChunkBlocks {
+        private final Vector3i chunkPos;
+        private int[] positions = new int[INITIAL_CHUNK_CAPACITY];
+        private Block[] blocks = new Block[INITIAL_CHUNK_CAPACITY];
+        private int count;
+
+        private ChunkBlocks(Vector3i chunkPos) {
+            this.chunkPos = chunkPos;
+        }
+
+        public Vector3i getChunkPosition() {
+            return chunkPos;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public int getX(int i) {
+            return positions[i] & ChunkConstants.INNER_CHUNK_POS_FILTER_X;
+        }
+
+        public int getY(int i) {
+            return (positions[i] >> ChunkConstants.POWER_X) & ChunkConstants.INNER_CHUNK_POS_FILTER_Y;
+        }
+
+        public int getZ(int i) {
+            return positions[i] >> (ChunkConstants.POWER_X + ChunkConstants.POWER_Y);
+        }
+
+        public Block getBlock(int i) {
+            return blocks[i];
+        }
+
+        private void add(int x, int y, int z, Block block) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                blocks = Arrays.copyOf(blocks, count * 2);
+            }
+            positions[count] = x | (y << ChunkConstants.POWER_X) | (z << (ChunkConstants.POWER_X + ChunkConstants.POWER_Y));
+            blocks[count] = block;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world;
+
+import org.terasology.entitySystem.event.Event;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Sent to the world entity when a bulk edit changed blocks that have no block entity. It replaces the
+ * {@link OnChangedBlock} event these blocks would otherwise get, so that large edits don't need a temporary entity
+ * for every block. Blocks that have an entity still get their own {@link OnChangedBlock}.
+ */
+public class OnChangedBlocks implements Event {
+    private Region3i region;
+    private Collection<Vector3i> blockPositions;
+
+    public OnChangedBlocks(Region3i region, Collection<Vector3i> blockPositions) {
+        this.region = region;
+        this.blockPositions = Collections.unmodifiableCollection(blockPositions);
+    }
+
+    /**
+     * @return a region that contains all of the changed blocks
+     */
+    public Region3i getRegion() {
+        return region;
+    }
+
+    public Collection<Vector3i> getBlockPositions() {
+        return blockPositions;
+    }
+}
@@ -16,8 +16,12 @@
 
 package org.terasology.world;
 
+import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.world.block.Block;
+import org.terasology.world.propagation.BlockChange;
+
+import java.util.Collection;
 
 /**
  */
@@ -26,4 +30,17 @@ public interface WorldChangeListener {
     void onBlockChanged(Vector3i pos, Block newBlock, Block originalBlock);
     
     void onExtraDataChanged(int i, Vector3i pos, int newData, int oldData);
+
+    /**
+     * Called once for a {@link BulkBlockEdit} instead of {@link #onBlockChanged} for every changed block. Listeners
+     * that can handle the whole region at once should override this, by default the changes get forwarded one by one.
+     *
+     * @param region  the bounding box of the edit, not every block within it has to be changed
+     * @param changes the blocks that actually changed, in the order they got applied
+     */
+    default void onBlocksChanged(Region3i region, Collection<BlockChange> changes) {
+        for (BlockChange change : changes) {
+            onBlockChanged(change.getPosition(), change.getTo(), change.getFrom());
+        }
+    }
 }
@@ -29,6 +29,8 @@
 import org.terasology.registry.In;
 import org.terasology.world.BlockEntityRegistry;
 import org.terasology.world.OnChangedBlock;
+import org.terasology.world.OnChangedBlocks;
+import org.terasology.world.WorldComponent;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockComponent;
@@ -107,6 +109,17 @@ public void blockUpdate(OnChangedBlock event, EntityRef blockEntity) {
         }
     }
 
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void blocksUpdate(OnChangedBlocks event, EntityRef worldEntity) {
+        if (largeBlockUpdateCount > 0) {
+            blocksUpdatedInLargeBlockUpdate.addAll(event.getBlockPositions());
+        } else {
+            for (Vector3i blockLocation : event.getBlockPositions()) {
+                processUpdateForBlockLocation(blockLocation);
+            }
+        }
+    }
+
     private void processUpdateForBlockLocation(Vector3i blockLocation) {
         for (Side side : Side.getAllSides()) {
             Vector3i neighborLocation = new Vector3i(blockLocation);
@@ -30,6 +30,8 @@
 import org.terasology.registry.Share;
 import org.terasology.world.BlockEntityRegistry;
 import org.terasology.world.OnChangedBlock;
+import org.terasology.world.OnChangedBlocks;
+import org.terasology.world.WorldComponent;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockComponent;
@@ -89,6 +91,20 @@ public void checkForSupportRemoved(OnChangedBlock event, EntityRef entity) {
         }
     }
 
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void checkForSupportRemoved(OnChangedBlocks event, EntityRef worldEntity) {
+        PerformanceMonitor.startActivity("StructuralCheck");
+        try {
+            for (Vector3i blockPosition : event.getBlockPositions()) {
+                for (Side side : Side.getAllSides()) {
+                    validateSupportForBlockOnSide(blockPosition, side);
+                }
+            }
+        } finally {
+            PerformanceMonitor.endActivity();
+        }
+    }
+
     @ReceiveEvent
     public void preventInvalidPlacement(PlaceBlocks placeBlocks, EntityRef world) {
         final Map<Vector3i, Block> blocksMap = placeBlocks.getBlocks();
@@ -230,10 +230,13 @@ public int getSlotNumber(String name) {
         return index;
     }
     
+    /**
+     * Creates the extra data arrays of a chunk, split into copy-on-write sections like its block data.
+     */
     public TeraArray[] makeDataArrays(int sizeX, int sizeY, int sizeZ) {
         TeraArray[] extraData = new TeraArray[slotFactories.length];
         for (int i = 0; i < extraData.length; i++) {
-            extraData[i] = slotFactories[i].create(sizeX, sizeY, sizeZ);
+            extraData[i] = new TeraSectionedArray(sizeX, sizeY, sizeZ, slotFactories[i]);
         }
         return extraData;
     }
@@ -23,6 +23,7 @@
 import java.io.ObjectOutput;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -143,6 +144,15 @@ public String toString() {
 
     public abstract boolean set(int x, int y, int z, int value, int expected);
 
+    /**
+     * Maps the value of an element to an object. Arrays that store their values in a palette may cache the results
+     * per palette entry, so the mapping has to depend on the value only and has to be the same for every call on an
+     * array. Null results are never cached.
+     */
+    public <T> T getMapped(int x, int y, int z, IntFunction<T> mapping) {
+        return mapping.apply(get(x, y, z));
+    }
+
     /**
      * This is the interface for tera array factories. Every tera array is required to implement a factory.
      * It should be implemented as a static subclass of the corresponding tera array class and it should be called Factory.
@@ -0,0 +1,521 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.blockdata;
+
+import com.google.common.base.Preconditions;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import org.terasology.world.chunks.deflate.TeraVisitingDeflator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * TeraPalettedArray implements an array that stores every distinct value only once, in a palette, and keeps a packed
+ * array of palette indices per element. It is meant for block data, where a chunk usually contains only a handful of
+ * different blocks.
+ * <br><br>
+ * The indices are 1, 2, 4, 8 or 16 bits wide. The array starts with 1 bit and widens automatically once more distinct
+ * values are stored than the current width can address. If the palette is full but some of its entries are no longer
+ * used, the indices get rebuilt without them instead of widening. {@link #deflate(TeraVisitingDeflator)} narrows the
+ * indices again if possible.
+ * <br><br>
+ * Reads may happen concurrently with a single writer. The palette and the indices are published together through one
+ * volatile field, and a palette entry never changes its value once it has been added: entries get appended, and
+ * unused entries are only dropped by building new indices.
+ * <br><br>
+ * Its elements are in the range -32'768 through +32'767, like those of {@link TeraDenseArray16Bit}.
+ */
+public class TeraPalettedArray extends TeraArray {
+
+    public static final int MAX_BITS_PER_ENTRY = 16;
+
+    private static final int NO_ENTRY = -1;
+
+    private volatile State state;
+
+    /**
+     * Only accessed by the writer: how many elements use each palette entry, and the entry of each used value.
+     */
+    private int[] useCounts;
+    private TIntIntMap paletteIndices;
+
+    public TeraPalettedArray() {
+        super();
+    }
+
+    public TeraPalettedArray(int sizeX, int sizeY, int sizeZ) {
+        super(sizeX, sizeY, sizeZ, true);
+    }
+
+    public TeraPalettedArray(TeraArray in) {
+        super(Preconditions.checkNotNull(in).getSizeX(), in.getSizeY(), in.getSizeZ(), true);
+        for (int y = 0; y < getSizeY(); y++) {
+            for (int z = 0; z < getSizeZ(); z++) {
+                for (int x = 0; x < getSizeX(); x++) {
+                    set(x, y, z, in.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    private TeraPalettedArray(int sizeX, int sizeY, int sizeZ, int[] palette, int paletteSize, Indices indices) {
+        super(sizeX, sizeY, sizeZ, false);
+        Preconditions.checkArgument(indices.words.length == Indices.wordCount(indices.bits, getSizeXYZ()),
+                "The index data does not match the size of the array");
+        this.useCounts = new int[palette.length];
+        this.paletteIndices = new TIntIntHashMap(Math.max(paletteSize, 8), 0.5f, NO_ENTRY, NO_ENTRY);
+        for (int i = 0; i < getSizeXYZ(); i++) {
+            int index = indices.get(i);
+            Preconditions.checkArgument(index < paletteSize, "Palette index %s out of range", index);
+            useCounts[index]++;
+        }
+        for (int i = 0; i < paletteSize; i++) {
+            if (useCounts[i] > 0) {
+                int previous = paletteIndices.put(palette[i], i);
+                Preconditions.checkArgument(previous == NO_ENTRY || useCounts[previous] == 0, "Duplicate palette entry %s", palette[i]);
+            } else {
+                paletteIndices.putIfAbsent(palette[i], i);
+            }
+        }
+        this.state = new State(palette, paletteSize, indices, new Object[palette.length]);
+    }
+
+    /**
+     * Creates an array from a run length encoding of its elements, in the order used by {@link #pos(int, int, int)}.
+     * Runs beyond the end of the array are ignored and elements without a run stay zero.
+     *
+     * @param runLengths the number of consecutive elements of each run
+     * @param values     the value of each run
+     * @param runCount   the number of runs to read from both arrays
+     */
+    public static TeraPalettedArray fromRuns(int sizeX, int sizeY, int sizeZ, int[] runLengths, int[] values, int runCount) {
+        TeraPalettedArray result = new TeraPalettedArray(sizeX, sizeY, sizeZ);
+        int end = result.getSizeXYZ();
+        int pos = 0;
+        for (int run = 0; run < runCount && pos < end; run++) {
+            int length = Math.min(runLengths[run], end - pos);
+            int value = (short) values[run];
+            if (value != 0) {
+                result.fill(pos, pos + length, result.indexOf(value));
+            }
+            pos += length;
+        }
+        return result;
+    }
+
+    @Override
+    protected void initialize() {
+        useCounts = new int[2];
+        useCounts[0] = getSizeXYZ();
+        paletteIndices = new TIntIntHashMap(8, 0.5f, NO_ENTRY, NO_ENTRY);
+        paletteIndices.put(0, 0);
+        state = new State(new int[2], 1, new Indices(1, getSizeXYZ()), new Object[2]);
+    }
+
+    @Override
+    public boolean isSparse() {
+        return false;
+    }
+
+    @Override
+    public TeraArray copy() {
+        State current = state;
+        Indices copiedIndices = new Indices(current.indices.bits, Arrays.copyOf(current.indices.words, current.indices.words.length));
+        return new TeraPalettedArray(getSizeX(), getSizeY(), getSizeZ(), Arrays.copyOf(current.palette, current.palette.length),
+                current.paletteSize, copiedIndices);
+    }
+
+    /**
+     * Paletted arrays ignore the strategy of the deflator. Instead they drop unused palette entries and narrow the
+     * indices to the smallest width that can address the remaining entries.
+     *
+     * @return the compacted array or null if it would not be smaller
+     */
+    @Override
+    public TeraArray deflate(TeraVisitingDeflator deflator) {
+        State current = state;
+        int usedEntries = countUsedEntries(current);
+        int bits = bitsFor(usedEntries);
+        if (bits >= current.indices.bits && usedEntries == current.paletteSize) {
+            return null;
+        }
+        State compacted = compact(current, bits, new int[current.paletteSize]);
+        return new TeraPalettedArray(getSizeX(), getSizeY(), getSizeZ(), compacted.palette, compacted.paletteSize, compacted.indices);
+    }
+
+    @Override
+    public int getEstimatedMemoryConsumptionInBytes() {
+        State current = state;
+        if (current == null) {
+            return 4;
+        }
+        // Rough size of the palette lookup map, which holds a key and a value per slot at a load factor of 0.5
+        int mapSize = paletteIndices.size() * 16;
+        return 32 + current.indices.words.length * 8 + current.palette.length * 16 + mapSize;
+    }
+
+    @Override
+    public int getElementSizeInBits() {
+        return 16;
+    }
+
+    /**
+     * @return the current width of the palette indices, 1, 2, 4, 8 or 16.
+     */
+    public int getBitsPerEntry() {
+        return state.indices.bits;
+    }
+
+    /**
+     * @return the number of palette entries, including entries that are currently unused.
+     */
+    public int getPaletteSize() {
+        return state.paletteSize;
+    }
+
+    /**
+     * The writer publishes a new state before it stores an index of a new palette entry. A reader that sees such an
+     * index together with an older state reads the state again.
+     */
+    @Override
+    public int get(int x, int y, int z) {
+        int pos = pos(x, y, z);
+        State current = state;
+        int index = current.indices.get(pos);
+        while (index >= current.paletteSize) {
+            current = state;
+            index = current.indices.get(pos);
+        }
+        return current.palette[index];
+    }
+
+    /**
+     * Calls the mapping only once per palette entry. The results stay cached until the palette gets rebuilt.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getMapped(int x, int y, int z, IntFunction<T> mapping) {
+        int pos = pos(x, y, z);
+        State current = state;
+        int index = current.indices.get(pos);
+        while (index >= current.paletteSize) {
+            current = state;
+            index = current.indices.get(pos);
+        }
+        Object result = current.mapped[index];
+        if (result == null) {
+            result = mapping.apply(current.palette[index]);
+            // Racing readers store the same result, so the write needs no synchronization
+            current.mapped[index] = result;
+        }
+        return (T) result;
+    }
+
+    @Override
+    public int set(int x, int y, int z, int value) {
+        int pos = pos(x, y, z);
+        State current = state;
+        int old = current.palette[current.indices.get(pos)];
+        value = (short) value;
+        if (old != value) {
+            int newIndex = indexOf(value);
+            // Read again, as adding the value may have rebuilt the indices. The old entry is released only now, so that a
+            // rebuild keeps it and readers never see the element pointing at a dropped entry.
+            Indices indices = state.indices;
+            int oldIndex = indices.get(pos);
+            indices.set(pos, newIndex);
+            useCounts[oldIndex]--;
+            useCounts[newIndex]++;
+        }
+        return old;
+    }
+
+    @Override
+    public boolean set(int x, int y, int z, int value, int expected) {
+        if (get(x, y, z) == expected) {
+            set(x, y, z, value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports the runs of equal elements to the visitor, in the order used by {@link #pos(int, int, int)}. Comparing palette indices instead of values avoids the palette lookup per element.
+     */
+    public void encodeRuns(RunVisitor visitor) {
+        State current = state;
+        int lastIndex = current.indices.get(0);
+        int length = 0;
+        for (int i = 0; i < getSizeXYZ(); i++) {
+            int index = current.indices.get(i);
+            if (index != lastIndex) {
+                visitor.visitRun(length, current.palette[lastIndex]);
+                lastIndex = index;
+                length = 1;
+            } else {
+                length++;
+            }
+        }
+        visitor.visitRun(length, current.palette[lastIndex]);
+    }
+
+    /**
+     * Returns the palette index of the value, adding it to the palette and rebuilding the indices if necessary. The
+     * use count of the returned entry is not changed.
+     */
+    private int indexOf(int value) {
+        int index = paletteIndices.get(value);
+        if (index != NO_ENTRY) {
+            return index;
+        }
+        State current = state;
+        if (current.paletteSize == 1 << current.indices.bits) {
+            int usedEntries = countUsedEntries(current);
+            if (usedEntries == 1 << MAX_BITS_PER_ENTRY) {
+                throw new IllegalStateException("The palette cannot hold more than " + usedEntries + " entries");
+            }
+            current = rebuild(current, bitsFor(usedEntries + 1));
+        }
+        int[] palette = current.palette;
+        Object[] mapped = current.mapped;
+        if (current.paletteSize == palette.length) {
+            int newLength = Math.min(palette.length * 2, 1 << MAX_BITS_PER_ENTRY);
+            palette = Arrays.copyOf(palette, newLength);
+            mapped = Arrays.copyOf(mapped, newLength);
+            useCounts = Arrays.copyOf(useCounts, newLength);
+        }
+        index = current.paletteSize;
+        // Appended behind the entries the current state covers, so no reader can see it before the new state
+        palette[index] = value;
+        state = new State(palette, index + 1, current.indices, mapped);
+        paletteIndices.put(value, index);
+        return index;
+    }
+
+    /**
+     * Replaces the state by one with the given index width that only contains the used palette entries, and updates
+     * the bookkeeping of the writer to match.
+     */
+    private State rebuild(State current, int bits) {
+        int[] remapping = new int[current.paletteSize];
+        State rebuilt = compact(current, bits, remapping);
+        int[] rebuiltUseCounts = new int[rebuilt.palette.length];
+        paletteIndices.clear();
+        for (int i = 0; i < current.paletteSize; i++) {
+            if (useCounts[i] > 0) {
+                rebuiltUseCounts[remapping[i]] = useCounts[i];
+                paletteIndices.put(current.palette[i], remapping[i]);
+            }
+        }
+        useCounts = rebuiltUseCounts;
+        state = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * @param remapping receives the new index of every used entry of the given state
+     * @return a new state with the used palette entries only, the given state is left untouched
+     */
+    private State compact(State current, int bits, int[] remapping) {
+        int[] compactedPalette = new int[Math.max(countUsedEntries(current), 2)];
+        int compactedSize = 0;
+        for (int i = 0; i < current.paletteSize; i++) {
+            if (useCounts[i] > 0) {
+                remapping[i] = compactedSize;
+                compactedPalette[compactedSize++] = current.palette[i];
+            }
+        }
+        Indices compactedIndices = new Indices(bits, getSizeXYZ());
+        for (int i = 0; i < getSizeXYZ(); i++) {
+            compactedIndices.set(i, remapping[current.indices.get(i)]);
+        }
+        return new State(compactedPalette, compactedSize, compactedIndices, new Object[compactedPalette.length]);
+    }
+
+    private int countUsedEntries(State current) {
+        int usedEntries = 0;
+        for (int i = 0; i < current.paletteSize; i++) {
+            if (useCounts[i] > 0) {
+                usedEntries++;
+            }
+        }
+        return usedEntries;
+    }
+
+    private void fill(int from, int to, int index) {
+        Indices indices = state.indices;
+        for (int i = from; i < to; i++) {
+            int oldIndex = indices.get(i);
+            indices.set(i, index);
+            useCounts[oldIndex]--;
+        }
+        useCounts[index] += to - from;
+    }
+
+    private static int bitsFor(int entries) {
+        int bits = 1;
+        while (1 << bits < entries) {
+            bits *= 2;
+        }
+        return bits;
+    }
+
+    /**
+     * An immutable snapshot of the palette and the indices. Palette entries beyond the size may be appended to the
+     * arrays by the writer, but entries within the size never change.
+     */
+    private static final class State {
+        private final int[] palette;
+        private final int paletteSize;
+        private final Indices indices;
+
+        /**
+         * The results of {@link #getMapped(int, int, int, IntFunction)}, per palette entry.
+         */
+        private final Object[] mapped;
+
+        private State(int[] palette, int paletteSize, Indices indices, Object[] mapped) {
+            this.palette = palette;
+            this.paletteSize = paletteSize;
+            this.indices = indices;
+            this.mapped = mapped;
+        }
+    }
+
+    /**
+     * Receives the runs of equal elements of a paletted array.
+     */
+    @FunctionalInterface
+    public interface RunVisitor {
+        void visitRun(int length, int value);
+    }
+
+    /**
+     * Indices of a fixed width, packed into longs. The width is a power of two, so no index spans two longs.
+     */
+    private static final class Indices {
+        private final int bits;
+        private final int entriesPerWordShift;
+        private final int entryInWordMask;
+        private final long valueMask;
+        private final long[] words;
+
+        private Indices(int bits, int size) {
+            this(bits, new long[wordCount(bits, size)]);
+        }
+
+        private Indices(int bits, long[] words) {
+            Preconditions.checkArgument(Integer.bitCount(bits) == 1 && bits <= MAX_BITS_PER_ENTRY, "Unsupported index width %s", bits);
+            this.bits = bits;
+            this.entriesPerWordShift = Integer.numberOfTrailingZeros(Long.SIZE / bits);
+            this.entryInWordMask = (Long.SIZE / bits) - 1;
+            this.valueMask = (1L << bits) - 1;
+            this.words = words;
+        }
+
+        private static int wordCount(int bits, int size) {
+            int entriesPerWord = Long.SIZE / bits;
+            return (size + entriesPerWord - 1) / entriesPerWord;
+        }
+
+        private int get(int pos) {
+            int shift = (pos & entryInWordMask) * bits;
+            return (int) ((words[pos >>> entriesPerWordShift] >>> shift) & valueMask);
+        }
+
+        private void set(int pos, int index) {
+            int word = pos >>> entriesPerWordShift;
+            int shift = (pos & entryInWordMask) * bits;
+            words[word] = (words[word] & ~(valueMask << shift)) | ((long) index << shift);
+        }
+    }
+
+    public static class SerializationHandler extends TeraArray.BasicSerializationHandler<TeraPalettedArray> {
+
+        @Override
+        public boolean canHandle(Class<?> clazz) {
+            return TeraPalettedArray.class.equals(clazz);
+        }
+
+        @Override
+        protected int internalComputeMinimumBufferSize(TeraPalettedArray array) {
+            State current = array.state;
+            if (current == null) {
+                return 4;
+            }
+            return 12 + current.paletteSize * 2 + current.indices.words.length * 8;
+        }
+
+        @Override
+        protected void internalSerialize(TeraPalettedArray array, ByteBuffer buffer) {
+            State current = array.state;
+            if (current == null) {
+                buffer.putInt(0);
+                return;
+            }
+            buffer.putInt(current.indices.bits);
+            buffer.putInt(current.paletteSize);
+            for (int i = 0; i < current.paletteSize; i++) {
+                buffer.putShort((short) current.palette[i]);
+            }
+            buffer.putInt(current.indices.words.length);
+            buffer.asLongBuffer().put(current.indices.words);
+            buffer.position(buffer.position() + current.indices.words.length * 8);
+        }
+
+        @Override
+        protected TeraPalettedArray internalDeserialize(int sizeX, int sizeY, int sizeZ, ByteBuffer buffer) {
+            final int bits = buffer.getInt();
+            if (bits == 0) {
+                return new TeraPalettedArray(sizeX, sizeY, sizeZ);
+            }
+            final int paletteSize = buffer.getInt();
+            final int[] palette = new int[Math.max(paletteSize, 2)];
+            for (int i = 0; i < paletteSize; i++) {
+                palette[i] = buffer.getShort();
+            }
+            final long[] words = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(words);
+            buffer.position(buffer.position() + words.length * 8);
+            return new TeraPalettedArray(sizeX, sizeY, sizeZ, palette, paletteSize, new Indices(bits, words));
+        }
+    }
+
+    public static class Factory implements TeraArray.Factory<TeraPalettedArray> {
+
+        @Override
+        public Class<TeraPalettedArray> getArrayClass() {
+            return TeraPalettedArray.class;
+        }
+
+        @Override
+        public SerializationHandler createSerializationHandler() {
+            return new SerializationHandler();
+        }
+
+        @Override
+        public TeraPalettedArray create() {
+            return new TeraPalettedArray();
+        }
+
+        @Override
+        public TeraPalettedArray create(int sizeX, int sizeY, int sizeZ) {
+            return new TeraPalettedArray(sizeX, sizeY, sizeZ);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.blockdata;
+
+import com.google.common.base.Preconditions;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.deflate.TeraVisitingDeflator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * TeraSectionedArray splits an array into horizontal slabs of {@link #SECTION_HEIGHT} layers, each stored in its own
+ * tera array, and copies the slabs lazily.
+ * <br><br>
+ * {@link #copy()} only copies the references to the sections and marks them as shared. The first write to a shared
+ * section, in the copy or in the original, replaces it with a private copy of that one section. This keeps snapshots
+ * of chunk data cheap: after a snapshot, editing a single block copies one slab instead of the whole array.
+ * <br><br>
+ * As the elements of a tera array are ordered by layer, the elements of each section form a contiguous range of the
+ * element order used by {@link #pos(int, int, int)}.
+ */
+public class TeraSectionedArray extends TeraArray {
+
+    public static final int SECTION_HEIGHT = 8;
+
+    private TeraArray[] sections;
+    /**
+     * Whether the section is referenced by this array only and may be written to without copying it first.
+     */
+    private boolean[] exclusive;
+
+    /**
+     * Creates an array whose sections get created by the given factory.
+     */
+    public TeraSectionedArray(int sizeX, int sizeY, int sizeZ, TeraArray.Factory<?> sectionFactory) {
+        super(sizeX, sizeY, sizeZ, false);
+        Preconditions.checkNotNull(sectionFactory);
+        this.sections = new TeraArray[getSectionCount(sizeY)];
+        for (int i = 0; i < sections.length; i++) {
+            sections[i] = sectionFactory.create(sizeX, SECTION_HEIGHT, sizeZ);
+        }
+        this.exclusive = new boolean[sections.length];
+        Arrays.fill(exclusive, true);
+    }
+
+    /**
+     * Creates an array from existing sections, which have to be {@link #SECTION_HEIGHT} layers high and must not be
+     * used anywhere else.
+     */
+    public TeraSectionedArray(int sizeX, int sizeY, int sizeZ, TeraArray[] sections) {
+        this(sizeX, sizeY, sizeZ, sections, true);
+        for (TeraArray section : sections) {
+            Preconditions.checkArgument(section.getSizeX() == sizeX && section.getSizeY() == SECTION_HEIGHT && section.getSizeZ() == sizeZ,
+                    "The sections have to be of size " + sizeX + "x" + SECTION_HEIGHT + "x" + sizeZ);
+        }
+    }
+
+    private TeraSectionedArray(int sizeX, int sizeY, int sizeZ, TeraArray[] sections, boolean exclusive) {
+        super(sizeX, sizeY, sizeZ, false);
+        Preconditions.checkArgument(sections.length == getSectionCount(sizeY), "Expected " + getSectionCount(sizeY) + " sections but got " + sections.length);
+        this.sections = sections;
+        this.exclusive = new boolean[sections.length];
+        Arrays.fill(this.exclusive, exclusive);
+    }
+
+    /**
+     * @return the number of sections an array with the given height consists of.
+     */
+    public static int getSectionCount(int sizeY) {
+        Preconditions.checkArgument(sizeY % SECTION_HEIGHT == 0, "The parameter 'sizeY' has to be a multiple of " + SECTION_HEIGHT + " (" + sizeY + ")");
+        return sizeY / SECTION_HEIGHT;
+    }
+
+    /**
+     * Not used, the constructors set up the sections themselves.
+     */
+    @Override
+    protected void initialize() {
+    }
+
+    @Override
+    public boolean isSparse() {
+        return false;
+    }
+
+    /**
+     * Shares all sections with the returned copy. Neither array copies a section before it writes to it.
+     */
+    @Override
+    public TeraArray copy() {
+        Arrays.fill(exclusive, false);
+        return new TeraSectionedArray(getSizeX(), getSizeY(), getSizeZ(), sections.clone(), false);
+    }
+
+    /**
+     * Deflates every section on its own.
+     *
+     * @return an array with the deflated sections or null if no section could be deflated
+     */
+    @Override
+    public TeraArray deflate(TeraVisitingDeflator deflator) {
+        TeraArray[] deflatedSections = new TeraArray[sections.length];
+        boolean[] deflatedExclusive = new boolean[sections.length];
+        boolean changed = false;
+        for (int i = 0; i < sections.length; i++) {
+            deflatedSections[i] = deflator.deflate(sections[i]);
+            if (deflatedSections[i] != sections[i]) {
+                deflatedExclusive[i] = true;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return null;
+        }
+        for (int i = 0; i < sections.length; i++) {
+            if (!deflatedExclusive[i]) {
+                // Shared between this array and the deflated one from now on
+                exclusive[i] = false;
+            }
+        }
+        TeraSectionedArray result = new TeraSectionedArray(getSizeX(), getSizeY(), getSizeZ(), deflatedSections, false);
+        result.exclusive = deflatedExclusive;
+        return result;
+    }
+
+    @Override
+    public int getEstimatedMemoryConsumptionInBytes() {
+        int result = 16 + sections.length * 5;
+        for (TeraArray section : sections) {
+            result += section.getEstimatedMemoryConsumptionInBytes();
+        }
+        return result;
+    }
+
+    @Override
+    public int getElementSizeInBits() {
+        int result = 0;
+        for (TeraArray section : sections) {
+            result = Math.max(result, section.getElementSizeInBits());
+        }
+        return result;
+    }
+
+    public int getSectionCount() {
+        return sections.length;
+    }
+
+    /**
+     * The returned section may be shared with copies of this array and must not be modified.
+     *
+     * @return the section holding the layers {@code index * SECTION_HEIGHT} up to {@code (index + 1) * SECTION_HEIGHT}.
+     */
+    public TeraArray getSection(int index) {
+        return sections[index];
+    }
+
+    @Override
+    public int get(int x, int y, int z) {
+        return sections[y / SECTION_HEIGHT].get(x, y % SECTION_HEIGHT, z);
+    }
+
+    @Override
+    public <T> T getMapped(int x, int y, int z, IntFunction<T> mapping) {
+        return sections[y / SECTION_HEIGHT].getMapped(x, y % SECTION_HEIGHT, z, mapping);
+    }
+
+    @Override
+    public int set(int x, int y, int z, int value) {
+        return writableSection(y / SECTION_HEIGHT).set(x, y % SECTION_HEIGHT, z, value);
+    }
+
+    @Override
+    public boolean set(int x, int y, int z, int value, int expected) {
+        return writableSection(y / SECTION_HEIGHT).set(x, y % SECTION_HEIGHT, z, value, expected);
+    }
+
+    private TeraArray writableSection(int index) {
+        if (!exclusive[index]) {
+            sections[index] = sections[index].copy();
+            exclusive[index] = true;
+        }
+        return sections[index];
+    }
+
+    /**
+     * Serializes the sections one after the other, converting sections to the type created by the section factory
+     * where necessary.
+     */
+    public static class SerializationHandler extends TeraArray.BasicSerializationHandler<TeraSectionedArray> {
+
+        private final TeraArray.Factory<?> sectionFactory;
+        private final TeraArray.SerializationHandler<TeraArray> sectionHandler;
+
+        @SuppressWarnings("unchecked")
+        public SerializationHandler(TeraArray.Factory<?> sectionFactory) {
+            this.sectionFactory = Preconditions.checkNotNull(sectionFactory);
+            this.sectionHandler = (TeraArray.SerializationHandler<TeraArray>) sectionFactory.createSerializationHandler();
+        }
+
+        @Override
+        public boolean canHandle(Class<?> clazz) {
+            return TeraSectionedArray.class.equals(clazz);
+        }
+
+        @Override
+        protected int internalComputeMinimumBufferSize(TeraSectionedArray array) {
+            if (array.sections == null) {
+                return 4;
+            }
+            int result = 4;
+            for (TeraArray section : array.sections) {
+                result += sectionHandler.computeMinimumBufferSize(serializableSection(section));
+            }
+            return result;
+        }
+
+        @Override
+        protected void internalSerialize(TeraSectionedArray array, ByteBuffer buffer) {
+            if (array.sections == null) {
+                buffer.putInt(0);
+                return;
+            }
+            buffer.putInt(array.sections.length);
+            for (TeraArray section : array.sections) {
+                sectionHandler.serialize(serializableSection(section), buffer);
+            }
+        }
+
+        @Override
+        protected TeraSectionedArray internalDeserialize(int sizeX, int sizeY, int sizeZ, ByteBuffer buffer) {
+            final int sectionCount = buffer.getInt();
+            if (sectionCount == 0) {
+                return new TeraSectionedArray(sizeX, sizeY, sizeZ, sectionFactory);
+            }
+            final TeraArray[] sections = new TeraArray[sectionCount];
+            for (int i = 0; i < sectionCount; i++) {
+                sections[i] = sectionHandler.deserialize(buffer);
+            }
+            return new TeraSectionedArray(sizeX, sizeY, sizeZ, sections);
+        }
+
+        private TeraArray serializableSection(TeraArray section) {
+            if (sectionHandler.canHandle(section.getClass())) {
+                return section;
+            }
+            TeraArray converted = sectionFactory.create(section.getSizeX(), section.getSizeY(), section.getSizeZ());
+            for (int y = 0; y < section.getSizeY(); y++) {
+                for (int z = 0; z < section.getSizeZ(); z++) {
+                    for (int x = 0; x < section.getSizeX(); x++) {
+                        converted.set(x, y, z, section.get(x, y, z));
+                    }
+                }
+            }
+            return converted;
+        }
+    }
+
+    public static class Factory implements TeraArray.Factory<TeraSectionedArray> {
+
+        private final TeraArray.Factory<?> sectionFactory;
+
+        public Factory(TeraArray.Factory<?> sectionFactory) {
+            this.sectionFactory = Preconditions.checkNotNull(sectionFactory);
+        }
+
+        @Override
+        public Class<TeraSectionedArray> getArrayClass() {
+            return TeraSectionedArray.class;
+        }
+
+        @Override
+        public SerializationHandler createSerializationHandler() {
+            return new SerializationHandler(sectionFactory);
+        }
+
+        /**
+         * Creates an array of the size of a chunk.
+         */
+        @Override
+        public TeraSectionedArray create() {
+            return create(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
+        }
+
+        @Override
+        public TeraSectionedArray create(int sizeX, int sizeY, int sizeZ) {
+            return new TeraSectionedArray(sizeX, sizeY, sizeZ, sectionFactory);
+        }
+    }
+}
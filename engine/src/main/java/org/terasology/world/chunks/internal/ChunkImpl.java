@@ -35,10 +35,13 @@
 import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.world.chunks.blockdata.TeraArray;
 import org.terasology.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.world.chunks.blockdata.TeraPalettedArray;
+import org.terasology.world.chunks.blockdata.TeraSectionedArray;
 import org.terasology.world.chunks.deflate.TeraDeflator;
 import org.terasology.world.chunks.deflate.TeraStandardDeflator;
 
 import java.text.DecimalFormat;
+import java.util.function.IntFunction;
 
 /**
  * Chunks are the basic components of the world. Each chunk contains a fixed amount of blocks
@@ -58,6 +61,7 @@ public class ChunkImpl implements Chunk {
     private final Vector3i chunkPos = new Vector3i();
 
     private BlockManager blockManager;
+    private final IntFunction<Block> blockLookup = this::lookupBlock;
 
     private TeraArray sunlightData;
     private TeraArray sunlightRegenData;
@@ -86,7 +90,7 @@ public ChunkImpl(int x, int y, int z, BlockManager blockManager, ExtraBlockDataM
 
     public ChunkImpl(Vector3i chunkPos, BlockManager blockManager, ExtraBlockDataManager extraDataManager) {
         this(chunkPos,
-                new TeraDenseArray8Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
+                new TeraSectionedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z, new TeraPalettedArray.Factory()),
                 extraDataManager.makeDataArrays(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z),
                 blockManager);
     }
@@ -135,14 +139,28 @@ public int getEstimatedMemoryConsumptionInBytes() {
 
     @Override
     public final Block getBlock(BaseVector3i pos) {
-        short id = (short) blockData.get(pos.x(), pos.y(), pos.z());
-        return blockManager.getBlock(id);
+        return getBlock(pos.x(), pos.y(), pos.z());
     }
 
     @Override
     public final Block getBlock(int x, int y, int z) {
-        short id = (short) blockData.get(x, y, z);
-        return blockManager.getBlock(id);
+        Block block = blockData.getMapped(x, y, z, blockLookup);
+        if (block == null) {
+            return blockManager.getBlock((short) blockData.get(x, y, z));
+        }
+        return block;
+    }
+
+    /**
+     * Used to cache the blocks per palette entry of the block data. Ids that are not registered yet resolve to null,
+     * so that they don't stay cached as air once they get registered.
+     */
+    private Block lookupBlock(int id) {
+        Block block = blockManager.getBlock((short) id);
+        if (block == null || block.getId() != (short) id) {
+            return null;
+        }
+        return block;
     }
 
     // This could be made to check for and clear extraData fields as appropriate,
@@ -540,6 +558,8 @@ public EntityData.ChunkStore.Builder encode() {
 
     /**
      * Calling this method results in a (cheap) snapshot to be taken of the current state of the chunk.
+     * The block and extra data are only copied once they get modified; for {@link TeraSectionedArray}s, which new and
+     * loaded chunks use, that copies only the section that gets modified.
      * This snapshot can then be obtained and rleased by calling {@link #encodeAndReleaseSnapshot()}.
      */
     public void createSnapshot() {
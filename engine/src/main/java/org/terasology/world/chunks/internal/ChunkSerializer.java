@@ -26,8 +26,9 @@
 import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.world.chunks.blockdata.TeraArray;
-import org.terasology.world.chunks.blockdata.TeraDenseArray16Bit;
 import org.terasology.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.world.chunks.blockdata.TeraPalettedArray;
+import org.terasology.world.chunks.blockdata.TeraSectionedArray;
 
 /**
  */
@@ -39,7 +40,13 @@ private ChunkSerializer() {
     public static EntityData.ChunkStore.Builder encode(Vector3i pos, TeraArray blockData, TeraArray[] extraData) {
         final EntityData.ChunkStore.Builder b = EntityData.ChunkStore.newBuilder()
                 .setX(pos.x).setY(pos.y).setZ(pos.z);
-        b.setBlockData(runLengthEncode16(blockData));
+        if (blockData instanceof TeraSectionedArray) {
+            b.setBlockData(runLengthEncodeSectioned((TeraSectionedArray) blockData));
+        } else if (blockData instanceof TeraPalettedArray) {
+            b.setBlockData(runLengthEncodePaletted((TeraPalettedArray) blockData));
+        } else {
+            b.setBlockData(runLengthEncode16(blockData));
+        }
         for (int i = 0; i < extraData.length; i++) {
             b.addExtraData(runLengthEncode16(extraData[i]));
         }
@@ -57,7 +64,7 @@ public static Chunk decode(EntityData.ChunkStore message, BlockManager blockMana
             throw new IllegalArgumentException("Ill-formed protobuf message. Missing block data.");
         }
 
-        final TeraArray blockData = runLengthDecode(message.getBlockData());
+        final TeraArray blockData = runLengthDecodeSectioned(message.getBlockData());
         final TeraArray[] extraData = extraDataManager.makeDataArrays(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z);
         for (int i = 0; i < extraData.length; i++) {
             runLengthDecode(message.getExtraData(i), extraData[i]);
@@ -91,6 +98,39 @@ private static EntityData.RunLengthEncoding16 runLengthEncode16(TeraArray array)
         return builder.build();
     }
 
+    /**
+     * Produces the same encoding as {@link #runLengthEncode16(TeraArray)}, but walks the packed palette indices instead
+     * of looking up every element.
+     */
+    private static EntityData.RunLengthEncoding16 runLengthEncodePaletted(TeraPalettedArray array) {
+        RunCollector collector = new RunCollector();
+        array.encodeRuns(collector);
+        return collector.build();
+    }
+
+    /**
+     * Produces the same encoding as {@link #runLengthEncode16(TeraArray)}, section by section. Runs continue across
+     * section boundaries, as the sections are stored in element order.
+     */
+    private static EntityData.RunLengthEncoding16 runLengthEncodeSectioned(TeraSectionedArray array) {
+        RunCollector collector = new RunCollector();
+        for (int i = 0; i < array.getSectionCount(); i++) {
+            TeraArray section = array.getSection(i);
+            if (section instanceof TeraPalettedArray) {
+                ((TeraPalettedArray) section).encodeRuns(collector);
+            } else {
+                for (int y = 0; y < section.getSizeY(); ++y) {
+                    for (int z = 0; z < section.getSizeZ(); ++z) {
+                        for (int x = 0; x < section.getSizeX(); ++x) {
+                            collector.visitRun(1, (short) section.get(x, y, z));
+                        }
+                    }
+                }
+            }
+        }
+        return collector.build();
+    }
+
     private static EntityData.RunLengthEncoding8 runLengthEncode8(TeraArray array) {
         EntityData.RunLengthEncoding8.Builder builder = EntityData.RunLengthEncoding8.newBuilder();
         TByteList values = new TByteArrayList(16384);
@@ -119,18 +159,37 @@ private static EntityData.RunLengthEncoding8 runLengthEncode8(TeraArray array) {
         return builder.build();
     }
 
-    private static TeraArray runLengthDecode(EntityData.RunLengthEncoding16 data) {
+    /**
+     * Decodes the runs into a sectioned array with paletted sections, splitting runs that cross section boundaries.
+     */
+    private static TeraArray runLengthDecodeSectioned(EntityData.RunLengthEncoding16 data) {
         Preconditions.checkState(data.getValuesCount() == data.getRunLengthsCount(), "Expected same number of values as runs");
-        short[] decodedData = new short[ChunkConstants.SIZE_X * ChunkConstants.SIZE_Y * ChunkConstants.SIZE_Z];
-        int index = 0;
-        for (int pos = 0; pos < data.getValuesCount(); ++pos) {
-            int length = data.getRunLengths(pos);
-            short value = (short) data.getValues(pos);
-            for (int i = 0; i < length; ++i) {
-                decodedData[index++] = value;
+        final int sectionSize = ChunkConstants.SIZE_X * TeraSectionedArray.SECTION_HEIGHT * ChunkConstants.SIZE_Z;
+        final TeraArray[] sections = new TeraArray[TeraSectionedArray.getSectionCount(ChunkConstants.SIZE_Y)];
+        // A section can hold at most all runs plus the remainder of a run that started in the previous section
+        int[] runLengths = new int[data.getRunLengthsCount() + 1];
+        int[] values = new int[data.getRunLengthsCount() + 1];
+        int run = 0;
+        int remainingInRun = data.getRunLengthsCount() > 0 ? data.getRunLengths(0) : 0;
+        for (int i = 0; i < sections.length; i++) {
+            int sectionRuns = 0;
+            int remainingInSection = sectionSize;
+            while (remainingInSection > 0 && run < data.getRunLengthsCount()) {
+                int length = Math.min(remainingInRun, remainingInSection);
+                runLengths[sectionRuns] = length;
+                values[sectionRuns] = data.getValues(run);
+                sectionRuns++;
+                remainingInSection -= length;
+                remainingInRun -= length;
+                if (remainingInRun == 0) {
+                    run++;
+                    remainingInRun = run < data.getRunLengthsCount() ? data.getRunLengths(run) : 0;
+                }
             }
+            sections[i] = TeraPalettedArray.fromRuns(ChunkConstants.SIZE_X, TeraSectionedArray.SECTION_HEIGHT, ChunkConstants.SIZE_Z,
+                    runLengths, values, sectionRuns);
         }
-        return new TeraDenseArray16Bit(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z, decodedData);
+        return new TeraSectionedArray(ChunkConstants.SIZE_X, ChunkConstants.SIZE_Y, ChunkConstants.SIZE_Z, sections);
     }
 
     private static TeraArray runLengthDecode(EntityData.RunLengthEncoding8 data) {
@@ -174,4 +233,36 @@ private static void runLengthDecode(EntityData.RunLengthEncoding16 data, TeraArr
             }
         }
     }
+
+    /**
+     * Collects runs into a {@link EntityData.RunLengthEncoding16}, merging adjacent runs of the same value and leaving
+     * out a zero run at the end, like {@link #runLengthEncode16(TeraArray)}.
+     */
+    private static final class RunCollector implements TeraPalettedArray.RunVisitor {
+        private final EntityData.RunLengthEncoding16.Builder builder = EntityData.RunLengthEncoding16.newBuilder();
+        private int pendingLength;
+        private int pendingValue;
+
+        @Override
+        public void visitRun(int length, int value) {
+            if (value == pendingValue) {
+                pendingLength += length;
+                return;
+            }
+            if (pendingLength > 0) {
+                builder.addRunLengths(pendingLength);
+                builder.addValues(pendingValue & 0xFFFF);
+            }
+            pendingLength = length;
+            pendingValue = value;
+        }
+
+        EntityData.RunLengthEncoding16 build() {
+            if (pendingLength > 0 && pendingValue != 0) {
+                builder.addRunLengths(pendingLength);
+                builder.addValues(pendingValue & 0xFFFF);
+            }
+            return builder.build();
+        }
+    }
 }
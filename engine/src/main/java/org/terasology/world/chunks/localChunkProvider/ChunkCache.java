@@ -24,9 +24,17 @@
 /**
  * Chunk storage which allows to look up for chunks based on their world position.
  */
-interface ChunkCache {
+public interface ChunkCache {
     Chunk get(Vector3i chunkPosition);
 
+    /**
+     * Looks up a chunk by the coordinates of its position. Implementations should override this to avoid allocating a
+     * position for every lookup.
+     */
+    default Chunk get(int x, int y, int z) {
+        return get(new Vector3i(x, y, z));
+    }
+
     void put(Vector3i chunkPosition, Chunk chunk);
 
     Iterator<Vector3i> iterateChunkPositions();
@@ -18,6 +18,7 @@
 import org.terasology.world.chunks.Chunk;
 import org.terasology.world.chunks.internal.GeneratingChunkProvider;
 import org.terasology.world.chunks.internal.ReadyChunkInfo;
+import org.terasology.world.chunks.pipeline.ChunkGenerationPipeline;
 
 import java.util.List;
 
@@ -29,6 +30,14 @@ public interface ChunkFinalizer {
 
     void initialize(GeneratingChunkProvider generatingChunkProvider);
 
+    /**
+     * Initializes the finalizer for a chunk provider that processes its chunks in the given pipeline, so that the
+     * finalization can run as a stage of it. Finalizers that do not make use of the pipeline need not override this.
+     */
+    default void initialize(GeneratingChunkProvider generatingChunkProvider, ChunkGenerationPipeline pipeline) {
+        initialize(generatingChunkProvider);
+    }
+
     List<ReadyChunkInfo> completeFinalization();
 
     void beginFinalization(Chunk chunk, ReadyChunkInfo readyChunkInfo);
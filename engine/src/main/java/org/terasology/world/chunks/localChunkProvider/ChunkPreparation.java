@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.localChunkProvider;
+
+import org.terasology.math.geom.Vector3i;
+import org.terasology.monitoring.chunk.ChunkMonitor;
+import org.terasology.persistence.ChunkStore;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.pipeline.AbstractChunkTask;
+import org.terasology.world.chunks.pipeline.ChunkTask;
+import org.terasology.world.generation.impl.EntityBufferImpl;
+
+/**
+ * The state of a chunk on its way through the stages of the
+ * {@link org.terasology.world.chunks.pipeline.ChunkGenerationPipeline}, shared by the tasks of the stages.
+ * <br><br>
+ * The fields get set by the task of one stage and read by the tasks of the later stages; handing the chunk from one
+ * stage to the next through the queue of the stage makes the changes visible.
+ * <br><br>
+ * The time spent on the steps is reported to the {@link ChunkMonitor} as useful work once the chunk got made
+ * available, or as wasted work if the preparation got cancelled.
+ */
+final class ChunkPreparation {
+    static final String WORK_KIND = "Chunk Preparation";
+
+    private final Vector3i position;
+    private final EntityBufferImpl entityBuffer = new EntityBufferImpl();
+
+    private ChunkStore chunkStore;
+    private Chunk chunk;
+
+    /*
+     * Guarded by this. The work gets reported once the outcome is known and no step is running anymore.
+     */
+    private long workNanos;
+    private boolean stepRunning;
+    private boolean cancelled;
+    private boolean completed;
+    private boolean reported;
+
+    ChunkPreparation(Vector3i position) {
+        this.position = position;
+    }
+
+    /**
+     * @return a task that runs the given step of the preparation, unless the preparation got cancelled
+     */
+    ChunkTask createTask(String name, Runnable step) {
+        return new AbstractChunkTask(position) {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void run() {
+                if (!startStep()) {
+                    return;
+                }
+                long startTime = System.nanoTime();
+                try {
+                    step.run();
+                } finally {
+                    endStep(System.nanoTime() - startTime);
+                }
+            }
+        };
+    }
+
+    Vector3i getPosition() {
+        return position;
+    }
+
+    EntityBufferImpl getEntityBuffer() {
+        return entityBuffer;
+    }
+
+    /**
+     * @return the stored chunk the chunk got loaded from, or null if it got generated
+     */
+    ChunkStore getChunkStore() {
+        return chunkStore;
+    }
+
+    void setChunkStore(ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+        this.chunk = chunkStore.getChunk();
+    }
+
+    Chunk getChunk() {
+        return chunk;
+    }
+
+    void setChunk(Chunk chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * Stops the preparation, the step that is currently running still completes.
+     */
+    synchronized void cancel() {
+        if (!completed) {
+            cancelled = true;
+            reportIfDone();
+        }
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Must be called once the prepared chunk got made available.
+     */
+    synchronized void complete() {
+        completed = true;
+        reportIfDone();
+    }
+
+    private synchronized boolean startStep() {
+        if (cancelled) {
+            return false;
+        }
+        stepRunning = true;
+        return true;
+    }
+
+    private synchronized void endStep(long nanos) {
+        stepRunning = false;
+        workNanos += nanos;
+        reportIfDone();
+    }
+
+    private void reportIfDone() {
+        if (reported || stepRunning || !(cancelled || completed)) {
+            return;
+        }
+        reported = true;
+        if (completed) {
+            ChunkMonitor.fireChunkWorkUseful(WORK_KIND, workNanos);
+        } else if (workNanos == 0) {
+            ChunkMonitor.fireChunkWorkCancelled(WORK_KIND);
+        } else {
+            ChunkMonitor.fireChunkWorkWasted(WORK_KIND, workNanos);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 import org.terasology.world.chunks.Chunk;
 import org.terasology.world.chunks.internal.GeneratingChunkProvider;
 import org.terasology.world.chunks.internal.ReadyChunkInfo;
+import org.terasology.world.chunks.pipeline.ChunkGenerationPipeline;
 import org.terasology.world.propagation.light.LightMerger;
 
 import java.util.List;
@@ -31,6 +32,11 @@ public void initialize(final GeneratingChunkProvider generatingChunkProvider) {
         lightMerger = new LightMerger<>(generatingChunkProvider);
     }
 
+    @Override
+    public void initialize(GeneratingChunkProvider generatingChunkProvider, ChunkGenerationPipeline pipeline) {
+        lightMerger = new LightMerger<>(generatingChunkProvider, pipeline::doLightMergeTask);
+    }
+
     @Override
     public List<ReadyChunkInfo> completeFinalization() {
         return lightMerger.completeMerge();
@@ -26,6 +26,7 @@
 import gnu.trove.map.hash.TShortObjectHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.config.SystemConfig;
 import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
@@ -61,10 +62,9 @@
 import org.terasology.world.chunks.internal.ChunkRelevanceRegion;
 import org.terasology.world.chunks.internal.GeneratingChunkProvider;
 import org.terasology.world.chunks.internal.ReadyChunkInfo;
-import org.terasology.world.chunks.pipeline.AbstractChunkTask;
 import org.terasology.world.chunks.pipeline.ChunkGenerationPipeline;
+import org.terasology.world.chunks.pipeline.ChunkProcessingStage;
 import org.terasology.world.chunks.pipeline.ChunkTask;
-import org.terasology.world.generation.impl.EntityBufferImpl;
 import org.terasology.world.generator.WorldGenerator;
 import org.terasology.world.internal.ChunkViewCore;
 import org.terasology.world.internal.ChunkViewCoreImpl;
@@ -82,6 +82,7 @@
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 /**
  */
@@ -101,17 +102,34 @@ public class LocalChunkProvider implements GeneratingChunkProvider {
     private Map<EntityRef, ChunkRelevanceRegion> regions = Maps.newHashMap();
 
 
-    private final Set<Vector3i> preparingChunks = Sets.newHashSet();
-    private final BlockingQueue<ReadyChunkInfo> readyChunks = Queues.newLinkedBlockingQueue();
+    /**
+     * The chunks that are on their way through the pipeline. Only accessed by the main thread.
+     */
+    private final Map<Vector3i, ChunkPreparation> preparingChunks = Maps.newHashMap();
+    /**
+     * The chunks handed over with {@link #onChunkIsReady(Chunk)}, which become ready without a preparation.
+     */
+    private final Set<Chunk> handedOverChunks = Sets.newConcurrentHashSet();
     private List<ReadyChunkInfo> sortedReadyChunks = Lists.newArrayList();
     private final BlockingQueue<TShortObjectMap<TIntList>> deactivateBlocksQueue = Queues.newLinkedBlockingQueue();
 
     private EntityRef worldEntity = EntityRef.NULL;
 
     private ReadWriteLock regionLock = new ReentrantReadWriteLock();
+    /**
+     * The centers of the relevance regions, so that the priority of chunk tasks can be computed without taking the
+     * region lock. Replaced whenever a region gets added, removed or moves to another chunk.
+     */
+    private volatile List<Vector3i> regionCenters = Collections.emptyList();
+    /**
+     * Set when a relevance region moved, changed its size or got removed, so that chunks that are no longer needed
+     * stop being prepared.
+     */
+    private boolean relevanceChanged;
 
     private BlockManager blockManager;
     private ExtraBlockDataManager extraDataManager;
+    private final SystemConfig systemConfig;
     private final ChunkCache chunkCache;
     private final Supplier<ChunkFinalizer> chunkFinalizerSupplier;
     private BlockEntityRegistry registry;
@@ -120,7 +138,7 @@ public class LocalChunkProvider implements GeneratingChunkProvider {
 
     //TODO Remove this old constructor at the end of the chunk overhaul
     public LocalChunkProvider(StorageManager storageManager, EntityManager entityManager, WorldGenerator generator,
-                              BlockManager blockManager, ExtraBlockDataManager extraDataManager) {
+                              BlockManager blockManager, ExtraBlockDataManager extraDataManager, SystemConfig systemConfig) {
         this(storageManager,
                 entityManager,
                 generator,
@@ -128,23 +146,25 @@ public LocalChunkProvider(StorageManager storageManager, EntityManager entityMan
                 extraDataManager,
                 new LightMergingChunkFinalizer(),
                 LightMergingChunkFinalizer::new,
-                new ConcurrentMapChunkCache());
+                new LongKeyChunkCache(),
+                systemConfig);
     }
 
     LocalChunkProvider(StorageManager storageManager, EntityManager entityManager, WorldGenerator generator,
                        BlockManager blockManager, ExtraBlockDataManager extraDataManager,
                        ChunkFinalizer chunkFinalizer, Supplier<ChunkFinalizer> chunkFinalizerSupplier,
-                       ChunkCache chunkCache) {
+                       ChunkCache chunkCache, SystemConfig systemConfig) {
         this.storageManager = storageManager;
         this.entityManager = entityManager;
         this.generator = generator;
         this.blockManager = blockManager;
         this.extraDataManager = extraDataManager;
-        this.pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevanceComparator());
+        this.systemConfig = systemConfig;
+        this.pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevance(), systemConfig);
         this.unloadRequestTaskMaster = TaskMaster.createFIFOTaskMaster("Chunk-Unloader", 4);
         this.chunkFinalizer = chunkFinalizer;
         this.chunkCache = chunkCache;
-        chunkFinalizer.initialize(this);
+        chunkFinalizer.initialize(this, pipeline);
         this.chunkFinalizerSupplier = chunkFinalizerSupplier;
         ChunkMonitor.fireChunkProviderInitialized(this);
     }
@@ -224,6 +244,7 @@ public void addRelevanceEntity(EntityRef entity, Vector3i distance, ChunkRegionL
         regionLock.writeLock().lock();
         try {
             regions.put(entity, region);
+            updateRegionCenters();
         } finally {
             regionLock.writeLock().unlock();
         }
@@ -255,6 +276,8 @@ public void removeRelevanceEntity(EntityRef entity) {
         regionLock.writeLock().lock();
         try {
             regions.remove(entity);
+            relevanceChanged = true;
+            updateRegionCenters();
         } finally {
             regionLock.writeLock().unlock();
         }
@@ -350,11 +373,24 @@ public void beginUpdate() {
     }
 
     private void makeChunksAvailable() {
-        List<ReadyChunkInfo> newReadyChunks = Lists.newArrayListWithExpectedSize(readyChunks.size());
-        readyChunks.drainTo(newReadyChunks);
-        for (ReadyChunkInfo readyChunkInfo : newReadyChunks) {
+        List<ReadyChunkInfo> newReadyChunks = Lists.newArrayListWithExpectedSize(pipeline.getReadyChunkCount());
+        pipeline.drainReadyChunks(newReadyChunks);
+        Iterator<ReadyChunkInfo> iterator = newReadyChunks.iterator();
+        while (iterator.hasNext()) {
+            ReadyChunkInfo readyChunkInfo = iterator.next();
+            ChunkPreparation preparation = preparingChunks.get(readyChunkInfo.getPos());
+            boolean handedOver = handedOverChunks.remove(readyChunkInfo.getChunk());
+            if (preparation == null ? !handedOver : preparation.getChunk() != readyChunkInfo.getChunk()) {
+                // Completed by a preparation that got cancelled after its last check, possibly while the chunk is
+                // being prepared again
+                iterator.remove();
+                continue;
+            }
             chunkCache.put(readyChunkInfo.getPos(), readyChunkInfo.getChunk());
-            preparingChunks.remove(readyChunkInfo.getPos());
+            if (preparation != null) {
+                preparation.complete();
+                preparingChunks.remove(readyChunkInfo.getPos());
+            }
         }
         updateRelevanceRegionsWithNewChunks(newReadyChunks);
         if (!newReadyChunks.isEmpty()) {
@@ -398,17 +434,11 @@ private void checkForUnload() {
         PerformanceMonitor.startActivity("Unloading irrelevant chunks");
         int unloaded = 0;
         logger.debug("Compacting cache");
+        List<Region3i> relevantRegions = getRelevantRegions();
         Iterator<Vector3i> iterator = chunkCache.iterateChunkPositions();
         while (iterator.hasNext()) {
             Vector3i pos = iterator.next();
-            boolean keep = false;
-            for (ChunkRelevanceRegion region : regions.values()) {
-                if (region.getCurrentRegion().expand(UNLOAD_LEEWAY).encompasses(pos)) {
-                    keep = true;
-                    break;
-                }
-            }
-            if (!keep) {
+            if (!isInAnyRegion(pos, relevantRegions)) {
                 // TODO: need some way to not dispose chunks being edited or processed (or do so safely)
                 // Note: Above won't matter if all changes are on the main thread
                 if (unloadChunkInternal(pos)) {
@@ -422,6 +452,47 @@ private void checkForUnload() {
         PerformanceMonitor.endActivity();
     }
 
+    /**
+     * @return the regions around the relevance regions outside of which chunks are no longer needed
+     */
+    private List<Region3i> getRelevantRegions() {
+        List<Region3i> relevantRegions = Lists.newArrayListWithCapacity(regions.size());
+        for (ChunkRelevanceRegion region : regions.values()) {
+            relevantRegions.add(region.getCurrentRegion().expand(UNLOAD_LEEWAY));
+        }
+        return relevantRegions;
+    }
+
+    private static boolean isInAnyRegion(Vector3i pos, List<Region3i> relevantRegions) {
+        for (Region3i region : relevantRegions) {
+            if (region.encompasses(pos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops preparing the chunks that left all relevance regions before they made it through the pipeline.
+     */
+    private void cancelIrrelevantPreparations() {
+        List<Region3i> relevantRegions = getRelevantRegions();
+        Set<Vector3i> cancelledPositions = Sets.newHashSet();
+        Iterator<ChunkPreparation> iterator = preparingChunks.values().iterator();
+        while (iterator.hasNext()) {
+            ChunkPreparation preparation = iterator.next();
+            if (!isInAnyRegion(preparation.getPosition(), relevantRegions)) {
+                preparation.cancel();
+                cancelledPositions.add(preparation.getPosition());
+                iterator.remove();
+            }
+        }
+        if (!cancelledPositions.isEmpty()) {
+            pipeline.cancel(cancelledPositions);
+            logger.debug("Cancelled the preparation of {} chunks that are no longer relevant", cancelledPositions.size());
+        }
+    }
+
     private boolean unloadChunkInternal(Vector3i pos) {
         Chunk chunk = chunkCache.get(pos);
         if (!chunk.isReady()) {
@@ -477,6 +548,18 @@ private List<Chunk> listAdjacentChunks(Chunk chunk) {
     private void updateRelevance() {
         for (ChunkRelevanceRegion chunkRelevanceRegion : regions.values()) {
             chunkRelevanceRegion.update();
+        }
+        updateRegionCenters();
+        for (ChunkRelevanceRegion chunkRelevanceRegion : regions.values()) {
+            if (chunkRelevanceRegion.isDirty()) {
+                relevanceChanged = true;
+            }
+        }
+        if (relevanceChanged) {
+            cancelIrrelevantPreparations();
+            relevanceChanged = false;
+        }
+        for (ChunkRelevanceRegion chunkRelevanceRegion : regions.values()) {
             if (chunkRelevanceRegion.isDirty()) {
                 for (Vector3i pos : chunkRelevanceRegion.getNeededChunks()) {
                     Chunk chunk = chunkCache.get(pos);
@@ -491,6 +574,20 @@ private void updateRelevance() {
         }
     }
 
+    /**
+     * Must be called while holding the region lock. Reprioritizes the queued chunk tasks if any region moved.
+     */
+    private void updateRegionCenters() {
+        List<Vector3i> centers = Lists.newArrayListWithCapacity(regions.size());
+        for (ChunkRelevanceRegion region : regions.values()) {
+            centers.add(region.getCenter());
+        }
+        if (!centers.equals(regionCenters)) {
+            regionCenters = centers;
+            pipeline.reprioritize();
+        }
+    }
+
     private boolean makeChunkAvailable(final ReadyChunkInfo readyChunkInfo) {
         final Chunk chunk = chunkCache.get(readyChunkInfo.getPos());
         if (chunk == null) {
@@ -532,7 +629,11 @@ private TShortObjectMap<TIntList> createBatchBlockEventMappings(Chunk chunk) {
 
     @Override
     public Chunk getChunk(int x, int y, int z) {
-        return getChunk(new Vector3i(x, y, z));
+        Chunk chunk = chunkCache.get(x, y, z);
+        if (isChunkReady(chunk)) {
+            return chunk;
+        }
+        return null;
     }
 
     @Override
@@ -559,9 +660,10 @@ public void restart() {
 
     @Override
     public void shutdown() {
+        // The finalizer waits for its light merges, which run in the pipeline
+        chunkFinalizer.shutdown();
         pipeline.shutdown();
         unloadRequestTaskMaster.shutdown(new ChunkUnloadRequest(), true);
-        chunkFinalizer.shutdown();
     }
 
     @Override
@@ -598,9 +700,9 @@ public boolean reloadChunk(Vector3i coords) {
     @Override
     public void purgeWorld() {
         ChunkMonitor.fireChunkProviderDisposed(this);
+        chunkFinalizer.shutdown();
         pipeline.shutdown();
         unloadRequestTaskMaster.shutdown(new ChunkUnloadRequest(), true);
-        chunkFinalizer.shutdown();
 
         chunkCache.getAllChunks().stream().filter(ManagedChunk::isReady).forEach(chunk -> {
             worldEntity.send(new BeforeChunkUnload(chunk.getPosition()));
@@ -608,16 +710,17 @@ public void purgeWorld() {
             chunk.dispose();
         });
         chunkCache.clear();
-        readyChunks.clear();
         sortedReadyChunks.clear();
         storageManager.deleteWorld();
+        preparingChunks.values().forEach(ChunkPreparation::cancel);
         preparingChunks.clear();
+        handedOverChunks.clear();
         worldEntity.send(new PurgeWorldEvent());
 
-        pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevanceComparator());
+        pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevance(), systemConfig);
         unloadRequestTaskMaster = TaskMaster.createFIFOTaskMaster("Chunk-Unloader", 8);
         chunkFinalizer = chunkFinalizerSupplier.get();
-        chunkFinalizer.initialize(this);
+        chunkFinalizer.initialize(this, pipeline);
         chunkFinalizer.restart();
         ChunkMonitor.fireChunkProviderInitialized(this);
 
@@ -631,39 +734,54 @@ public void purgeWorld() {
 
     private void createOrLoadChunk(Vector3i chunkPos) {
         Chunk chunk = chunkCache.get(chunkPos);
-        if (chunk == null && !preparingChunks.contains(chunkPos)) {
-            preparingChunks.add(chunkPos);
-            pipeline.doTask(new AbstractChunkTask(chunkPos) {
-                @Override
-                public String getName() {
-                    return "Create or Load Chunk";
-                }
+        if (chunk == null && !preparingChunks.containsKey(chunkPos)) {
+            ChunkPreparation preparation = new ChunkPreparation(chunkPos);
+            preparingChunks.put(chunkPos, preparation);
+            pipeline.doTask(ChunkProcessingStage.LOAD, preparation.createTask("Load Chunk", () -> loadChunk(preparation)));
+        }
+    }
 
-                @Override
-                public void run() {
-                    ChunkStore chunkStore = storageManager.loadChunkStore(getPosition());
-                    Chunk chunk;
-                    EntityBufferImpl buffer = new EntityBufferImpl();
-                    if (chunkStore == null) {
-                        chunk = new ChunkImpl(getPosition(), blockManager, extraDataManager);
-                        generator.createChunk(chunk, buffer);
-                    } else {
-                        chunk = chunkStore.getChunk();
-                    }
+    private void loadChunk(ChunkPreparation preparation) {
+        ChunkStore chunkStore = storageManager.loadChunkStore(preparation.getPosition());
+        if (chunkStore == null) {
+            pipeline.doTask(ChunkProcessingStage.GENERATE,
+                    preparation.createTask("Generate Chunk", () -> generateChunk(preparation)));
+        } else {
+            preparation.setChunkStore(chunkStore);
+            pipeline.doTask(ChunkProcessingStage.INTERNAL_LIGHT,
+                    preparation.createTask("Light Chunk", () -> lightChunk(preparation)));
+        }
+    }
 
-                    InternalLightProcessor.generateInternalLighting(chunk);
-                    chunk.deflate();
-                    TShortObjectMap<TIntList> mappings = createBatchBlockEventMappings(chunk);
-                    readyChunks.offer(new ReadyChunkInfo(chunk, mappings, chunkStore, buffer.getAll()));
-                }
-            });
+    private void generateChunk(ChunkPreparation preparation) {
+        Chunk chunk = new ChunkImpl(preparation.getPosition(), blockManager, extraDataManager);
+        generator.createChunk(chunk, preparation.getEntityBuffer());
+        preparation.setChunk(chunk);
+        pipeline.doTask(ChunkProcessingStage.INTERNAL_LIGHT,
+                preparation.createTask("Light Chunk", () -> lightChunk(preparation)));
+    }
+
+    private void lightChunk(ChunkPreparation preparation) {
+        InternalLightProcessor.generateInternalLighting(preparation.getChunk());
+        pipeline.doTask(ChunkProcessingStage.DEFLATE,
+                preparation.createTask("Deflate Chunk", () -> deflateChunk(preparation)));
+    }
+
+    private void deflateChunk(ChunkPreparation preparation) {
+        Chunk chunk = preparation.getChunk();
+        chunk.deflate();
+        TShortObjectMap<TIntList> mappings = createBatchBlockEventMappings(chunk);
+        if (!preparation.isCancelled()) {
+            pipeline.completeChunk(new ReadyChunkInfo(chunk, mappings, preparation.getChunkStore(),
+                    preparation.getEntityBuffer().getAll()));
         }
     }
 
 
     @Override
     public void onChunkIsReady(Chunk chunk) {
-        readyChunks.offer(new ReadyChunkInfo(chunk, createBatchBlockEventMappings(chunk), Collections.emptyList()));
+        handedOverChunks.add(chunk);
+        pipeline.completeChunk(new ReadyChunkInfo(chunk, createBatchBlockEventMappings(chunk), Collections.emptyList()));
     }
 
     @Override
@@ -680,14 +798,10 @@ private boolean isChunkReady(Chunk chunk) {
         return chunk != null && chunk.isReady();
     }
 
-    private class ChunkTaskRelevanceComparator implements Comparator<ChunkTask> {
+    private class ChunkTaskRelevance implements ToIntFunction<ChunkTask> {
 
         @Override
-        public int compare(ChunkTask o1, ChunkTask o2) {
-            return score(o1) - score(o2);
-        }
-
-        private int score(ChunkTask task) {
+        public int applyAsInt(ChunkTask task) {
             if (task.isTerminateSignal()) {
                 return -1;
             }
@@ -696,19 +810,13 @@ private int score(ChunkTask task) {
 
         private int score(Vector3i chunk) {
             int score = Integer.MAX_VALUE;
-
-            regionLock.readLock().lock();
-            try {
-                for (ChunkRelevanceRegion region : regions.values()) {
-                    int dist = distFromRegion(chunk, region.getCenter());
-                    if (dist < score) {
-                        score = dist;
-                    }
+            for (Vector3i regionCenter : regionCenters) {
+                int dist = distFromRegion(chunk, regionCenter);
+                if (dist < score) {
+                    score = dist;
                 }
-                return score;
-            } finally {
-                regionLock.readLock().unlock();
             }
+            return score;
         }
 
         private int distFromRegion(Vector3i pos, Vector3i regionCenter) {
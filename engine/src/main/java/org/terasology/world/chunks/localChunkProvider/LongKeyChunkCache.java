@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.localChunkProvider;
+
+import com.google.common.collect.Lists;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.chunks.Chunk;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A chunk cache keyed by the chunk position packed into a long, stored in an open addressing hash table.
+ * <br><br>
+ * Lookups by int coordinates don't allocate and don't lock: the table slots hold immutable entries, which are
+ * published through an {@link AtomicReferenceArray}. Removed entries are replaced by a tombstone rather than moving
+ * other entries, so that a concurrent lookup never misses a chunk that is present. Modifications are synchronized and
+ * rebuild the table into a new array when it gets too full, which is then swapped in as a whole.
+ * <br><br>
+ * Each thread remembers the last chunk it looked up, since block accesses tend to hit the same chunk many times in a
+ * row.
+ * <br><br>
+ * Chunk coordinates must fit into 21 bits (-1048576 to 1048575) per axis.
+ */
+public class LongKeyChunkCache implements ChunkCache {
+    private static final int MIN_CAPACITY = 1024;
+    private static final int COORDINATE_BITS = 21;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    private static final Entry TOMBSTONE = new Entry(-1L, null);
+
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+    /**
+     * Number of chunks in the table. Guarded by this.
+     */
+    private int size;
+    /**
+     * Number of tombstones in the table. Guarded by this.
+     */
+    private int tombstones;
+
+    private final ThreadLocal<Entry> lastEntry = new ThreadLocal<>();
+
+    @Override
+    public Chunk get(Vector3i chunkPosition) {
+        return get(chunkPosition.x, chunkPosition.y, chunkPosition.z);
+    }
+
+    @Override
+    public Chunk get(int x, int y, int z) {
+        long key = pack(x, y, z);
+        Entry last = lastEntry.get();
+        if (last != null && last.key == key && !last.removed) {
+            return last.chunk;
+        }
+        Entry entry = find(key);
+        if (entry != null) {
+            lastEntry.set(entry);
+            return entry.chunk;
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void put(Vector3i chunkPosition, Chunk chunk) {
+        long key = pack(chunkPosition.x, chunkPosition.y, chunkPosition.z);
+        AtomicReferenceArray<Entry> currentTable = table;
+        int mask = currentTable.length() - 1;
+        int firstFree = -1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Entry entry = currentTable.get(i);
+            if (entry == null) {
+                if (firstFree == -1) {
+                    firstFree = i;
+                }
+                break;
+            }
+            if (entry == TOMBSTONE) {
+                if (firstFree == -1) {
+                    firstFree = i;
+                }
+            } else if (entry.key == key) {
+                // Readers only ever see either the old or the new chunk
+                currentTable.set(i, new Entry(key, chunk));
+                entry.removed = true;
+                return;
+            }
+        }
+        if (currentTable.get(firstFree) == TOMBSTONE) {
+            tombstones--;
+        }
+        currentTable.set(firstFree, new Entry(key, chunk));
+        size++;
+        if (2 * (size + tombstones) > currentTable.length()) {
+            rehash();
+        }
+    }
+
+    @Override
+    public Iterator<Vector3i> iterateChunkPositions() {
+        List<Vector3i> positions = Lists.newArrayListWithCapacity(size());
+        forEachEntry(entry -> positions.add(unpack(entry.key)));
+        Iterator<Vector3i> positionIterator = positions.iterator();
+        return new Iterator<Vector3i>() {
+            private Vector3i current;
+
+            @Override
+            public boolean hasNext() {
+                return positionIterator.hasNext();
+            }
+
+            @Override
+            public Vector3i next() {
+                current = positionIterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                removeChunkAt(current);
+                current = null;
+            }
+        };
+    }
+
+    @Override
+    public Collection<Chunk> getAllChunks() {
+        List<Chunk> chunks = Lists.newArrayListWithCapacity(size());
+        forEachEntry(entry -> chunks.add(entry.chunk));
+        return chunks;
+    }
+
+    @Override
+    public synchronized void clear() {
+        forEachEntry(entry -> entry.removed = true);
+        table = new AtomicReferenceArray<>(MIN_CAPACITY);
+        size = 0;
+        tombstones = 0;
+    }
+
+    @Override
+    public boolean containsChunkAt(Vector3i chunkPosition) {
+        return find(pack(chunkPosition.x, chunkPosition.y, chunkPosition.z)) != null;
+    }
+
+    @Override
+    public synchronized void removeChunkAt(Vector3i chunkPosition) {
+        long key = pack(chunkPosition.x, chunkPosition.y, chunkPosition.z);
+        AtomicReferenceArray<Entry> currentTable = table;
+        int mask = currentTable.length() - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Entry entry = currentTable.get(i);
+            if (entry == null) {
+                return;
+            }
+            if (entry != TOMBSTONE && entry.key == key) {
+                currentTable.set(i, TOMBSTONE);
+                entry.removed = true;
+                size--;
+                tombstones++;
+                return;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Looks the key up in the current table. The table may get swapped or the entry replaced or removed while the
+     * lookup runs, so an entry that turns out to be removed is never returned: the lookup is repeated on the then
+     * current table instead, as is a miss on a table that has been swapped in the meantime.
+     */
+    private Entry find(long key) {
+        while (true) {
+            AtomicReferenceArray<Entry> currentTable = table;
+            Entry entry = find(currentTable, key);
+            if (entry == null) {
+                if (currentTable == table) {
+                    return null;
+                }
+            } else if (!entry.removed) {
+                return entry;
+            }
+        }
+    }
+
+    private static Entry find(AtomicReferenceArray<Entry> currentTable, long key) {
+        int mask = currentTable.length() - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            Entry entry = currentTable.get(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != TOMBSTONE && entry.key == key) {
+                return entry;
+            }
+        }
+    }
+
+    private synchronized void forEachEntry(Consumer<Entry> action) {
+        AtomicReferenceArray<Entry> currentTable = table;
+        for (int i = 0; i < currentTable.length(); i++) {
+            Entry entry = currentTable.get(i);
+            if (entry != null && entry != TOMBSTONE) {
+                action.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * Copies all entries into a new table without tombstones, growing it until it is at most a third full. Must be
+     * called while holding the lock of this object.
+     */
+    private void rehash() {
+        AtomicReferenceArray<Entry> oldTable = table;
+        int capacity = oldTable.length();
+        while (3 * size > capacity) {
+            capacity *= 2;
+        }
+        AtomicReferenceArray<Entry> newTable = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldTable.length(); i++) {
+            Entry entry = oldTable.get(i);
+            if (entry != null && entry != TOMBSTONE) {
+                int slot = hash(entry.key) & mask;
+                while (newTable.get(slot) != null) {
+                    slot = (slot + 1) & mask;
+                }
+                newTable.set(slot, entry);
+            }
+        }
+        tombstones = 0;
+        table = newTable;
+    }
+
+    private static long pack(int x, int y, int z) {
+        return (x & COORDINATE_MASK) << (2 * COORDINATE_BITS) | (y & COORDINATE_MASK) << COORDINATE_BITS | (z & COORDINATE_MASK);
+    }
+
+    private static Vector3i unpack(long key) {
+        int shift = Long.SIZE - COORDINATE_BITS;
+        return new Vector3i((int) (key << (Long.SIZE - 3 * COORDINATE_BITS) >> shift),
+                (int) (key << (Long.SIZE - 2 * COORDINATE_BITS) >> shift),
+                (int) (key << shift >> shift));
+    }
+
+    private static int hash(long key) {
+        // The low bits of the product only depend on the z coordinate, so fold the well mixed high bits onto them
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static final class Entry {
+        private final long key;
+        private final Chunk chunk;
+        /**
+         * Set once the entry is no longer in the table, so that the last entries of the threads don't outlive it.
+         */
+        private volatile boolean removed;
+
+        private Entry(long key, Chunk chunk) {
+            this.key = key;
+            this.chunk = chunk;
+        }
+    }
+}
@@ -13,41 +13,229 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.terasology.world.chunks.pipeline;
 
+import com.google.common.collect.Queues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.config.SystemConfig;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.monitoring.chunk.ChunkMonitor;
 import org.terasology.utilities.concurrency.TaskMaster;
+import org.terasology.world.chunks.internal.ReadyChunkInfo;
 
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 /**
+ * Processes chunk tasks in the {@link ChunkProcessingStage}s, each with its own threads and queue. The task of a stage
+ * hands the chunk on to the next stage with {@link #doTask(ChunkProcessingStage, ChunkTask)}, the last stage hands it
+ * back to the chunk provider with {@link #completeChunk(ReadyChunkInfo)}. Handing on blocks while the queue of the
+ * next stage is full, which limits the amount of finished work waiting between stages.
+ * <br><br>
+ * Light merge tasks must only be handed in once the neighbours they touch are available and no other merge touching
+ * the same chunks is in progress, see {@link org.terasology.world.propagation.light.LightMerger}.
+ * <br><br>
+ * The queue depth of each stage and the wait and run times of its tasks are reported to the {@link ChunkMonitor}.
  */
 public class ChunkGenerationPipeline {
-    private static final int NUM_TASK_THREADS = 8;
+    /**
+     * How many chunks may wait to be picked up by the chunk provider, package-private for tests.
+     */
+    static final int MAX_READY_CHUNKS = 256;
+    /**
+     * How long a blocked hand over waits before checking whether the pipeline got shut down.
+     */
+    private static final long HAND_OVER_RETRY_MS = 100;
+    /**
+     * Time the current thread spent blocked handing over work since the task it runs started, so that waiting for
+     * the next stage does not count as run time.
+     */
+    private static final ThreadLocal<long[]> HAND_OVER_NANOS = ThreadLocal.withInitial(() -> new long[1]);
     private static final Logger logger = LoggerFactory.getLogger(ChunkGenerationPipeline.class);
 
-    private TaskMaster<ChunkTask> chunkGenerator;
+    private final Map<ChunkProcessingStage, TaskMaster<ChunkTask>> stages = new EnumMap<>(ChunkProcessingStage.class);
+    private final BlockingQueue<ReadyChunkInfo> readyChunks = Queues.newLinkedBlockingQueue(MAX_READY_CHUNKS);
+
+    private volatile boolean running = true;
 
-    public ChunkGenerationPipeline(Comparator<ChunkTask> taskComparator) {
-        chunkGenerator = TaskMaster.createDynamicPriorityTaskMaster("Chunk-Generator", NUM_TASK_THREADS, taskComparator);
+    /**
+     * Creates a pipeline with all stages.
+     *
+     * @param taskPriority computes the priority of a task, tasks with a lower priority get processed first
+     * @param config       provides the thread count and queue size of each stage
+     */
+    public ChunkGenerationPipeline(ToIntFunction<ChunkTask> taskPriority, SystemConfig config) {
+        this(taskPriority, config, EnumSet.allOf(ChunkProcessingStage.class), EnumSet.noneOf(ChunkProcessingStage.class));
     }
 
-    public void doTask(ChunkTask task) {
-        try {
-            chunkGenerator.put(task);
-        } catch (InterruptedException e) {
-            logger.error("Failed to enqueue task {}", task, e);
+    /**
+     * Creates a pipeline with only the given stages, tasks must not be handed to the other stages.
+     *
+     * @param taskPriority     computes the priority of a task, tasks with a lower priority get processed first
+     * @param config           provides the thread count and queue size of each stage
+     * @param stages           the stages to create
+     * @param mainThreadStages the stages that are fed by the main thread in this pipeline, their queues are never
+     *                         bounded
+     */
+    public ChunkGenerationPipeline(ToIntFunction<ChunkTask> taskPriority, SystemConfig config,
+                                   Set<ChunkProcessingStage> stages, Set<ChunkProcessingStage> mainThreadStages) {
+        for (ChunkProcessingStage stage : stages) {
+            boolean bounded = stage.isQueueBounded() && !mainThreadStages.contains(stage);
+            int maxQueueSize = bounded ? config.getChunkStageMaxQueueSize(stage) : Integer.MAX_VALUE;
+            TaskMaster<ChunkTask> taskMaster = TaskMaster.createDynamicPriorityTaskMaster(
+                    "Chunk-" + stage.getDisplayName().replace(' ', '-'), config.getChunkStageThreads(stage), taskPriority, maxQueueSize);
+            stages.put(stage, taskMaster);
+            ChunkMonitor.registerStageQueue(stage.getDisplayName(), taskMaster::getQueueSize);
         }
     }
 
+    /**
+     * Hands a task to the given stage. Blocks while the queue of the stage is full; the task gets dropped if the
+     * pipeline gets shut down in the meantime.
+     */
+    public void doTask(ChunkProcessingStage stage, ChunkTask task) {
+        TaskMaster<ChunkTask> taskMaster = stages.get(stage);
+        if (taskMaster == null) {
+            throw new IllegalArgumentException("The stage " + stage + " is not part of this pipeline");
+        }
+        if (stage == ChunkProcessingStage.LIGHT_MERGE) {
+            // Light merges report their timings themselves, as their wait includes waiting for conflicting merges
+            handOver(task, (timeout, unit) -> taskMaster.offer(task, timeout, unit));
+        } else {
+            TimedChunkTask timedTask = new TimedChunkTask(stage, task);
+            handOver(task, (timeout, unit) -> taskMaster.offer(timedTask, timeout, unit));
+        }
+    }
+
+    public void doLightMergeTask(ChunkTask task) {
+        doTask(ChunkProcessingStage.LIGHT_MERGE, task);
+    }
+
+    /**
+     * Hands a chunk that passed all stages up to the light merge back to the chunk provider. Blocks while the chunk
+     * provider has too many chunks waiting to be picked up.
+     */
+    public void completeChunk(ReadyChunkInfo readyChunkInfo) {
+        handOver(readyChunkInfo, (timeout, unit) -> readyChunks.offer(readyChunkInfo, timeout, unit));
+    }
+
+    /**
+     * Moves the chunks that completed the pipeline to the given collection.
+     */
+    public void drainReadyChunks(Collection<ReadyChunkInfo> output) {
+        readyChunks.drainTo(output);
+    }
+
+    public int getReadyChunkCount() {
+        return readyChunks.size();
+    }
+
+    /**
+     * Removes the queued tasks of the chunks at the given positions from all stages but the light merge. Tasks that
+     * are already running are not affected and have to check for the cancellation themselves.
+     */
+    public void cancel(Set<Vector3i> positions) {
+        for (Map.Entry<ChunkProcessingStage, TaskMaster<ChunkTask>> entry : stages.entrySet()) {
+            if (entry.getKey() != ChunkProcessingStage.LIGHT_MERGE) {
+                entry.getValue().removeIf(task -> !task.isTerminateSignal() && positions.contains(task.getPosition()));
+            }
+        }
+    }
+
+    /**
+     * Recomputes the priorities of the queued tasks, must be called when the state the task priority depends on changes.
+     */
+    public void reprioritize() {
+        stages.values().forEach(TaskMaster::reprioritize);
+    }
+
+    /**
+     * Drops the queued tasks of all stages but the light merge. Queued light merge tasks still get processed, so that
+     * no chunk is left with half merged light.
+     */
     public void shutdown() {
-        chunkGenerator.shutdown(new ShutdownChunkTask(), false);
+        running = false;
+        for (Map.Entry<ChunkProcessingStage, TaskMaster<ChunkTask>> entry : stages.entrySet()) {
+            boolean awaitComplete = entry.getKey() == ChunkProcessingStage.LIGHT_MERGE;
+            entry.getValue().shutdown(new ShutdownChunkTask(), awaitComplete);
+        }
     }
 
     public void restart() {
-        chunkGenerator.restart();
+        running = true;
+        stages.values().forEach(TaskMaster::restart);
+    }
+
+    private void handOver(Object item, TimedOffer offer) {
+        long startTime = System.nanoTime();
+        try {
+            while (running) {
+                if (offer.offer(HAND_OVER_RETRY_MS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+            logger.debug("Dropped {} as the chunk pipeline got shut down", item);
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while handing over {}", item, e);
+            Thread.currentThread().interrupt();
+        } finally {
+            HAND_OVER_NANOS.get()[0] += System.nanoTime() - startTime;
+        }
     }
 
+    @FunctionalInterface
+    private interface TimedOffer {
+        boolean offer(long timeout, TimeUnit unit) throws InterruptedException;
+    }
+
+    /**
+     * Reports the time a task spent in the queue and running to the {@link ChunkMonitor}.
+     */
+    private static final class TimedChunkTask implements ChunkTask {
+        private final ChunkProcessingStage stage;
+        private final ChunkTask task;
+        private final long queuedTime = System.nanoTime();
+
+        private TimedChunkTask(ChunkProcessingStage stage, ChunkTask task) {
+            this.stage = stage;
+            this.task = task;
+        }
+
+        @Override
+        public Vector3i getPosition() {
+            return task.getPosition();
+        }
+
+        @Override
+        public String getName() {
+            return task.getName();
+        }
+
+        @Override
+        public void run() {
+            long[] handOverNanos = HAND_OVER_NANOS.get();
+            handOverNanos[0] = 0;
+            long startTime = System.nanoTime();
+            task.run();
+            long runTime = System.nanoTime() - startTime - handOverNanos[0];
+            ChunkMonitor.fireChunkStageCompleted(stage.getDisplayName(), startTime - queuedTime, runTime);
+        }
+
+        @Override
+        public boolean isTerminateSignal() {
+            return task.isTerminateSignal();
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
 }
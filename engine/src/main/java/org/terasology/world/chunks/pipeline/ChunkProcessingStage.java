@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.chunks.pipeline;
+
+/**
+ * The stages a chunk passes through in the {@link ChunkGenerationPipeline}, in order. Chunks that get loaded from
+ * storage skip {@link #GENERATE}.
+ * <br><br>
+ * Each stage has threads of its own, so that slow disk access does not hold up generation and vice versa. The queues
+ * of the stages that are fed by other stages are bounded: a stage that falls behind makes the stages before it wait
+ * instead of piling up finished work. The queues of the stages fed by the main thread are never bounded, as the main
+ * thread has to keep draining the chunks that completed the pipeline. A pipeline that feeds a stage from the main
+ * thread, although it normally is fed by another stage, has to say so when it gets created.
+ * <br><br>
+ * The thread counts and queue sizes given here are defaults, see
+ * {@link org.terasology.config.SystemConfig#getChunkStageThreads(ChunkProcessingStage)} and
+ * {@link org.terasology.config.SystemConfig#getChunkStageMaxQueueSize(ChunkProcessingStage)}.
+ */
+public enum ChunkProcessingStage {
+    /**
+     * Reads and decodes the chunk from storage. Fed by the main thread, so its queue is not bounded.
+     */
+    LOAD("Load", 2, Integer.MAX_VALUE),
+    GENERATE("Generate", Math.max(2, Runtime.getRuntime().availableProcessors() - 2), 64),
+    INTERNAL_LIGHT("Internal Light", 2, 64),
+    /**
+     * Compacts the chunk and gathers the block event mappings, then hands the chunk to the chunk provider.
+     */
+    DEFLATE("Deflate", 1, 64),
+    /**
+     * Merges the light of the chunk with its neighbours once they are available. Fed by the
+     * {@link org.terasology.world.propagation.light.LightMerger}, which also decides when a merge may start.
+     */
+    LIGHT_MERGE("Light Merge", 4, Integer.MAX_VALUE);
+
+    private final String displayName;
+    private final int defaultThreads;
+    private final int defaultMaxQueueSize;
+
+    ChunkProcessingStage(String displayName, int defaultThreads, int defaultMaxQueueSize) {
+        this.displayName = displayName;
+        this.defaultThreads = defaultThreads;
+        this.defaultMaxQueueSize = defaultMaxQueueSize;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getDefaultThreads() {
+        return defaultThreads;
+    }
+
+    /**
+     * @return the default maximum number of queued tasks, only meaningful if the queue is bounded
+     */
+    public int getDefaultMaxQueueSize() {
+        return defaultMaxQueueSize;
+    }
+
+    /**
+     * @return whether the stage is fed by other stages only, so that its queue may be bounded
+     */
+    public boolean isQueueBounded() {
+        return defaultMaxQueueSize != Integer.MAX_VALUE;
+    }
+}
@@ -21,6 +21,7 @@
 import com.google.common.collect.Queues;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.config.SystemConfig;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.math.ChunkMath;
@@ -40,6 +41,7 @@
 import org.terasology.world.chunks.internal.GeneratingChunkProvider;
 import org.terasology.world.chunks.pipeline.AbstractChunkTask;
 import org.terasology.world.chunks.pipeline.ChunkGenerationPipeline;
+import org.terasology.world.chunks.pipeline.ChunkProcessingStage;
 import org.terasology.world.chunks.pipeline.ChunkTask;
 import org.terasology.world.internal.ChunkViewCore;
 import org.terasology.world.internal.ChunkViewCoreImpl;
@@ -50,9 +52,11 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.function.ToIntFunction;
 
 /**
  *
@@ -71,14 +75,22 @@ public class RemoteChunkProvider implements ChunkProvider, GeneratingChunkProvid
 
     private ChunkGenerationPipeline pipeline;
 
-    private LightMerger<Chunk> lightMerger = new LightMerger<>(this);
+    private LightMerger<Chunk> lightMerger;
 
     private LocalPlayer localPlayer;
+    /**
+     * The chunk the local player was in at the last update, used to prioritize the received chunks.
+     */
+    private volatile Vector3i playerChunk = Vector3i.zero();
 
-    public RemoteChunkProvider(BlockManager blockManager, LocalPlayer localPlayer) {
+    public RemoteChunkProvider(BlockManager blockManager, LocalPlayer localPlayer, SystemConfig systemConfig) {
         this.blockManager = blockManager;
         this.localPlayer = localPlayer;
-        pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevanceComparator());
+        // The received chunks only need their light computed, which the main thread hands in directly
+        pipeline = new ChunkGenerationPipeline(new ChunkTaskRelevance(), systemConfig,
+                EnumSet.of(ChunkProcessingStage.INTERNAL_LIGHT, ChunkProcessingStage.LIGHT_MERGE),
+                EnumSet.of(ChunkProcessingStage.INTERNAL_LIGHT));
+        lightMerger = new LightMerger<>(this, pipeline::doLightMergeTask);
         ChunkMonitor.fireChunkProviderInitialized(this);
     }
 
@@ -87,7 +99,7 @@ public void subscribe(ChunkReadyListener chunkReadyListener) {
     }
 
     public void receiveChunk(final Chunk chunk) {
-        pipeline.doTask(new AbstractChunkTask(chunk.getPosition()) {
+        pipeline.doTask(ChunkProcessingStage.INTERNAL_LIGHT, new AbstractChunkTask(chunk.getPosition()) {
             @Override
             public String getName() {
                 return "Internal Light Generation";
@@ -120,12 +132,21 @@ public void completeUpdate() {
 
     @Override
     public void beginUpdate() {
+        updatePlayerChunk();
         if (listener != null) {
             checkForUnload();
             makeChunksAvailable();
         }
     }
 
+    private void updatePlayerChunk() {
+        Vector3i newPlayerChunk = ChunkMath.calcChunkPos(new Vector3i(localPlayer.getPosition(), RoundingMode.HALF_UP));
+        if (!newPlayerChunk.equals(playerChunk)) {
+            playerChunk = newPlayerChunk;
+            pipeline.reprioritize();
+        }
+    }
+
     private void checkForUnload() {
         List<Vector3i> positions = Lists.newArrayListWithCapacity(invalidateChunks.size());
         invalidateChunks.drainTo(positions);
@@ -198,8 +219,8 @@ public boolean isChunkReady(Vector3i pos) {
     @Override
     public void dispose() {
         ChunkMonitor.fireChunkProviderDisposed(this);
-        pipeline.shutdown();
         lightMerger.shutdown();
+        pipeline.shutdown();
     }
 
     @Override
@@ -304,16 +325,14 @@ public Chunk getChunkUnready(Vector3i pos) {
     }
 
 
-    private class ChunkTaskRelevanceComparator implements Comparator<ChunkTask> {
+    private class ChunkTaskRelevance implements ToIntFunction<ChunkTask> {
 
         @Override
-        public int compare(ChunkTask o1, ChunkTask o2) {
-            return score(o1.getPosition()) - score(o2.getPosition());
-        }
-
-        private int score(Vector3i chunk) {
-            Vector3i playerChunk = ChunkMath.calcChunkPos(new Vector3i(localPlayer.getPosition(), RoundingMode.HALF_UP));
-            return playerChunk.distanceSquared(chunk);
+        public int applyAsInt(ChunkTask task) {
+            if (task.isTerminateSignal()) {
+                return -1;
+            }
+            return playerChunk.distanceSquared(task.getPosition());
         }
     }
 
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the data arrays of facets and of the intermediate results used to compute them, so that generating a chunk
+ * does not allocate them anew.
+ * <br><br>
+ * A pool belongs to a single thread. While a {@link RegionImpl} with a pool runs its facet providers, the pool is the
+ * active one of the thread and the static methods of this class take their arrays from it. All arrays taken since the
+ * last {@link #reclaimAll()} are leased: they stay untouched until {@link #reclaimAll()} gets called, which must only
+ * happen once nothing references the facets of the region anymore. Without an active pool, the static methods simply
+ * allocate new arrays.
+ * <br><br>
+ * Arrays taken from the pool are cleared, just like newly allocated ones. The counters cover all arrays requested
+ * through this class, on all threads.
+ */
+public class FacetBufferPool {
+    /**
+     * The number of arrays of the same type and length that are kept for reuse, any further ones are dropped.
+     */
+    public static final int MAX_RETAINED_PER_SIZE = 32;
+
+    /**
+     * Estimated size of a reference in an object array, assuming compressed references.
+     */
+    private static final int REFERENCE_SIZE = 4;
+
+    private static final ThreadLocal<FacetBufferPool> ACTIVE_POOL = new ThreadLocal<>();
+
+    private static final AtomicLong ALLOCATED_COUNT = new AtomicLong();
+    private static final AtomicLong ALLOCATED_BYTES = new AtomicLong();
+    private static final AtomicLong REUSED_COUNT = new AtomicLong();
+    private static final AtomicLong REUSED_BYTES = new AtomicLong();
+
+    /**
+     * The free arrays by array type and length.
+     */
+    private final Map<Class<?>, Map<Integer, Deque<Object>>> freeArrays = Maps.newHashMap();
+    private final List<Object> leasedArrays = Lists.newArrayList();
+
+    /**
+     * Makes the given pool the active one of the current thread.
+     *
+     * @param pool the pool to activate, or null to allocate arrays without a pool
+     * @return the previously active pool, to be restored with another call once done
+     */
+    public static FacetBufferPool activate(FacetBufferPool pool) {
+        FacetBufferPool previous = ACTIVE_POOL.get();
+        if (pool == null) {
+            ACTIVE_POOL.remove();
+        } else {
+            ACTIVE_POOL.set(pool);
+        }
+        return previous;
+    }
+
+    /**
+     * @return a cleared array of the given length, taken from the active pool if there is one.
+     */
+    public static float[] floats(int length) {
+        FacetBufferPool pool = ACTIVE_POOL.get();
+        if (pool != null) {
+            float[] array = (float[]) pool.take(float[].class, length);
+            if (array != null) {
+                Arrays.fill(array, 0f);
+                return array;
+            }
+        }
+        countAllocation(length, Float.BYTES);
+        return pool != null ? pool.lease(new float[length]) : new float[length];
+    }
+
+    /**
+     * @return a cleared array of the given length, taken from the active pool if there is one.
+     */
+    public static boolean[] booleans(int length) {
+        FacetBufferPool pool = ACTIVE_POOL.get();
+        if (pool != null) {
+            boolean[] array = (boolean[]) pool.take(boolean[].class, length);
+            if (array != null) {
+                Arrays.fill(array, false);
+                return array;
+            }
+        }
+        countAllocation(length, 1);
+        return pool != null ? pool.lease(new boolean[length]) : new boolean[length];
+    }
+
+    /**
+     * @return an array of the given type and length filled with null, taken from the active pool if there is one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T[] objects(Class<T> type, int length) {
+        FacetBufferPool pool = ACTIVE_POOL.get();
+        Class<?> arrayType = Array.newInstance(type, 0).getClass();
+        if (pool != null) {
+            T[] array = (T[]) pool.take(arrayType, length);
+            if (array != null) {
+                Arrays.fill(array, null);
+                return array;
+            }
+        }
+        countAllocation(length, REFERENCE_SIZE);
+        T[] array = (T[]) Array.newInstance(type, length);
+        return pool != null ? pool.lease(array) : array;
+    }
+
+    /**
+     * Returns an array taken from the active pool before the pool gets reclaimed, for intermediate results that are
+     * not needed anymore. Arrays that were not leased from the active pool are ignored.
+     */
+    public static void recycle(Object array) {
+        FacetBufferPool pool = ACTIVE_POOL.get();
+        if (pool != null) {
+            pool.giveBack(array);
+        }
+    }
+
+    /**
+     * @return the number of arrays that had to be allocated
+     */
+    public static long getAllocatedCount() {
+        return ALLOCATED_COUNT.get();
+    }
+
+    /**
+     * @return the estimated number of bytes of the arrays that had to be allocated
+     */
+    public static long getAllocatedBytes() {
+        return ALLOCATED_BYTES.get();
+    }
+
+    /**
+     * @return the number of arrays that got reused from a pool
+     */
+    public static long getReusedCount() {
+        return REUSED_COUNT.get();
+    }
+
+    /**
+     * @return the estimated number of bytes of the arrays that got reused from a pool
+     */
+    public static long getReusedBytes() {
+        return REUSED_BYTES.get();
+    }
+
+    public static void resetCounters() {
+        ALLOCATED_COUNT.set(0);
+        ALLOCATED_BYTES.set(0);
+        REUSED_COUNT.set(0);
+        REUSED_BYTES.set(0);
+    }
+
+    /**
+     * Makes all leased arrays available again. Must only be called once the facets of the region the pool was used for
+     * are not referenced anymore.
+     */
+    public void reclaimAll() {
+        for (Object array : leasedArrays) {
+            free(array);
+        }
+        leasedArrays.clear();
+    }
+
+    /**
+     * @return the number of arrays handed out since the last {@link #reclaimAll()}
+     */
+    public int getLeasedCount() {
+        return leasedArrays.size();
+    }
+
+    private Object take(Class<?> arrayType, int length) {
+        Map<Integer, Deque<Object>> byLength = freeArrays.get(arrayType);
+        Deque<Object> free = byLength != null ? byLength.get(length) : null;
+        if (free == null || free.isEmpty()) {
+            return null;
+        }
+        Object array = free.pop();
+        leasedArrays.add(array);
+        REUSED_COUNT.incrementAndGet();
+        REUSED_BYTES.addAndGet((long) length * elementSize(arrayType));
+        return array;
+    }
+
+    private <A> A lease(A array) {
+        leasedArrays.add(array);
+        return array;
+    }
+
+    private void giveBack(Object array) {
+        // Intermediate results are usually given back right after they were taken, so search from the end
+        for (int i = leasedArrays.size() - 1; i >= 0; i--) {
+            if (leasedArrays.get(i) == array) {
+                leasedArrays.remove(i);
+                free(array);
+                return;
+            }
+        }
+    }
+
+    private void free(Object array) {
+        Deque<Object> free = freeArrays.computeIfAbsent(array.getClass(), type -> Maps.newHashMap())
+                .computeIfAbsent(Array.getLength(array), length -> new ArrayDeque<>());
+        if (free.size() < MAX_RETAINED_PER_SIZE) {
+            free.push(array);
+        }
+    }
+
+    private static void countAllocation(int length, int elementSize) {
+        ALLOCATED_COUNT.incrementAndGet();
+        ALLOCATED_BYTES.addAndGet((long) length * elementSize);
+    }
+
+    private static int elementSize(Class<?> arrayType) {
+        if (arrayType == float[].class) {
+            return Float.BYTES;
+        } else if (arrayType == boolean[].class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+}
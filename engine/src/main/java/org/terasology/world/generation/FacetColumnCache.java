@@ -0,0 +1,205 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Rect2i;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shares the 2D facets of a world between all regions that cover the same column, i.e. that differ only in their
+ * vertical extent. The chunks of a column then compute their 2D facets only once.
+ * <br><br>
+ * A facet is a column facet if it is a {@link WorldFacet2D} and all providers of its provider chain require, produce
+ * and update only column facets. The cached facets are used by multiple regions and threads at once, so they must not
+ * be modified outside of their facet providers.
+ */
+public class FacetColumnCache {
+    public static final int DEFAULT_MAX_COLUMNS = 1024;
+
+    private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
+    private final Map<Class<? extends WorldFacet>, Border3D> borders;
+
+    private final Set<Class<? extends WorldFacet>> columnFacets;
+    private final Set<FacetProvider> columnProviders;
+    /**
+     * All facets whose provider chain contains at least one column provider.
+     */
+    private final Set<Class<? extends WorldFacet>> facetsUsingColumns;
+
+    private final Cache<Rect2i, Map<Class<? extends WorldFacet>, WorldFacet>> columns;
+
+    public FacetColumnCache(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains,
+                            Map<Class<? extends WorldFacet>, Border3D> borders, int maxColumns) {
+        this.facetProviderChains = facetProviderChains;
+        this.borders = borders;
+        this.columnFacets = determineColumnFacets(facetProviderChains);
+
+        Set<FacetProvider> providers = Sets.newHashSet();
+        for (Class<? extends WorldFacet> facet : columnFacets) {
+            providers.addAll(facetProviderChains.get(facet));
+        }
+        this.columnProviders = ImmutableSet.copyOf(providers);
+
+        Set<Class<? extends WorldFacet>> usingColumns = Sets.newHashSet();
+        for (Class<? extends WorldFacet> facet : facetProviderChains.keySet()) {
+            if (facetProviderChains.get(facet).stream().anyMatch(columnProviders::contains)) {
+                usingColumns.add(facet);
+            }
+        }
+        this.facetsUsingColumns = ImmutableSet.copyOf(usingColumns);
+
+        this.columns = CacheBuilder.newBuilder().maximumSize(maxColumns).recordStats().build();
+    }
+
+    /**
+     * @return the facets that can be shared between all regions of a column
+     */
+    public Set<Class<? extends WorldFacet>> getColumnFacets() {
+        return columnFacets;
+    }
+
+    /**
+     * @return the providers that get replaced by the column cache, as they only work on column facets
+     */
+    public Set<FacetProvider> getColumnProviders() {
+        return columnProviders;
+    }
+
+    /**
+     * @return true if generating the given facet involves a column facet
+     */
+    public boolean isUsingColumn(Class<? extends WorldFacet> facet) {
+        return facetsUsingColumns.contains(facet);
+    }
+
+    /**
+     * Returns the column facets of the given region, generating them if no region of the same column got requested
+     * recently. Threads requesting the same missing column wait for a single generation.
+     *
+     * @return the column facets by their type
+     */
+    public Map<Class<? extends WorldFacet>, WorldFacet> getColumn(Region3i region) {
+        Rect2i column = Rect2i.createFromMinAndSize(region.minX(), region.minZ(), region.sizeX(), region.sizeZ());
+        try {
+            return columns.get(column, () -> generateColumn(region));
+        } catch (ExecutionException e) {
+            // Facet providers don't throw checked exceptions, unchecked ones are rethrown by the cache
+            throw new IllegalStateException("Failed to generate column facets of " + region, e.getCause());
+        }
+    }
+
+    public long getHitCount() {
+        return columns.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return columns.stats().missCount();
+    }
+
+    /**
+     * @return the ratio of column requests that got served from the cache, 1 if there were none
+     */
+    public double getHitRate() {
+        return columns.stats().hitRate();
+    }
+
+    public long getColumnCount() {
+        return columns.size();
+    }
+
+    public void invalidateAll() {
+        columns.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = columns.stats();
+        return String.format("FacetColumnCache[facets=%d, columns=%d, hits=%d, misses=%d, hitRate=%.2f]",
+                columnFacets.size(), columns.size(), stats.hitCount(), stats.missCount(), stats.hitRate());
+    }
+
+    private Map<Class<? extends WorldFacet>, WorldFacet> generateColumn(Region3i region) {
+        RegionImpl columnRegion = new RegionImpl(region, facetProviderChains, borders);
+        ImmutableMap.Builder<Class<? extends WorldFacet>, WorldFacet> facets = ImmutableMap.builder();
+        for (Class<? extends WorldFacet> facetType : columnFacets) {
+            WorldFacet facet = columnRegion.getFacet(facetType);
+            if (facet != null) {
+                facets.put(facetType, facet);
+            }
+        }
+        return facets.build();
+    }
+
+    /**
+     * Starts with all 2D facets and drops every facet whose provider chain touches a facet that is not (or no longer)
+     * a candidate, until no more facets get dropped.
+     */
+    static Set<Class<? extends WorldFacet>> determineColumnFacets(
+            ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        Set<Class<? extends WorldFacet>> candidates = Sets.newLinkedHashSet();
+        for (Class<? extends WorldFacet> facet : facetProviderChains.keySet()) {
+            if (WorldFacet2D.class.isAssignableFrom(facet)) {
+                candidates.add(facet);
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = candidates.removeIf(facet -> facetProviderChains.get(facet).stream()
+                    .anyMatch(provider -> !involvesOnly(provider, candidates)));
+        }
+        return ImmutableSet.copyOf(candidates);
+    }
+
+    private static boolean involvesOnly(FacetProvider provider, Set<Class<? extends WorldFacet>> facets) {
+        Requires requires = provider.getClass().getAnnotation(Requires.class);
+        if (requires != null) {
+            for (Facet facet : requires.value()) {
+                if (!facets.contains(facet.value())) {
+                    return false;
+                }
+            }
+        }
+        Produces produces = provider.getClass().getAnnotation(Produces.class);
+        if (produces != null) {
+            for (Class<? extends WorldFacet> facet : produces.value()) {
+                if (!facets.contains(facet)) {
+                    return false;
+                }
+            }
+        }
+        Updates updates = provider.getClass().getAnnotation(Updates.class);
+        if (updates != null) {
+            for (Facet facet : updates.value()) {
+                if (!facets.contains(facet.value())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
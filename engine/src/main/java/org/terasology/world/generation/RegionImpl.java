@@ -30,31 +30,76 @@ public class RegionImpl implements Region, GeneratingRegion {
     private final Region3i region;
     private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
+    private final FacetColumnCache columnCache;
+    private final FacetBufferPool bufferPool;
 
     private final TypeMap<WorldFacet> generatingFacets = TypeMap.create();
     private final Set<FacetProvider> processedProviders = Sets.newHashSet();
     private final TypeMap<WorldFacet> generatedFacets = TypeMap.create();
+    private boolean columnFacetsLoaded;
 
     public RegionImpl(Region3i region, ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<? extends WorldFacet>, Border3D> borders) {
+        this(region, facetProviderChains, borders, null);
+    }
+
+    /**
+     * @param columnCache the cache to take the column facets from instead of running their providers, may be null
+     */
+    public RegionImpl(Region3i region, ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<? extends WorldFacet>, Border3D> borders,
+                      FacetColumnCache columnCache) {
+        this(region, facetProviderChains, borders, columnCache, null);
+    }
+
+    /**
+     * @param columnCache the cache to take the column facets from instead of running their providers, may be null
+     * @param bufferPool  the pool the facet providers take their arrays from, may be null. The caller must not reclaim
+     *                    the pool while the facets of this region are still in use.
+     */
+    public RegionImpl(Region3i region, ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<? extends WorldFacet>, Border3D> borders,
+                      FacetColumnCache columnCache, FacetBufferPool bufferPool) {
         this.region = region;
         this.facetProviderChains = facetProviderChains;
         this.borders = borders;
+        this.columnCache = columnCache;
+        this.bufferPool = bufferPool;
     }
 
     @Override
     public <T extends WorldFacet> T getFacet(Class<T> dataType) {
         T facet = generatedFacets.get(dataType);
         if (facet == null) {
-            facetProviderChains.get(dataType).stream().filter(provider -> !processedProviders.contains(provider)).forEach(provider -> {
-                provider.process(this);
-                processedProviders.add(provider);
-            });
+            if (columnCache != null && !columnFacetsLoaded && columnCache.isUsingColumn(dataType)) {
+                loadColumnFacets();
+            }
+            // A region without a pool also deactivates the pool of an enclosing region, as the column facets it
+            // generates outlive that region
+            FacetBufferPool previousPool = FacetBufferPool.activate(bufferPool);
+            try {
+                facetProviderChains.get(dataType).stream().filter(provider -> !processedProviders.contains(provider)).forEach(provider -> {
+                    provider.process(this);
+                    processedProviders.add(provider);
+                });
+            } finally {
+                FacetBufferPool.activate(previousPool);
+            }
             facet = generatingFacets.get(dataType);
             generatedFacets.put(dataType, facet);
         }
         return facet;
     }
 
+    private void loadColumnFacets() {
+        columnFacetsLoaded = true;
+        for (Map.Entry<Class<? extends WorldFacet>, WorldFacet> entry : columnCache.getColumn(region).entrySet()) {
+            addColumnFacet(entry.getKey(), entry.getValue());
+        }
+        processedProviders.addAll(columnCache.getColumnProviders());
+    }
+
+    private <T extends WorldFacet> void addColumnFacet(Class<T> type, WorldFacet facet) {
+        generatingFacets.put(type, type.cast(facet));
+    }
+
     @Override
     public Region3i getRegion() {
         return region;
@@ -34,6 +34,8 @@ public class WorldImpl implements World {
     private final List<EntityProvider> entityProviders;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
     private final int seaLevel;
+    private final FacetColumnCache columnCache;
+    private final ThreadLocal<FacetBufferPool> bufferPools = ThreadLocal.withInitial(FacetBufferPool::new);
 
     public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains,
                      List<WorldRasterizer> worldRasterizers,
@@ -45,6 +47,7 @@ public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetP
         this.entityProviders = entityProviders;
         this.borders = borders;
         this.seaLevel = seaLevel;
+        this.columnCache = new FacetColumnCache(facetProviderChains, borders, FacetColumnCache.DEFAULT_MAX_COLUMNS);
     }
 
     @Override
@@ -52,6 +55,24 @@ public Region getWorldData(Region3i region) {
         return new RegionImpl(region, facetProviderChains, borders);
     }
 
+    /**
+     * Like {@link #getWorldData(Region3i)}, but shares the 2D facets with the other chunks of the same column.
+     */
+    Region getChunkData(Region3i chunkRegion) {
+        return getChunkData(chunkRegion, null);
+    }
+
+    /**
+     * Like {@link #getChunkData(Region3i)}, with the facet providers taking their arrays from the given pool.
+     */
+    Region getChunkData(Region3i chunkRegion, FacetBufferPool bufferPool) {
+        return new RegionImpl(chunkRegion, facetProviderChains, borders, columnCache, bufferPool);
+    }
+
+    public FacetColumnCache getColumnCache() {
+        return columnCache;
+    }
+
     @Override
     public int getSeaLevel() {
         return seaLevel;
@@ -59,12 +80,18 @@ public int getSeaLevel() {
 
     @Override
     public void rasterizeChunk(CoreChunk chunk, EntityBuffer buffer) {
-        Region chunkRegion = getWorldData(chunk.getRegion());
-        for (WorldRasterizer rasterizer : worldRasterizers) {
-            rasterizer.generateChunk(chunk, chunkRegion);
-        }
-        for (EntityProvider entityProvider : entityProviders) {
-            entityProvider.process(chunkRegion, buffer);
+        // The facets of the chunk are not referenced anymore once it is rasterized, so their arrays can be reused
+        FacetBufferPool bufferPool = bufferPools.get();
+        Region chunkRegion = getChunkData(chunk.getRegion(), bufferPool);
+        try {
+            for (WorldRasterizer rasterizer : worldRasterizers) {
+                rasterizer.generateChunk(chunk, chunkRegion);
+            }
+            for (EntityProvider entityProvider : entityProviders) {
+                entityProvider.process(chunkRegion, buffer);
+            }
+        } finally {
+            bufferPool.reclaimAll();
         }
     }
 
@@ -20,6 +20,7 @@
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector2i;
 import org.terasology.world.generation.Border3D;
+import org.terasology.world.generation.FacetBufferPool;
 
 /**
  * An abstract, but complete implementation of {@link BooleanFieldFacet2D} that
@@ -33,7 +34,7 @@ public abstract class BaseBooleanFieldFacet2D extends BaseFacet2D implements Boo
     public BaseBooleanFieldFacet2D(Region3i targetRegion, Border3D border) {
         super(targetRegion, border);
         Vector2i size = getRelativeRegion().size();
-        data = new boolean[size.x * size.y];
+        data = FacetBufferPool.booleans(size.x * size.y);
     }
 
     @Override
@@ -19,6 +19,7 @@
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.world.generation.Border3D;
+import org.terasology.world.generation.FacetBufferPool;
 
 /**
  */
@@ -29,7 +30,7 @@ public abstract class BaseBooleanFieldFacet3D extends BaseFacet3D implements Boo
     public BaseBooleanFieldFacet3D(Region3i targetRegion, Border3D border) {
         super(targetRegion, border);
         Vector3i size = getRelativeRegion().size();
-        data = new boolean[size.x * size.y * size.z];
+        data = FacetBufferPool.booleans(size.x * size.y * size.z);
     }
 
     @Override
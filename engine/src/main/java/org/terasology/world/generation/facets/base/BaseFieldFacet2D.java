@@ -21,6 +21,7 @@
 import org.terasology.math.geom.BaseVector2i;
 import org.terasology.math.geom.Vector2i;
 import org.terasology.world.generation.Border3D;
+import org.terasology.world.generation.FacetBufferPool;
 
 /**
  */
@@ -31,7 +32,7 @@ public abstract class BaseFieldFacet2D extends BaseFacet2D implements FieldFacet
     public BaseFieldFacet2D(Region3i targetRegion, Border3D border) {
         super(targetRegion, border);
         Vector2i size = getRelativeRegion().size();
-        this.data = new float[size.x * size.y];
+        this.data = FacetBufferPool.floats(size.x * size.y);
     }
 
     @Override
@@ -21,8 +21,7 @@
 import org.terasology.math.geom.BaseVector2i;
 import org.terasology.math.geom.Vector2i;
 import org.terasology.world.generation.Border3D;
-
-import java.lang.reflect.Array;
+import org.terasology.world.generation.FacetBufferPool;
 
 /**
  */
@@ -33,7 +32,7 @@
     public BaseObjectFacet2D(Region3i targetRegion, Border3D border, Class<T> objectType) {
         super(targetRegion, border);
         Vector2i size = getRelativeRegion().size();
-        this.data = (T[]) Array.newInstance(objectType, size.x * size.y);
+        this.data = FacetBufferPool.objects(objectType, size.x * size.y);
     }
 
     @Override
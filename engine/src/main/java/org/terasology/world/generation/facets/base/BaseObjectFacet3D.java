@@ -15,12 +15,11 @@
  */
 package org.terasology.world.generation.facets.base;
 
-import java.lang.reflect.Array;
-
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.BaseVector3i;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.world.generation.Border3D;
+import org.terasology.world.generation.FacetBufferPool;
 
 import com.google.common.base.Preconditions;
 
@@ -35,7 +34,7 @@
     public BaseObjectFacet3D(Region3i targetRegion, Border3D border, Class<T> objectType) {
         super(targetRegion, border);
         Vector3i size = getRelativeRegion().size();
-        this.data = (T[]) Array.newInstance(objectType, size.x * size.y * size.z);
+        this.data = FacetBufferPool.objects(objectType, size.x * size.y * size.z);
     }
 
     @Override
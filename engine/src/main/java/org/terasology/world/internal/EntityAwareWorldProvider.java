@@ -49,10 +49,14 @@
 import org.terasology.network.NetworkComponent;
 import org.terasology.reflection.metadata.FieldMetadata;
 import org.terasology.world.BlockEntityRegistry;
+import org.terasology.world.BulkBlockEdit;
 import org.terasology.world.OnChangedBlock;
+import org.terasology.world.OnChangedBlocks;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockComponent;
 import org.terasology.world.block.regions.BlockRegionComponent;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.propagation.BlockChange;
 
 import java.math.RoundingMode;
 import java.util.Collection;
@@ -143,6 +147,69 @@ public Map<Vector3i, Block> setBlocks(Map<Vector3i, Block> blocks) {
         return null;
     }
 
+    /**
+     * Unlike the other setBlock methods, bulk edits only update the block entities of positions that need it: blocks
+     * that already have an entity or lie within a block region, and blocks whose old or new type has a prefab or is
+     * kept active. Plain blocks do not get a temporary entity, their changes get announced with a single
+     * {@link OnChangedBlocks} event to the world entity instead of an {@link OnChangedBlock} event each.
+     */
+    @Override
+    public int setBlocks(BulkBlockEdit edit) {
+        if (GameThread.isCurrentThread()) {
+            // The entities have to be fetched before the change, so that they get created with the old block type
+            Map<Vector3i, BlockChange> entityChanges = Maps.newLinkedHashMap();
+            Map<Vector3i, EntityRef> blockEntities = Maps.newHashMap();
+            Set<Vector3i> plainChanges = Sets.newLinkedHashSet();
+            for (BulkBlockEdit.ChunkBlocks chunkBlocks : edit.getChunks()) {
+                Vector3i chunkPos = chunkBlocks.getChunkPosition();
+                if (!isBlockRelevant(chunkPos.x * ChunkConstants.SIZE_X, chunkPos.y * ChunkConstants.SIZE_Y, chunkPos.z * ChunkConstants.SIZE_Z)) {
+                    continue;
+                }
+                for (int i = 0; i < chunkBlocks.size(); i++) {
+                    Vector3i pos = new Vector3i(chunkPos.x * ChunkConstants.SIZE_X + chunkBlocks.getX(i),
+                            chunkPos.y * ChunkConstants.SIZE_Y + chunkBlocks.getY(i),
+                            chunkPos.z * ChunkConstants.SIZE_Z + chunkBlocks.getZ(i));
+                    Block type = chunkBlocks.getBlock(i);
+                    BlockChange change = entityChanges.get(pos);
+                    if (change != null) {
+                        change.setTo(type);
+                        continue;
+                    }
+                    Block oldType = getBlock(pos.x, pos.y, pos.z);
+                    if (oldType == type) {
+                        continue;
+                    }
+                    if (needsBlockEntityUpdate(pos, oldType, type)) {
+                        plainChanges.remove(pos);
+                        blockEntities.put(pos, getBlockEntityAt(pos));
+                        entityChanges.put(pos, new BlockChange(pos, oldType, type));
+                    } else {
+                        plainChanges.add(pos);
+                    }
+                }
+            }
+
+            int changedBlocks = super.setBlocks(edit);
+            for (BlockChange change : entityChanges.values()) {
+                if (change.getFrom() != change.getTo()) {
+                    updateBlockEntity(blockEntities.get(change.getPosition()), change.getPosition(), change.getFrom(), change.getTo(),
+                            false, Collections.<Class<? extends Component>>emptySet());
+                }
+            }
+            if (!plainChanges.isEmpty()) {
+                getWorldEntity().send(new OnChangedBlocks(edit.getRegion(), plainChanges));
+            }
+            return changedBlocks;
+        }
+        return 0;
+    }
+
+    private boolean needsBlockEntityUpdate(Vector3i pos, Block oldType, Block type) {
+        return oldType.isKeepActive() || type.isKeepActive()
+                || oldType.getPrefab().isPresent() || type.getPrefab().isPresent()
+                || blockEntityLookup.containsKey(pos) || blockRegionLookup.containsKey(pos);
+    }
+
     @Override
     @SafeVarargs
     public final Block setBlockRetainComponent(Vector3i pos, Block type, Class<? extends Component>... components) {
@@ -19,8 +19,10 @@
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.world.BulkBlockEdit;
 import org.terasology.world.WorldChangeListener;
 import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.time.WorldTime;
 
 import java.util.Collection;
@@ -121,6 +123,32 @@ default Map<Vector3i, Block> setBlocks(Map<Vector3i, Block> blocks) {
         return resultMap;
     }
 
+    /**
+     * Applies all changes of the given edit. Compared to {@link #setBlocks(Map)} every affected chunk gets looked up
+     * only once and listeners get informed with a single {@link WorldChangeListener#onBlocksChanged} call.
+     * <br><br>
+     * Changes that fall into chunks that are not loaded get dropped.
+     *
+     * @param edit the changes to apply
+     * @return the number of blocks that actually changed
+     */
+    default int setBlocks(BulkBlockEdit edit) {
+        int changedBlocks = 0;
+        for (BulkBlockEdit.ChunkBlocks chunkBlocks : edit.getChunks()) {
+            Vector3i chunkPos = chunkBlocks.getChunkPosition();
+            for (int i = 0; i < chunkBlocks.size(); i++) {
+                Vector3i worldPos = new Vector3i(chunkPos.x * ChunkConstants.SIZE_X + chunkBlocks.getX(i),
+                        chunkPos.y * ChunkConstants.SIZE_Y + chunkBlocks.getY(i),
+                        chunkPos.z * ChunkConstants.SIZE_Z + chunkBlocks.getZ(i));
+                Block oldBlock = setBlock(worldPos, chunkBlocks.getBlock(i));
+                if (oldBlock != null && oldBlock != chunkBlocks.getBlock(i)) {
+                    changedBlocks++;
+                }
+            }
+        }
+        return changedBlocks;
+    }
+
     /**
      * Returns the block at the given position.
      *
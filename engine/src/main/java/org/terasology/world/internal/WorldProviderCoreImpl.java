@@ -28,11 +28,13 @@
 import org.terasology.math.ChunkMath;
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.world.BulkBlockEdit;
 import org.terasology.world.OnChangedBlock;
 import org.terasology.world.WorldChangeListener;
 import org.terasology.world.WorldComponent;
 import org.terasology.world.block.Block;
 import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
 import org.terasology.world.chunks.ChunkProvider;
 import org.terasology.world.chunks.CoreChunk;
 import org.terasology.world.chunks.LitChunk;
@@ -55,6 +57,7 @@
 import org.terasology.world.time.WorldTimeImpl;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -135,6 +138,13 @@ public WorldInfo getWorldInfo() {
         return new WorldInfo(title, customTitle, seed, worldTime.getMilliseconds(), worldGenerator);
     }
 
+    /**
+     * For tests only
+     */
+    void setPropagators(List<BatchPropagator> propagators) {
+        this.propagators = propagators;
+    }
+
     @Override
     public void processPropagation() {
         for (BatchPropagator propagator : propagators) {
@@ -194,12 +204,7 @@ public Block setBlock(Vector3i worldPos, Block type) {
             Vector3i blockPos = ChunkMath.calcBlockPos(worldPos);
             Block oldBlockType = chunk.setBlock(blockPos, type);
             if (oldBlockType != type) {
-                BlockChange oldChange = blockChanges.get(worldPos);
-                if (oldChange == null) {
-                    blockChanges.put(worldPos, new BlockChange(worldPos, oldBlockType, type));
-                } else {
-                    oldChange.setTo(type);
-                }
+                recordBlockChange(worldPos, oldBlockType, type);
                 setDirtyChunksNear(worldPos);
                 notifyBlockChanged(worldPos, type, oldBlockType);
             }
@@ -228,12 +233,7 @@ public Map<Vector3i, Block> setBlocks(Map<Vector3i, Block> blocks) {
                 Vector3i blockPos = ChunkMath.calcBlockPos(worldPos);
                 Block oldBlockType = chunk.setBlock(blockPos, type);
                 if (oldBlockType != type) {
-                    BlockChange oldChange = blockChanges.get(worldPos);
-                    if (oldChange == null) {
-                        blockChanges.put(worldPos, new BlockChange(worldPos, oldBlockType, type));
-                    } else {
-                        oldChange.setTo(type);
-                    }
+                    recordBlockChange(worldPos, oldBlockType, type);
                     setDirtyChunksNear(worldPos);
                     changedBlocks.add(new BlockChange(worldPos, oldBlockType, type));
                 }
@@ -249,7 +249,76 @@ public Map<Vector3i, Block> setBlocks(Map<Vector3i, Block> blocks) {
 
         return result;
     }
-    
+
+    @Override
+    public int setBlocks(BulkBlockEdit edit) {
+        List<BlockChange> changedBlocks = Lists.newArrayList();
+        Set<Vector3i> dirtyChunks = new HashSet<>();
+
+        for (BulkBlockEdit.ChunkBlocks chunkBlocks : edit.getChunks()) {
+            Vector3i chunkPos = chunkBlocks.getChunkPosition();
+            CoreChunk chunk = chunkProvider.getChunk(chunkPos);
+            if (chunk == null) {
+                continue;
+            }
+            int offsetX = chunkPos.x * ChunkConstants.SIZE_X;
+            int offsetY = chunkPos.y * ChunkConstants.SIZE_Y;
+            int offsetZ = chunkPos.z * ChunkConstants.SIZE_Z;
+            Vector3i changedMin = null;
+            Vector3i changedMax = null;
+
+            for (int i = 0; i < chunkBlocks.size(); i++) {
+                int x = chunkBlocks.getX(i);
+                int y = chunkBlocks.getY(i);
+                int z = chunkBlocks.getZ(i);
+                Block type = chunkBlocks.getBlock(i);
+                Block oldBlockType = chunk.setBlock(x, y, z, type);
+                if (oldBlockType != type) {
+                    Vector3i worldPos = new Vector3i(offsetX + x, offsetY + y, offsetZ + z);
+                    recordBlockChange(worldPos, oldBlockType, type);
+                    changedBlocks.add(new BlockChange(worldPos, oldBlockType, type));
+                    if (changedMin == null) {
+                        changedMin = new Vector3i(worldPos);
+                        changedMax = new Vector3i(worldPos);
+                    } else {
+                        changedMin.min(worldPos);
+                        changedMax.max(worldPos);
+                    }
+                }
+            }
+
+            if (changedMin != null) {
+                // Blocks at the border of a chunk affect the meshes of the neighbouring chunks as well
+                Region3i dirtyRegion = Region3i.createFromMinMax(changedMin, changedMax).expand(1);
+                Collections.addAll(dirtyChunks, ChunkMath.calcChunkPos(dirtyRegion));
+            }
+        }
+
+        for (Vector3i pos : dirtyChunks) {
+            RenderableChunk dirtiedChunk = chunkProvider.getChunk(pos);
+            if (dirtiedChunk != null) {
+                dirtiedChunk.setDirty(true);
+            }
+        }
+        if (!changedBlocks.isEmpty()) {
+            notifyBlocksChanged(edit.getRegion(), changedBlocks);
+        }
+        return changedBlocks.size();
+    }
+
+    /**
+     * Records the change for the next {@link #processPropagation()}, merging it with an earlier change of the same
+     * position.
+     */
+    private void recordBlockChange(Vector3i worldPos, Block oldBlockType, Block type) {
+        BlockChange oldChange = blockChanges.get(worldPos);
+        if (oldChange == null) {
+            blockChanges.put(worldPos, new BlockChange(worldPos, oldBlockType, type));
+        } else {
+            oldChange.setTo(type);
+        }
+    }
+
     private void setDirtyChunksNear(Vector3i pos0) {
         for (Vector3i pos : ChunkMath.getChunkRegionAroundWorldPos(pos0, 1)) {
             RenderableChunk dirtiedChunk = chunkProvider.getChunk(pos);
@@ -269,6 +338,14 @@ private void notifyBlockChanged(Vector3i pos, Block type, Block oldType) {
         }
     }
     
+    private void notifyBlocksChanged(Region3i region, Collection<BlockChange> changes) {
+        synchronized (listeners) {
+            for (WorldChangeListener listener : listeners) {
+                listener.onBlocksChanged(region, changes);
+            }
+        }
+    }
+
     private void notifyExtraDataChanged(int index, Vector3i pos, int newData, int oldData) {
         // TODO: Change to match block , if those changes are made.
         synchronized (listeners) {
@@ -289,33 +366,30 @@ public Block getBlock(int x, int y, int z) {
 
     @Override
     public byte getLight(int x, int y, int z) {
-        Vector3i chunkPos = ChunkMath.calcChunkPos(x, y, z);
-        LitChunk chunk = chunkProvider.getChunk(chunkPos);
+        LitChunk chunk = chunkProvider.getChunk(ChunkMath.calcChunkPosX(x), ChunkMath.calcChunkPosY(y), ChunkMath.calcChunkPosZ(z));
         if (chunk != null) {
-            Vector3i blockPos = ChunkMath.calcBlockPos(x, y, z);
-            return chunk.getLight(blockPos);
+            return chunk.getLight(ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z));
         }
         return 0;
     }
 
     @Override
     public byte getSunlight(int x, int y, int z) {
-        Vector3i chunkPos = ChunkMath.calcChunkPos(x, y, z);
-        LitChunk chunk = chunkProvider.getChunk(chunkPos);
+        LitChunk chunk = chunkProvider.getChunk(ChunkMath.calcChunkPosX(x), ChunkMath.calcChunkPosY(y), ChunkMath.calcChunkPosZ(z));
         if (chunk != null) {
-            Vector3i blockPos = ChunkMath.calcBlockPos(x, y, z);
-            return chunk.getSunlight(blockPos);
+            return chunk.getSunlight(ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z));
         }
         return 0;
     }
 
     @Override
     public byte getTotalLight(int x, int y, int z) {
-        Vector3i chunkPos = ChunkMath.calcChunkPos(x, y, z);
-        LitChunk chunk = chunkProvider.getChunk(chunkPos);
+        LitChunk chunk = chunkProvider.getChunk(ChunkMath.calcChunkPosX(x), ChunkMath.calcChunkPosY(y), ChunkMath.calcChunkPosZ(z));
         if (chunk != null) {
-            Vector3i blockPos = ChunkMath.calcBlockPos(x, y, z);
-            return (byte) Math.max(chunk.getSunlight(blockPos), chunk.getLight(blockPos));
+            int blockX = ChunkMath.calcBlockPosX(x);
+            int blockY = ChunkMath.calcBlockPosY(y);
+            int blockZ = ChunkMath.calcBlockPosZ(z);
+            return (byte) Math.max(chunk.getSunlight(blockX, blockY, blockZ), chunk.getLight(blockX, blockY, blockZ));
         }
         return 0;
     }
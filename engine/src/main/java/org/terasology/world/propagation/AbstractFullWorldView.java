@@ -45,6 +45,10 @@ private Chunk getChunk(Vector3i pos) {
         return chunkProvider.getChunk(ChunkMath.calcChunkPos(pos));
     }
 
+    private Chunk getChunk(int x, int y, int z) {
+        return chunkProvider.getChunk(ChunkMath.calcChunkPosX(x), ChunkMath.calcChunkPosY(y), ChunkMath.calcChunkPosZ(z));
+    }
+
     @Override
     public byte getValueAt(Vector3i pos) {
         LitChunk chunk = getChunk(pos);
@@ -63,6 +67,23 @@ public byte getValueAt(Vector3i pos) {
      */
     protected abstract byte getValueAt(LitChunk chunk, Vector3i pos);
 
+    @Override
+    public byte getValueAt(int x, int y, int z) {
+        LitChunk chunk = getChunk(x, y, z);
+        if (chunk != null) {
+            return getValueAt(chunk, ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z));
+        }
+        return UNAVAILABLE;
+    }
+
+    /**
+     * Equivalent to {@link #getValueAt(LitChunk, Vector3i)}, subclasses should override this to avoid allocating a
+     * position.
+     */
+    protected byte getValueAt(LitChunk chunk, int x, int y, int z) {
+        return getValueAt(chunk, new Vector3i(x, y, z));
+    }
+
     @Override
     public void setValueAt(Vector3i pos, byte value) {
         setValueAt(getChunk(pos), ChunkMath.calcBlockPos(pos.x, pos.y, pos.z), value);
@@ -83,6 +104,32 @@ public void setValueAt(Vector3i pos, byte value) {
      */
     protected abstract void setValueAt(LitChunk chunk, Vector3i pos, byte value);
 
+    @Override
+    public void setValueAt(int x, int y, int z, byte value) {
+        setValueAt(getChunk(x, y, z), ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z), value);
+        int maxChunkX = ChunkMath.calcChunkPosX(x + 1);
+        int maxChunkY = ChunkMath.calcChunkPosY(y + 1);
+        int maxChunkZ = ChunkMath.calcChunkPosZ(z + 1);
+        for (int chunkX = ChunkMath.calcChunkPosX(x - 1); chunkX <= maxChunkX; chunkX++) {
+            for (int chunkY = ChunkMath.calcChunkPosY(y - 1); chunkY <= maxChunkY; chunkY++) {
+                for (int chunkZ = ChunkMath.calcChunkPosZ(z - 1); chunkZ <= maxChunkZ; chunkZ++) {
+                    Chunk dirtiedChunk = chunkProvider.getChunk(chunkX, chunkY, chunkZ);
+                    if (dirtiedChunk != null) {
+                        dirtiedChunk.setDirty(true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Equivalent to {@link #setValueAt(LitChunk, Vector3i, byte)}, subclasses should override this to avoid allocating
+     * a position.
+     */
+    protected void setValueAt(LitChunk chunk, int x, int y, int z, byte value) {
+        setValueAt(chunk, new Vector3i(x, y, z), value);
+    }
+
     @Override
     public Block getBlockAt(Vector3i pos) {
         CoreChunk chunk = chunkProvider.getChunk(ChunkMath.calcChunkPos(pos));
@@ -92,4 +139,13 @@ public Block getBlockAt(Vector3i pos) {
         return null;
     }
 
+    @Override
+    public Block getBlockAt(int x, int y, int z) {
+        CoreChunk chunk = getChunk(x, y, z);
+        if (chunk != null) {
+            return chunk.getBlock(ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z));
+        }
+        return null;
+    }
+
 }
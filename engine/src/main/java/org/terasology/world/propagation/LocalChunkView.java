@@ -44,9 +44,13 @@ public LocalChunkView(Chunk[] chunks, PropagationRules rules) {
      * @return The index of the chunk in the array
      */
     private int chunkIndexOf(Vector3i blockPos) {
-        return ChunkMath.calcChunkPosX(blockPos.x, ChunkConstants.POWER_X) - topLeft.x
-                + 3 * (ChunkMath.calcChunkPosY(blockPos.y, ChunkConstants.POWER_Y) - topLeft.y
-                + 3 * (ChunkMath.calcChunkPosZ(blockPos.z, ChunkConstants.POWER_Z) - topLeft.z));
+        return chunkIndexOf(blockPos.x, blockPos.y, blockPos.z);
+    }
+
+    private int chunkIndexOf(int x, int y, int z) {
+        return ChunkMath.calcChunkPosX(x, ChunkConstants.POWER_X) - topLeft.x
+                + 3 * (ChunkMath.calcChunkPosY(y, ChunkConstants.POWER_Y) - topLeft.y
+                + 3 * (ChunkMath.calcChunkPosZ(z, ChunkConstants.POWER_Z) - topLeft.z));
     }
 
     @Override
@@ -75,4 +79,30 @@ public Block getBlockAt(Vector3i pos) {
         }
         return null;
     }
+
+    @Override
+    public byte getValueAt(int x, int y, int z) {
+        Chunk chunk = chunks[chunkIndexOf(x, y, z)];
+        if (chunk != null) {
+            return rules.getValue(chunk, ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z));
+        }
+        return UNAVAILABLE;
+    }
+
+    @Override
+    public void setValueAt(int x, int y, int z, byte value) {
+        Chunk chunk = chunks[chunkIndexOf(x, y, z)];
+        if (chunk != null) {
+            rules.setValue(chunk, ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z), value);
+        }
+    }
+
+    @Override
+    public Block getBlockAt(int x, int y, int z) {
+        Chunk chunk = chunks[chunkIndexOf(x, y, z)];
+        if (chunk != null) {
+            return chunk.getBlock(ChunkMath.calcBlockPosX(x), ChunkMath.calcBlockPosY(y), ChunkMath.calcBlockPosZ(z));
+        }
+        return null;
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.propagation;
+
+import java.util.Arrays;
+
+/**
+ * An insertion ordered set of block positions, packed into longs.
+ * <br><br>
+ * Behaves like the {@code LinkedHashSet<Vector3i>} it replaces in the propagators: adding a contained position keeps
+ * its place, removing and re-adding it moves it to the end. Positions are kept in a list in insertion order, an open
+ * addressing table (linear probing, no tombstones) maps each contained position to its list index. Removed entries
+ * stay in the list, flagged, until the queue gets cleared.
+ * <br><br>
+ * Positions are packed with 24 bits for x and z and 16 bits for y.
+ */
+final class PositionQueue {
+    static final int MIN_XZ = -(1 << 23);
+    static final int MAX_XZ = (1 << 23) - 1;
+    static final int MIN_Y = Short.MIN_VALUE;
+    static final int MAX_Y = Short.MAX_VALUE;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+    private int count;
+    private int liveCount;
+
+    /* Table slots hold list index + 1, 0 marks an empty slot */
+    private long[] tableKeys = new long[INITIAL_CAPACITY * 2];
+    private int[] tableIndices = new int[INITIAL_CAPACITY * 2];
+    private int tableShift = 64 - Integer.numberOfTrailingZeros(INITIAL_CAPACITY * 2);
+
+    static long pack(int x, int y, int z) {
+        if (x < MIN_XZ || x > MAX_XZ || y < MIN_Y || y > MAX_Y || z < MIN_XZ || z > MAX_XZ) {
+            throw new IllegalArgumentException("Position out of the range supported by propagation: (" + x + ", " + y + ", " + z + ")");
+        }
+        return ((long) x << 40) | ((long) (y & 0xFFFF) << 24) | (z & 0xFFFFFFL);
+    }
+
+    static int unpackX(long position) {
+        return (int) (position >> 40);
+    }
+
+    static int unpackY(long position) {
+        return (short) (position >>> 24);
+    }
+
+    static int unpackZ(long position) {
+        return ((int) position << 8) >> 8;
+    }
+
+    /**
+     * @return false if the position was already contained
+     */
+    boolean add(long position) {
+        int slot = findSlot(position);
+        if (tableIndices[slot] != 0) {
+            return false;
+        }
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+            removed = Arrays.copyOf(removed, count * 2);
+        }
+        positions[count] = position;
+        removed[count] = false;
+        count++;
+        liveCount++;
+        tableKeys[slot] = position;
+        tableIndices[slot] = count;
+        if (liveCount * 2 > tableIndices.length) {
+            rehash(tableIndices.length * 2);
+        }
+        return true;
+    }
+
+    boolean remove(long position) {
+        int slot = findSlot(position);
+        if (tableIndices[slot] == 0) {
+            return false;
+        }
+        removed[tableIndices[slot] - 1] = true;
+        liveCount--;
+        deleteSlot(slot);
+        return true;
+    }
+
+    boolean contains(long position) {
+        return tableIndices[findSlot(position)] != 0;
+    }
+
+    boolean isEmpty() {
+        return liveCount == 0;
+    }
+
+    /**
+     * @return the number of contained positions
+     */
+    int size() {
+        return liveCount;
+    }
+
+    /**
+     * @return the number of list entries, including removed ones. Valid indices for {@link #get} and
+     * {@link #isRemoved} are below this.
+     */
+    int entryCount() {
+        return count;
+    }
+
+    long get(int index) {
+        return positions[index];
+    }
+
+    boolean isRemoved(int index) {
+        return removed[index];
+    }
+
+    /**
+     * Empties the queue in time proportional to the number of contained positions rather than its capacity.
+     */
+    void clear() {
+        for (int i = 0; i < count && liveCount > 0; i++) {
+            if (!removed[i]) {
+                deleteSlot(findSlot(positions[i]));
+                liveCount--;
+            }
+        }
+        count = 0;
+        liveCount = 0;
+    }
+
+    private int findSlot(long position) {
+        int mask = tableIndices.length - 1;
+        int slot = (int) ((position * 0x9E3779B97F4A7C15L) >>> tableShift);
+        while (tableIndices[slot] != 0 && tableKeys[slot] != position) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties the slot and moves later entries of the probe sequence back, so lookups never have to skip deleted slots.
+     */
+    private void deleteSlot(int slot) {
+        int mask = tableIndices.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (tableIndices[next] != 0) {
+            int home = (int) ((tableKeys[next] * 0x9E3779B97F4A7C15L) >>> tableShift);
+            // Move the entry into the gap unless its home slot lies cyclically within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                tableKeys[gap] = tableKeys[next];
+                tableIndices[gap] = tableIndices[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        tableIndices[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = tableKeys;
+        int[] oldIndices = tableIndices;
+        tableKeys = new long[capacity];
+        tableIndices = new int[capacity];
+        tableShift = 64 - Integer.numberOfTrailingZeros(capacity);
+        for (int i = 0; i < oldIndices.length; i++) {
+            if (oldIndices[i] != 0) {
+                int slot = findSlot(oldKeys[i]);
+                tableKeys[slot] = oldKeys[i];
+                tableIndices[slot] = oldIndices[i];
+            }
+        }
+    }
+}
@@ -33,6 +33,13 @@ public interface PropagationRules {
      */
     byte getFixedValue(Block block, Vector3i pos);
 
+    /**
+     * See {@link #getFixedValue(Block, Vector3i)}
+     */
+    default byte getFixedValue(Block block, int x, int y, int z) {
+        return getFixedValue(block, new Vector3i(x, y, z));
+    }
+
     /**
      * Compare the how the propagation changes if you replace the block with a different one, on a given side
      *
@@ -105,4 +112,11 @@ public interface PropagationRules {
      * @param value The value to set to
      */
     void setValue(LitChunk chunk, Vector3i pos, byte value);
+
+    /**
+     * See {@link #setValue(LitChunk, Vector3i, byte)}
+     */
+    default void setValue(LitChunk chunk, int x, int y, int z, byte value) {
+        setValue(chunk, new Vector3i(x, y, z), value);
+    }
 }
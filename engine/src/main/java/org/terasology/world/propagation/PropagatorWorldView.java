@@ -40,4 +40,26 @@ public interface PropagatorWorldView {
      */
     Block getBlockAt(Vector3i pos);
 
+    /**
+     * Equivalent to {@link #getValueAt(Vector3i)}. Views should override the int coordinate methods, the propagators
+     * use them to avoid allocating a position per visited block.
+     */
+    default byte getValueAt(int x, int y, int z) {
+        return getValueAt(new Vector3i(x, y, z));
+    }
+
+    /**
+     * Equivalent to {@link #setValueAt(Vector3i, byte)}
+     */
+    default void setValueAt(int x, int y, int z, byte value) {
+        setValueAt(new Vector3i(x, y, z), value);
+    }
+
+    /**
+     * Equivalent to {@link #getBlockAt(Vector3i)}
+     */
+    default Block getBlockAt(int x, int y, int z) {
+        return getBlockAt(new Vector3i(x, y, z));
+    }
+
 }
@@ -53,4 +53,25 @@ public Block getBlockAt(Vector3i pos) {
         }
         return null;
     }
+
+    @Override
+    public byte getValueAt(int x, int y, int z) {
+        if (ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            return rules.getValue(chunk, x, y, z);
+        }
+        return UNAVAILABLE;
+    }
+
+    @Override
+    public void setValueAt(int x, int y, int z, byte value) {
+        rules.setValue(chunk, x, y, z, value);
+    }
+
+    @Override
+    public Block getBlockAt(int x, int y, int z) {
+        if (ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+            return chunk.getBlock(x, y, z);
+        }
+        return null;
+    }
 }
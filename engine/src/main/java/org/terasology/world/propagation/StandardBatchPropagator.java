@@ -16,7 +16,6 @@
 package org.terasology.world.propagation;
 
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import org.terasology.math.ChunkMath;
 import org.terasology.math.Region3i;
 import org.terasology.math.Side;
@@ -27,28 +26,51 @@
 
 import java.util.Arrays;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Batch propagator that works on a set of changed blocks
  * Works for a single given propagation ruleset
+ * <p>
+ * Positions are queued packed into longs (see {@link PositionQueue}) and the world is accessed with int coordinates,
+ * so propagating does not allocate per visited block. The queues keep the insertion order and duplicate handling of
+ * linked hash sets, which keeps the results identical to the earlier {@code Set<Vector3i>} based implementation.
  */
 public class StandardBatchPropagator implements BatchPropagator {
 
     private static final byte NO_VALUE = 0;
 
+    /* Iterated in the order of Side.getAllSides() */
+    private static final Side[] SIDES = Side.getAllSides().toArray(new Side[0]);
+    private static final Side[] REVERSE_SIDES = new Side[SIDES.length];
+    private static final int[] SIDE_X = new int[SIDES.length];
+    private static final int[] SIDE_Y = new int[SIDES.length];
+    private static final int[] SIDE_Z = new int[SIDES.length];
+
+    static {
+        for (int i = 0; i < SIDES.length; i++) {
+            REVERSE_SIDES[i] = SIDES[i].reverse();
+            SIDE_X[i] = SIDES[i].getVector3i().x;
+            SIDE_Y[i] = SIDES[i].getVector3i().y;
+            SIDE_Z[i] = SIDES[i].getVector3i().z;
+        }
+    }
+
     private PropagationRules rules;
     private PropagatorWorldView world;
+    private final byte maxValue;
 
     /* Queues are stored in reverse order. Ie, strongest light is 0. */
-    private Set<Vector3i>[] reduceQueues;
-    private Set<Vector3i>[] increaseQueues;
+    private PositionQueue[] reduceQueues;
+    private PositionQueue[] increaseQueues;
+    /* Takes new entries of a level while the previous entries of that level get processed */
+    private PositionQueue spareQueue = new PositionQueue();
 
     private Map<Side, Vector3i> chunkEdgeDeltas = Maps.newEnumMap(Side.class);
 
     public StandardBatchPropagator(PropagationRules rules, PropagatorWorldView world) {
         this.world = world;
         this.rules = rules;
+        this.maxValue = rules.getMaxValue();
 
         for (Side side : Side.getAllSides()) {
             Vector3i delta = new Vector3i(side.getVector3i());
@@ -70,11 +92,11 @@ public StandardBatchPropagator(PropagationRules rules, PropagatorWorldView world
             chunkEdgeDeltas.put(side, delta);
         }
 
-        increaseQueues = new Set[rules.getMaxValue()];
-        reduceQueues = new Set[rules.getMaxValue()];
-        for (int i = 0; i < rules.getMaxValue(); ++i) {
-            increaseQueues[i] = Sets.newLinkedHashSet();
-            reduceQueues[i] = Sets.newLinkedHashSet();
+        increaseQueues = new PositionQueue[maxValue];
+        reduceQueues = new PositionQueue[maxValue];
+        for (int i = 0; i < maxValue; ++i) {
+            increaseQueues[i] = new PositionQueue();
+            reduceQueues[i] = new PositionQueue();
         }
 
     }
@@ -101,44 +123,50 @@ public void process(Iterable<BlockChange> blockChanges) {
      * @param blockChange The change that was made
      */
     private void reviewChange(BlockChange blockChange) {
-        byte newValue = rules.getFixedValue(blockChange.getTo(), blockChange.getPosition());
-        byte existingValue = world.getValueAt(blockChange.getPosition());
+        Vector3i pos = blockChange.getPosition();
+        int x = pos.x;
+        int y = pos.y;
+        int z = pos.z;
+        byte newValue = rules.getFixedValue(blockChange.getTo(), x, y, z);
+        byte existingValue = world.getValueAt(x, y, z);
 
         /* Handle if the block has an higher fixed value */
         if (newValue > existingValue) {
-            increase(blockChange.getPosition(), newValue);
+            increase(x, y, z, newValue);
         }
 
         /* Handle if the block has a lower fixed value */
-        byte oldValue = rules.getFixedValue(blockChange.getFrom(), blockChange.getPosition());
+        byte oldValue = rules.getFixedValue(blockChange.getFrom(), x, y, z);
         if (newValue < oldValue) {
-            reduce(blockChange.getPosition(), oldValue);
+            reduce(x, y, z, oldValue);
         }
 
         /* Process propagation out to other blocks */
-        for (Side side : Side.getAllSides()) {
+        for (int i = 0; i < SIDES.length; i++) {
+            Side side = SIDES[i];
             PropagationComparison comparison = rules.comparePropagation(blockChange.getTo(), blockChange.getFrom(), side);
+            int adjX = x + SIDE_X[i];
+            int adjY = y + SIDE_Y[i];
+            int adjZ = z + SIDE_Z[i];
 
             if (comparison.isRestricting() && existingValue > 0) {
                 /* If the propagation of the new value is going to be lower/reduced */
-                reduce(blockChange.getPosition(), existingValue);
-                Vector3i adjPos = side.getAdjacentPos(blockChange.getPosition());
-                byte adjValue = world.getValueAt(adjPos);
+                reduce(x, y, z, existingValue);
+                byte adjValue = world.getValueAt(adjX, adjY, adjZ);
                 if (adjValue == rules.propagateValue(existingValue, side, blockChange.getFrom())) {
-                    reduce(adjPos, adjValue);
+                    reduce(adjX, adjY, adjZ, adjValue);
                 }
 
             } else if (comparison.isPermitting()) {
                 /* If the propagation of the new value is going to be more allowing */
                 if (existingValue > 0) {
                     /* Spread this potentially higher value out */
-                    queueSpreadValue(blockChange.getPosition(), existingValue);
+                    queueSpreadValue(x, y, z, existingValue);
                 }
                 /* Spread it out to the block on the side */
-                Vector3i adjPos = side.getAdjacentPos(blockChange.getPosition());
-                byte adjValue = world.getValueAt(adjPos);
+                byte adjValue = world.getValueAt(adjX, adjY, adjZ);
                 if (adjValue != PropagatorWorldView.UNAVAILABLE) {
-                    queueSpreadValue(adjPos, adjValue);
+                    queueSpreadValue(adjX, adjY, adjZ, adjValue);
                 }
             }
         }
@@ -148,35 +176,40 @@ private void reviewChange(BlockChange blockChange) {
     /**
      * Reset a position to only it's fixed values
      *
-     * @param pos      The position to reset
+     * @param x        The x coordinate of the position to reset
+     * @param y        The y coordinate of the position to reset
+     * @param z        The z coordinate of the position to reset
      * @param oldValue The value present before reset
      */
-    private void purge(Vector3i pos, byte oldValue) {
-        increaseQueues[rules.getMaxValue() - oldValue].remove(pos);
+    private void purge(int x, int y, int z, byte oldValue) {
+        increaseQueues[maxValue - oldValue].remove(PositionQueue.pack(x, y, z));
 
         /* Clear the value and re-propagate it if it's a positive value */
-        Block block = world.getBlockAt(pos);
-        byte fixedValue = rules.getFixedValue(block, pos);
+        Block block = world.getBlockAt(x, y, z);
+        byte fixedValue = rules.getFixedValue(block, x, y, z);
         if (fixedValue > 0) {
-            increase(pos, fixedValue);
+            increase(x, y, z, fixedValue);
         } else {
-            world.setValueAt(pos, NO_VALUE);
+            world.setValueAt(x, y, z, NO_VALUE);
         }
 
 
-        for (Side side : Side.getAllSides()) {
+        for (int i = 0; i < SIDES.length; i++) {
+            Side side = SIDES[i];
             /* Handle this value being reset to the default by updating sides as needed */
             byte expectedValue = rules.propagateValue(oldValue, side, block);
-            Vector3i adjPos = side.getAdjacentPos(pos);
             if (rules.canSpreadOutOf(block, side)) {
-                byte adjValue = world.getValueAt(adjPos);
+                int adjX = x + SIDE_X[i];
+                int adjY = y + SIDE_Y[i];
+                int adjZ = z + SIDE_Z[i];
+                byte adjValue = world.getValueAt(adjX, adjY, adjZ);
                 if (adjValue == expectedValue) {
-                    Block adjBlock = world.getBlockAt(adjPos);
-                    if (rules.canSpreadInto(adjBlock, side.reverse())) {
-                        reduce(adjPos, expectedValue);
+                    Block adjBlock = world.getBlockAt(adjX, adjY, adjZ);
+                    if (rules.canSpreadInto(adjBlock, REVERSE_SIDES[i])) {
+                        reduce(adjX, adjY, adjZ, expectedValue);
                     }
                 } else if (adjValue > 0) {
-                    queueSpreadValue(adjPos, adjValue);
+                    queueSpreadValue(adjX, adjY, adjZ, adjValue);
                 }
             }
         }
@@ -187,17 +220,22 @@ private void purge(Vector3i pos, byte oldValue) {
      * This is done from the largest value through the smallest.
      */
     private void processReduction() {
-        for (int depth = 0; depth < rules.getMaxValue(); depth++) {
-            byte oldValue = (byte) (rules.getMaxValue() - depth);
+        for (int depth = 0; depth < maxValue; depth++) {
+            byte oldValue = (byte) (maxValue - depth);
 
             while (!reduceQueues[depth].isEmpty()) {
-                Set<Vector3i> toProcess = reduceQueues[depth];
-                reduceQueues[depth] = Sets.newLinkedHashSetWithExpectedSize(toProcess.size());
+                PositionQueue toProcess = reduceQueues[depth];
+                reduceQueues[depth] = spareQueue;
 
                 /* This step will add any new reductions to to the `reduceQueues` set */
-                for (Vector3i pos : toProcess) {
-                    purge(pos, oldValue);
+                for (int i = 0; i < toProcess.entryCount(); i++) {
+                    if (!toProcess.isRemoved(i)) {
+                        long pos = toProcess.get(i);
+                        purge(PositionQueue.unpackX(pos), PositionQueue.unpackY(pos), PositionQueue.unpackZ(pos), oldValue);
+                    }
                 }
+                toProcess.clear();
+                spareQueue = toProcess;
             }
         }
     }
@@ -207,17 +245,22 @@ private void processReduction() {
      * This is done from the strongest through to the weakest.
      */
     private void processIncrease() {
-        for (int depth = 0; depth < rules.getMaxValue() - 1; depth++) {
-            byte value = (byte) (rules.getMaxValue() - depth);
+        for (int depth = 0; depth < maxValue - 1; depth++) {
+            byte value = (byte) (maxValue - depth);
 
             while (!increaseQueues[depth].isEmpty()) {
-                Set<Vector3i> toProcess = increaseQueues[depth];
-                increaseQueues[depth] = Sets.newLinkedHashSetWithExpectedSize(toProcess.size());
+                PositionQueue toProcess = increaseQueues[depth];
+                increaseQueues[depth] = spareQueue;
 
                 /* This step will add any new values to `increaseQueues` */
-                for (Vector3i pos : toProcess) {
-                    push(pos, value);
+                for (int i = 0; i < toProcess.entryCount(); i++) {
+                    if (!toProcess.isRemoved(i)) {
+                        long pos = toProcess.get(i);
+                        push(PositionQueue.unpackX(pos), PositionQueue.unpackY(pos), PositionQueue.unpackZ(pos), value);
+                    }
                 }
+                toProcess.clear();
+                spareQueue = toProcess;
             }
         }
 
@@ -229,23 +272,28 @@ private void processIncrease() {
      * If the value spreading into a block is larger than the current value there, set it and queue it for propagating again
      * If the value is smaller than the current value, do nothing
      *
-     * @param pos   The initial position
+     * @param x     The x coordinate of the initial position
+     * @param y     The y coordinate of the initial position
+     * @param z     The z coordinate of the initial position
      * @param value The value to propagate
      */
-    private void push(Vector3i pos, byte value) {
-        Block block = world.getBlockAt(pos);
-        for (Side side : Side.getAllSides()) {
+    private void push(int x, int y, int z, byte value) {
+        Block block = world.getBlockAt(x, y, z);
+        for (int i = 0; i < SIDES.length; i++) {
+            Side side = SIDES[i];
             byte propagatedValue = rules.propagateValue(value, side, block);
 
             if (rules.canSpreadOutOf(block, side)) {
-                Vector3i adjPos = side.getAdjacentPos(pos);
-                byte adjValue = world.getValueAt(adjPos);
+                int adjX = x + SIDE_X[i];
+                int adjY = y + SIDE_Y[i];
+                int adjZ = z + SIDE_Z[i];
+                byte adjValue = world.getValueAt(adjX, adjY, adjZ);
 
                 if (adjValue < propagatedValue && adjValue != PropagatorWorldView.UNAVAILABLE) {
-                    Block adjBlock = world.getBlockAt(adjPos);
+                    Block adjBlock = world.getBlockAt(adjX, adjY, adjZ);
 
-                    if (rules.canSpreadInto(adjBlock, side.reverse())) {
-                        increase(adjPos, propagatedValue);
+                    if (rules.canSpreadInto(adjBlock, REVERSE_SIDES[i])) {
+                        increase(adjX, adjY, adjZ, propagatedValue);
                     }
                 }
             }
@@ -258,23 +306,21 @@ private void push(Vector3i pos, byte value) {
      * <p>
      * Queues up this new higher value to be propagated out
      *
-     * @param position The position to set at
-     * @param value    The value to set the position to
+     * @param value The value to set the position to
      */
-    private void increase(Vector3i position, byte value) {
-        world.setValueAt(position, value);
-        queueSpreadValue(position, value);
+    private void increase(int x, int y, int z, byte value) {
+        world.setValueAt(x, y, z, value);
+        queueSpreadValue(x, y, z, value);
     }
 
     /**
      * Set the value at the position as having been lowered to a smaller value
      *
-     * @param position The position to set at
      * @param oldValue The original value at the position
      */
-    private void reduce(Vector3i position, byte oldValue) {
+    private void reduce(int x, int y, int z, byte oldValue) {
         if (oldValue > 0) {
-            reduceQueues[rules.getMaxValue() - oldValue].add(position);
+            reduceQueues[maxValue - oldValue].add(PositionQueue.pack(x, y, z));
         }
     }
 
@@ -282,12 +328,11 @@ private void reduce(Vector3i position, byte oldValue) {
      * Queues up a propagation from a given position.
      * Propagation is placed into a queue for the given level.
      *
-     * @param position The position to propagate form
-     * @param value    The value to propagate out
+     * @param value The value to propagate out
      */
-    private void queueSpreadValue(Vector3i position, byte value) {
+    private void queueSpreadValue(int x, int y, int z, byte value) {
         if (value > 1) {
-            increaseQueues[rules.getMaxValue() - value].add(position);
+            increaseQueues[maxValue - value].add(PositionQueue.pack(x, y, z));
         }
     }
 
@@ -295,7 +340,7 @@ private void queueSpreadValue(Vector3i position, byte value) {
      * Clears all the queues and cleans up the object
      */
     private void cleanUp() {
-        for (Set<Vector3i> queue : increaseQueues) {
+        for (PositionQueue queue : increaseQueues) {
             queue.clear();
         }
     }
@@ -342,7 +387,8 @@ private void propagateDepth(LitChunk adjChunk, Side side, boolean propagateExter
                 adjPos.add(chunkEdgeDeltas.get(side));
                 byte value = rules.getValue(adjChunk, adjPos);
                 if (value > 1) {
-                    queueSpreadValue(adjChunk.chunkToWorldPosition(adjPos), value);
+                    Vector3i worldPos = adjChunk.chunkToWorldPosition(adjPos);
+                    queueSpreadValue(worldPos.x, worldPos.y, worldPos.z, value);
                 }
             }
         }
@@ -436,17 +482,17 @@ public int getIndexFor(int x, int y, int z) {
 
     @Override
     public void propagateFrom(Vector3i pos, Block block) {
-        queueSpreadValue(pos, rules.getFixedValue(block, pos));
+        queueSpreadValue(pos.x, pos.y, pos.z, rules.getFixedValue(block, pos));
     }
 
     @Override
     public void propagateFrom(Vector3i pos, byte value) {
-        queueSpreadValue(pos, value);
+        queueSpreadValue(pos.x, pos.y, pos.z, value);
     }
 
     @Override
     public void regenerate(Vector3i pos, byte value) {
-        reduce(pos, value);
+        reduce(pos.x, pos.y, pos.z, value);
     }
 
     private interface IndexProvider {
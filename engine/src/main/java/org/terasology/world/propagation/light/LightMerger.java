@@ -16,14 +16,22 @@
 package org.terasology.world.propagation.light;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.math.Side;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.monitoring.chunk.ChunkMonitor;
+import org.terasology.utilities.concurrency.TaskMaster;
 import org.terasology.world.chunks.Chunk;
 import org.terasology.world.chunks.LitChunk;
 import org.terasology.world.chunks.internal.GeneratingChunkProvider;
+import org.terasology.world.chunks.pipeline.AbstractChunkTask;
+import org.terasology.world.chunks.pipeline.ChunkProcessingStage;
+import org.terasology.world.chunks.pipeline.ChunkTask;
+import org.terasology.world.chunks.pipeline.ShutdownChunkTask;
 import org.terasology.world.propagation.BatchPropagator;
 import org.terasology.world.propagation.LocalChunkView;
 import org.terasology.world.propagation.PropagationRules;
@@ -31,24 +39,50 @@
 import org.terasology.world.propagation.StandardBatchPropagator;
 import org.terasology.world.propagation.SunlightRegenBatchPropagator;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * Merges the light of chunks with the light of their neighbours, on several threads at once.
+ * <br><br>
+ * Merging a chunk reads and writes the light of the chunk and of all 26 chunks around it, so two merges may only run at
+ * the same time if those neighbourhoods do not overlap. Merges that would conflict with a merge in progress are held
+ * back until it has finished; the others are handed to the merge stage right away.
+ *
+ * @param <T> data that gets returned by {@link #completeMerge()} once the merge of the chunk it belongs to is done
+ */
 public class LightMerger<T> {
     private static final int CENTER_INDEX = 13;
+    private static final int DEFAULT_THREADS = 2;
+    /**
+     * Chunks closer than this on every axis share a neighbour, so they must not be merged at the same time.
+     */
+    private static final int CONFLICT_DISTANCE = 3;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
 
     private static final Logger logger = LoggerFactory.getLogger(LightMerger.class);
 
-    private ExecutorService executorService = Executors.newSingleThreadExecutor();
-    private BlockingQueue<T> results = Queues.newLinkedBlockingQueue();
+    private final BlockingQueue<T> results = Queues.newLinkedBlockingQueue();
+    private final Consumer<ChunkTask> mergeStage;
+    /**
+     * The task master running the merges if no merge stage got passed in, null otherwise.
+     */
+    private final TaskMaster<ChunkTask> ownTaskMaster;
+
+    /**
+     * Merges that wait for a conflicting merge to finish, in the order they got requested. Guarded by this.
+     */
+    private final Map<Vector3i, PendingMerge> waitingMerges = Maps.newLinkedHashMap();
+    /**
+     * Positions of the chunks whose merge got handed to the merge stage and has not finished yet. Guarded by this.
+     */
+    private final Set<Vector3i> activeMerges = Sets.newHashSet();
 
     private GeneratingChunkProvider chunkProvider;
     private LightPropagationRules lightRules = new LightPropagationRules();
@@ -56,15 +90,34 @@
 
     private boolean running = true;
 
+    /**
+     * Creates a light merger that runs the merges on threads of its own.
+     */
     public LightMerger(GeneratingChunkProvider chunkProvider) {
         this.chunkProvider = chunkProvider;
+        this.ownTaskMaster = TaskMaster.createFIFOTaskMaster("Light-Merger", DEFAULT_THREADS);
+        this.mergeStage = this::putOnOwnTaskMaster;
+    }
+
+    /**
+     * Creates a light merger that hands its merges to the given stage, e.g. the {@link ChunkProcessingStage#LIGHT_MERGE}
+     * stage of a {@link org.terasology.world.chunks.pipeline.ChunkGenerationPipeline}. The owner of the stage is
+     * responsible for starting and stopping it.
+     */
+    public LightMerger(GeneratingChunkProvider chunkProvider, Consumer<ChunkTask> mergeStage) {
+        this.chunkProvider = chunkProvider;
+        this.ownTaskMaster = null;
+        this.mergeStage = mergeStage;
     }
 
+    /**
+     * Must only be called once all 26 neighbours of the chunk are available.
+     */
     public void beginMerge(final Chunk chunk, final T data) {
-        executorService.submit(() -> {
-            merge(chunk);
-            results.add(data);
-        });
+        synchronized (this) {
+            waitingMerges.put(chunk.getPosition(), new PendingMerge(chunk, data));
+        }
+        dispatchMerges();
     }
 
     public List<T> completeMerge() {
@@ -76,6 +129,58 @@ public List<T> completeMerge() {
         return Collections.emptyList();
     }
 
+    /**
+     * Hands all waiting merges that do not conflict with a merge in progress to the merge stage.
+     */
+    private void dispatchMerges() {
+        List<PendingMerge> mergesToStart = Lists.newArrayList();
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            Iterator<PendingMerge> iterator = waitingMerges.values().iterator();
+            while (iterator.hasNext()) {
+                PendingMerge merge = iterator.next();
+                Vector3i pos = merge.getPosition();
+                if (!conflictsWithActiveMerge(pos)) {
+                    iterator.remove();
+                    activeMerges.add(pos);
+                    mergesToStart.add(merge);
+                }
+            }
+        }
+        mergesToStart.forEach(mergeStage);
+    }
+
+    /**
+     * Must be called while holding the lock of this object.
+     */
+    private boolean conflictsWithActiveMerge(Vector3i pos) {
+        for (Vector3i activePos : activeMerges) {
+            if (Math.abs(activePos.x - pos.x) < CONFLICT_DISTANCE && Math.abs(activePos.y - pos.y) < CONFLICT_DISTANCE
+                    && Math.abs(activePos.z - pos.z) < CONFLICT_DISTANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void releaseMerge(PendingMerge merge) {
+        synchronized (this) {
+            activeMerges.remove(merge.getPosition());
+            notifyAll();
+        }
+        dispatchMerges();
+    }
+
+    private void putOnOwnTaskMaster(ChunkTask task) {
+        try {
+            ownTaskMaster.put(task);
+        } catch (InterruptedException e) {
+            logger.error("Failed to enqueue light merge task {}", task, e);
+        }
+    }
+
     private void merge(Chunk chunk) {
         Chunk[] localChunks = assembleLocalChunks(chunk);
         localChunks[CENTER_INDEX] = chunk;
@@ -130,20 +235,74 @@ private Chunk[] assembleLocalChunks(Chunk chunk) {
         return localChunks;
     }
 
+    /**
+     * Waits for the requested merges to finish and stops handing merges to the merge stage. Must be called before the
+     * merge stage gets shut down.
+     */
     public void shutdown() {
-        running = false;
-        executorService.shutdown();
-        try {
-            executorService.awaitTermination(10, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            logger.error("Failed to shutdown light merge thread in a timely manner");
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        synchronized (this) {
+            try {
+                while (!waitingMerges.isEmpty() || !activeMerges.isEmpty()) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        logger.error("Failed to shutdown light merging in a timely manner");
+                        break;
+                    }
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                logger.error("Interrupted while waiting for light merging to finish");
+                Thread.currentThread().interrupt();
+            }
+            running = false;
+            activeMerges.clear();
+        }
+        if (ownTaskMaster != null) {
+            ownTaskMaster.shutdown(new ShutdownChunkTask(), true);
         }
     }
 
     public void restart() {
-        if (!running) {
-            executorService = Executors.newSingleThreadExecutor();
+        synchronized (this) {
+            if (running) {
+                return;
+            }
             running = true;
         }
+        if (ownTaskMaster != null) {
+            ownTaskMaster.restart();
+        }
+        dispatchMerges();
+    }
+
+    private final class PendingMerge extends AbstractChunkTask {
+        private final Chunk chunk;
+        private final T data;
+        private final long requestTime = System.nanoTime();
+
+        private PendingMerge(Chunk chunk, T data) {
+            super(chunk.getPosition());
+            this.chunk = chunk;
+            this.data = data;
+        }
+
+        @Override
+        public String getName() {
+            return "Merge Light";
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.nanoTime();
+            try {
+                merge(chunk);
+                ChunkMonitor.fireChunkStageCompleted(ChunkProcessingStage.LIGHT_MERGE.getDisplayName(), startTime - requestTime,
+                        System.nanoTime() - startTime);
+                results.add(data);
+            } finally {
+                releaseMerge(this);
+            }
+        }
     }
 }
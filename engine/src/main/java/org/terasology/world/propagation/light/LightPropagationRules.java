@@ -37,6 +37,11 @@ public byte getFixedValue(Block block, Vector3i pos) {
         return block.getLuminance();
     }
 
+    @Override
+    public byte getFixedValue(Block block, int x, int y, int z) {
+        return block.getLuminance();
+    }
+
     /**
      * When the light propagates it's light level reduces by one
      * <p>
@@ -72,5 +77,10 @@ public void setValue(LitChunk chunk, Vector3i pos, byte value) {
         chunk.setLight(pos, value);
     }
 
+    @Override
+    public void setValue(LitChunk chunk, int x, int y, int z, byte value) {
+        chunk.setLight(x, y, z, value);
+    }
+
 
 }
@@ -35,8 +35,18 @@ protected byte getValueAt(LitChunk chunk, Vector3i pos) {
         return chunk.getLight(pos);
     }
 
+    @Override
+    protected byte getValueAt(LitChunk chunk, int x, int y, int z) {
+        return chunk.getLight(x, y, z);
+    }
+
     @Override
     protected void setValueAt(LitChunk chunk, Vector3i pos, byte value) {
         chunk.setLight(pos, value);
     }
+
+    @Override
+    protected void setValueAt(LitChunk chunk, int x, int y, int z, byte value) {
+        chunk.setLight(x, y, z, value);
+    }
 }
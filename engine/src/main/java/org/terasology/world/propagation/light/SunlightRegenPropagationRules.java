@@ -37,6 +37,11 @@ public byte getFixedValue(Block block, Vector3i pos) {
         return 0;
     }
 
+    @Override
+    public byte getFixedValue(Block block, int x, int y, int z) {
+        return 0;
+    }
+
     /**
      * Sunlight goes to zero unless leaving via the bottom face.
      * In that case it increases up until the maximum value in {@link ChunkConstants#MAX_SUNLIGHT_REGEN}
@@ -76,6 +81,11 @@ public void setValue(LitChunk chunk, Vector3i pos, byte value) {
         chunk.setSunlightRegen(pos, value);
     }
 
+    @Override
+    public void setValue(LitChunk chunk, int x, int y, int z, byte value) {
+        chunk.setSunlightRegen(x, y, z, value);
+    }
+
     /**
      * In all non-vertical sides the propagation is unchanged
      * <p>
@@ -36,8 +36,18 @@ protected byte getValueAt(LitChunk chunk, Vector3i pos) {
         return chunk.getSunlightRegen(pos);
     }
 
+    @Override
+    protected byte getValueAt(LitChunk chunk, int x, int y, int z) {
+        return chunk.getSunlightRegen(x, y, z);
+    }
+
     @Override
     protected void setValueAt(LitChunk chunk, Vector3i pos, byte value) {
         chunk.setSunlightRegen(pos, value);
     }
+
+    @Override
+    protected void setValueAt(LitChunk chunk, int x, int y, int z, byte value) {
+        chunk.setSunlightRegen(x, y, z, value);
+    }
 }
@@ -25,7 +25,7 @@ enum BenchmarkType {
     WORLD_PROVIDER_SET_BLOCK("WorldProvider.setBlock", BenchmarkScreen.DEFAULT_ITERATION_COUNT) {
         @Override
         public AbstractBenchmarkInstance createInstance(Context context) {
-            return new BlockPlacementBenchmark(context, false);
+            return new BlockPlacementBenchmark(context, BlockPlacementBenchmark.PlacementMethod.SET_BLOCK);
         }
 
         @Override
@@ -38,7 +38,7 @@ public String getDescription() {
     WORLD_PROVIDER_SET_BLOCKs("WorldProvider.setBlocks", BenchmarkScreen.DEFAULT_ITERATION_COUNT) {
         @Override
         public AbstractBenchmarkInstance createInstance(Context context) {
-            return new BlockPlacementBenchmark(context, true);
+            return new BlockPlacementBenchmark(context, BlockPlacementBenchmark.PlacementMethod.SET_BLOCKS);
         }
 
         @Override
@@ -46,6 +46,19 @@ public String getDescription() {
             return "Uses setBlocks of WorldProvder to replace the chunk (" + BLOCKS_PER_CHUNK + " blocks) above" +
                     " the player one iteration with stone the other iteration with air";
         }
+    },
+
+    WORLD_PROVIDER_BULK_EDIT("WorldProvider.setBlocks(BulkBlockEdit)", BenchmarkScreen.DEFAULT_ITERATION_COUNT) {
+        @Override
+        public AbstractBenchmarkInstance createInstance(Context context) {
+            return new BlockPlacementBenchmark(context, BlockPlacementBenchmark.PlacementMethod.BULK_EDIT);
+        }
+
+        @Override
+        public String getDescription() {
+            return "Uses a BulkBlockEdit fill to replace the chunk (" + BLOCKS_PER_CHUNK + " blocks) above" +
+                    " the player one iteration with stone the other iteration with air";
+        }
     };
 
     private static final int BLOCKS_PER_CHUNK = ChunkConstants.CHUNK_SIZE.x * ChunkConstants.CHUNK_SIZE.y
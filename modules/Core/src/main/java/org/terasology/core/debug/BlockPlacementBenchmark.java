@@ -22,45 +22,52 @@
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.world.BulkBlockEdit;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
 
 /**
- * Can benchmark either {@link WorldProvider#setBlock(Vector3i, Block)} or {@link WorldProvider#setBlocks(Map)}
- * depending on a constructor argument.
+ * Can benchmark either {@link WorldProvider#setBlock(Vector3i, Block)}, {@link WorldProvider#setBlocks(Map)} or
+ * {@link WorldProvider#setBlocks(BulkBlockEdit)} depending on a constructor argument.
  */
 class BlockPlacementBenchmark extends AbstractBenchmarkInstance {
     private final WorldProvider worldProvider;
     private final Region3i region3i;
     private final Block air;
     private final Block stone;
-    private final boolean useSetBlocksInsteadOfSetBlock;
+    private final PlacementMethod placementMethod;
     private Block blockToPlace;
 
-    BlockPlacementBenchmark(Context context, boolean useSetBlocksInsteadOfSetBlock) {
+    BlockPlacementBenchmark(Context context, PlacementMethod placementMethod) {
         this.worldProvider = context.get(org.terasology.world.WorldProvider.class);
         LocalPlayer localPlayer = context.get(LocalPlayer.class);
         this.region3i = BenchmarkScreen.getChunkRegionAbove(localPlayer.getPosition());
         BlockManager blockManager = context.get(BlockManager.class);
         this.stone = blockManager.getBlock("CoreBlocks:Stone");
-        this.useSetBlocksInsteadOfSetBlock = useSetBlocksInsteadOfSetBlock;
+        this.placementMethod = placementMethod;
         this.air = blockManager.getBlock("engine:air");
         blockToPlace = stone;
     }
 
     @Override
     public void runStep() {
-        if (useSetBlocksInsteadOfSetBlock) {
-            Map<Vector3i, Block> blocksToPlace = new HashMap<>();
-            for (Vector3i v : region3i) {
-                blocksToPlace.put(v, blockToPlace);
-            }
-            worldProvider.setBlocks(blocksToPlace);
-        } else {
-            for (Vector3i v : region3i) {
-                worldProvider.setBlock(v, blockToPlace);
-            }
+        switch (placementMethod) {
+            case SET_BLOCKS:
+                Map<Vector3i, Block> blocksToPlace = new HashMap<>();
+                for (Vector3i v : region3i) {
+                    blocksToPlace.put(v, blockToPlace);
+                }
+                worldProvider.setBlocks(blocksToPlace);
+                break;
+            case BULK_EDIT:
+                worldProvider.setBlocks(BulkBlockEdit.fill(region3i, blockToPlace));
+                break;
+            default:
+                for (Vector3i v : region3i) {
+                    worldProvider.setBlock(v, blockToPlace);
+                }
+                break;
         }
         if (blockToPlace == stone) {
             blockToPlace = air;
@@ -68,4 +75,10 @@ public void runStep() {
             blockToPlace = stone;
         }
     }
+
+    enum PlacementMethod {
+        SET_BLOCK,
+        SET_BLOCKS,
+        BULK_EDIT
+    }
 }
@@ -15,8 +15,11 @@
  */
 package org.terasology.core.world.generator.rasterizers;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.terasology.core.world.generator.facets.TreeFacet;
 import org.terasology.core.world.generator.trees.TreeGenerator;
+import org.terasology.core.world.generator.trees.TreeTemplate;
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.BaseVector3i;
 import org.terasology.math.geom.Vector3i;
@@ -30,16 +33,41 @@
 import org.terasology.world.generation.facets.base.SparseFacet3D;
 
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Creates trees based on the {@link TreeGenerator} that is
  * defined by the {@link TreeFacet}.
- *
+ * <br><br>
+ * A tree usually spans multiple chunks. Each tree is generated once as a {@link TreeTemplate}, which is kept in a cache
+ * shared by all generator threads and placed into every chunk the tree touches.
  */
 public class TreeRasterizer implements WorldRasterizer {
 
+    /**
+     * The default number of blocks of all cached templates combined, a few thousand trees.
+     */
+    public static final long DEFAULT_MAX_CACHED_BLOCKS = 1 << 20;
+
+    private final Cache<TemplateKey, TreeTemplate> templates;
+
     private BlockManager blockManager;
 
+    public TreeRasterizer() {
+        this(DEFAULT_MAX_CACHED_BLOCKS);
+    }
+
+    /**
+     * @param maxCachedBlocks the number of blocks of all cached templates combined, 0 disables the cache
+     */
+    public TreeRasterizer(long maxCachedBlocks) {
+        this.templates = CacheBuilder.newBuilder()
+                .maximumWeight(maxCachedBlocks)
+                .weigher((TemplateKey key, TreeTemplate template) -> template.size())
+                .recordStats()
+                .build();
+    }
+
     @Override
     public void initialize() {
         blockManager = CoreRegistry.get(BlockManager.class);
@@ -62,9 +90,38 @@ public void generateChunk(CoreChunk chunk, Region chunkRegion) {
             BaseVector3i pos = entry.getKey();
             TreeGenerator treeGen = entry.getValue();
             int seed = relativeToWorld(facet, pos).hashCode();
-            Random random = new FastRandom(seed);
-            treeGen.generate(blockManager, chunk, random, pos.x(), pos.y(), pos.z());
+            TreeTemplate template = getTemplate(treeGen, seed);
+            if (template != null) {
+                template.stamp(chunk, pos.x(), pos.y(), pos.z());
+            } else {
+                Random random = new FastRandom(seed);
+                treeGen.generate(blockManager, chunk, random, pos.x(), pos.y(), pos.z());
+            }
+        }
+    }
+
+    public long getTemplateHitCount() {
+        return templates.stats().hitCount();
+    }
+
+    public long getTemplateMissCount() {
+        return templates.stats().missCount();
+    }
+
+    /**
+     * @return the template of the tree or null if the generator does not support templates
+     */
+    private TreeTemplate getTemplate(TreeGenerator treeGen, int seed) {
+        TemplateKey key = new TemplateKey(treeGen, seed);
+        TreeTemplate template = templates.getIfPresent(key);
+        if (template == null) {
+            // Threads that miss the same tree at once generate it independently, with the same result
+            template = treeGen.createTemplate(blockManager, new FastRandom(seed));
+            if (template != null) {
+                templates.put(key, template);
+            }
         }
+        return template;
     }
 
     // TODO: JAVA8 - move the two conversion methods from SparseFacet3D to default methods in WorldFacet3D
@@ -78,4 +135,31 @@ protected final Vector3i relativeToWorld(SparseFacet3D facet, BaseVector3i pos)
                 pos.y() - relativeRegion.minY() + worldRegion.minY(),
                 pos.z() - relativeRegion.minZ() + worldRegion.minZ());
     }
+
+    private static final class TemplateKey {
+        private final TreeGenerator generator;
+        private final int seed;
+
+        private TemplateKey(TreeGenerator generator, int seed) {
+            this.generator = generator;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateKey)) {
+                return false;
+            }
+            TemplateKey other = (TemplateKey) o;
+            return generator == other.generator && seed == other.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(generator), seed);
+        }
+    }
 }
@@ -26,7 +26,6 @@
 import org.terasology.utilities.collection.CharSequenceIterator;
 import org.terasology.utilities.random.Random;
 import org.terasology.world.block.Block;
-import org.terasology.world.chunks.CoreChunk;
 
 /**
  * Encapsulates the recursive algorithm for the generation of trees
@@ -43,9 +42,12 @@ public RecursiveTreeGeneratorLSystem(int maxDepth, float angle, Map<Character, L
         this.ruleSet = ruleSet;
     }
 
-    public void recurse(CoreChunk view, Random rand, int posX, int posY, int posZ, float angleOffset,
+    /**
+     * Follows the axiom, adding the blocks it produces to the template relative to the root of the tree.
+     */
+    public void recurse(TreeTemplate.Builder template, Random rand, float angleOffset,
         CharSequenceIterator axiomIterator, Vector3f position, Matrix4f rotation,
-        Block bark, Block leaf, int depth, AbstractTreeGenerator treeGenerator) {
+        Block bark, Block leaf, int depth) {
         Matrix4f tempRotation = new Matrix4f();
         while (axiomIterator.hasNext()) {
             char c = axiomIterator.nextChar();
@@ -54,10 +56,10 @@ public void recurse(CoreChunk view, Random rand, int posX, int posY, int posZ, f
                 case 'F':
                     // Tree trunk
 
-                    treeGenerator.safelySetBlock(view, posX + (int) position.x + 1, posY + (int) position.y, posZ + (int) position.z, bark);
-                    treeGenerator.safelySetBlock(view, posX + (int) position.x - 1, posY + (int) position.y, posZ + (int) position.z, bark);
-                    treeGenerator.safelySetBlock(view, posX + (int) position.x, posY + (int) position.y, posZ + (int) position.z + 1, bark);
-                    treeGenerator.safelySetBlock(view, posX + (int) position.x, posY + (int) position.y, posZ + (int) position.z - 1, bark);
+                    template.setBlock((int) position.x + 1, (int) position.y, (int) position.z, bark);
+                    template.setBlock((int) position.x - 1, (int) position.y, (int) position.z, bark);
+                    template.setBlock((int) position.x, (int) position.y, (int) position.z + 1, bark);
+                    template.setBlock((int) position.x, (int) position.y, (int) position.z - 1, bark);
 
                     // Generate leaves
                     if (depth > 1) {
@@ -70,10 +72,10 @@ public void recurse(CoreChunk view, Random rand, int posX, int posY, int posZ, f
                                         continue;
                                     }
 
-                                    treeGenerator.safelySetBlock(view, posX + (int) position.x + x + 1, posY + (int) position.y + y, posZ + z + (int) position.z, leaf);
-                                    treeGenerator.safelySetBlock(view, posX + (int) position.x + x - 1, posY + (int) position.y + y, posZ + z + (int) position.z, leaf);
-                                    treeGenerator.safelySetBlock(view, posX + (int) position.x + x, posY + (int) position.y + y, posZ + z + (int) position.z + 1, leaf);
-                                    treeGenerator.safelySetBlock(view, posX + (int) position.x + x, posY + (int) position.y + y, posZ + z + (int) position.z - 1, leaf);
+                                    template.setBlock((int) position.x + x + 1, (int) position.y + y, z + (int) position.z, leaf);
+                                    template.setBlock((int) position.x + x - 1, (int) position.y + y, z + (int) position.z, leaf);
+                                    template.setBlock((int) position.x + x, (int) position.y + y, z + (int) position.z + 1, leaf);
+                                    template.setBlock((int) position.x + x, (int) position.y + y, z + (int) position.z - 1, leaf);
                                 }
                             }
                         }
@@ -85,7 +87,7 @@ public void recurse(CoreChunk view, Random rand, int posX, int posY, int posZ, f
                     position.add(dir);
                     break;
                 case '[':
-                    recurse(view, rand, posX, posY, posZ, angleOffset, axiomIterator, new Vector3f(position), new Matrix4f(rotation), bark, leaf, depth, treeGenerator);
+                    recurse(template, rand, angleOffset, axiomIterator, new Vector3f(position), new Matrix4f(rotation), bark, leaf, depth);
                     break;
                 case ']':
                     return;
@@ -128,8 +130,8 @@ public void recurse(CoreChunk view, Random rand, int posX, int posY, int posZ, f
                         break;
                     }
 
-                    recurse(view, rand, posX, posY, posZ, angleOffset, new CharSequenceIterator(rule.getAxiom()),
-                        position, rotation, bark, leaf, depth + 1, treeGenerator);
+                    recurse(template, rand, angleOffset, new CharSequenceIterator(rule.getAxiom()),
+                        position, rotation, bark, leaf, depth + 1);
             }
         }
     }
@@ -37,4 +37,16 @@ public interface TreeGenerator {
      * @param posZ Relative position on the z-axis (wrt. the chunk)
      */
     void generate(BlockManager blockManager, CoreChunk view, Random rand, int posX, int posY, int posZ);
+
+    /**
+     * Generates a tree as a template that can be placed into every chunk the tree touches. Placing the template at a
+     * position must give the same result as {@link #generate} with a random number generator in the same state.
+     *
+     * @param blockManager the block manager to resolve the block uris
+     * @param rand The random number generator
+     * @return the blocks of the tree or null if the generator does not support templates
+     */
+    default TreeTemplate createTemplate(BlockManager blockManager, Random rand) {
+        return null;
+    }
 }
@@ -35,6 +35,15 @@ public void generate(BlockManager blockManager, CoreChunk view, Random rand, int
         }
     }
 
+    @Override
+    public TreeTemplate createTemplate(BlockManager blockManager, Random rand) {
+        TreeTemplate.Builder template = new TreeTemplate.Builder();
+        for (int y = 0; y < 3; y++) {
+            template.setBlock(0, y, 0, blockManager.getBlock(cactusType));
+        }
+        return template.build();
+    }
+
     public TreeGenerator setTrunkType(BlockUri b) {
         cactusType = b;
         return this;
@@ -60,6 +60,11 @@ public TreeGeneratorLSystem(String initialAxiom, Map<Character, LSystemRule> rul
 
     @Override
     public void generate(BlockManager blockManager, CoreChunk view, Random rand, int posX, int posY, int posZ) {
+        createTemplate(blockManager, rand).stamp(view, posX, posY, posZ);
+    }
+
+    @Override
+    public TreeTemplate createTemplate(BlockManager blockManager, Random rand) {
         Vector3f position = new Vector3f(0f, 0f, 0f);
 
         Matrix4f rotation = new Matrix4f(new Quat4f(new Vector3f(0f, 0f, 1f), (float) Math.PI / 2f), Vector3f.ZERO, 1.0f);
@@ -68,8 +73,10 @@ public void generate(BlockManager blockManager, CoreChunk view, Random rand, int
 
         Block bark = blockManager.getBlock(barkType);
         Block leaf = blockManager.getBlock(leafType);
-        recursiveGenerator.recurse(view, rand, posX, posY, posZ, angleOffset, new CharSequenceIterator(initialAxiom),
-                position, rotation, bark, leaf, 0, this);
+        TreeTemplate.Builder template = new TreeTemplate.Builder();
+        recursiveGenerator.recurse(template, rand, angleOffset, new CharSequenceIterator(initialAxiom),
+                position, rotation, bark, leaf, 0);
+        return template.build();
     }
 
     public TreeGeneratorLSystem setLeafType(BlockUri b) {
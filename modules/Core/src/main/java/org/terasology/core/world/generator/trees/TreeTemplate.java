@@ -0,0 +1,163 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.core.world.generator.trees;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.CoreChunk;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The blocks of a single generated tree, relative to the position it grows from. A template can be placed into all the
+ * chunks the tree touches, so the tree only has to be generated once.
+ * <br><br>
+ * The blocks are stored as relative coordinates and an index into a small palette. Templates are immutable and can be
+ * shared between threads.
+ */
+public final class TreeTemplate {
+
+    private final short[] xs;
+    private final short[] ys;
+    private final short[] zs;
+    private final byte[] blockIndices;
+    private final Block[] palette;
+
+    private final Vector3i min;
+    private final Vector3i max;
+
+    private TreeTemplate(short[] xs, short[] ys, short[] zs, byte[] blockIndices, Block[] palette, Vector3i min, Vector3i max) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.blockIndices = blockIndices;
+        this.palette = palette;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Sets the blocks of the tree that fall into the given chunk, skipping all others.
+     *
+     * @param chunk the chunk to place the tree in
+     * @param posX  Relative position on the x-axis (wrt. the chunk)
+     * @param posY  Relative position on the y-axis (wrt. the chunk)
+     * @param posZ  Relative position on the z-axis (wrt. the chunk)
+     */
+    public void stamp(CoreChunk chunk, int posX, int posY, int posZ) {
+        if (posX + max.x < 0 || posX + min.x >= ChunkConstants.SIZE_X
+                || posY + max.y < 0 || posY + min.y >= ChunkConstants.SIZE_Y
+                || posZ + max.z < 0 || posZ + min.z >= ChunkConstants.SIZE_Z) {
+            return;
+        }
+        for (int i = 0; i < blockIndices.length; i++) {
+            int x = posX + xs[i];
+            int y = posY + ys[i];
+            int z = posZ + zs[i];
+            if (ChunkConstants.CHUNK_REGION.encompasses(x, y, z)) {
+                chunk.setBlock(x, y, z, palette[blockIndices[i]]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of blocks of the tree
+     */
+    public int size() {
+        return blockIndices.length;
+    }
+
+    /**
+     * @return the block at the given relative position or null if the tree does not contain it
+     */
+    public Block getBlock(int x, int y, int z) {
+        for (int i = 0; i < blockIndices.length; i++) {
+            if (xs[i] == x && ys[i] == y && zs[i] == z) {
+                return palette[blockIndices[i]];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the minimum relative position of all blocks, zero if there are none
+     */
+    public Vector3i getMin() {
+        return new Vector3i(min);
+    }
+
+    /**
+     * @return the maximum relative position of all blocks, zero if there are none
+     */
+    public Vector3i getMax() {
+        return new Vector3i(max);
+    }
+
+    /**
+     * Collects the blocks of a tree in the order they get set. A block that gets set multiple times keeps the last
+     * block, just like it would in a chunk.
+     */
+    public static class Builder {
+        private final Map<Vector3i, Block> blocks = Maps.newLinkedHashMap();
+
+        public Builder setBlock(int x, int y, int z, Block block) {
+            Preconditions.checkArgument(x == (short) x && y == (short) y && z == (short) z,
+                    "Position out of range: (%s, %s, %s)", x, y, z);
+            blocks.put(new Vector3i(x, y, z), block);
+            return this;
+        }
+
+        public TreeTemplate build() {
+            int count = blocks.size();
+            short[] xs = new short[count];
+            short[] ys = new short[count];
+            short[] zs = new short[count];
+            byte[] blockIndices = new byte[count];
+            List<Block> palette = Lists.newArrayList();
+            Vector3i min = new Vector3i();
+            Vector3i max = new Vector3i();
+
+            int i = 0;
+            for (Map.Entry<Vector3i, Block> entry : blocks.entrySet()) {
+                Vector3i pos = entry.getKey();
+                int blockIndex = palette.indexOf(entry.getValue());
+                if (blockIndex == -1) {
+                    Preconditions.checkState(palette.size() <= Byte.MAX_VALUE, "Too many different blocks in tree");
+                    blockIndex = palette.size();
+                    palette.add(entry.getValue());
+                }
+                if (i == 0) {
+                    min.set(pos);
+                    max.set(pos);
+                } else {
+                    min.min(pos);
+                    max.max(pos);
+                }
+                xs[i] = (short) pos.x;
+                ys[i] = (short) pos.y;
+                zs[i] = (short) pos.z;
+                blockIndices[i] = (byte) blockIndex;
+                i++;
+            }
+            return new TreeTemplate(xs, ys, zs, blockIndices, palette.toArray(new Block[0]), min, max);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator;
+
+import com.google.common.collect.ImmutableList;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.terasology.config.Config;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.context.internal.MockContext;
+import org.terasology.core.world.generator.facets.TreeFacet;
+import org.terasology.core.world.generator.rasterizers.TreeRasterizer;
+import org.terasology.core.world.generator.trees.TreeGenerator;
+import org.terasology.core.world.generator.trees.Trees;
+import org.terasology.math.Region3i;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.utilities.procedural.WhiteNoise;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.generation.Border3D;
+import org.terasology.world.generation.Region;
+import org.terasology.world.generation.WorldFacet;
+
+import java.util.List;
+
+/**
+ * Measures how many chunks of a flat forest per second the {@link TreeRasterizer} fills, with and without its template
+ * cache. The trees are placed with the density and the tree types of the forest biome of the DefaultTreeProvider.
+ * <br><br>
+ * Not a unit test, run its main method.
+ */
+public final class ForestChunkGenerationBenchmark {
+
+    private static final int CHUNKS_PER_AXIS = 8;
+    private static final int ITERATIONS = 10;
+    private static final int GROUND_HEIGHT = 20;
+    private static final float TREE_PROBABILITY = 0.05f;
+
+    /**
+     * The same border as the one the DefaultTreeProvider uses, for the trees of neighbouring chunks.
+     */
+    private static final Border3D TREE_BORDER = new Border3D(0, 32, 13);
+
+    private final List<TreeGenerator> trees = ImmutableList.of(Trees.oakTree(), Trees.pineTree(), Trees.birchTree(), Trees.oakVariationTree());
+    private final float[] treeWeights = {0.25f, 0.10f, 0.10f, 0.25f};
+    private final WhiteNoise placementNoise = new WhiteNoise(42);
+    private final WhiteNoise typeNoise = new WhiteNoise(43);
+
+    private final BlockManager blockManager;
+    private final ExtraBlockDataManager extraDataManager = new ExtraBlockDataManager();
+
+    private long placedBlocks;
+
+    private ForestChunkGenerationBenchmark() {
+        ContextImpl context = new ContextImpl();
+        CoreRegistry.setContext(context);
+        context.put(Config.class, new Config(new MockContext()));
+
+        blockManager = Mockito.mock(BlockManager.class);
+        Block block = new Block();
+        Mockito.when(blockManager.getBlock(ArgumentMatchers.<BlockUri>any())).thenReturn(block);
+        Mockito.when(blockManager.getBlock(ArgumentMatchers.<String>any())).thenReturn(block);
+        context.put(BlockManager.class, blockManager);
+    }
+
+    public static void main(String[] args) {
+        ForestChunkGenerationBenchmark benchmark = new ForestChunkGenerationBenchmark();
+        // Warm up both variants before measuring
+        benchmark.run("Without template cache", 0, 2);
+        benchmark.run("With template cache", TreeRasterizer.DEFAULT_MAX_CACHED_BLOCKS, 2);
+
+        benchmark.run("Without template cache", 0, ITERATIONS);
+        benchmark.run("With template cache", TreeRasterizer.DEFAULT_MAX_CACHED_BLOCKS, ITERATIONS);
+    }
+
+    private void run(String title, long maxCachedBlocks, int iterations) {
+        long chunkCount = 0;
+        placedBlocks = 0;
+        long nanos = 0;
+        TreeRasterizer rasterizer = null;
+        for (int i = 0; i < iterations; i++) {
+            // A fresh rasterizer per iteration, so that every iteration starts with an empty cache
+            rasterizer = new TreeRasterizer(maxCachedBlocks);
+            rasterizer.initialize();
+            for (int x = 0; x < CHUNKS_PER_AXIS; x++) {
+                for (int z = 0; z < CHUNKS_PER_AXIS; z++) {
+                    ChunkImpl chunk = createChunk(x, z);
+                    Region region = createRegion(chunk.getRegion());
+                    long start = System.nanoTime();
+                    rasterizer.generateChunk(chunk, region);
+                    nanos += System.nanoTime() - start;
+                    chunkCount++;
+                }
+            }
+        }
+        System.out.println(String.format("%s: %.1f chunks/s, %d blocks placed, %d template hits, %d template misses (last iteration)",
+                title, chunkCount / (nanos / 1e9), placedBlocks, rasterizer.getTemplateHitCount(), rasterizer.getTemplateMissCount()));
+    }
+
+    private ChunkImpl createChunk(int chunkX, int chunkZ) {
+        return new ChunkImpl(chunkX, 0, chunkZ, blockManager, extraDataManager) {
+            @Override
+            public Block setBlock(int x, int y, int z, Block block) {
+                placedBlocks++;
+                return null;
+            }
+        };
+    }
+
+    private Region createRegion(Region3i chunkRegion) {
+        TreeFacet facet = new TreeFacet(chunkRegion, TREE_BORDER);
+        Region3i worldRegion = facet.getWorldRegion();
+        if (worldRegion.minY() <= GROUND_HEIGHT && GROUND_HEIGHT <= worldRegion.maxY()) {
+            for (int x = worldRegion.minX(); x <= worldRegion.maxX(); x++) {
+                for (int z = worldRegion.minZ(); z <= worldRegion.maxZ(); z++) {
+                    TreeGenerator tree = pickTree(x, z);
+                    if (tree != null) {
+                        facet.setWorld(x, GROUND_HEIGHT, z, tree);
+                    }
+                }
+            }
+        }
+        return new Region() {
+            @Override
+            public <T extends WorldFacet> T getFacet(Class<T> dataType) {
+                return dataType.cast(facet);
+            }
+
+            @Override
+            public Region3i getRegion() {
+                return chunkRegion;
+            }
+        };
+    }
+
+    /**
+     * Decides on the tree of a column based on its world position only, so that neighbouring chunks agree.
+     */
+    private TreeGenerator pickTree(int x, int z) {
+        if ((placementNoise.noise(x, z) + 1) / 2 >= TREE_PROBABILITY) {
+            return null;
+        }
+        float totalWeight = 0;
+        for (float weight : treeWeights) {
+            totalWeight += weight;
+        }
+        float value = (typeNoise.noise(x, z) + 1) / 2 * totalWeight;
+        for (int i = 0; i < trees.size(); i++) {
+            value -= treeWeights[i];
+            if (value < 0) {
+                return trees.get(i);
+            }
+        }
+        return trees.get(trees.size() - 1);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.world.generator;
+
+import com.google.common.collect.Maps;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.terasology.config.Config;
+import org.terasology.context.internal.ContextImpl;
+import org.terasology.context.internal.MockContext;
+import org.terasology.core.world.generator.facets.TreeFacet;
+import org.terasology.core.world.generator.rasterizers.TreeRasterizer;
+import org.terasology.core.world.generator.trees.TreeTemplate;
+import org.terasology.core.world.generator.trees.Trees;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.registry.CoreRegistry;
+import org.terasology.utilities.random.MersenneRandom;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockManager;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.chunks.Chunk;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.world.chunks.internal.ChunkImpl;
+import org.terasology.world.generation.Border3D;
+import org.terasology.world.generation.Region;
+import org.terasology.world.generation.WorldFacet;
+
+import java.util.Map;
+
+public class TreeTemplateTest {
+
+    private BlockManager blockManager;
+    private ExtraBlockDataManager extraDataManager;
+    private Block bark;
+    private Block leaf;
+
+    @Before
+    public void setup() {
+        ContextImpl context = new ContextImpl();
+        CoreRegistry.setContext(context);
+
+        // Needed only as long as #1536 is unresolved
+        context.put(Config.class, new Config(new MockContext()));
+
+        blockManager = Mockito.mock(BlockManager.class);
+        extraDataManager = new ExtraBlockDataManager();
+        bark = Mockito.mock(Block.class);
+        leaf = Mockito.mock(Block.class);
+
+        Mockito.when(blockManager.getBlock(ArgumentMatchers.<BlockUri>any())).thenReturn(leaf);
+        Mockito.when(blockManager.getBlock(new BlockUri("CoreBlocks:OakTrunk"))).thenReturn(bark);
+        Mockito.when(blockManager.getBlock(ArgumentMatchers.<String>any())).thenReturn(leaf);
+
+        context.put(BlockManager.class, blockManager);
+    }
+
+    @Test
+    public void testBuilderKeepsLastBlock() {
+        TreeTemplate template = new TreeTemplate.Builder()
+                .setBlock(0, 0, 0, bark)
+                .setBlock(0, 1, 0, bark)
+                .setBlock(0, 1, 0, leaf)
+                .setBlock(-2, 3, 1, leaf)
+                .build();
+
+        Assert.assertEquals(3, template.size());
+        Assert.assertSame(leaf, template.getBlock(0, 1, 0));
+        Assert.assertNull(template.getBlock(1, 1, 0));
+        Assert.assertEquals(new Vector3i(-2, 0, 0), template.getMin());
+        Assert.assertEquals(new Vector3i(0, 3, 1), template.getMax());
+    }
+
+    @Test
+    public void testStampedChunksCoverTemplateOnce() {
+        TreeTemplate template = Trees.oakTree().createTemplate(blockManager, new MersenneRandom(42));
+        Vector3i root = new Vector3i(ChunkConstants.SIZE_X - 3, 5, 2);
+
+        Map<Vector3i, Block> placed = Maps.newHashMap();
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    Chunk chunk = recordingChunk(x, y, z, placed);
+                    Vector3i relPos = chunk.chunkToWorldPosition(0, 0, 0).sub(root).invert();
+                    template.stamp(chunk, relPos.x, relPos.y, relPos.z);
+                }
+            }
+        }
+
+        Assert.assertEquals(template.size(), placed.size());
+        for (Map.Entry<Vector3i, Block> entry : placed.entrySet()) {
+            Vector3i rel = new Vector3i(entry.getKey()).sub(root);
+            Assert.assertSame(template.getBlock(rel.x, rel.y, rel.z), entry.getValue());
+        }
+    }
+
+    @Test
+    public void testRasterizerReusesTemplateAcrossChunks() {
+        TreeRasterizer rasterizer = new TreeRasterizer();
+        rasterizer.initialize();
+        Vector3i root = new Vector3i(ChunkConstants.SIZE_X - 3, 5, 2);
+
+        Map<Vector3i, Block> placed = Maps.newHashMap();
+        for (int x = 0; x <= 1; x++) {
+            Chunk chunk = recordingChunk(x, 0, 0, placed);
+            TreeFacet facet = new TreeFacet(chunk.getRegion(), new Border3D(0, 32, 13));
+            facet.setWorld(root, Trees.oakTree());
+            rasterizer.generateChunk(chunk, regionOf(chunk.getRegion(), facet));
+        }
+
+        Assert.assertEquals(1, rasterizer.getTemplateMissCount());
+        Assert.assertEquals(1, rasterizer.getTemplateHitCount());
+        Assert.assertTrue(placed.keySet().stream().anyMatch(pos -> pos.x >= ChunkConstants.SIZE_X));
+        Assert.assertTrue(placed.keySet().stream().anyMatch(pos -> pos.x < ChunkConstants.SIZE_X));
+    }
+
+    private Chunk recordingChunk(int x, int y, int z, Map<Vector3i, Block> placed) {
+        return new ChunkImpl(x, y, z, blockManager, extraDataManager) {
+            @Override
+            public Block setBlock(int blockX, int blockY, int blockZ, Block block) {
+                Assert.assertTrue(ChunkConstants.CHUNK_REGION.encompasses(blockX, blockY, blockZ));
+                Assert.assertNull(placed.put(chunkToWorldPosition(blockX, blockY, blockZ), block));
+                return null;
+            }
+        };
+    }
+
+    private static Region regionOf(Region3i region, TreeFacet facet) {
+        return new Region() {
+            @Override
+            public <T extends WorldFacet> T getFacet(Class<T> dataType) {
+                return dataType.cast(facet);
+            }
+
+            @Override
+            public Region3i getRegion() {
+                return region;
+            }
+        };
+    }
+}